@@ -58,6 +58,7 @@ public class DruidStatProperties {
         private String loginUsername;
         private String loginPassword;
         private String resetEnable;
+        private String metricsEnable;
 
         public String getUrlPattern() {
             return urlPattern;
@@ -106,6 +107,14 @@ public class DruidStatProperties {
         public void setResetEnable(String resetEnable) {
             this.resetEnable = resetEnable;
         }
+
+        public String getMetricsEnable() {
+            return metricsEnable;
+        }
+
+        public void setMetricsEnable(String metricsEnable) {
+            this.metricsEnable = metricsEnable;
+        }
     }
 
     public static class WebStatFilter {
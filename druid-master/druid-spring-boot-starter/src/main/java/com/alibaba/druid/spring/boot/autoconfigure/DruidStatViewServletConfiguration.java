@@ -48,6 +48,9 @@ public class DruidStatViewServletConfiguration {
         if (config.getResetEnable() != null) {
             registration.addInitParameter("resetEnable", config.getResetEnable());
         }
+        if (config.getMetricsEnable() != null) {
+            registration.addInitParameter("metricsEnable", config.getMetricsEnable());
+        }
         return registration;
     }
 }
@@ -41,7 +41,7 @@ import com.alibaba.druid.proxy.jdbc.PreparedStatementProxy;
 import com.alibaba.druid.proxy.jdbc.ResultSetProxy;
 import com.alibaba.druid.proxy.jdbc.StatementExecuteType;
 import com.alibaba.druid.proxy.jdbc.StatementProxy;
-import com.alibaba.druid.sql.visitor.ParameterizedOutputVisitorUtils;
+import com.alibaba.druid.sql.SQLUtils;
 import com.alibaba.druid.stat.JdbcConnectionStat;
 import com.alibaba.druid.stat.JdbcDataSourceStat;
 import com.alibaba.druid.stat.JdbcResultSetStat;
@@ -143,7 +143,7 @@ public class StatFilter extends FilterEventAdapter implements StatFilterMBean {
         }
 
         try {
-            sql = ParameterizedOutputVisitorUtils.parameterize(sql, dbType);
+            sql = SQLUtils.getStatementCache().getParameterized(sql, dbType);
         } catch (Exception e) {
             LOG.error("merge sql error, dbType " + dbType + ", sql : " + sql, e);
         }
@@ -38,6 +38,7 @@ import javax.management.ObjectName;
 
 import com.alibaba.druid.mock.handler.MockExecuteHandler;
 import com.alibaba.druid.mock.handler.MySqlMockExecuteHandlerImpl;
+import com.alibaba.druid.mock.table.MockTableStore;
 import com.alibaba.druid.support.logging.Log;
 import com.alibaba.druid.support.logging.LogFactory;
 
@@ -52,6 +53,12 @@ public class MockDriver implements Driver, MockDriverMBean {
 
     private MockExecuteHandler             executeHandler        = DEFAULT_HANDLER;
 
+    // the in-memory tables the statements run against, null if the statements are not executed
+    private volatile MockTableStore        tableStore;
+
+    // the simulated latency, failures and limits of the server, null for none
+    private volatile MockWorkload          workload;
+
     public final static MockDriver         instance              = new MockDriver();
 
     private final AtomicLong               connectCount          = new AtomicLong();
@@ -163,6 +170,22 @@ public class MockDriver implements Driver, MockDriverMBean {
         this.executeHandler = executeHandler;
     }
 
+    public MockTableStore getTableStore() {
+        return tableStore;
+    }
+
+    public void setTableStore(MockTableStore tableStore) {
+        this.tableStore = tableStore;
+    }
+
+    public MockWorkload getWorkload() {
+        return workload;
+    }
+
+    public void setWorkload(MockWorkload workload) {
+        this.workload = workload;
+    }
+
     @Override
     public Connection connect(String url, Properties info) throws SQLException {
         if (!acceptsURL(url)) {
@@ -181,6 +204,11 @@ public class MockDriver implements Driver, MockDriverMBean {
             }
         }
 
+        MockWorkload workload = this.workload;
+        if (workload != null) {
+            workload.beforeConnect();
+        }
+
         MockConnection conn = createMockConnection(this, url, info);
 
         if (getLog().isDebugEnabled()) {
@@ -188,8 +216,7 @@ public class MockDriver implements Driver, MockDriverMBean {
         }
 
         if (url == null) {
-            connectCount.incrementAndGet();
-            connections.add(conn);
+            addConnection(conn);
             return conn;
         }
 
@@ -197,8 +224,7 @@ public class MockDriver implements Driver, MockDriverMBean {
             String catalog = url.substring(prefix.length());
             conn.setCatalog(catalog);
 
-            connectCount.incrementAndGet();
-            connections.add(conn);
+            addConnection(conn);
             return conn;
         }
 
@@ -206,14 +232,27 @@ public class MockDriver implements Driver, MockDriverMBean {
             String catalog = url.substring(mockPrefix.length());
             conn.setCatalog(catalog);
 
-            connectCount.incrementAndGet();
-            connections.add(conn);
+            addConnection(conn);
             return conn;
         }
 
         return null;
     }
 
+    private void addConnection(MockConnection conn) throws SQLException {
+        MockWorkload workload = this.workload;
+        if (workload != null) {
+            // the check and the add of a connect are not interleaved with the other connects
+            synchronized (connections) {
+                workload.checkConnections(connections.size());
+                connections.add(conn);
+            }
+        } else {
+            connections.add(conn);
+        }
+        connectCount.incrementAndGet();
+    }
+
     @Override
     public boolean acceptsURL(String url) throws SQLException {
         if (url == null) {
@@ -263,6 +302,11 @@ public class MockDriver implements Driver, MockDriverMBean {
 
         handleSleep(conn);
 
+        MockWorkload workload = this.workload;
+        if (workload != null) {
+            workload.beforeExecute(conn);
+        }
+
         if ("SELECT value FROM _int_1000_".equalsIgnoreCase(sql)) {
             MockResultSet rs = createMockResultSet(stmt);
 
@@ -273,9 +317,57 @@ public class MockDriver implements Driver, MockDriverMBean {
             return rs;
         }
 
+        MockTableStore tableStore = this.tableStore;
+        if (tableStore != null) {
+            ResultSet rs = tableStore.executeQuery(stmt, sql, parameters(stmt));
+            if (rs != null) {
+                return rs;
+            }
+        }
+
+        if (workload != null && workload.getResultRowCount() >= 0) {
+            MockResultSet rs = createMockResultSet(stmt);
+            workload.fillResultSet(rs);
+            return rs;
+        }
+
         return this.executeHandler.executeQuery(stmt, sql);
     }
 
+    /**
+     * @return the update count of the statement on the table store, 0 if the driver has no table store
+     * @throws SQLException a failure of the workload or of the table store
+     */
+    public int executeUpdate(MockStatementBase stmt, String sql) throws SQLException {
+        beforeExecute(stmt);
+
+        MockTableStore tableStore = this.tableStore;
+        if (tableStore == null) {
+            return 0;
+        }
+        return tableStore.executeUpdate(sql, parameters(stmt));
+    }
+
+    /**
+     * the sleep of the connection and the latency and failures of the workload, without executing the statement
+     */
+    public void beforeExecute(MockStatementBase stmt) throws SQLException {
+        MockConnection conn = stmt.getConnection();
+        handleSleep(conn);
+
+        MockWorkload workload = this.workload;
+        if (workload != null) {
+            workload.beforeExecute(conn);
+        }
+    }
+
+    private static List<Object> parameters(MockStatementBase stmt) {
+        if (stmt instanceof MockPreparedStatement) {
+            return ((MockPreparedStatement) stmt).getParameters();
+        }
+        return null;
+    }
+
     public void handleSleep(MockConnection conn) {
         if (conn != null) {
             conn.handleSleep();
@@ -0,0 +1,126 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.mock;
+
+import java.util.Random;
+
+/**
+ * a distribution of latencies in milliseconds for MockWorkload. the text form is one of
+ * <ul>
+ * <li>"10", always 10 ms</li>
+ * <li>"10~30", uniform between 10 and 30 ms</li>
+ * <li>"normal(20,5)", normal with the mean 20 ms and the standard deviation 5 ms</li>
+ * <li>"exp(20)", exponential with the mean 20 ms, a long tail of slow calls</li>
+ * </ul>
+ */
+public final class MockLatency {
+
+    public enum Distribution {
+        FIXED, UNIFORM, NORMAL, EXPONENTIAL
+    }
+
+    private final Distribution distribution;
+    private final double       a;
+    private final double       b;
+
+    private MockLatency(Distribution distribution, double a, double b){
+        if (a < 0 || b < 0) {
+            throw new IllegalArgumentException("negative latency");
+        }
+        this.distribution = distribution;
+        this.a = a;
+        this.b = b;
+    }
+
+    public static MockLatency fixed(long millis) {
+        return new MockLatency(Distribution.FIXED, millis, 0);
+    }
+
+    public static MockLatency uniform(long minMillis, long maxMillis) {
+        if (maxMillis < minMillis) {
+            throw new IllegalArgumentException("max < min");
+        }
+        return new MockLatency(Distribution.UNIFORM, minMillis, maxMillis);
+    }
+
+    public static MockLatency normal(double meanMillis, double stddevMillis) {
+        return new MockLatency(Distribution.NORMAL, meanMillis, stddevMillis);
+    }
+
+    public static MockLatency exponential(double meanMillis) {
+        return new MockLatency(Distribution.EXPONENTIAL, meanMillis, 0);
+    }
+
+    public static MockLatency parse(String text) {
+        text = text.trim().toLowerCase();
+        try {
+            if (text.startsWith("normal(") && text.endsWith(")")) {
+                String[] items = text.substring("normal(".length(), text.length() - 1).split(",");
+                if (items.length == 2) {
+                    return normal(Double.parseDouble(items[0].trim()), Double.parseDouble(items[1].trim()));
+                }
+            } else if (text.startsWith("exp(") && text.endsWith(")")) {
+                return exponential(Double.parseDouble(text.substring("exp(".length(), text.length() - 1).trim()));
+            } else {
+                int index = text.indexOf('~');
+                if (index != -1) {
+                    return uniform(Long.parseLong(text.substring(0, index).trim()),
+                                   Long.parseLong(text.substring(index + 1).trim()));
+                }
+                return fixed(Long.parseLong(text));
+            }
+        } catch (NumberFormatException ex) {
+            // the error below
+        }
+        throw new IllegalArgumentException("illegal latency : " + text);
+    }
+
+    public Distribution getDistribution() {
+        return distribution;
+    }
+
+    public long nextMillis(Random random) {
+        double millis;
+        switch (distribution) {
+            case UNIFORM:
+                millis = a + random.nextDouble() * (b - a);
+                break;
+            case NORMAL:
+                millis = a + random.nextGaussian() * b;
+                break;
+            case EXPONENTIAL:
+                millis = -a * Math.log(1 - random.nextDouble());
+                break;
+            default:
+                millis = a;
+                break;
+        }
+        return millis <= 0 ? 0 : Math.round(millis);
+    }
+
+    public String toString() {
+        switch (distribution) {
+            case UNIFORM:
+                return (long) a + "~" + (long) b;
+            case NORMAL:
+                return "normal(" + a + "," + b + ")";
+            case EXPONENTIAL:
+                return "exp(" + a + ")";
+            default:
+                return Long.toString((long) a);
+        }
+    }
+}
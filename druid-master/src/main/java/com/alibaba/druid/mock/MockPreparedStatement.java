@@ -61,8 +61,12 @@ public class MockPreparedStatement extends PreparedStatementBase implements Mock
     public int executeUpdate() throws SQLException {
         checkOpen();
 
-        if (getConnection() != null) {
-            getConnection().handleSleep();
+        MockConnection conn = getConnection();
+        if (conn != null) {
+            if (conn.getDriver() != null) {
+                return conn.getDriver().executeUpdate(this, sql);
+            }
+            conn.handleSleep();
         }
 
         return 0;
@@ -72,8 +76,23 @@ public class MockPreparedStatement extends PreparedStatementBase implements Mock
     public boolean execute() throws SQLException {
         checkOpen();
 
-        if (getConnection() != null) {
-            getConnection().handleSleep();
+        MockConnection conn = getConnection();
+        if (conn != null) {
+            MockDriver driver = conn.getDriver();
+            if (driver != null && driver.getTableStore() != null) {
+                if (driver.getTableStore().isQuery(sql)) {
+                    resultSet = driver.executeQuery(this, sql);
+                    return true;
+                }
+                setUpdateCount(driver.executeUpdate(this, sql));
+                return false;
+            }
+
+            if (driver != null) {
+                driver.beforeExecute(this);
+            } else {
+                conn.handleSleep();
+            }
         }
         
         return false;
@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.alibaba.druid.util.jdbc.ResultSetBase;
+import com.alibaba.druid.util.jdbc.ResultSetMetaDataBase.ColumnMetaData;
 
 public class MockResultSet extends ResultSetBase implements ResultSet {
 
@@ -69,6 +70,22 @@ public class MockResultSet extends ResultSetBase implements ResultSet {
         return (MockResultSetMetaData) metaData;
     }
 
+    /**
+     * the column of the label in the metadata, or the index of the label such as "1"
+     */
+    @Override
+    public int findColumn(String columnLabel) throws SQLException {
+        List<ColumnMetaData> columns = getMockMetaData().getColumns();
+        for (int i = 0; i < columns.size(); ++i) {
+            ColumnMetaData column = columns.get(i);
+            if (columnLabel.equalsIgnoreCase(column.getColumnLabel())
+                || columnLabel.equalsIgnoreCase(column.getColumnName())) {
+                return i + 1;
+            }
+        }
+        return super.findColumn(columnLabel);
+    }
+
     public Object getObjectInternal(int columnIndex) {
         Object[] row = rows.get(rowIndex);
         Object obj = row[columnIndex - 1];
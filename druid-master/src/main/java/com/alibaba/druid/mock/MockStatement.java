@@ -71,6 +71,9 @@ public class MockStatement extends StatementBase implements MockStatementBase, S
         checkOpen();
 
         if (mockConnection != null) {
+            if (mockConnection.getDriver() != null) {
+                return mockConnection.getDriver().executeUpdate(this, sql);
+            }
             mockConnection.handleSleep();
         }
 
@@ -87,7 +90,22 @@ public class MockStatement extends StatementBase implements MockStatementBase, S
 
         if (mockConnection != null) {
             mockConnection.setLastSql(sql);
-            mockConnection.handleSleep();
+
+            MockDriver driver = mockConnection.getDriver();
+            if (driver != null && driver.getTableStore() != null) {
+                if (driver.getTableStore().isQuery(sql)) {
+                    resultSet = driver.executeQuery(this, sql);
+                    return true;
+                }
+                setUpdateCount(driver.executeUpdate(this, sql));
+                return false;
+            }
+
+            if (driver != null) {
+                driver.beforeExecute(this);
+            } else {
+                mockConnection.handleSleep();
+            }
         }
 
         return false;
@@ -0,0 +1,376 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.mock;
+
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.druid.util.jdbc.ResultSetMetaDataBase.ColumnMetaData;
+
+/**
+ * a simulated server for MockDriver, so the pool benchmarks see the latency, the failures and the limits of a real
+ * database: the latency of connect and of each statement, a limit of the statements the server executes at the same
+ * time, a limit of the connections, failures injected at a rate, and a result of rows of a size for each query.
+ * <p>
+ * an injected failure is a MockWorkloadException of the sql state 08S01 by default, which MockExceptionSorter, the
+ * ExceptionSorter of mysql and the others take as fatal, and the connection of a failed statement is broken like a
+ * connection the server closed.
+ */
+public class MockWorkload {
+
+    private final Random          random                   = new Random();
+
+    private volatile MockLatency  connectLatency;
+    private volatile MockLatency  queryLatency;
+
+    private volatile double       connectFailureRate;
+    private volatile double       queryFailureRate;
+    private volatile int          failureErrorCode;
+    private volatile String       failureSqlState          = "08S01";
+    private volatile String       failureMessage           = "Communications link failure";
+    private volatile boolean      breakConnectionOnFailure = true;
+
+    private volatile int          maxConnections           = -1;
+    private volatile int          maxConcurrentQueries     = -1;
+    private volatile Semaphore    querySlots;
+
+    private volatile int          resultRowCount           = -1;
+    private volatile int          resultColumnCount        = 1;
+    private volatile int          resultValueSize;
+    private volatile String       resultValue              = "";
+
+    private final AtomicLong      injectedFailureCount     = new AtomicLong();
+    private final AtomicLong      rejectedConnectCount     = new AtomicLong();
+
+    public MockLatency getConnectLatency() {
+        return connectLatency;
+    }
+
+    public void setConnectLatency(MockLatency connectLatency) {
+        this.connectLatency = connectLatency;
+    }
+
+    public MockLatency getQueryLatency() {
+        return queryLatency;
+    }
+
+    public void setQueryLatency(MockLatency queryLatency) {
+        this.queryLatency = queryLatency;
+    }
+
+    public double getConnectFailureRate() {
+        return connectFailureRate;
+    }
+
+    /**
+     * @param connectFailureRate the part of the connects which fail, 0 to 1
+     */
+    public void setConnectFailureRate(double connectFailureRate) {
+        this.connectFailureRate = connectFailureRate;
+    }
+
+    public double getQueryFailureRate() {
+        return queryFailureRate;
+    }
+
+    /**
+     * @param queryFailureRate the part of the statements which fail, 0 to 1
+     */
+    public void setQueryFailureRate(double queryFailureRate) {
+        this.queryFailureRate = queryFailureRate;
+    }
+
+    public int getFailureErrorCode() {
+        return failureErrorCode;
+    }
+
+    public void setFailureErrorCode(int failureErrorCode) {
+        this.failureErrorCode = failureErrorCode;
+    }
+
+    public String getFailureSqlState() {
+        return failureSqlState;
+    }
+
+    public void setFailureSqlState(String failureSqlState) {
+        this.failureSqlState = failureSqlState;
+    }
+
+    public String getFailureMessage() {
+        return failureMessage;
+    }
+
+    public void setFailureMessage(String failureMessage) {
+        this.failureMessage = failureMessage;
+    }
+
+    public boolean isBreakConnectionOnFailure() {
+        return breakConnectionOnFailure;
+    }
+
+    /**
+     * @param breakConnectionOnFailure if true, the connection of a failed statement fails all the calls after it
+     */
+    public void setBreakConnectionOnFailure(boolean breakConnectionOnFailure) {
+        this.breakConnectionOnFailure = breakConnectionOnFailure;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * @param maxConnections the connections the server accepts, a connect over the limit fails with the error 1040 of
+     * mysql. -1 for no limit
+     */
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public int getMaxConcurrentQueries() {
+        return maxConcurrentQueries;
+    }
+
+    /**
+     * @param maxConcurrentQueries the statements the server executes at the same time, the others wait, so the
+     * throughput is at most maxConcurrentQueries / queryLatency. -1 for no limit
+     */
+    public void setMaxConcurrentQueries(int maxConcurrentQueries) {
+        this.maxConcurrentQueries = maxConcurrentQueries;
+        this.querySlots = maxConcurrentQueries < 0 ? null : new Semaphore(maxConcurrentQueries, true);
+    }
+
+    public int getResultRowCount() {
+        return resultRowCount;
+    }
+
+    /**
+     * @param resultRowCount the rows of the result of a query the execute handler would answer, -1 to leave the
+     * queries to the execute handler
+     */
+    public void setResultRowCount(int resultRowCount) {
+        this.resultRowCount = resultRowCount;
+    }
+
+    public int getResultColumnCount() {
+        return resultColumnCount;
+    }
+
+    public void setResultColumnCount(int resultColumnCount) {
+        if (resultColumnCount < 1) {
+            throw new IllegalArgumentException("resultColumnCount < 1");
+        }
+        this.resultColumnCount = resultColumnCount;
+    }
+
+    public int getResultValueSize() {
+        return resultValueSize;
+    }
+
+    /**
+     * @param resultValueSize the length of the string of each column after the first, the first is the row number
+     */
+    public void setResultValueSize(int resultValueSize) {
+        char[] chars = new char[resultValueSize];
+        Arrays.fill(chars, 'x');
+        this.resultValue = new String(chars);
+        this.resultValueSize = resultValueSize;
+    }
+
+    public long getInjectedFailureCount() {
+        return injectedFailureCount.get();
+    }
+
+    public long getRejectedConnectCount() {
+        return rejectedConnectCount.get();
+    }
+
+    /**
+     * the properties druid.mock.connectLatency, druid.mock.queryLatency (see MockLatency),
+     * druid.mock.connectFailureRate, druid.mock.queryFailureRate, druid.mock.failureErrorCode,
+     * druid.mock.failureSqlState, druid.mock.maxConnections, druid.mock.maxConcurrentQueries,
+     * druid.mock.resultRowCount, druid.mock.resultColumnCount and druid.mock.resultValueSize
+     */
+    public void configFromProperties(Properties properties) {
+        String property = properties.getProperty("druid.mock.connectLatency");
+        if (property != null) {
+            setConnectLatency(MockLatency.parse(property));
+        }
+
+        property = properties.getProperty("druid.mock.queryLatency");
+        if (property != null) {
+            setQueryLatency(MockLatency.parse(property));
+        }
+
+        property = properties.getProperty("druid.mock.connectFailureRate");
+        if (property != null) {
+            setConnectFailureRate(Double.parseDouble(property));
+        }
+
+        property = properties.getProperty("druid.mock.queryFailureRate");
+        if (property != null) {
+            setQueryFailureRate(Double.parseDouble(property));
+        }
+
+        property = properties.getProperty("druid.mock.failureErrorCode");
+        if (property != null) {
+            setFailureErrorCode(Integer.parseInt(property));
+        }
+
+        property = properties.getProperty("druid.mock.failureSqlState");
+        if (property != null) {
+            setFailureSqlState(property);
+        }
+
+        property = properties.getProperty("druid.mock.maxConnections");
+        if (property != null) {
+            setMaxConnections(Integer.parseInt(property));
+        }
+
+        property = properties.getProperty("druid.mock.maxConcurrentQueries");
+        if (property != null) {
+            setMaxConcurrentQueries(Integer.parseInt(property));
+        }
+
+        property = properties.getProperty("druid.mock.resultRowCount");
+        if (property != null) {
+            setResultRowCount(Integer.parseInt(property));
+        }
+
+        property = properties.getProperty("druid.mock.resultColumnCount");
+        if (property != null) {
+            setResultColumnCount(Integer.parseInt(property));
+        }
+
+        property = properties.getProperty("druid.mock.resultValueSize");
+        if (property != null) {
+            setResultValueSize(Integer.parseInt(property));
+        }
+    }
+
+    /**
+     * sleep for the connect latency, then fail at the connect failure rate
+     */
+    public void beforeConnect() throws SQLException {
+        sleep(connectLatency);
+
+        if (isFailure(connectFailureRate)) {
+            throw createFailure();
+        }
+    }
+
+    /**
+     * @throws SQLException the error 1040 of mysql if there are maxConnections connections
+     */
+    public void checkConnections(int connectionCount) throws SQLException {
+        int maxConnections = this.maxConnections;
+        if (maxConnections >= 0 && connectionCount >= maxConnections) {
+            rejectedConnectCount.incrementAndGet();
+            throw new MockWorkloadException("Too many connections", "08004", 1040);
+        }
+    }
+
+    /**
+     * wait for a query slot and sleep for the query latency, then fail at the query failure rate. a broken connection
+     * fails at once.
+     */
+    public void beforeExecute(MockConnection conn) throws SQLException {
+        if (conn != null && conn.getError() != null) {
+            throw conn.getError();
+        }
+
+        Semaphore querySlots = this.querySlots;
+        if (querySlots != null) {
+            querySlots.acquireUninterruptibly();
+        }
+        try {
+            sleep(queryLatency);
+        } finally {
+            if (querySlots != null) {
+                querySlots.release();
+            }
+        }
+
+        if (isFailure(queryFailureRate)) {
+            SQLException failure = createFailure();
+            if (breakConnectionOnFailure && conn != null) {
+                conn.setError(failure);
+            }
+            throw failure;
+        }
+    }
+
+    /**
+     * add resultRowCount rows to the result set, the row number and resultColumnCount - 1 strings of resultValueSize
+     */
+    public void fillResultSet(MockResultSet rs) throws SQLException {
+        int columnCount = this.resultColumnCount;
+        String value = this.resultValue;
+
+        List<ColumnMetaData> columns = rs.getMockMetaData().getColumns();
+        for (int i = 0; i < columnCount; ++i) {
+            ColumnMetaData column = new ColumnMetaData();
+            column.setColumnName("c" + (i + 1));
+            column.setColumnLabel("c" + (i + 1));
+            column.setColumnType(i == 0 ? Types.INTEGER : Types.VARCHAR);
+            columns.add(column);
+        }
+
+        for (int row = 0, rowCount = this.resultRowCount; row < rowCount; ++row) {
+            Object[] values = new Object[columnCount];
+            values[0] = row;
+            for (int i = 1; i < columnCount; ++i) {
+                values[i] = value;
+            }
+            rs.getRows().add(values);
+        }
+    }
+
+    private boolean isFailure(double rate) {
+        if (rate <= 0 || random.nextDouble() >= rate) {
+            return false;
+        }
+        injectedFailureCount.incrementAndGet();
+        return true;
+    }
+
+    private SQLException createFailure() {
+        return new MockWorkloadException(failureMessage, failureSqlState, failureErrorCode);
+    }
+
+    private void sleep(MockLatency latency) {
+        if (latency == null) {
+            return;
+        }
+
+        long millis = latency.nextMillis(random);
+        if (millis <= 0) {
+            return;
+        }
+
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
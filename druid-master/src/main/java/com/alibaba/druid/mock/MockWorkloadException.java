@@ -0,0 +1,31 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.mock;
+
+import java.sql.SQLException;
+
+/**
+ * a failure injected or a connect rejected by MockWorkload, MockExceptionSorter takes it as fatal if the sql state is
+ * of the connection exception class 08.
+ */
+public class MockWorkloadException extends SQLException {
+
+    private static final long serialVersionUID = 1L;
+
+    public MockWorkloadException(String reason, String sqlState, int vendorCode){
+        super(reason, sqlState, vendorCode);
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.mock.table;
+
+import java.util.BitSet;
+
+/**
+ * the values of a column. the values are kept in a long[] while they are all integers, so the compiled expressions
+ * compare them without boxing, and in an Object[] after the first null or other value.
+ */
+final class MockColumn {
+
+    final String     name;
+
+    private long[]   longs   = new long[16];
+    private Object[] objects;
+    private int      size;
+
+    MockColumn(String name){
+        this.name = name;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * the values for SQLCompiledExpr.evalBatch, a long[] or an Object[] of at least size elements
+     */
+    Object values() {
+        return objects != null ? objects : longs;
+    }
+
+    Object get(int row) {
+        return objects != null ? objects[row] : (Object) longs[row];
+    }
+
+    void add(Object value) {
+        ensureCapacity(size + 1);
+        size++;
+        set(size - 1, value);
+    }
+
+    void set(int row, Object value) {
+        if (objects == null) {
+            if (isInteger(value)) {
+                longs[row] = ((Number) value).longValue();
+                return;
+            }
+            toObjects();
+        }
+
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            value = ((Number) value).longValue();
+        }
+        objects[row] = value;
+    }
+
+    private static boolean isInteger(Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+
+    private void toObjects() {
+        objects = new Object[longs.length];
+        for (int i = 0; i < size; ++i) {
+            objects[i] = longs[i];
+        }
+        longs = null;
+    }
+
+    private void ensureCapacity(int capacity) {
+        int length = objects != null ? objects.length : longs.length;
+        if (capacity <= length) {
+            return;
+        }
+
+        int newLength = Math.max(capacity, length + (length >> 1));
+        if (objects != null) {
+            Object[] newObjects = new Object[newLength];
+            System.arraycopy(objects, 0, newObjects, 0, size);
+            objects = newObjects;
+        } else {
+            long[] newLongs = new long[newLength];
+            System.arraycopy(longs, 0, newLongs, 0, size);
+            longs = newLongs;
+        }
+    }
+
+    /**
+     * the values of the rows, in the representation of the column
+     */
+    Object gather(int[] rows, int count) {
+        if (objects != null) {
+            Object[] values = new Object[count];
+            for (int i = 0; i < count; ++i) {
+                values[i] = objects[rows[i]];
+            }
+            return values;
+        }
+
+        long[] values = new long[count];
+        for (int i = 0; i < count; ++i) {
+            values[i] = longs[rows[i]];
+        }
+        return values;
+    }
+
+    /**
+     * remove the rows which are set in removed
+     */
+    void remove(BitSet removed) {
+        int to = 0;
+        for (int row = 0; row < size; ++row) {
+            if (removed.get(row)) {
+                continue;
+            }
+            if (objects != null) {
+                objects[to] = objects[row];
+            } else {
+                longs[to] = longs[row];
+            }
+            to++;
+        }
+
+        if (objects != null) {
+            for (int row = to; row < size; ++row) {
+                objects[row] = null;
+            }
+        }
+        size = to;
+    }
+
+    void clear() {
+        longs = new long[16];
+        objects = null;
+        size = 0;
+    }
+}
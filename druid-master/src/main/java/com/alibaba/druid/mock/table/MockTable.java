@@ -0,0 +1,113 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.mock.table;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * a table of a MockTableStore, the values are stored by column.
+ */
+public class MockTable {
+
+    private final String               name;
+    // a table created by an insert gets the columns of the inserts, a table of CREATE TABLE has fixed columns
+    private final boolean              fixedColumns;
+
+    final List<MockColumn>             columns     = new ArrayList<MockColumn>();
+    private final Map<String, Integer> columnIndex = new HashMap<String, Integer>();
+    private int                        rowCount;
+
+    MockTable(String name, boolean fixedColumns){
+        this.name = name;
+        this.fixedColumns = fixedColumns;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public List<String> getColumnNames() {
+        List<String> names = new ArrayList<String>(columns.size());
+        for (MockColumn column : columns) {
+            names.add(column.name);
+        }
+        return names;
+    }
+
+    public Object getValue(int row, String column) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("row " + row + ", rowCount " + rowCount);
+        }
+
+        int index = findColumn(column);
+        if (index == -1) {
+            throw new IllegalArgumentException("column not found : " + column);
+        }
+        return columns.get(index).get(row);
+    }
+
+    boolean isFixedColumns() {
+        return fixedColumns;
+    }
+
+    /**
+     * @return -1 if the table has no such column
+     */
+    int findColumn(String name) {
+        Integer index = columnIndex.get(MockTableStore.normalize(name));
+        return index == null ? -1 : index;
+    }
+
+    int addColumn(String name) {
+        MockColumn column = new MockColumn(name);
+        for (int i = 0; i < rowCount; ++i) {
+            column.add(null);
+        }
+
+        columns.add(column);
+        columnIndex.put(MockTableStore.normalize(name), columns.size() - 1);
+        return columns.size() - 1;
+    }
+
+    void addRow(Object[] row) {
+        for (int i = 0; i < columns.size(); ++i) {
+            columns.get(i).add(i < row.length ? row[i] : null);
+        }
+        rowCount++;
+    }
+
+    void removeRows(BitSet removed) {
+        for (MockColumn column : columns) {
+            column.remove(removed);
+        }
+        rowCount -= removed.cardinality();
+    }
+
+    void clear() {
+        for (MockColumn column : columns) {
+            column.clear();
+        }
+        rowCount = 0;
+    }
+}
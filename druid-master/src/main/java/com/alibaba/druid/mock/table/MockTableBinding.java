@@ -0,0 +1,232 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.mock.table;
+
+import java.sql.SQLException;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.druid.sql.ast.SQLExpr;
+import com.alibaba.druid.sql.ast.SQLName;
+import com.alibaba.druid.sql.ast.expr.SQLBinaryOpExpr;
+import com.alibaba.druid.sql.ast.expr.SQLBinaryOperator;
+import com.alibaba.druid.sql.ast.expr.SQLIdentifierExpr;
+import com.alibaba.druid.sql.ast.expr.SQLPropertyExpr;
+import com.alibaba.druid.sql.ast.statement.SQLExprTableSource;
+import com.alibaba.druid.sql.ast.statement.SQLTableSource;
+import com.alibaba.druid.sql.dialect.mysql.visitor.MySqlASTVisitorAdapter;
+import com.alibaba.druid.sql.visitor.SQLCompiledExpr;
+import com.alibaba.druid.sql.visitor.SQLEvalVisitorUtils;
+import com.alibaba.druid.util.JdbcConstants;
+
+/**
+ * the columns of a table bound to the parameters of the compiled expressions. the batch of an expression has the '?'
+ * of the statement first, then the column i of the table as the parameter parameterCount + i.
+ */
+final class MockTableBinding {
+
+    final MockTable                    table;
+    final int                          parameterCount;
+
+    private final Map<String, Integer> variables = new HashMap<String, Integer>();
+    // the columns the compiled expressions read, the others are not gathered
+    private final BitSet               used      = new BitSet();
+
+    private MockTableBinding(MockTable table, String alias, int parameterCount){
+        this.table = table;
+        this.parameterCount = parameterCount;
+
+        List<String> names = table.getColumnNames();
+        for (int i = 0; i < names.size(); ++i) {
+            String name = MockTableStore.normalize(names.get(i));
+            Integer index = parameterCount + i;
+            putVariable(null, name, index);
+            putVariable(MockTableStore.normalize(table.getName()), name, index);
+            if (alias != null) {
+                putVariable(alias, name, index);
+            }
+        }
+    }
+
+    private void putVariable(String owner, String name, Integer index) {
+        String[] names = { name, '`' + name + '`' };
+        if (owner == null) {
+            for (String n : names) {
+                variables.put(n, index);
+            }
+            return;
+        }
+
+        for (String o : new String[] { owner, '`' + owner + '`' }) {
+            for (String n : names) {
+                variables.put(o + '.' + n, index);
+            }
+        }
+    }
+
+    /**
+     * @return null if the table source is not a single table
+     * @throws SQLException if there is no such table
+     */
+    static MockTableBinding bind(MockTableStore store, SQLTableSource tableSource, int parameterCount)
+                                                                                                      throws SQLException {
+        if (!(tableSource instanceof SQLExprTableSource)) {
+            return null;
+        }
+
+        String name = tableName((SQLExprTableSource) tableSource);
+        MockTable table = store.findTable(name);
+        if (table == null) {
+            throw MockTablePlan.tableNotExists(name);
+        }
+
+        String alias = tableSource.getAlias() == null ? null : MockTableStore.normalize(tableSource.getAlias());
+        return new MockTableBinding(table, alias, parameterCount);
+    }
+
+    static String tableName(SQLExprTableSource tableSource) throws SQLException {
+        SQLExpr expr = tableSource.getExpr();
+        if (!(expr instanceof SQLName)) {
+            throw new SQLException("not a table : " + expr);
+        }
+        return MockTableStore.normalize(((SQLName) expr).getSimpleName());
+    }
+
+    /**
+     * compile an expression of the columns of the table
+     *
+     * @throws SQLException if the expression reads a column the table does not have
+     */
+    SQLCompiledExpr compile(SQLExpr expr) throws SQLException {
+        final SQLException[] error = new SQLException[1];
+        expr.accept(new MySqlASTVisitorAdapter() {
+
+            public boolean visit(SQLIdentifierExpr x) {
+                use(x.getName());
+                return false;
+            }
+
+            // the eval visitor only knows !=, the wall checks depend on it
+            public boolean visit(SQLBinaryOpExpr x) {
+                if (x.getOperator() == SQLBinaryOperator.LessThanOrGreater) {
+                    x.setOperator(SQLBinaryOperator.NotEqual);
+                }
+                return true;
+            }
+
+            public boolean visit(SQLPropertyExpr x) {
+                if (x.getOwner() instanceof SQLIdentifierExpr) {
+                    use(((SQLIdentifierExpr) x.getOwner()).getName() + '.' + x.getName());
+                    return false;
+                }
+                return true;
+            }
+
+            private void use(String name) {
+                Integer index = variables.get(name.toLowerCase());
+                if (index == null) {
+                    if (error[0] == null) {
+                        error[0] = MockTablePlan.unknownColumn(name);
+                    }
+                    return;
+                }
+                used.set(index - parameterCount);
+            }
+        });
+
+        if (error[0] != null) {
+            throw error[0];
+        }
+        return SQLEvalVisitorUtils.compile(JdbcConstants.MYSQL, expr, variables);
+    }
+
+    /**
+     * the batch of all rows of the table, with room for extra parameters after the columns
+     */
+    Object[] columns(List<Object> parameters, int size, int extra) {
+        List<MockColumn> columns = table.columns;
+        Object[] batch = new Object[parameterCount + columns.size() + extra];
+        for (int i = 0; i < parameterCount; ++i) {
+            batch[i] = Collections.nCopies(size, parameters.get(i));
+        }
+        for (int i = 0; i < columns.size(); ++i) {
+            batch[parameterCount + i] = columns.get(i).values();
+        }
+        return batch;
+    }
+
+    Object[] columns(List<Object> parameters, int size) {
+        return columns(parameters, size, 0);
+    }
+
+    /**
+     * the batch of the rows, only the columns the compiled expressions read are gathered
+     */
+    Object[] gather(List<Object> parameters, int[] rows, int count) {
+        List<MockColumn> columns = table.columns;
+        Object[] batch = new Object[parameterCount + columns.size()];
+        for (int i = 0; i < parameterCount; ++i) {
+            batch[i] = Collections.nCopies(count, parameters.get(i));
+        }
+        for (int i = used.nextSetBit(0); i >= 0; i = used.nextSetBit(i + 1)) {
+            batch[parameterCount + i] = columns.get(i).gather(rows, count);
+        }
+        return batch;
+    }
+
+    /**
+     * the values of the used columns of a row each, null for the row -1, with room for extra parameters
+     */
+    Object[] values(List<Object> parameters, int[] rows, int count, int extra) {
+        List<MockColumn> columns = table.columns;
+        Object[] batch = new Object[parameterCount + columns.size() + extra];
+        for (int i = 0; i < parameterCount; ++i) {
+            batch[i] = Collections.nCopies(count, parameters.get(i));
+        }
+        for (int i = used.nextSetBit(0); i >= 0; i = used.nextSetBit(i + 1)) {
+            MockColumn column = columns.get(i);
+            Object[] values = new Object[count];
+            for (int j = 0; j < count; ++j) {
+                values[j] = rows[j] == -1 ? null : column.get(rows[j]);
+            }
+            batch[parameterCount + i] = values;
+        }
+        return batch;
+    }
+
+    /**
+     * @return the rows set in selection, all rows if selection is null
+     */
+    static int[] rows(BitSet selection, int size) {
+        if (selection == null) {
+            int[] rows = new int[size];
+            for (int i = 0; i < size; ++i) {
+                rows[i] = i;
+            }
+            return rows;
+        }
+
+        int[] rows = new int[selection.cardinality()];
+        int count = 0;
+        for (int i = selection.nextSetBit(0); i >= 0; i = selection.nextSetBit(i + 1)) {
+            rows[count++] = i;
+        }
+        return rows;
+    }
+}
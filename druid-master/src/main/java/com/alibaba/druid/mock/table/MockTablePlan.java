@@ -0,0 +1,520 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.mock.table;
+
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.druid.sql.SQLUtils;
+import com.alibaba.druid.sql.ast.SQLExpr;
+import com.alibaba.druid.sql.ast.SQLName;
+import com.alibaba.druid.sql.ast.SQLObject;
+import com.alibaba.druid.sql.ast.SQLStatement;
+import com.alibaba.druid.sql.ast.expr.SQLIdentifierExpr;
+import com.alibaba.druid.sql.ast.expr.SQLPropertyExpr;
+import com.alibaba.druid.sql.ast.expr.SQLVariantRefExpr;
+import com.alibaba.druid.sql.ast.statement.SQLColumnDefinition;
+import com.alibaba.druid.sql.ast.statement.SQLCreateTableStatement;
+import com.alibaba.druid.sql.ast.statement.SQLDeleteStatement;
+import com.alibaba.druid.sql.ast.statement.SQLDropTableStatement;
+import com.alibaba.druid.sql.ast.statement.SQLExprTableSource;
+import com.alibaba.druid.sql.ast.statement.SQLInsertStatement;
+import com.alibaba.druid.sql.ast.statement.SQLInsertStatement.ValuesClause;
+import com.alibaba.druid.sql.ast.statement.SQLSelectStatement;
+import com.alibaba.druid.sql.ast.statement.SQLTableElement;
+import com.alibaba.druid.sql.ast.statement.SQLTableSource;
+import com.alibaba.druid.sql.ast.statement.SQLTruncateStatement;
+import com.alibaba.druid.sql.ast.statement.SQLUpdateSetItem;
+import com.alibaba.druid.sql.ast.statement.SQLUpdateStatement;
+import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlDeleteStatement;
+import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlInsertStatement;
+import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlUpdateStatement;
+import com.alibaba.druid.sql.dialect.mysql.visitor.MySqlASTVisitorAdapter;
+import com.alibaba.druid.sql.parser.ParserException;
+import com.alibaba.druid.sql.visitor.SQLCompiledExpr;
+import com.alibaba.druid.sql.visitor.SQLEvalVisitorUtils;
+import com.alibaba.druid.util.JdbcConstants;
+
+/**
+ * a statement compiled for a MockTableStore. the plan of a statement which is not about the tables of the store does
+ * nothing.
+ */
+class MockTablePlan {
+
+    // the schema version of the store the plan was compiled for
+    final int schemaVersion;
+
+    MockTablePlan(int schemaVersion){
+        this.schemaVersion = schemaVersion;
+    }
+
+    /**
+     * @return the update count, the caller holds the write lock of the store
+     */
+    int executeUpdate(MockTableStore store, List<Object> parameters) throws SQLException {
+        return 0;
+    }
+
+    static MockTablePlan compile(MockTableStore store, String sql) throws SQLException {
+        int schemaVersion = store.getSchemaVersion();
+
+        List<SQLStatement> statementList;
+        try {
+            statementList = SQLUtils.parseStatements(sql, JdbcConstants.MYSQL);
+        } catch (ParserException ex) {
+            return new MockTablePlan(schemaVersion);
+        }
+
+        if (statementList.size() != 1) {
+            return new MockTablePlan(schemaVersion);
+        }
+
+        SQLStatement stmt = statementList.get(0);
+        int parameterCount = parameterCount(stmt);
+
+        if (stmt instanceof SQLSelectStatement) {
+            MockTablePlan plan = MockTableSelect.compile(store, ((SQLSelectStatement) stmt).getSelect(), parameterCount);
+            return plan != null ? plan : new MockTablePlan(schemaVersion);
+        }
+
+        if (stmt instanceof SQLInsertStatement) {
+            return compileInsert(schemaVersion, (SQLInsertStatement) stmt, parameterCount);
+        }
+
+        if (stmt instanceof SQLUpdateStatement) {
+            return compileUpdate(store, (SQLUpdateStatement) stmt, parameterCount);
+        }
+
+        if (stmt instanceof SQLDeleteStatement) {
+            return compileDelete(store, (SQLDeleteStatement) stmt, parameterCount);
+        }
+
+        if (stmt instanceof SQLCreateTableStatement) {
+            SQLCreateTableStatement create = (SQLCreateTableStatement) stmt;
+            if (create.getSelect() != null) {
+                throw new SQLFeatureNotSupportedException("create table as select not supported");
+            }
+
+            List<String> columns = new ArrayList<String>();
+            for (SQLTableElement element : create.getTableElementList()) {
+                if (element instanceof SQLColumnDefinition) {
+                    columns.add(normalize(((SQLColumnDefinition) element).getName()));
+                }
+            }
+            return new CreateTable(schemaVersion, normalize(create.getName()), columns, create.isIfNotExiists());
+        }
+
+        if (stmt instanceof SQLDropTableStatement) {
+            SQLDropTableStatement drop = (SQLDropTableStatement) stmt;
+            return new DropTable(schemaVersion, tableNames(drop.getTableSources()), drop.isIfExists(), false);
+        }
+
+        if (stmt instanceof SQLTruncateStatement) {
+            return new DropTable(schemaVersion, tableNames(((SQLTruncateStatement) stmt).getTableSources()), false,
+                                 true);
+        }
+
+        return new MockTablePlan(schemaVersion);
+    }
+
+    // INSERT
+
+    private static MockTablePlan compileInsert(int schemaVersion, SQLInsertStatement insert, int parameterCount)
+                                                                                                                 throws SQLException {
+        if (insert.getQuery() != null) {
+            throw new SQLFeatureNotSupportedException("insert select not supported");
+        }
+        if (insert instanceof MySqlInsertStatement
+            && !((MySqlInsertStatement) insert).getDuplicateKeyUpdate().isEmpty()) {
+            throw new SQLFeatureNotSupportedException("insert on duplicate key update not supported");
+        }
+
+        String[] columnNames = null;
+        if (!insert.getColumns().isEmpty()) {
+            columnNames = new String[insert.getColumns().size()];
+            for (int i = 0; i < columnNames.length; ++i) {
+                columnNames[i] = columnName(insert.getColumns().get(i));
+            }
+        }
+
+        List<ValuesClause> valuesList = insert.getValuesList();
+        SQLCompiledExpr[][] rows = new SQLCompiledExpr[valuesList.size()][];
+        for (int i = 0; i < rows.length; ++i) {
+            List<SQLExpr> values = valuesList.get(i).getValues();
+            if (columnNames != null && values.size() != columnNames.length) {
+                throw columnCountError(i);
+            }
+
+            rows[i] = new SQLCompiledExpr[values.size()];
+            for (int j = 0; j < rows[i].length; ++j) {
+                rows[i][j] = SQLEvalVisitorUtils.compile(JdbcConstants.MYSQL, values.get(j));
+            }
+        }
+
+        return new Insert(schemaVersion, normalize(insert.getTableName()), columnNames, rows, parameterCount);
+    }
+
+    static final class Insert extends MockTablePlan {
+
+        private final String              tableName;
+        // null if the insert has no column list
+        private final String[]            columnNames;
+        private final SQLCompiledExpr[][] rows;
+        private final int                 parameterCount;
+
+        Insert(int schemaVersion, String tableName, String[] columnNames, SQLCompiledExpr[][] rows,
+               int parameterCount){
+            super(schemaVersion);
+            this.tableName = tableName;
+            this.columnNames = columnNames;
+            this.rows = rows;
+            this.parameterCount = parameterCount;
+        }
+
+        int executeUpdate(MockTableStore store, List<Object> parameters) throws SQLException {
+            checkParameters(parameters, parameterCount);
+
+            MockTable table = store.findTable(tableName);
+            if (table == null) {
+                if (columnNames == null) {
+                    throw tableNotExists(tableName);
+                }
+                table = store.createTable(tableName, false);
+            }
+
+            int[] columns;
+            if (columnNames != null) {
+                columns = new int[columnNames.length];
+                for (int i = 0; i < columns.length; ++i) {
+                    int index = table.findColumn(columnNames[i]);
+                    if (index == -1) {
+                        if (table.isFixedColumns()) {
+                            throw unknownColumn(columnNames[i]);
+                        }
+                        index = table.addColumn(columnNames[i]);
+                        store.schemaChanged();
+                    }
+                    columns[i] = index;
+                }
+            } else {
+                columns = null;
+            }
+
+            int columnCount = table.columns.size();
+            List<Object[]> values = new ArrayList<Object[]>(rows.length);
+            for (int i = 0; i < rows.length; ++i) {
+                SQLCompiledExpr[] exprs = rows[i];
+                if (columns == null && exprs.length != columnCount) {
+                    throw columnCountError(i);
+                }
+
+                Object[] row = new Object[columnCount];
+                for (int j = 0; j < exprs.length; ++j) {
+                    row[columns == null ? j : columns[j]] = eval(exprs[j], parameters);
+                }
+                values.add(row);
+            }
+
+            // all rows are evaluated first, so a failed insert adds nothing
+            for (Object[] row : values) {
+                table.addRow(row);
+            }
+            return rows.length;
+        }
+    }
+
+    // UPDATE
+
+    private static MockTablePlan compileUpdate(MockTableStore store, SQLUpdateStatement update, int parameterCount)
+                                                                                                                   throws SQLException {
+        if (update instanceof MySqlUpdateStatement
+            && (((MySqlUpdateStatement) update).getLimit() != null || ((MySqlUpdateStatement) update).getOrderBy() != null)) {
+            throw new SQLFeatureNotSupportedException("update with order by or limit not supported");
+        }
+
+        MockTableBinding binding = MockTableBinding.bind(store, update.getTableSource(), parameterCount);
+        if (binding == null) {
+            throw new SQLFeatureNotSupportedException("multiple table update not supported");
+        }
+
+        List<SQLUpdateSetItem> items = update.getItems();
+        int[] columns = new int[items.size()];
+        SQLCompiledExpr[] values = new SQLCompiledExpr[items.size()];
+        for (int i = 0; i < columns.length; ++i) {
+            SQLUpdateSetItem item = items.get(i);
+            String name = columnName(item.getColumn());
+            columns[i] = binding.table.findColumn(name);
+            if (columns[i] == -1) {
+                throw unknownColumn(name);
+            }
+            values[i] = binding.compile(item.getValue());
+        }
+
+        SQLCompiledExpr where = update.getWhere() == null ? null : binding.compile(update.getWhere());
+        return new Update(store.getSchemaVersion(), binding, where, columns, values);
+    }
+
+    static final class Update extends MockTablePlan {
+
+        private final MockTableBinding  binding;
+        private final SQLCompiledExpr   where;
+        private final int[]             columns;
+        private final SQLCompiledExpr[] values;
+
+        Update(int schemaVersion, MockTableBinding binding, SQLCompiledExpr where, int[] columns,
+               SQLCompiledExpr[] values){
+            super(schemaVersion);
+            this.binding = binding;
+            this.where = where;
+            this.columns = columns;
+            this.values = values;
+        }
+
+        int executeUpdate(MockTableStore store, List<Object> parameters) throws SQLException {
+            checkParameters(parameters, binding.parameterCount);
+
+            MockTable table = binding.table;
+            int size = table.getRowCount();
+            Object[] batch = binding.columns(parameters, size);
+
+            int[] rows = MockTableBinding.rows(where == null ? null : where.select(batch, size), size);
+            int count = rows.length;
+            if (count == 0) {
+                return 0;
+            }
+            if (where != null) {
+                batch = binding.gather(parameters, rows, count);
+            }
+
+            // the new values are evaluated with the old values of the row
+            Object[][] newValues = new Object[values.length][];
+            for (int i = 0; i < values.length; ++i) {
+                newValues[i] = evalBatch(values[i], batch, count);
+            }
+
+            for (int i = 0; i < columns.length; ++i) {
+                MockColumn column = table.columns.get(columns[i]);
+                for (int j = 0; j < count; ++j) {
+                    column.set(rows[j], newValues[i][j]);
+                }
+            }
+            return count;
+        }
+    }
+
+    // DELETE
+
+    private static MockTablePlan compileDelete(MockTableStore store, SQLDeleteStatement delete, int parameterCount)
+                                                                                                                   throws SQLException {
+        if (delete instanceof MySqlDeleteStatement) {
+            MySqlDeleteStatement mysqlDelete = (MySqlDeleteStatement) delete;
+            if (mysqlDelete.getLimit() != null || mysqlDelete.getOrderBy() != null) {
+                throw new SQLFeatureNotSupportedException("delete with order by or limit not supported");
+            }
+            if (mysqlDelete.getUsing() != null) {
+                throw new SQLFeatureNotSupportedException("multiple table delete not supported");
+            }
+        }
+
+        SQLTableSource tableSource = delete.getFrom() != null ? delete.getFrom() : delete.getTableSource();
+        MockTableBinding binding = MockTableBinding.bind(store, tableSource, parameterCount);
+        if (binding == null) {
+            throw new SQLFeatureNotSupportedException("multiple table delete not supported");
+        }
+
+        SQLCompiledExpr where = delete.getWhere() == null ? null : binding.compile(delete.getWhere());
+        return new Delete(store.getSchemaVersion(), binding, where);
+    }
+
+    static final class Delete extends MockTablePlan {
+
+        private final MockTableBinding binding;
+        private final SQLCompiledExpr  where;
+
+        Delete(int schemaVersion, MockTableBinding binding, SQLCompiledExpr where){
+            super(schemaVersion);
+            this.binding = binding;
+            this.where = where;
+        }
+
+        int executeUpdate(MockTableStore store, List<Object> parameters) throws SQLException {
+            checkParameters(parameters, binding.parameterCount);
+
+            MockTable table = binding.table;
+            int size = table.getRowCount();
+            if (where == null) {
+                table.clear();
+                return size;
+            }
+
+            BitSet removed = where.select(binding.columns(parameters, size), size);
+            table.removeRows(removed);
+            return removed.cardinality();
+        }
+    }
+
+    // DDL
+
+    static final class CreateTable extends MockTablePlan {
+
+        private final String       tableName;
+        private final List<String> columns;
+        private final boolean      ifNotExists;
+
+        CreateTable(int schemaVersion, String tableName, List<String> columns, boolean ifNotExists){
+            super(schemaVersion);
+            this.tableName = tableName;
+            this.columns = columns;
+            this.ifNotExists = ifNotExists;
+        }
+
+        int executeUpdate(MockTableStore store, List<Object> parameters) throws SQLException {
+            if (store.findTable(tableName) != null) {
+                if (ifNotExists) {
+                    return 0;
+                }
+                throw new SQLException("Table '" + tableName + "' already exists", "42S01", 1050);
+            }
+
+            MockTable table = store.createTable(tableName, true);
+            for (String column : columns) {
+                table.addColumn(column);
+            }
+            return 0;
+        }
+    }
+
+    static final class DropTable extends MockTablePlan {
+
+        private final List<String> tableNames;
+        private final boolean      ifExists;
+        // truncate the tables instead of dropping them
+        private final boolean      truncate;
+
+        DropTable(int schemaVersion, List<String> tableNames, boolean ifExists, boolean truncate){
+            super(schemaVersion);
+            this.tableNames = tableNames;
+            this.ifExists = ifExists;
+            this.truncate = truncate;
+        }
+
+        int executeUpdate(MockTableStore store, List<Object> parameters) throws SQLException {
+            for (String tableName : tableNames) {
+                if (store.findTable(tableName) == null && !ifExists) {
+                    if (truncate) {
+                        throw tableNotExists(tableName);
+                    }
+                    throw new SQLException("Unknown table '" + tableName + "'", "42S02", 1051);
+                }
+            }
+
+            for (String tableName : tableNames) {
+                if (truncate) {
+                    store.findTable(tableName).clear();
+                } else {
+                    store.dropTable(tableName);
+                }
+            }
+            return 0;
+        }
+    }
+
+    // utils
+
+    private static int parameterCount(SQLObject x) {
+        final int[] count = new int[1];
+        x.accept(new MySqlASTVisitorAdapter() {
+
+            public boolean visit(SQLVariantRefExpr x) {
+                if ("?".equals(x.getName())) {
+                    count[0] = Math.max(count[0], x.getIndex() + 1);
+                }
+                return false;
+            }
+        });
+        return count[0];
+    }
+
+    static void checkParameters(List<Object> parameters, int parameterCount) throws SQLException {
+        if (parameters.size() < parameterCount) {
+            throw new SQLException("No value specified for parameter " + (parameters.size() + 1), "07001");
+        }
+    }
+
+    static Object eval(SQLCompiledExpr expr, List<Object> parameters) throws SQLException {
+        try {
+            return expr.eval(parameters);
+        } catch (RuntimeException ex) {
+            throw new SQLException(ex.getMessage(), ex);
+        }
+    }
+
+    static Object[] evalBatch(SQLCompiledExpr expr, Object[] columns, int size) throws SQLException {
+        try {
+            return expr.evalBatch(columns, size);
+        } catch (RuntimeException ex) {
+            throw new SQLException(ex.getMessage(), ex);
+        }
+    }
+
+    static String normalize(SQLName name) {
+        return MockTableStore.normalize(name.getSimpleName());
+    }
+
+    static String columnName(SQLExpr expr) throws SQLException {
+        if (expr instanceof SQLIdentifierExpr) {
+            return MockTableStore.normalize(((SQLIdentifierExpr) expr).getName());
+        }
+        if (expr instanceof SQLPropertyExpr) {
+            return MockTableStore.normalize(((SQLPropertyExpr) expr).getName());
+        }
+        throw new SQLFeatureNotSupportedException("not a column : " + expr);
+    }
+
+    private static List<String> tableNames(List<SQLExprTableSource> tableSources) throws SQLException {
+        if (tableSources.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<String> names = new ArrayList<String>(tableSources.size());
+        Map<String, Boolean> found = new HashMap<String, Boolean>();
+        for (SQLExprTableSource tableSource : tableSources) {
+            String name = MockTableBinding.tableName(tableSource);
+            if (found.put(name, Boolean.TRUE) == null) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    static SQLException tableNotExists(String tableName) {
+        return new SQLException("Table '" + tableName + "' doesn't exist", "42S02", 1146);
+    }
+
+    static SQLException unknownColumn(String columnName) {
+        return new SQLException("Unknown column '" + columnName + "' in 'field list'", "42S22", 1054);
+    }
+
+    private static SQLException columnCountError(int row) {
+        return new SQLException("Column count doesn't match value count at row " + (row + 1), "21S01", 1136);
+    }
+}
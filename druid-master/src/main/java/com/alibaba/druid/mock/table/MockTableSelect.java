@@ -0,0 +1,729 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.mock.table;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.alibaba.druid.mock.MockConnection;
+import com.alibaba.druid.mock.MockResultSet;
+import com.alibaba.druid.mock.MockStatementBase;
+import com.alibaba.druid.sql.SQLUtils;
+import com.alibaba.druid.sql.ast.SQLExpr;
+import com.alibaba.druid.sql.ast.SQLLimit;
+import com.alibaba.druid.sql.ast.SQLObject;
+import com.alibaba.druid.sql.ast.SQLOrderBy;
+import com.alibaba.druid.sql.ast.SQLOrderingSpecification;
+import com.alibaba.druid.sql.ast.SQLSetQuantifier;
+import com.alibaba.druid.sql.ast.expr.SQLAggregateExpr;
+import com.alibaba.druid.sql.ast.expr.SQLAggregateOption;
+import com.alibaba.druid.sql.ast.expr.SQLAllColumnExpr;
+import com.alibaba.druid.sql.ast.expr.SQLIdentifierExpr;
+import com.alibaba.druid.sql.ast.expr.SQLIntegerExpr;
+import com.alibaba.druid.sql.ast.expr.SQLPropertyExpr;
+import com.alibaba.druid.sql.ast.expr.SQLVariantRefExpr;
+import com.alibaba.druid.sql.ast.statement.SQLExprTableSource;
+import com.alibaba.druid.sql.ast.statement.SQLSelect;
+import com.alibaba.druid.sql.ast.statement.SQLSelectGroupByClause;
+import com.alibaba.druid.sql.ast.statement.SQLSelectItem;
+import com.alibaba.druid.sql.ast.statement.SQLSelectOrderByItem;
+import com.alibaba.druid.sql.ast.statement.SQLSelectQueryBlock;
+import com.alibaba.druid.sql.ast.statement.SQLTableSource;
+import com.alibaba.druid.sql.dialect.mysql.visitor.MySqlASTVisitorAdapter;
+import com.alibaba.druid.sql.visitor.SQLCompiledExpr;
+import com.alibaba.druid.sql.visitor.SQLEvalVisitorUtils;
+import com.alibaba.druid.util.JdbcConstants;
+import com.alibaba.druid.util.jdbc.ResultSetMetaDataBase.ColumnMetaData;
+
+/**
+ * a single table query. the where is evaluated for the whole table at once, then the columns the query reads are
+ * gathered for the selected rows and the select list is evaluated a column at a time.
+ * <p>
+ * an aggregate query evaluates the group by and the arguments of the aggregate functions for the selected rows, then
+ * the select list, the having and the order by for a row of each group: the aggregate functions are replaced by the '?'
+ * after the columns, bound to the results of the groups, the columns are the values of the first row of the group.
+ */
+final class MockTableSelect extends MockTablePlan {
+
+    private static final int               COUNT = 0;
+    private static final int               SUM   = 1;
+    private static final int               MIN   = 2;
+    private static final int               MAX   = 3;
+    private static final int               AVG   = 4;
+
+    private final MockTableBinding         binding;
+
+    private SQLCompiledExpr                where;
+    private final List<String>             labels      = new ArrayList<String>();
+    private final List<SQLCompiledExpr>    outputs     = new ArrayList<SQLCompiledExpr>();
+    private boolean                        distinct;
+
+    // the output of an order by item, or -1 and the expression
+    private int[]                          orderOutputs;
+    private SQLCompiledExpr[]              orderExprs;
+    private boolean[]                      descending;
+
+    private SQLCompiledExpr                offset;
+    private SQLCompiledExpr                rowCount;
+
+    private boolean                        aggregate;
+    private SQLCompiledExpr[]              groupBy;
+    private final List<Aggregate>          aggregates  = new ArrayList<Aggregate>();
+    private SQLCompiledExpr                having;
+    // the parameter of the first aggregate result
+    private int                            aggregateBase;
+
+    private MockTableSelect(int schemaVersion, MockTableBinding binding){
+        super(schemaVersion);
+        this.binding = binding;
+    }
+
+    /**
+     * @return null if the query does not read a table
+     */
+    static MockTableSelect compile(MockTableStore store, SQLSelect select, int parameterCount) throws SQLException {
+        if (!(select.getQuery() instanceof SQLSelectQueryBlock)) {
+            return null;
+        }
+
+        SQLSelectQueryBlock query = (SQLSelectQueryBlock) select.getQuery();
+        SQLTableSource from = query.getFrom();
+        if (from == null
+            || (from instanceof SQLExprTableSource && "dual".equals(MockTableBinding.tableName((SQLExprTableSource) from)))) {
+            return null;
+        }
+
+        MockTableBinding binding = MockTableBinding.bind(store, from, parameterCount);
+        if (binding == null) {
+            throw new SQLFeatureNotSupportedException("only single table query supported : " + from);
+        }
+
+        MockTableSelect plan = new MockTableSelect(store.getSchemaVersion(), binding);
+        plan.compile(select, query);
+        return plan;
+    }
+
+    private void compile(SQLSelect select, SQLSelectQueryBlock query) throws SQLException {
+        if (query.getWhere() != null) {
+            where = binding.compile(query.getWhere());
+        }
+
+        distinct = query.getDistionOption() == SQLSetQuantifier.DISTINCT
+                   || query.getDistionOption() == SQLSetQuantifier.DISTINCTROW;
+
+        SQLLimit limit = query.getLimit();
+        if (limit != null) {
+            rowCount = SQLEvalVisitorUtils.compile(JdbcConstants.MYSQL, limit.getRowCount());
+            if (limit.getOffset() != null) {
+                offset = SQLEvalVisitorUtils.compile(JdbcConstants.MYSQL, limit.getOffset());
+            }
+        }
+
+        SQLOrderBy orderBy = query.getOrderBy() != null ? query.getOrderBy() : select.getOrderBy();
+        SQLSelectGroupByClause groupByClause = query.getGroupBy();
+
+        // the labels before the aggregate functions are replaced
+        List<SQLExpr> exprs = new ArrayList<SQLExpr>();
+        List<String> aliases = new ArrayList<String>();
+        for (SQLSelectItem item : query.getSelectList()) {
+            SQLExpr expr = item.getExpr();
+            if (expr instanceof SQLAllColumnExpr
+                || (expr instanceof SQLPropertyExpr && "*".equals(((SQLPropertyExpr) expr).getName()))) {
+                for (String name : binding.table.getColumnNames()) {
+                    exprs.add(new SQLIdentifierExpr(name));
+                    labels.add(name);
+                    aliases.add(null);
+                }
+                continue;
+            }
+
+            exprs.add(expr);
+            if (item.getAlias() != null) {
+                labels.add(MockTableStore.unquote(item.getAlias()));
+                aliases.add(MockTableStore.normalize(item.getAlias()));
+            } else {
+                labels.add(label(expr));
+                aliases.add(null);
+            }
+        }
+
+        List<SQLAggregateExpr> aggregateExprs = new ArrayList<SQLAggregateExpr>();
+        for (SQLExpr expr : exprs) {
+            collectAggregates(expr, aggregateExprs);
+        }
+        if (groupByClause != null && groupByClause.getHaving() != null) {
+            collectAggregates(groupByClause.getHaving(), aggregateExprs);
+        }
+        if (orderBy != null) {
+            for (SQLSelectOrderByItem item : orderBy.getItems()) {
+                collectAggregates(item.getExpr(), aggregateExprs);
+            }
+        }
+
+        aggregate = groupByClause != null || !aggregateExprs.isEmpty();
+        if (aggregate) {
+            compileAggregates(groupByClause, exprs, aliases, aggregateExprs);
+        }
+
+        for (SQLExpr expr : exprs) {
+            outputs.add(binding.compile(expr));
+        }
+
+        if (orderBy != null) {
+            List<SQLSelectOrderByItem> items = orderBy.getItems();
+            orderOutputs = new int[items.size()];
+            orderExprs = new SQLCompiledExpr[items.size()];
+            descending = new boolean[items.size()];
+            for (int i = 0; i < items.size(); ++i) {
+                SQLSelectOrderByItem item = items.get(i);
+                orderOutputs[i] = output(item.getExpr(), aliases, "order clause");
+                if (orderOutputs[i] == -1) {
+                    orderExprs[i] = binding.compile(item.getExpr());
+                }
+                descending[i] = item.getType() == SQLOrderingSpecification.DESC;
+            }
+        }
+    }
+
+    private void compileAggregates(SQLSelectGroupByClause groupByClause, List<SQLExpr> exprs, List<String> aliases,
+                                   List<SQLAggregateExpr> aggregateExprs) throws SQLException {
+        List<SQLExpr> groupByItems = groupByClause == null ? new ArrayList<SQLExpr>() : groupByClause.getItems();
+        groupBy = new SQLCompiledExpr[groupByItems.size()];
+        for (int i = 0; i < groupBy.length; ++i) {
+            SQLExpr item = groupByItems.get(i);
+            int output = output(item, aliases, "group statement");
+            groupBy[i] = binding.compile(output == -1 ? item : exprs.get(output));
+        }
+
+        // the aggregate functions are compiled, then replaced by the '?' of their result
+        aggregateBase = binding.parameterCount + binding.table.columns.size();
+        List<SQLAggregateExpr> distinctExprs = new ArrayList<SQLAggregateExpr>();
+        for (SQLAggregateExpr expr : aggregateExprs) {
+            int index = distinctExprs.indexOf(expr);
+            if (index == -1) {
+                index = distinctExprs.size();
+                distinctExprs.add(expr);
+                aggregates.add(compileAggregate(expr));
+            }
+
+            SQLVariantRefExpr ref = new SQLVariantRefExpr("?");
+            ref.setIndex(aggregateBase + index);
+            expr.putAttribute(AGGREGATE_REF, ref);
+
+            SQLObject parent = expr.getParent();
+            if (parent instanceof SQLSelectItem) {
+                // the select list is compiled from exprs
+                continue;
+            }
+            if (parent instanceof SQLSelectGroupByClause && ((SQLSelectGroupByClause) parent).getHaving() == expr) {
+                ((SQLSelectGroupByClause) parent).setHaving(ref);
+            } else if (!SQLUtils.replaceInParent(expr, ref)) {
+                throw new SQLFeatureNotSupportedException("aggregate function not supported in " + parent);
+            }
+        }
+
+        for (int i = 0; i < exprs.size(); ++i) {
+            SQLExpr expr = exprs.get(i);
+            if (expr instanceof SQLAggregateExpr) {
+                exprs.set(i, (SQLExpr) expr.getAttribute(AGGREGATE_REF));
+            }
+        }
+
+        if (groupByClause != null && groupByClause.getHaving() != null) {
+            bindAliases(groupByClause, exprs, aliases);
+            having = binding.compile(groupByClause.getHaving());
+        }
+    }
+
+    /**
+     * replace the aliases of the select list the having refers to by their expression
+     */
+    private void bindAliases(SQLSelectGroupByClause groupByClause, List<SQLExpr> exprs, final List<String> aliases)
+                                                                                                                 throws SQLException {
+        final List<SQLIdentifierExpr> refs = new ArrayList<SQLIdentifierExpr>();
+        groupByClause.getHaving().accept(new MySqlASTVisitorAdapter() {
+
+            public boolean visit(SQLIdentifierExpr x) {
+                if (aliases.contains(MockTableStore.normalize(x.getName()))
+                    && binding.table.findColumn(x.getName()) == -1) {
+                    refs.add(x);
+                }
+                return false;
+            }
+        });
+
+        for (SQLIdentifierExpr ref : refs) {
+            SQLExpr expr = exprs.get(aliases.indexOf(MockTableStore.normalize(ref.getName())));
+            if (groupByClause.getHaving() == ref) {
+                groupByClause.setHaving(expr);
+            } else if (!SQLUtils.replaceInParent(ref, expr)) {
+                throw new SQLFeatureNotSupportedException("alias not supported in " + ref.getParent());
+            }
+        }
+    }
+
+    private static final String AGGREGATE_REF = "mock.aggregateRef";
+
+    private Aggregate compileAggregate(SQLAggregateExpr expr) throws SQLException {
+        String methodName = expr.getMethodName().toLowerCase();
+        int function;
+        if ("count".equals(methodName)) {
+            function = COUNT;
+        } else if ("sum".equals(methodName)) {
+            function = SUM;
+        } else if ("min".equals(methodName)) {
+            function = MIN;
+        } else if ("max".equals(methodName)) {
+            function = MAX;
+        } else if ("avg".equals(methodName)) {
+            function = AVG;
+        } else {
+            throw new SQLFeatureNotSupportedException("aggregate function not supported : " + expr.getMethodName());
+        }
+
+        if (expr.getArguments().size() != 1 || expr.getOver() != null) {
+            throw new SQLFeatureNotSupportedException("aggregate function not supported : " + expr);
+        }
+
+        SQLExpr argument = expr.getArguments().get(0);
+        SQLCompiledExpr compiled;
+        if (argument instanceof SQLAllColumnExpr) {
+            if (function != COUNT) {
+                throw new SQLFeatureNotSupportedException("aggregate function not supported : " + expr);
+            }
+            compiled = null;
+        } else {
+            compiled = binding.compile(argument);
+        }
+
+        return new Aggregate(function, compiled, expr.getOption() == SQLAggregateOption.DISTINCT);
+    }
+
+    private static void collectAggregates(SQLExpr expr, final List<SQLAggregateExpr> aggregateExprs) {
+        expr.accept(new MySqlASTVisitorAdapter() {
+
+            public boolean visit(SQLAggregateExpr x) {
+                aggregateExprs.add(x);
+                return false;
+            }
+        });
+    }
+
+    /**
+     * @return the output an order by or group by item refers to by position or alias, -1 for an expression
+     */
+    private int output(SQLExpr expr, List<String> aliases, String clause) throws SQLException {
+        if (expr instanceof SQLIntegerExpr) {
+            int position = ((SQLIntegerExpr) expr).getNumber().intValue();
+            if (position < 1 || position > aliases.size()) {
+                throw new SQLException("Unknown column '" + position + "' in '" + clause + "'", "42S22", 1054);
+            }
+            return position - 1;
+        }
+
+        if (expr instanceof SQLIdentifierExpr) {
+            return aliases.indexOf(MockTableStore.normalize(((SQLIdentifierExpr) expr).getName()));
+        }
+        return -1;
+    }
+
+    private static String label(SQLExpr expr) {
+        if (expr instanceof SQLIdentifierExpr) {
+            return MockTableStore.unquote(((SQLIdentifierExpr) expr).getName());
+        }
+        if (expr instanceof SQLPropertyExpr) {
+            return MockTableStore.unquote(((SQLPropertyExpr) expr).getName());
+        }
+        return SQLUtils.toMySqlString(expr);
+    }
+
+    MockResultSet executeQuery(Statement stmt, List<Object> parameters) throws SQLException {
+        checkParameters(parameters, binding.parameterCount);
+
+        long offset = this.offset == null ? 0 : toLong(eval(this.offset, parameters));
+        long rowCount = this.rowCount == null ? Long.MAX_VALUE : toLong(eval(this.rowCount, parameters));
+
+        MockTable table = binding.table;
+        int size = table.getRowCount();
+
+        // scan and filter
+        Object[] batch;
+        int[] rows;
+        if (where != null) {
+            rows = MockTableBinding.rows(where.select(binding.columns(parameters, size), size), size);
+        } else {
+            rows = MockTableBinding.rows(null, size);
+        }
+
+        int count = rows.length;
+        if (!aggregate && orderOutputs == null && !distinct && offset + rowCount < count) {
+            // only the rows of the limit are projected
+            count = (int) (offset + rowCount);
+        }
+
+        if (where == null && count == size) {
+            batch = binding.columns(parameters, size);
+        } else {
+            batch = binding.gather(parameters, rows, count);
+        }
+
+        if (aggregate) {
+            batch = aggregate(parameters, batch, rows, count);
+            count = ((Object[]) batch[aggregateBase]).length;
+        }
+
+        // project
+        Object[][] values = new Object[outputs.size()][];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = evalBatch(outputs.get(i), batch, count);
+        }
+
+        int[] selected;
+        if (having != null) {
+            selected = MockTableBinding.rows(having.select(batch, count), count);
+        } else {
+            selected = MockTableBinding.rows(null, count);
+        }
+
+        // sort
+        if (orderOutputs != null) {
+            selected = sort(batch, values, selected, count);
+        }
+
+        List<Object[]> result = new ArrayList<Object[]>();
+        Set<List<Object>> distinctRows = distinct ? new HashSet<List<Object>>() : null;
+        long skipped = 0;
+        for (int i = 0; i < selected.length && result.size() < rowCount; ++i) {
+            Object[] row = new Object[values.length];
+            for (int j = 0; j < row.length; ++j) {
+                row[j] = values[j][selected[i]];
+            }
+
+            if (distinctRows != null && !distinctRows.add(Arrays.asList(row))) {
+                continue;
+            }
+            if (skipped < offset) {
+                skipped++;
+                continue;
+            }
+            result.add(row);
+        }
+
+        return createResultSet(stmt, result);
+    }
+
+    /**
+     * @return the batch of the groups, the columns of the first row of each group and the results of the aggregate
+     * functions
+     */
+    private Object[] aggregate(List<Object> parameters, Object[] batch, int[] rows, int count) throws SQLException {
+        Object[][] keys = new Object[groupBy.length][];
+        for (int i = 0; i < keys.length; ++i) {
+            keys[i] = evalBatch(groupBy[i], batch, count);
+        }
+
+        Object[][] arguments = new Object[aggregates.size()][];
+        for (int i = 0; i < arguments.length; ++i) {
+            SQLCompiledExpr argument = aggregates.get(i).argument;
+            if (argument != null) {
+                arguments[i] = evalBatch(argument, batch, count);
+            }
+        }
+
+        Map<List<Object>, Integer> groupIndex = new HashMap<List<Object>, Integer>();
+        List<Integer> firstRows = new ArrayList<Integer>();
+        List<Accumulator[]> groups = new ArrayList<Accumulator[]>();
+        for (int row = 0; row < count; ++row) {
+            Object[] key = new Object[keys.length];
+            for (int i = 0; i < key.length; ++i) {
+                key[i] = keys[i][row];
+            }
+
+            List<Object> keyList = Arrays.asList(key);
+            Integer group = groupIndex.get(keyList);
+            if (group == null) {
+                group = groups.size();
+                groupIndex.put(keyList, group);
+                firstRows.add(rows[row]);
+                groups.add(newAccumulators());
+            }
+
+            Accumulator[] accumulators = groups.get(group);
+            for (int i = 0; i < accumulators.length; ++i) {
+                accumulators[i].add(arguments[i] == null ? null : arguments[i][row]);
+            }
+        }
+
+        // an aggregate without group by has a row for no rows
+        if (groupBy.length == 0 && groups.isEmpty()) {
+            firstRows.add(-1);
+            groups.add(newAccumulators());
+        }
+
+        int groupCount = groups.size();
+        int[] groupRows = new int[groupCount];
+        for (int i = 0; i < groupCount; ++i) {
+            groupRows[i] = firstRows.get(i);
+        }
+
+        Object[] groupBatch = binding.values(parameters, groupRows, groupCount, aggregates.size());
+        for (int i = 0; i < aggregates.size(); ++i) {
+            Object[] results = new Object[groupCount];
+            for (int j = 0; j < groupCount; ++j) {
+                results[j] = groups.get(j)[i].result();
+            }
+            groupBatch[aggregateBase + i] = results;
+        }
+        return groupBatch;
+    }
+
+    private Accumulator[] newAccumulators() {
+        Accumulator[] accumulators = new Accumulator[aggregates.size()];
+        for (int i = 0; i < accumulators.length; ++i) {
+            accumulators[i] = new Accumulator(aggregates.get(i));
+        }
+        return accumulators;
+    }
+
+    private int[] sort(Object[] batch, Object[][] values, int[] selected, int count) throws SQLException {
+        final Object[][] keys = new Object[orderOutputs.length][];
+        for (int i = 0; i < keys.length; ++i) {
+            if (orderOutputs[i] != -1) {
+                keys[i] = values[orderOutputs[i]];
+            } else {
+                keys[i] = evalBatch(orderExprs[i], batch, count);
+            }
+        }
+
+        Integer[] order = new Integer[selected.length];
+        for (int i = 0; i < order.length; ++i) {
+            order[i] = selected[i];
+        }
+
+        // a stable sort, the rows of the same keys stay in the order of the table
+        Arrays.sort(order, new Comparator<Integer>() {
+
+            public int compare(Integer a, Integer b) {
+                for (int i = 0; i < keys.length; ++i) {
+                    int result = MockTableSelect.compare(keys[i][a], keys[i][b]);
+                    if (result != 0) {
+                        return descending[i] ? -result : result;
+                    }
+                }
+                return 0;
+            }
+        });
+
+        int[] sorted = new int[order.length];
+        for (int i = 0; i < sorted.length; ++i) {
+            sorted[i] = order[i];
+        }
+        return sorted;
+    }
+
+    /**
+     * the order of the values, null is less than any value
+     */
+    static int compare(Object a, Object b) {
+        if (a == b) {
+            return 0;
+        }
+        if (a == null) {
+            return -1;
+        }
+        if (b == null) {
+            return 1;
+        }
+
+        if (a instanceof Long && b instanceof Long) {
+            return ((Long) a).compareTo((Long) b);
+        }
+        if (a instanceof String && b instanceof String) {
+            return ((String) a).compareTo((String) b);
+        }
+
+        if (SQLEvalVisitorUtils.eq(a, b)) {
+            return 0;
+        }
+        return SQLEvalVisitorUtils.gt(a, b) ? 1 : -1;
+    }
+
+    private static long toLong(Object value) throws SQLException {
+        if (!(value instanceof Number)) {
+            throw new SQLException("Incorrect arguments to LIMIT", "HY000", 1210);
+        }
+        return ((Number) value).longValue();
+    }
+
+    private MockResultSet createResultSet(Statement stmt, List<Object[]> rows) throws SQLException {
+        MockResultSet rs = null;
+        if (stmt instanceof MockStatementBase) {
+            MockConnection conn = ((MockStatementBase) stmt).getConnection();
+            if (conn != null && conn.getDriver() != null) {
+                rs = conn.getDriver().createMockResultSet((MockStatementBase) stmt);
+            }
+        }
+        if (rs == null) {
+            rs = new MockResultSet(stmt);
+        }
+
+        for (int i = 0; i < labels.size(); ++i) {
+            ColumnMetaData column = new ColumnMetaData();
+            column.setColumnName(labels.get(i));
+            column.setColumnLabel(labels.get(i));
+            column.setTableName(binding.table.getName());
+            column.setColumnType(columnType(rows, i));
+            rs.getMockMetaData().getColumns().add(column);
+        }
+        rs.getRows().addAll(rows);
+        return rs;
+    }
+
+    private static int columnType(List<Object[]> rows, int column) {
+        for (Object[] row : rows) {
+            Object value = row[column];
+            if (value == null) {
+                continue;
+            }
+
+            if (value instanceof Long) {
+                return Types.BIGINT;
+            }
+            if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                return Types.INTEGER;
+            }
+            if (value instanceof BigDecimal) {
+                return Types.DECIMAL;
+            }
+            if (value instanceof Double) {
+                return Types.DOUBLE;
+            }
+            if (value instanceof Float) {
+                return Types.FLOAT;
+            }
+            if (value instanceof String) {
+                return Types.VARCHAR;
+            }
+            if (value instanceof Boolean) {
+                return Types.BOOLEAN;
+            }
+            if (value instanceof java.sql.Timestamp) {
+                return Types.TIMESTAMP;
+            }
+            if (value instanceof java.util.Date) {
+                return Types.DATE;
+            }
+            return Types.OTHER;
+        }
+        return Types.NULL;
+    }
+
+    private static final class Aggregate {
+
+        final int             function;
+        // null for count(*)
+        final SQLCompiledExpr argument;
+        final boolean         distinct;
+
+        Aggregate(int function, SQLCompiledExpr argument, boolean distinct){
+            this.function = function;
+            this.argument = argument;
+            this.distinct = distinct;
+        }
+    }
+
+    private static final class Accumulator {
+
+        private final Aggregate aggregate;
+        private long            count;
+        private Object          value;
+        private Set<Object>     values;
+
+        Accumulator(Aggregate aggregate){
+            this.aggregate = aggregate;
+        }
+
+        void add(Object value) {
+            if (aggregate.argument == null) {
+                count++;
+                return;
+            }
+
+            if (value == null) {
+                return;
+            }
+
+            if (aggregate.distinct) {
+                if (values == null) {
+                    values = new HashSet<Object>();
+                }
+                if (!values.add(value)) {
+                    return;
+                }
+            }
+
+            count++;
+            switch (aggregate.function) {
+                case SUM:
+                case AVG:
+                    this.value = this.value == null ? value : SQLEvalVisitorUtils.add(this.value, value);
+                    break;
+                case MIN:
+                    if (this.value == null || compare(value, this.value) < 0) {
+                        this.value = value;
+                    }
+                    break;
+                case MAX:
+                    if (this.value == null || compare(value, this.value) > 0) {
+                        this.value = value;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        Object result() {
+            switch (aggregate.function) {
+                case COUNT:
+                    return count;
+                case AVG:
+                    if (value == null) {
+                        return null;
+                    }
+                    if (value instanceof Double || value instanceof Float) {
+                        return SQLEvalVisitorUtils.castToDouble(value) / count;
+                    }
+                    BigDecimal sum = SQLEvalVisitorUtils.castToDecimal(value);
+                    return sum.divide(BigDecimal.valueOf(count), sum.scale() + 4, RoundingMode.HALF_UP);
+                default:
+                    return value;
+            }
+        }
+    }
+}
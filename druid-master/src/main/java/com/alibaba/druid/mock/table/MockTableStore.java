@@ -0,0 +1,202 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.mock.table;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.alibaba.druid.util.LRUCache;
+
+/**
+ * an in-memory database for MockDriver. the tables are created by CREATE TABLE or by the first INSERT into them, and
+ * hold their values by column. a query is parsed and compiled once to a MockTablePlan, and runs as a vectorized scan,
+ * filter, project, aggregate and sort over the columns with the expressions of SQLEvalVisitorUtils.compile.
+ * <p>
+ * single table SELECT with WHERE, GROUP BY, HAVING, ORDER BY, LIMIT, DISTINCT and COUNT / SUM / MIN / MAX / AVG,
+ * INSERT, UPDATE, DELETE, CREATE TABLE, DROP TABLE and TRUNCATE of the mysql dialect are supported.
+ */
+public class MockTableStore {
+
+    private final Map<String, MockTable>          tables = new LinkedHashMap<String, MockTable>();
+    private final ReadWriteLock                   lock   = new ReentrantReadWriteLock();
+
+    private final LRUCache<String, MockTablePlan> planCache;
+    // changed with the tables and their columns, a plan of an older version is compiled again
+    private volatile int                          schemaVersion;
+
+    public MockTableStore(){
+        this(1000);
+    }
+
+    public MockTableStore(int planCacheSize){
+        this.planCache = new LRUCache<String, MockTablePlan>(planCacheSize, 16, 0.75f, true);
+    }
+
+    /**
+     * @return the table, null if there is no such table
+     */
+    public MockTable getTable(String name) {
+        lock.readLock().lock();
+        try {
+            return tables.get(normalize(name));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<String> getTableNames() {
+        lock.readLock().lock();
+        try {
+            List<String> names = new ArrayList<String>();
+            for (MockTable table : tables.values()) {
+                names.add(table.getName());
+            }
+            return names;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            tables.clear();
+            schemaChanged();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the result of the query, null if the query does not read a table, such as SELECT 1
+     */
+    public ResultSet executeQuery(Statement stmt, String sql, List<Object> parameters) throws SQLException {
+        lock.readLock().lock();
+        try {
+            MockTablePlan plan = getPlan(sql);
+            if (!(plan instanceof MockTableSelect)) {
+                return null;
+            }
+            return ((MockTableSelect) plan).executeQuery(stmt, parameters(parameters));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the update count, 0 for a query or a statement which is not about the tables of the store
+     */
+    public int executeUpdate(String sql, List<Object> parameters) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            return getPlan(sql).executeUpdate(this, parameters(parameters));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return true if the sql is a query of the tables of the store
+     */
+    public boolean isQuery(String sql) throws SQLException {
+        lock.readLock().lock();
+        try {
+            return getPlan(sql) instanceof MockTableSelect;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static List<Object> parameters(List<Object> parameters) {
+        if (parameters == null) {
+            return Collections.emptyList();
+        }
+        return parameters;
+    }
+
+    // the caller holds the lock, so the plan is of the current tables until the lock is released
+    private MockTablePlan getPlan(String sql) throws SQLException {
+        MockTablePlan plan;
+        synchronized (planCache) {
+            plan = planCache.get(sql);
+        }
+
+        if (plan != null && plan.schemaVersion == schemaVersion) {
+            return plan;
+        }
+
+        plan = MockTablePlan.compile(this, sql);
+        synchronized (planCache) {
+            planCache.put(sql, plan);
+        }
+        return plan;
+    }
+
+    int getSchemaVersion() {
+        return schemaVersion;
+    }
+
+    void schemaChanged() {
+        schemaVersion++;
+    }
+
+    // the caller holds the lock
+    MockTable findTable(String name) {
+        return tables.get(normalize(name));
+    }
+
+    // the callers hold the write lock
+
+    MockTable createTable(String name, boolean fixedColumns) {
+        MockTable table = new MockTable(name, fixedColumns);
+        tables.put(normalize(name), table);
+        schemaChanged();
+        return table;
+    }
+
+    MockTable dropTable(String name) {
+        MockTable table = tables.remove(normalize(name));
+        if (table != null) {
+            schemaChanged();
+        }
+        return table;
+    }
+
+    /**
+     * the lower case name without the quotes, the key of a table or column
+     */
+    static String normalize(String name) {
+        return unquote(name).toLowerCase();
+    }
+
+    static String unquote(String name) {
+        if (name.length() > 1) {
+            char first = name.charAt(0);
+            if ((first == '`' || first == '"' || first == '\'') && name.charAt(name.length() - 1) == first) {
+                return name.substring(1, name.length() - 1);
+            }
+        }
+        return name;
+    }
+}
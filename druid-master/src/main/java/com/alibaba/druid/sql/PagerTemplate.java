@@ -0,0 +1,124 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.sql;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * the paged sql of PagerUtils.limit split at the positions of the offset, the count and the end row (offset + count),
+ * so the sql of another page is spliced from the parts without parsing and serializing. the clauses the dialects add
+ * (limit, rownum, top, row_number) only depend on whether the offset is positive, a template is built for each case.
+ */
+final class PagerTemplate {
+
+    final static int             OFFSET          = 0;
+    final static int             COUNT           = 1;
+    final static int             END             = 2;
+
+    // the template of a sql which can not be split, PagerUtils.limit parses it on each call
+    final static PagerTemplate   UNSUPPORTED     = new PagerTemplate(null, null);
+
+    // the probe values are chosen to be all different, a probe value which is also a literal of the sql is found by
+    // rendering the second probe
+    private final static int[][] PROBES          = { { 123456789, 987654321 }, { 314159265, 271828182 } };
+    private final static int[][] PROBES_NO_OFFSET = { { -123456789, 987654321 }, { -314159265, 1271828182 } };
+
+    private final String[]       parts;
+    private final int[]          slots;
+
+    private PagerTemplate(String[] parts, int[] slots){
+        this.parts = parts;
+        this.slots = slots;
+    }
+
+    static PagerTemplate constant(String sql) {
+        return new PagerTemplate(new String[] { sql }, new int[0]);
+    }
+
+    String render(int offset, int count) {
+        if (slots.length == 0) {
+            return parts[0];
+        }
+
+        StringBuilder buf = new StringBuilder(parts[0].length() * 2);
+        for (int i = 0; i < slots.length; ++i) {
+            buf.append(parts[i]);
+            switch (slots[i]) {
+                case OFFSET:
+                    buf.append(offset);
+                    break;
+                case COUNT:
+                    buf.append(count);
+                    break;
+                default:
+                    buf.append(count + offset);
+                    break;
+            }
+        }
+        buf.append(parts[parts.length - 1]);
+        return buf.toString();
+    }
+
+    /**
+     * @return UNSUPPORTED if the paged sql can not be split at the values
+     */
+    static PagerTemplate build(String sql, String dbType, boolean offsetPositive) {
+        int[][] probes = offsetPositive ? PROBES : PROBES_NO_OFFSET;
+
+        int offset = probes[0][0], count = probes[0][1];
+        String text = PagerUtils.limit0(sql, dbType, offset, count);
+
+        String[] values = new String[3];
+        values[OFFSET] = Integer.toString(offset);
+        values[COUNT] = Integer.toString(count);
+        values[END] = Integer.toString(count + offset);
+
+        List<String> parts = new ArrayList<String>();
+        List<Integer> slots = new ArrayList<Integer>();
+
+        int start = 0;
+        for (int i = 0; i < text.length(); ++i) {
+            for (int slot = 0; slot < values.length; ++slot) {
+                String value = values[slot];
+                if (text.startsWith(value, i) //
+                    && (i == 0 || !Character.isDigit(text.charAt(i - 1))) //
+                    && (i + value.length() == text.length() || !Character.isDigit(text.charAt(i + value.length())))) {
+                    parts.add(text.substring(start, i));
+                    slots.add(slot);
+                    start = i + value.length();
+                    i = start - 1;
+                    break;
+                }
+            }
+        }
+        parts.add(text.substring(start));
+
+        int[] slotArray = new int[slots.size()];
+        for (int i = 0; i < slotArray.length; ++i) {
+            slotArray[i] = slots.get(i);
+        }
+        PagerTemplate template = new PagerTemplate(parts.toArray(new String[parts.size()]), slotArray);
+
+        offset = probes[1][0];
+        count = probes[1][1];
+        if (!template.render(offset, count).equals(PagerUtils.limit0(sql, dbType, offset, count))) {
+            return UNSUPPORTED;
+        }
+
+        return template;
+    }
+}
@@ -34,10 +34,81 @@ import com.alibaba.druid.sql.dialect.sqlserver.ast.SQLServerTop;
 import com.alibaba.druid.sql.visitor.SQLASTVisitor;
 import com.alibaba.druid.util.JdbcConstants;
 import com.alibaba.druid.util.JdbcUtils;
+import com.alibaba.druid.util.LRUCache;
 
 public class PagerUtils {
 
+    // the paged and count sql templates by sql shape, see PagerTemplate
+    private final static LRUCache<TemplateKey, PagerTemplate> templates               = new LRUCache<TemplateKey, PagerTemplate>(1024, 16, 0.75f, true);
+
+    // the longer sql is paged without a template
+    private final static int                                  MAX_TEMPLATE_SQL_LENGTH = 1024 * 16;
+
+    private final static int                                  SHAPE_COUNT             = 0;
+    private final static int                                  SHAPE_LIMIT             = 1;
+    private final static int                                  SHAPE_OFFSET            = 2;
+
     public static String count(String sql, String dbType) {
+        if (sql.length() > MAX_TEMPLATE_SQL_LENGTH) {
+            return count0(sql, dbType);
+        }
+
+        TemplateKey key = new TemplateKey(sql, dbType, SHAPE_COUNT);
+        PagerTemplate template = getTemplate(key);
+        if (template == null) {
+            template = PagerTemplate.constant(count0(sql, dbType));
+            putTemplate(key, template);
+        }
+        return template.render(0, 0);
+    }
+
+    /**
+     * the sql of a page, spliced from the cached template of the sql after the first call for the sql.
+     */
+    public static String limit(String sql, String dbType, int offset, int count) {
+        if (sql.length() > MAX_TEMPLATE_SQL_LENGTH) {
+            return limit0(sql, dbType, offset, count);
+        }
+
+        boolean offsetPositive = offset > 0;
+        TemplateKey key = new TemplateKey(sql, dbType, offsetPositive ? SHAPE_OFFSET : SHAPE_LIMIT);
+        PagerTemplate template = getTemplate(key);
+        if (template == null) {
+            template = PagerTemplate.build(sql, dbType, offsetPositive);
+            putTemplate(key, template);
+        }
+
+        if (template == PagerTemplate.UNSUPPORTED) {
+            return limit0(sql, dbType, offset, count);
+        }
+        return template.render(offset, count);
+    }
+
+    private static PagerTemplate getTemplate(TemplateKey key) {
+        synchronized (templates) {
+            return templates.get(key);
+        }
+    }
+
+    private static void putTemplate(TemplateKey key, PagerTemplate template) {
+        synchronized (templates) {
+            templates.put(key, template);
+        }
+    }
+
+    public static void clearTemplateCache() {
+        synchronized (templates) {
+            templates.clear();
+        }
+    }
+
+    public static int getTemplateCacheSize() {
+        synchronized (templates) {
+            return templates.size();
+        }
+    }
+
+    static String count0(String sql, String dbType) {
         List<SQLStatement> stmtList = SQLUtils.parseStatements(sql, dbType);
 
         if (stmtList.size() != 1) {
@@ -54,7 +125,7 @@ public class PagerUtils {
         return count(selectStmt.getSelect(), dbType);
     }
 
-    public static String limit(String sql, String dbType, int offset, int count) {
+    static String limit0(String sql, String dbType, int offset, int count) {
         List<SQLStatement> stmtList = SQLUtils.parseStatements(sql, dbType);
 
         if (stmtList.size() != 1) {
@@ -594,6 +665,39 @@ public class PagerUtils {
         throw new DruidRuntimeException("not supported. dbType : " + dbType);
     }
 
+    private static class TemplateKey {
+
+        final String sql;
+        final String dbType;
+        final int    shape;
+        final int    hashCode;
+
+        TemplateKey(String sql, String dbType, int shape){
+            this.sql = sql;
+            this.dbType = dbType;
+            this.shape = shape;
+
+            int hashCode = sql.hashCode() * 31 + (dbType == null ? 0 : dbType.hashCode());
+            this.hashCode = hashCode * 31 + shape;
+        }
+
+        public int hashCode() {
+            return hashCode;
+        }
+
+        public boolean equals(Object obj) {
+            if (!(obj instanceof TemplateKey)) {
+                return false;
+            }
+
+            TemplateKey other = (TemplateKey) obj;
+            return hashCode == other.hashCode //
+                   && shape == other.shape //
+                   && sql.equals(other.sql) //
+                   && (dbType == null ? other.dbType == null : dbType.equals(other.dbType));
+        }
+    }
+
     private static class MySqlUnorderedLimitDetectVisitor extends MySqlASTVisitorAdapter {
         public int unorderedLimitCount;
 
@@ -0,0 +1,176 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.sql;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.druid.sql.visitor.ParameterizedOutputVisitorUtils;
+
+/**
+ * bounded cache of the parameterized sql, keyed by dbType and sql. the sql is parsed once, the parameterized sql is
+ * immutable and shared by the callers, no statement is cached or handed out. entries are evicted in least recently
+ * used order when the total length of the sql and the parameterized sql exceeds maxWeight.
+ */
+public class SQLStatementCache {
+
+    private final long                            maxWeight;
+    private final int                             maxSqlLength;
+
+    private final LinkedHashMap<CacheKey, String> entries;
+    private long                                  weight;
+
+    private final AtomicLong                      hitCount   = new AtomicLong();
+    private final AtomicLong                      missCount  = new AtomicLong();
+    private final AtomicLong                      evictCount = new AtomicLong();
+
+    public SQLStatementCache(long maxWeight){
+        this(maxWeight, (int) Math.min(Integer.MAX_VALUE, maxWeight / 8));
+    }
+
+    /**
+     * @param maxWeight max total length of the cached sql and parameterized sql
+     * @param maxSqlLength sql longer than this is parameterized without caching
+     */
+    public SQLStatementCache(long maxWeight, int maxSqlLength){
+        this.maxWeight = maxWeight;
+        this.maxSqlLength = maxSqlLength;
+        this.entries = new LinkedHashMap<CacheKey, String>(64, 0.75f, true);
+    }
+
+    /**
+     * the same as ParameterizedOutputVisitorUtils.parameterize(sql, dbType), computed once for the sql.
+     */
+    public String getParameterized(String sql, String dbType) {
+        if (sql.length() > maxSqlLength) {
+            missCount.incrementAndGet();
+            return ParameterizedOutputVisitorUtils.parameterize(sql, dbType);
+        }
+
+        CacheKey key = new CacheKey(sql, dbType);
+        String parameterized;
+        synchronized (this) {
+            parameterized = entries.get(key);
+        }
+        if (parameterized != null) {
+            hitCount.incrementAndGet();
+            return parameterized;
+        }
+
+        missCount.incrementAndGet();
+        parameterized = ParameterizedOutputVisitorUtils.parameterize(sql, dbType);
+
+        synchronized (this) {
+            String old = entries.put(key, parameterized);
+            if (old != null) {
+                weight -= weight(key, old);
+            }
+            weight += weight(key, parameterized);
+            evict();
+        }
+        return parameterized;
+    }
+
+    private static long weight(CacheKey key, String parameterized) {
+        return key.sql.length() + parameterized.length();
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<CacheKey, String>> iter = entries.entrySet().iterator();
+        while (weight > maxWeight && iter.hasNext()) {
+            Map.Entry<CacheKey, String> eldest = iter.next();
+            iter.remove();
+            weight -= weight(eldest.getKey(), eldest.getValue());
+            evictCount.incrementAndGet();
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictCount() {
+        return evictCount.get();
+    }
+
+    public void resetStat() {
+        hitCount.set(0);
+        missCount.set(0);
+        evictCount.set(0);
+    }
+
+    public Map<String, Object> getStatData() {
+        Map<String, Object> data = new LinkedHashMap<String, Object>();
+        data.put("Size", size());
+        data.put("Weight", getWeight());
+        data.put("MaxWeight", getMaxWeight());
+        data.put("HitCount", getHitCount());
+        data.put("MissCount", getMissCount());
+        data.put("EvictCount", getEvictCount());
+        return data;
+    }
+
+    private static class CacheKey {
+
+        final String sql;
+        final String dbType;
+        final int    hashCode;
+
+        CacheKey(String sql, String dbType){
+            this.sql = sql;
+            this.dbType = dbType;
+            this.hashCode = sql.hashCode() * 31 + (dbType == null ? 0 : dbType.hashCode());
+        }
+
+        public int hashCode() {
+            return hashCode;
+        }
+
+        public boolean equals(Object obj) {
+            if (!(obj instanceof CacheKey)) {
+                return false;
+            }
+
+            CacheKey other = (CacheKey) obj;
+            return hashCode == other.hashCode //
+                   && sql.equals(other.sql) //
+                   && (dbType == null ? other.dbType == null : dbType.equals(other.dbType));
+        }
+    }
+}
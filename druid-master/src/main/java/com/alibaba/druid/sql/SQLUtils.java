@@ -52,6 +52,8 @@ public class SQLUtils {
 
     private final static Log LOG = LogFactory.getLog(SQLUtils.class);
 
+    private final static SQLStatementCache statementCache = new SQLStatementCache(1024 * 1024);
+
     public static String toSQLString(SQLObject sqlObject, String dbType) {
         return toSQLString(sqlObject, dbType, null);
     }
@@ -424,6 +426,10 @@ public class SQLUtils {
         return stmtList;
     }
 
+    public static SQLStatementCache getStatementCache() {
+        return statementCache;
+    }
+
     public static List<SQLStatement> parseStatements(String sql, String dbType, boolean keepComments) {
         SQLStatementParser parser = SQLParserUtils.createSQLStatementParser(sql, dbType, keepComments);
         List<SQLStatement> stmtList = parser.parseStatementList();
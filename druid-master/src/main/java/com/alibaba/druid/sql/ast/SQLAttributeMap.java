@@ -0,0 +1,202 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.sql.ast;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * attributes of a SQLObject, kept in a small array of key value slots. an ast node has few attributes, a linear scan
+ * is faster and much smaller than a HashMap.
+ */
+public class SQLAttributeMap extends AbstractMap<String, Object> {
+
+    // key0, value0, key1, value1 ...
+    private Object[] slots;
+    private int      size;
+
+    public SQLAttributeMap(){
+        this.slots = new Object[4];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int indexOf(Object key) {
+        final int len = size << 1;
+        for (int i = 0; i < len; i += 2) {
+            if (slots[i] == key) {
+                return i;
+            }
+        }
+
+        if (key == null) {
+            return -1;
+        }
+
+        for (int i = 0; i < len; i += 2) {
+            if (key.equals(slots[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean containsKey(Object key) {
+        return indexOf(key) != -1;
+    }
+
+    public Object get(Object key) {
+        int i = indexOf(key);
+        return i == -1 ? null : slots[i + 1];
+    }
+
+    public Object put(String key, Object value) {
+        int i = indexOf(key);
+        if (i != -1) {
+            Object old = slots[i + 1];
+            slots[i + 1] = value;
+            return old;
+        }
+
+        i = size << 1;
+        if (i == slots.length) {
+            Object[] newSlots = new Object[slots.length << 1];
+            System.arraycopy(slots, 0, newSlots, 0, slots.length);
+            slots = newSlots;
+        }
+        slots[i] = key;
+        slots[i + 1] = value;
+        size++;
+        return null;
+    }
+
+    public Object remove(Object key) {
+        int i = indexOf(key);
+        if (i == -1) {
+            return null;
+        }
+
+        Object old = slots[i + 1];
+        removeAt(i);
+        return old;
+    }
+
+    private void removeAt(int i) {
+        final int len = size << 1;
+        System.arraycopy(slots, i + 2, slots, i, len - i - 2);
+        slots[len - 2] = null;
+        slots[len - 1] = null;
+        size--;
+    }
+
+    public void clear() {
+        for (int i = 0, len = size << 1; i < len; ++i) {
+            slots[i] = null;
+        }
+        size = 0;
+    }
+
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return new AbstractSet<Map.Entry<String, Object>>() {
+
+            public int size() {
+                return size;
+            }
+
+            public Iterator<Map.Entry<String, Object>> iterator() {
+                return new EntryIterator();
+            }
+        };
+    }
+
+    private class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+
+        private int next = 0;
+        private int last = -1;
+
+        public boolean hasNext() {
+            return next < size << 1;
+        }
+
+        public Map.Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next += 2;
+            return new Entry(last);
+        }
+
+        public void remove() {
+            if (last == -1) {
+                throw new IllegalStateException();
+            }
+            removeAt(last);
+            next = last;
+            last = -1;
+        }
+    }
+
+    private class Entry implements Map.Entry<String, Object> {
+
+        private final int index;
+
+        Entry(int index){
+            this.index = index;
+        }
+
+        public String getKey() {
+            return (String) slots[index];
+        }
+
+        public Object getValue() {
+            return slots[index + 1];
+        }
+
+        public Object setValue(Object value) {
+            Object old = slots[index + 1];
+            slots[index + 1] = value;
+            return old;
+        }
+
+        public int hashCode() {
+            Object key = getKey();
+            Object value = getValue();
+            return (key == null ? 0 : key.hashCode()) ^ (value == null ? 0 : value.hashCode());
+        }
+
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) obj;
+            Object key = getKey();
+            Object value = getValue();
+            return (key == null ? other.getKey() == null : key.equals(other.getKey()))
+                   && (value == null ? other.getValue() == null : value.equals(other.getValue()));
+        }
+
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
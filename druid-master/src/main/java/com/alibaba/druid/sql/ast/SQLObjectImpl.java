@@ -16,7 +16,6 @@
 package com.alibaba.druid.sql.ast;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -84,7 +83,7 @@ public abstract class SQLObjectImpl implements SQLObject {
 
     public Map<String, Object> getAttributes() {
         if (attributes == null) {
-            attributes = new HashMap<String, Object>(1);
+            attributes = new SQLAttributeMap();
         }
 
         return attributes;
@@ -100,7 +99,7 @@ public abstract class SQLObjectImpl implements SQLObject {
 
     public void putAttribute(String name, Object value) {
         if (attributes == null) {
-            attributes = new HashMap<String, Object>(1);
+            attributes = new SQLAttributeMap();
         }
 
         attributes.put(name, value);
@@ -117,7 +116,7 @@ public abstract class SQLObjectImpl implements SQLObject {
         }
         
         if (attributes == null) {
-            attributes = new HashMap<String, Object>(1);
+            attributes = new SQLAttributeMap();
         }
         
         List<String> comments = (List<String>) attributes.get("format.before_comment");
@@ -132,7 +131,7 @@ public abstract class SQLObjectImpl implements SQLObject {
     @SuppressWarnings("unchecked")
     public void addBeforeComment(List<String> comments) {
         if (attributes == null) {
-            attributes = new HashMap<String, Object>(1);
+            attributes = new SQLAttributeMap();
         }
         
         List<String> attrComments = (List<String>) attributes.get("format.before_comment");
@@ -155,7 +154,7 @@ public abstract class SQLObjectImpl implements SQLObject {
     @SuppressWarnings("unchecked")
     public void addAfterComment(String comment) {
         if (attributes == null) {
-            attributes = new HashMap<String, Object>(1);
+            attributes = new SQLAttributeMap();
         }
         
         List<String> comments = (List<String>) attributes.get("format.after_comment");
@@ -170,7 +169,7 @@ public abstract class SQLObjectImpl implements SQLObject {
     @SuppressWarnings("unchecked")
     public void addAfterComment(List<String> comments) {
         if (attributes == null) {
-            attributes = new HashMap<String, Object>(1);
+            attributes = new SQLAttributeMap();
         }
         
         List<String> attrComments = (List<String>) attributes.get("format.after_comment");
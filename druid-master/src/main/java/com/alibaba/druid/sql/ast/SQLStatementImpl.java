@@ -24,6 +24,10 @@ public abstract class SQLStatementImpl extends SQLObjectImpl implements SQLState
 
     private boolean afterSemi;
 
+    // range of the statement in the parsed script, -1 if unknown
+    private int     sourceStart = -1;
+    private int     sourceEnd   = -1;
+
     public SQLStatementImpl(){
 
     }
@@ -56,4 +60,17 @@ public abstract class SQLStatementImpl extends SQLObjectImpl implements SQLState
     public void setAfterSemi(boolean afterSemi) {
         this.afterSemi = afterSemi;
     }
+
+    public int getSourceStart() {
+        return sourceStart;
+    }
+
+    public int getSourceEnd() {
+        return sourceEnd;
+    }
+
+    public void setSourceRange(int sourceStart, int sourceEnd) {
+        this.sourceStart = sourceStart;
+        this.sourceEnd = sourceEnd;
+    }
 }
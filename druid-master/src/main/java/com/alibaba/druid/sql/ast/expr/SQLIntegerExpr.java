@@ -19,26 +19,43 @@ import com.alibaba.druid.sql.visitor.SQLASTVisitor;
 
 public class SQLIntegerExpr extends SQLNumericLiteralExpr implements SQLValuableExpr{
 
-    private Number number;
+    private Number  number;
+
+    // the value is kept unboxed when intLiteral, number is boxed from it on the first getNumber
+    private int     intValue;
+    private boolean intLiteral;
 
     public SQLIntegerExpr(Number number){
 
         this.number = number;
     }
 
+    public SQLIntegerExpr(int value){
+        this.intValue = value;
+        this.intLiteral = true;
+    }
+
     public SQLIntegerExpr(){
 
     }
 
     public Number getNumber() {
+        if (intLiteral && number == null) {
+            number = Integer.valueOf(intValue);
+        }
         return this.number;
     }
 
     public void setNumber(Number number) {
         this.number = number;
+        this.intLiteral = false;
     }
 
     public void output(StringBuffer buf) {
+        if (intLiteral) {
+            buf.append(intValue);
+            return;
+        }
         buf.append(this.number);
     }
 
@@ -52,6 +69,7 @@ public class SQLIntegerExpr extends SQLNumericLiteralExpr implements SQLValuable
     public int hashCode() {
         final int prime = 31;
         int result = 1;
+        Number number = getNumber();
         result = prime * result + ((number == null) ? 0 : number.hashCode());
         return result;
     }
@@ -68,11 +86,16 @@ public class SQLIntegerExpr extends SQLNumericLiteralExpr implements SQLValuable
             return false;
         }
         SQLIntegerExpr other = (SQLIntegerExpr) obj;
+        if (intLiteral && other.intLiteral) {
+            return intValue == other.intValue;
+        }
+        Number number = getNumber();
+        Number otherNumber = other.getNumber();
         if (number == null) {
-            if (other.number != null) {
+            if (otherNumber != null) {
                 return false;
             }
-        } else if (!number.equals(other.number)) {
+        } else if (!number.equals(otherNumber)) {
             return false;
         }
         return true;
@@ -80,10 +103,13 @@ public class SQLIntegerExpr extends SQLNumericLiteralExpr implements SQLValuable
 
     @Override
     public Object getValue() {
-        return this.number;
+        return getNumber();
     }
 
     public SQLIntegerExpr clone() {
+        if (intLiteral) {
+            return new SQLIntegerExpr(this.intValue);
+        }
         return new SQLIntegerExpr(this.number);
     }
 }
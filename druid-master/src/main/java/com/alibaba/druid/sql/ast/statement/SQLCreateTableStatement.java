@@ -16,10 +16,10 @@
 package com.alibaba.druid.sql.ast.statement;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 
 import com.alibaba.druid.sql.SQLUtils;
+import com.alibaba.druid.sql.ast.SQLAttributeMap;
 import com.alibaba.druid.sql.ast.SQLDataType;
 import com.alibaba.druid.sql.ast.SQLExpr;
 import com.alibaba.druid.sql.ast.SQLName;
@@ -131,7 +131,7 @@ public class SQLCreateTableStatement extends SQLStatementImpl implements SQLDDLS
     @SuppressWarnings("unchecked")
     public void addBodyBeforeComment(List<String> comments) {
         if (attributes == null) {
-            attributes = new HashMap<String, Object>(1);
+            attributes = new SQLAttributeMap();
         }
         
         List<String> attrComments = (List<String>) attributes.get("format.body_before_comment");
@@ -21,6 +21,10 @@ import java.util.List;
 import com.alibaba.druid.sql.ast.SQLExpr;
 import com.alibaba.druid.sql.ast.SQLObjectImpl;
 import com.alibaba.druid.sql.ast.SQLStatement;
+import com.alibaba.druid.sql.parser.ParserException;
+import com.alibaba.druid.sql.parser.SQLExprParser;
+import com.alibaba.druid.sql.parser.SQLParserUtils;
+import com.alibaba.druid.sql.parser.Token;
 import com.alibaba.druid.sql.visitor.SQLASTVisitor;
 
 public class SQLInsertStatement extends SQLInsertInto implements SQLStatement {
@@ -56,7 +60,13 @@ public class SQLInsertStatement extends SQLInsertInto implements SQLStatement {
 
     public static class ValuesClause extends SQLObjectImpl {
 
-        private final List<SQLExpr> values;
+        private volatile List<SQLExpr> values;
+
+        // text of a lazy row, between the parentheses, parsed once on the first getValues of any thread
+        private String                 source;
+        private int                    sourceStart;
+        private int                    sourceEnd;
+        private String                 dbType;
 
         public ValuesClause(){
             this(new ArrayList<SQLExpr>());
@@ -69,16 +79,74 @@ public class SQLInsertStatement extends SQLInsertInto implements SQLStatement {
             }
         }
 
+        /**
+         * a lazy row, the values are the text source[sourceStart, sourceEnd) and parsed when getValues is called.
+         */
+        public ValuesClause(String source, int sourceStart, int sourceEnd, String dbType){
+            this.source = source;
+            this.sourceStart = sourceStart;
+            this.sourceEnd = sourceEnd;
+            this.dbType = dbType;
+        }
+
         public void addValue(SQLExpr value) {
             value.setParent(this);
-            values.add(value);
+            getValues().add(value);
         }
 
         public List<SQLExpr> getValues() {
+            List<SQLExpr> values = this.values;
+            if (values == null) {
+                synchronized (this) {
+                    values = this.values;
+                    if (values == null) {
+                        values = parseValues();
+                        this.values = values;
+                    }
+                }
+            }
+            return values;
+        }
+
+        /**
+         * true if the values are not parsed yet.
+         */
+        public boolean isLazy() {
+            return values == null;
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        public int getSourceStart() {
+            return sourceStart;
+        }
+
+        public int getSourceEnd() {
+            return sourceEnd;
+        }
+
+        private List<SQLExpr> parseValues() {
+            List<SQLExpr> values = new ArrayList<SQLExpr>();
+
+            String text = source.substring(sourceStart, sourceEnd);
+            SQLExprParser parser = SQLParserUtils.createExprParser(text, dbType);
+            parser.exprList(values, this);
+            if (parser.getLexer().token() != Token.EOF) {
+                throw new ParserException("syntax error, values (" + text + ")");
+            }
             return values;
         }
 
         public void output(StringBuffer buf) {
+            if (isLazy()) {
+                buf.append(" VALUES (");
+                buf.append(source, sourceStart, sourceEnd);
+                buf.append(")");
+                return;
+            }
+
             buf.append(" VALUES (");
             for (int i = 0, size = values.size(); i < size; ++i) {
                 if (i != 0) {
@@ -92,7 +160,7 @@ public class SQLInsertStatement extends SQLInsertInto implements SQLStatement {
         @Override
         protected void accept0(SQLASTVisitor visitor) {
             if (visitor.visit(this)) {
-                this.acceptChild(visitor, values);
+                this.acceptChild(visitor, getValues());
             }
 
             visitor.endVisit(this);
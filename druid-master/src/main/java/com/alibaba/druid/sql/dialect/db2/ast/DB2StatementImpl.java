@@ -18,6 +18,7 @@ package com.alibaba.druid.sql.dialect.db2.ast;
 import com.alibaba.druid.sql.ast.SQLStatementImpl;
 import com.alibaba.druid.sql.dialect.db2.visitor.DB2ASTVisitor;
 import com.alibaba.druid.sql.visitor.SQLASTVisitor;
+import com.alibaba.druid.sql.visitor.SQLASTVisitorDialect;
 import com.alibaba.druid.util.JdbcConstants;
 
 public abstract class DB2StatementImpl extends SQLStatementImpl implements DB2Object {
@@ -28,7 +29,7 @@ public abstract class DB2StatementImpl extends SQLStatementImpl implements DB2Ob
 
     @Override
     protected void accept0(SQLASTVisitor visitor) {
-        if (visitor instanceof DB2ASTVisitor) {
+        if (SQLASTVisitorDialect.isDialect(visitor, SQLASTVisitorDialect.DB2)) {
             accept0((DB2ASTVisitor) visitor);
             return;
         }
@@ -20,6 +20,7 @@ import com.alibaba.druid.sql.ast.statement.SQLSelectQueryBlock;
 import com.alibaba.druid.sql.dialect.db2.ast.DB2Object;
 import com.alibaba.druid.sql.dialect.db2.visitor.DB2ASTVisitor;
 import com.alibaba.druid.sql.visitor.SQLASTVisitor;
+import com.alibaba.druid.sql.visitor.SQLASTVisitorDialect;
 
 public class DB2SelectQueryBlock extends SQLSelectQueryBlock implements DB2Object {
 
@@ -33,7 +34,7 @@ public class DB2SelectQueryBlock extends SQLSelectQueryBlock implements DB2Objec
 
     @Override
     protected void accept0(SQLASTVisitor visitor) {
-        if (visitor instanceof DB2ASTVisitor) {
+        if (SQLASTVisitorDialect.isDialect(visitor, SQLASTVisitorDialect.DB2)) {
             accept0((DB2ASTVisitor) visitor);
             return;
         }
@@ -21,6 +21,7 @@ import com.alibaba.druid.sql.ast.statement.SQLUnique;
 import com.alibaba.druid.sql.ast.statement.SQLUniqueConstraint;
 import com.alibaba.druid.sql.dialect.mysql.visitor.MySqlASTVisitor;
 import com.alibaba.druid.sql.visitor.SQLASTVisitor;
+import com.alibaba.druid.sql.visitor.SQLASTVisitorDialect;
 
 public class MySqlKey extends SQLUnique implements SQLUniqueConstraint, SQLTableConstraint {
 
@@ -36,7 +37,7 @@ public class MySqlKey extends SQLUnique implements SQLUniqueConstraint, SQLTable
 
     @Override
     protected void accept0(SQLASTVisitor visitor) {
-        if (visitor instanceof MySqlASTVisitor) {
+        if (SQLASTVisitorDialect.isDialect(visitor, SQLASTVisitorDialect.MYSQL)) {
             accept0((MySqlASTVisitor) visitor);
         }
     }
@@ -18,12 +18,13 @@ package com.alibaba.druid.sql.dialect.mysql.ast;
 import com.alibaba.druid.sql.ast.SQLObjectImpl;
 import com.alibaba.druid.sql.dialect.mysql.visitor.MySqlASTVisitor;
 import com.alibaba.druid.sql.visitor.SQLASTVisitor;
+import com.alibaba.druid.sql.visitor.SQLASTVisitorDialect;
 
 public abstract class MySqlObjectImpl extends SQLObjectImpl implements MySqlObject {
 
     @Override
     protected void accept0(SQLASTVisitor visitor) {
-        if (visitor instanceof MySqlASTVisitor) {
+        if (SQLASTVisitorDialect.isDialect(visitor, SQLASTVisitorDialect.MYSQL)) {
             accept0((MySqlASTVisitor) visitor);
         } else {
             throw new IllegalArgumentException("not support visitor type : " + visitor.getClass().getName());
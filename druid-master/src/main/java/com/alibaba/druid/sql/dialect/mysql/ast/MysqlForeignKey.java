@@ -19,6 +19,7 @@ import com.alibaba.druid.sql.ast.SQLName;
 import com.alibaba.druid.sql.ast.statement.SQLForeignKeyImpl;
 import com.alibaba.druid.sql.dialect.mysql.visitor.MySqlASTVisitor;
 import com.alibaba.druid.sql.visitor.SQLASTVisitor;
+import com.alibaba.druid.sql.visitor.SQLASTVisitorDialect;
 
 /**
  * @author kiki
@@ -52,7 +53,7 @@ public class MysqlForeignKey extends SQLForeignKeyImpl {
 
     @Override
     protected void accept0(SQLASTVisitor visitor) {
-        if (visitor instanceof MySqlASTVisitor) {
+        if (SQLASTVisitorDialect.isDialect(visitor, SQLASTVisitorDialect.MYSQL)) {
             accept0((MySqlASTVisitor) visitor);
         }
     }
@@ -18,6 +18,7 @@ package com.alibaba.druid.sql.dialect.mysql.ast.expr;
 import com.alibaba.druid.sql.ast.expr.SQLCharExpr;
 import com.alibaba.druid.sql.dialect.mysql.visitor.MySqlASTVisitor;
 import com.alibaba.druid.sql.visitor.SQLASTVisitor;
+import com.alibaba.druid.sql.visitor.SQLASTVisitorDialect;
 
 public class MySqlCharExpr extends SQLCharExpr implements MySqlExpr {
 
@@ -65,7 +66,7 @@ public class MySqlCharExpr extends SQLCharExpr implements MySqlExpr {
 
     @Override
     protected void accept0(SQLASTVisitor visitor) {
-        if (visitor instanceof MySqlASTVisitor) {
+        if (SQLASTVisitorDialect.isDialect(visitor, SQLASTVisitorDialect.MYSQL)) {
             accept0((MySqlASTVisitor) visitor);
         } else {
             visitor.visit(this);
@@ -0,0 +1,1323 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.sql.dialect.mysql.executor;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.druid.DruidRuntimeException;
+import com.alibaba.druid.sql.SQLUtils;
+import com.alibaba.druid.sql.ast.SQLDataType;
+import com.alibaba.druid.sql.ast.SQLDeclareItem;
+import com.alibaba.druid.sql.ast.SQLExpr;
+import com.alibaba.druid.sql.ast.SQLName;
+import com.alibaba.druid.sql.ast.SQLObject;
+import com.alibaba.druid.sql.ast.SQLParameter;
+import com.alibaba.druid.sql.ast.SQLParameter.ParameterType;
+import com.alibaba.druid.sql.ast.SQLStatement;
+import com.alibaba.druid.sql.ast.expr.SQLIdentifierExpr;
+import com.alibaba.druid.sql.ast.expr.SQLListExpr;
+import com.alibaba.druid.sql.ast.expr.SQLMethodInvokeExpr;
+import com.alibaba.druid.sql.ast.expr.SQLPropertyExpr;
+import com.alibaba.druid.sql.ast.expr.SQLVariantRefExpr;
+import com.alibaba.druid.sql.ast.statement.SQLAssignItem;
+import com.alibaba.druid.sql.ast.statement.SQLBlockStatement;
+import com.alibaba.druid.sql.ast.statement.SQLCloseStatement;
+import com.alibaba.druid.sql.ast.statement.SQLColumnDefinition;
+import com.alibaba.druid.sql.ast.statement.SQLCreateProcedureStatement;
+import com.alibaba.druid.sql.ast.statement.SQLExprTableSource;
+import com.alibaba.druid.sql.ast.statement.SQLFetchStatement;
+import com.alibaba.druid.sql.ast.statement.SQLIfStatement;
+import com.alibaba.druid.sql.ast.statement.SQLInsertStatement;
+import com.alibaba.druid.sql.ast.statement.SQLLoopStatement;
+import com.alibaba.druid.sql.ast.statement.SQLOpenStatement;
+import com.alibaba.druid.sql.ast.statement.SQLReturnStatement;
+import com.alibaba.druid.sql.ast.statement.SQLSelect;
+import com.alibaba.druid.sql.ast.statement.SQLSelectQuery;
+import com.alibaba.druid.sql.ast.statement.SQLSelectQueryBlock;
+import com.alibaba.druid.sql.ast.statement.SQLSelectStatement;
+import com.alibaba.druid.sql.ast.statement.SQLSetStatement;
+import com.alibaba.druid.sql.ast.statement.SQLUpdateSetItem;
+import com.alibaba.druid.sql.ast.statement.SQLWhileStatement;
+import com.alibaba.druid.sql.dialect.mysql.ast.clause.ConditionValue;
+import com.alibaba.druid.sql.dialect.mysql.ast.clause.ConditionValue.ConditionType;
+import com.alibaba.druid.sql.dialect.mysql.ast.clause.MySqlCaseStatement;
+import com.alibaba.druid.sql.dialect.mysql.ast.clause.MySqlCaseStatement.MySqlWhenStatement;
+import com.alibaba.druid.sql.dialect.mysql.ast.clause.MySqlCursorDeclareStatement;
+import com.alibaba.druid.sql.dialect.mysql.ast.clause.MySqlDeclareConditionStatement;
+import com.alibaba.druid.sql.dialect.mysql.ast.clause.MySqlDeclareHandlerStatement;
+import com.alibaba.druid.sql.dialect.mysql.ast.clause.MySqlDeclareStatement;
+import com.alibaba.druid.sql.dialect.mysql.ast.clause.MySqlHandlerType;
+import com.alibaba.druid.sql.dialect.mysql.ast.clause.MySqlIterateStatement;
+import com.alibaba.druid.sql.dialect.mysql.ast.clause.MySqlLeaveStatement;
+import com.alibaba.druid.sql.dialect.mysql.ast.clause.MySqlRepeatStatement;
+import com.alibaba.druid.sql.dialect.mysql.ast.clause.MySqlSelectIntoStatement;
+import com.alibaba.druid.sql.dialect.mysql.visitor.MySqlASTVisitorAdapter;
+import com.alibaba.druid.sql.dialect.mysql.visitor.MySqlOutputVisitor;
+import com.alibaba.druid.sql.visitor.SQLCompiledExpr;
+import com.alibaba.druid.sql.visitor.SQLEvalVisitorUtils;
+import com.alibaba.druid.util.JdbcConstants;
+
+/**
+ * compiles a procedure body to a tree of instructions for MySqlProcedureExecutor. the variables are resolved to the
+ * slots of a frame at compile time, the expressions are compiled by SQLEvalVisitorUtils.compile with the slots as
+ * parameters, and the embedded sql is printed once with a '?' for each variable it references.
+ */
+final class MySqlProcedureCompiler {
+
+    private final static String            dbType         = JdbcConstants.MYSQL;
+
+    private final SQLCreateProcedureStatement procedure;
+
+    private final List<SQLDataType>        slotTypes      = new ArrayList<SQLDataType>();
+    private final Map<String, Integer>     userVariables  = new LinkedHashMap<String, Integer>();
+    private final List<Sql>                cursorQueries  = new ArrayList<Sql>();
+    private final List<Label>              labels         = new ArrayList<Label>();
+    private Scope                          scope;
+
+    MySqlProcedureCompiler(SQLCreateProcedureStatement procedure){
+        this.procedure = procedure;
+    }
+
+    Program compile() {
+        List<SQLParameter> parameters = procedure.getParameters();
+        ParameterType[] parameterTypes = new ParameterType[parameters.size()];
+
+        scope = new Scope(null);
+        for (int i = 0; i < parameters.size(); ++i) {
+            SQLParameter parameter = parameters.get(i);
+            parameterTypes[i] = parameter.getParamType();
+            scope.variables.put(normalize(parameter.getName()), allocate(parameter.getDataType()));
+        }
+
+        procedure.getBlock().accept(new MySqlASTVisitorAdapter() {
+
+            public boolean visit(SQLVariantRefExpr x) {
+                userVariable(x.getName());
+                return false;
+            }
+        });
+
+        SQLStatement body = procedure.getBlock();
+        Block block;
+        if (body instanceof SQLBlockStatement) {
+            block = compileBlock((SQLBlockStatement) body);
+        } else {
+            block = new Block();
+            block.statements = compile(Collections.singletonList(body));
+        }
+
+        Program program = new Program();
+        program.name = procedure.getName() == null ? null : procedure.getName().getSimpleName();
+        program.parameterTypes = parameterTypes;
+        program.slotTypes = slotTypes.toArray(new SQLDataType[slotTypes.size()]);
+        program.userVariables = userVariables;
+        program.cursorCount = cursorQueries.size();
+        program.body = block;
+        return program;
+    }
+
+    private int allocate(SQLDataType dataType) {
+        slotTypes.add(dataType);
+        return slotTypes.size() - 1;
+    }
+
+    private Integer userVariable(String name) {
+        if (!name.startsWith("@") || name.startsWith("@@")) {
+            return null;
+        }
+
+        name = name.toLowerCase();
+        Integer slot = userVariables.get(name);
+        if (slot == null) {
+            slot = allocate(null);
+            userVariables.put(name, slot);
+        }
+        return slot;
+    }
+
+    private static String normalize(SQLExpr name) {
+        String text = name instanceof SQLName ? ((SQLName) name).getSimpleName() : name.toString();
+        return SQLUtils.normalize(text).toLowerCase();
+    }
+
+    private static String nameOf(SQLExpr expr) {
+        if (expr instanceof SQLIdentifierExpr) {
+            return SQLUtils.normalize(((SQLIdentifierExpr) expr).getName()).toLowerCase();
+        }
+        if (expr instanceof SQLVariantRefExpr) {
+            return ((SQLVariantRefExpr) expr).getName().toLowerCase();
+        }
+        return null;
+    }
+
+    private Integer slot(String name) {
+        if (name == null) {
+            return null;
+        }
+
+        if (name.startsWith("@")) {
+            return userVariable(name);
+        }
+
+        for (Scope s = scope; s != null; s = s.parent) {
+            Integer slot = s.variables.get(name);
+            if (slot != null) {
+                return slot;
+            }
+        }
+        return null;
+    }
+
+    private int target(SQLExpr expr) {
+        Integer slot = slot(nameOf(expr));
+        if (slot == null) {
+            throw new DruidRuntimeException("Undeclared variable: " + expr);
+        }
+        return slot;
+    }
+
+    private int[] targets(List<SQLExpr> exprList) {
+        int[] targets = new int[exprList.size()];
+        for (int i = 0; i < targets.length; ++i) {
+            targets[i] = target(exprList.get(i));
+        }
+        return targets;
+    }
+
+    /**
+     * the variables of the current scope, the inner declarations hide the outer ones
+     */
+    private Map<String, Integer> visibleVariables() {
+        List<Scope> scopes = new ArrayList<Scope>();
+        for (Scope s = scope; s != null; s = s.parent) {
+            scopes.add(s);
+        }
+
+        Map<String, Integer> variables = new HashMap<String, Integer>(userVariables);
+        for (int i = scopes.size() - 1; i >= 0; --i) {
+            variables.putAll(scopes.get(i).variables);
+        }
+        return variables;
+    }
+
+    private Block compileBlock(SQLBlockStatement x) {
+        Block block = new Block();
+        pushLabel(x.getLabelName(), block, false);
+        scope = new Scope(scope);
+
+        List<Instruction> instructions = new ArrayList<Instruction>();
+        List<Handler> handlers = new ArrayList<Handler>();
+        List<Integer> cursors = new ArrayList<Integer>();
+        for (SQLStatement stmt : x.getStatementList()) {
+            if (stmt instanceof MySqlDeclareHandlerStatement) {
+                handlers.add(compileHandler((MySqlDeclareHandlerStatement) stmt, block));
+            } else if (stmt instanceof MySqlDeclareConditionStatement) {
+                MySqlDeclareConditionStatement condition = (MySqlDeclareConditionStatement) stmt;
+                scope.conditions.put(condition.getConditionName().toLowerCase(), condition.getConditionValue());
+            } else if (stmt instanceof MySqlCursorDeclareStatement) {
+                MySqlCursorDeclareStatement cursor = (MySqlCursorDeclareStatement) stmt;
+                scope.cursors.put(cursor.getCursorName().toLowerCase(), cursorQueries.size());
+                cursors.add(cursorQueries.size());
+                cursorQueries.add(sql(cursor.getSelect(), null));
+            } else {
+                compile(stmt, instructions);
+            }
+        }
+
+        scope = scope.parent;
+        popLabel(x.getLabelName());
+
+        block.statements = instructions.toArray(new Instruction[instructions.size()]);
+        block.handlers = handlers.toArray(new Handler[handlers.size()]);
+        block.cursors = new int[cursors.size()];
+        for (int i = 0; i < block.cursors.length; ++i) {
+            block.cursors[i] = cursors.get(i);
+        }
+        return block;
+    }
+
+    private Instruction[] compile(List<SQLStatement> statementList) {
+        List<Instruction> instructions = new ArrayList<Instruction>(statementList.size());
+        for (SQLStatement stmt : statementList) {
+            compile(stmt, instructions);
+        }
+        return instructions.toArray(new Instruction[instructions.size()]);
+    }
+
+    private void compile(SQLStatement x, List<Instruction> out) {
+        if (x instanceof SQLSetStatement) {
+            for (SQLAssignItem item : ((SQLSetStatement) x).getItems()) {
+                Integer slot = slot(nameOf(item.getTarget()));
+                if (slot != null) {
+                    out.add(new Assign(slot, value(item.getValue())));
+                } else {
+                    // a system variable
+                    out.add(new Update(sql(item, "SET ")));
+                }
+            }
+            return;
+        }
+
+        if (x instanceof MySqlDeclareStatement) {
+            compileDeclare((MySqlDeclareStatement) x, out);
+            return;
+        }
+
+        out.add(compile(x));
+    }
+
+    private Instruction compile(SQLStatement x) {
+        if (x instanceof SQLBlockStatement) {
+            return compileBlock((SQLBlockStatement) x);
+        }
+
+        if (x instanceof SQLIfStatement) {
+            SQLIfStatement ifStmt = (SQLIfStatement) x;
+            List<SQLIfStatement.ElseIf> elseIfList = ifStmt.getElseIfList();
+
+            If instruction = new If();
+            instruction.conditions = new Value[elseIfList.size() + 1];
+            instruction.bodies = new Instruction[elseIfList.size() + 1][];
+            instruction.conditions[0] = value(ifStmt.getCondition());
+            instruction.bodies[0] = compile(ifStmt.getStatements());
+            for (int i = 0; i < elseIfList.size(); ++i) {
+                instruction.conditions[i + 1] = value(elseIfList.get(i).getCondition());
+                instruction.bodies[i + 1] = compile(elseIfList.get(i).getStatements());
+            }
+            if (ifStmt.getElseItem() != null) {
+                instruction.elseBody = compile(ifStmt.getElseItem().getStatements());
+            }
+            return instruction;
+        }
+
+        if (x instanceof MySqlCaseStatement) {
+            MySqlCaseStatement caseStmt = (MySqlCaseStatement) x;
+            List<MySqlWhenStatement> whenList = caseStmt.getWhenList();
+
+            Case instruction = new Case();
+            instruction.value = caseStmt.getCondition() == null ? null : value(caseStmt.getCondition());
+            instruction.whens = new Value[whenList.size()];
+            instruction.bodies = new Instruction[whenList.size()][];
+            for (int i = 0; i < whenList.size(); ++i) {
+                instruction.whens[i] = value(whenList.get(i).getCondition());
+                instruction.bodies[i] = compile(whenList.get(i).getStatements());
+            }
+            if (caseStmt.getElseItem() != null) {
+                instruction.elseBody = compile(caseStmt.getElseItem().getStatements());
+            }
+            return instruction;
+        }
+
+        if (x instanceof SQLWhileStatement) {
+            SQLWhileStatement whileStmt = (SQLWhileStatement) x;
+            While instruction = new While();
+            instruction.condition = value(whileStmt.getCondition());
+            pushLabel(whileStmt.getLabelName(), instruction, true);
+            instruction.body = compile(whileStmt.getStatements());
+            popLabel(whileStmt.getLabelName());
+            return instruction;
+        }
+
+        if (x instanceof SQLLoopStatement) {
+            SQLLoopStatement loopStmt = (SQLLoopStatement) x;
+            Loop instruction = new Loop();
+            pushLabel(loopStmt.getLabelName(), instruction, true);
+            instruction.body = compile(loopStmt.getStatements());
+            popLabel(loopStmt.getLabelName());
+            return instruction;
+        }
+
+        if (x instanceof MySqlRepeatStatement) {
+            MySqlRepeatStatement repeatStmt = (MySqlRepeatStatement) x;
+            Repeat instruction = new Repeat();
+            pushLabel(repeatStmt.getLabelName(), instruction, true);
+            instruction.body = compile(repeatStmt.getStatements());
+            popLabel(repeatStmt.getLabelName());
+            instruction.condition = value(repeatStmt.getCondition());
+            return instruction;
+        }
+
+        if (x instanceof MySqlLeaveStatement) {
+            return jump(((MySqlLeaveStatement) x).getLabelName(), false);
+        }
+
+        if (x instanceof MySqlIterateStatement) {
+            return jump(((MySqlIterateStatement) x).getLabelName(), true);
+        }
+
+        if (x instanceof SQLOpenStatement) {
+            int cursor = cursor(((SQLOpenStatement) x).getCursorName());
+            return new Open(cursor, cursorQueries.get(cursor));
+        }
+
+        if (x instanceof SQLFetchStatement) {
+            SQLFetchStatement fetch = (SQLFetchStatement) x;
+            return new Fetch(cursor(fetch.getCursorName().getSimpleName()), targets(fetch.getInto()));
+        }
+
+        if (x instanceof SQLCloseStatement) {
+            return new Close(cursor(((SQLCloseStatement) x).getCursorName()));
+        }
+
+        if (x instanceof MySqlSelectIntoStatement) {
+            MySqlSelectIntoStatement selectInto = (MySqlSelectIntoStatement) x;
+            return new SelectInto(sql(selectInto.getSelect(), null), targets(selectInto.getVarList()));
+        }
+
+        if (x instanceof SQLSelectStatement) {
+            SQLSelect select = ((SQLSelectStatement) x).getSelect();
+            SQLSelectQuery query = select.getQuery();
+            SQLExprTableSource into = query instanceof SQLSelectQueryBlock ? ((SQLSelectQueryBlock) query).getInto() : null;
+            if (into == null) {
+                return new Query(sql(x, null));
+            }
+
+            SQLExpr intoExpr = into.getExpr();
+            List<SQLExpr> intoList = intoExpr instanceof SQLListExpr //
+                ? ((SQLListExpr) intoExpr).getItems() //
+                : Collections.singletonList(intoExpr);
+            int[] targets = targets(intoList);
+
+            SQLSelectQueryBlock queryBlock = (SQLSelectQueryBlock) query;
+            queryBlock.setInto((SQLExprTableSource) null);
+            try {
+                return new SelectInto(sql(x, null), targets);
+            } finally {
+                queryBlock.setInto(into);
+            }
+        }
+
+        if (x instanceof SQLReturnStatement) {
+            throw new DruidRuntimeException("RETURN is only allowed in a FUNCTION");
+        }
+
+        if (x instanceof MySqlDeclareHandlerStatement //
+            || x instanceof MySqlDeclareConditionStatement //
+            || x instanceof MySqlCursorDeclareStatement) {
+            throw new DruidRuntimeException("DECLARE is only allowed at the start of BEGIN ... END : " + x);
+        }
+
+        return new Update(sql(x, null));
+    }
+
+    private void compileDeclare(MySqlDeclareStatement x, List<Instruction> out) {
+        List<SQLDeclareItem> items = x.getVarList();
+
+        // declare a, b int default 0, the type and the default are the last item's
+        SQLDataType[] types = new SQLDataType[items.size()];
+        Value[] values = new Value[items.size()];
+        SQLDataType dataType = null;
+        Value value = null;
+        for (int i = items.size() - 1; i >= 0; --i) {
+            SQLDeclareItem item = items.get(i);
+            if (item.getDataType() != null) {
+                dataType = item.getDataType();
+                value = item.getValue() == null ? null : value(item.getValue());
+            }
+            types[i] = dataType;
+            values[i] = value;
+        }
+
+        for (int i = 0; i < items.size(); ++i) {
+            int slot = allocate(types[i]);
+            scope.variables.put(normalize(items.get(i).getName()), slot);
+            out.add(new Assign(slot, values[i]));
+        }
+    }
+
+    private Handler compileHandler(MySqlDeclareHandlerStatement x, Block block) {
+        List<ConditionValue> conditionValues = x.getConditionValues();
+
+        Handler handler = new Handler();
+        handler.block = block;
+        handler.exit = x.getHandleType() != MySqlHandlerType.CONTINUE;
+        handler.conditions = new Condition[conditionValues.size()];
+        for (int i = 0; i < conditionValues.size(); ++i) {
+            handler.conditions[i] = condition(conditionValues.get(i));
+        }
+        handler.body = compile(Collections.singletonList(x.getSpStatement()));
+        return handler;
+    }
+
+    private Condition condition(ConditionValue conditionValue) {
+        String value = conditionValue.getValue();
+        ConditionType type = conditionValue.getType();
+
+        if (type == ConditionType.SELF) {
+            for (Scope s = scope; s != null; s = s.parent) {
+                ConditionValue declared = s.conditions.get(value.toLowerCase());
+                if (declared != null) {
+                    return condition(declared);
+                }
+            }
+            throw new DruidRuntimeException("Undefined CONDITION: " + value);
+        }
+
+        Condition condition = new Condition();
+        if (type == ConditionType.SQLSTATE) {
+            condition.type = Condition.SQLSTATE;
+            condition.sqlState = value.replace("'", "").replace("\"", "");
+        } else if (type == ConditionType.MYSQL_ERROR_CODE) {
+            condition.type = Condition.ERROR_CODE;
+            condition.errorCode = Integer.parseInt(value);
+        } else if ("NOT FOUND".equalsIgnoreCase(value)) {
+            condition.type = Condition.NOT_FOUND;
+        } else if ("SQLWARNING".equalsIgnoreCase(value)) {
+            condition.type = Condition.SQLWARNING;
+        } else {
+            condition.type = Condition.SQLEXCEPTION;
+        }
+        return condition;
+    }
+
+    private int cursor(String name) {
+        name = SQLUtils.normalize(name).toLowerCase();
+        for (Scope s = scope; s != null; s = s.parent) {
+            Integer cursor = s.cursors.get(name);
+            if (cursor != null) {
+                return cursor;
+            }
+        }
+        throw new DruidRuntimeException("Undefined CURSOR: " + name);
+    }
+
+    private void pushLabel(String name, Instruction target, boolean loop) {
+        if (name != null) {
+            labels.add(new Label(name, target, loop));
+        }
+    }
+
+    private void popLabel(String name) {
+        if (name != null) {
+            labels.remove(labels.size() - 1);
+        }
+    }
+
+    private Jump jump(String name, boolean iterate) {
+        for (int i = labels.size() - 1; i >= 0; --i) {
+            Label label = labels.get(i);
+            if (label.name.equalsIgnoreCase(name) && (label.loop || !iterate)) {
+                return new Jump(label.target, iterate);
+            }
+        }
+        throw new DruidRuntimeException((iterate ? "ITERATE" : "LEAVE") + " with no matching label: " + name);
+    }
+
+    private Value value(SQLExpr expr) {
+        SubQueryFinder finder = new SubQueryFinder();
+        expr.accept(finder);
+        if (finder.found) {
+            return new Value(expr, null, sql(expr, "SELECT "));
+        }
+        return new Value(expr, SQLEvalVisitorUtils.compile(dbType, expr, visibleVariables()), null);
+    }
+
+    private Sql sql(SQLObject x, String prefix) {
+        StringBuilder buf = new StringBuilder();
+        if (prefix != null) {
+            buf.append(prefix);
+        }
+
+        BindOutputVisitor visitor = new BindOutputVisitor(buf, visibleVariables());
+        visitor.setPrettyFormat(false);
+        x.accept(visitor);
+
+        int[] slots = new int[visitor.slots.size()];
+        for (int i = 0; i < slots.length; ++i) {
+            slots[i] = visitor.slots.get(i);
+        }
+        return new Sql(buf.toString(), slots);
+    }
+
+    static Object cast(Object value, SQLDataType dataType) throws SQLException {
+        if (value == null || dataType == null) {
+            return value;
+        }
+
+        String name = dataType.getName().toLowerCase();
+        if (name.endsWith("int") || "integer".equals(name) || "bool".equals(name) || "boolean".equals(name)) {
+            if (value instanceof Long) {
+                return value;
+            }
+            if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                return ((Number) value).longValue();
+            }
+            return toDecimal(value, name).setScale(0, RoundingMode.HALF_UP).longValue();
+        }
+
+        if ("decimal".equals(name) || "numeric".equals(name) || "dec".equals(name) || "fixed".equals(name)) {
+            List<SQLExpr> arguments = dataType.getArguments();
+            int scale = 0;
+            if (arguments.size() > 1) {
+                scale = ((Number) SQLEvalVisitorUtils.getValue(arguments.get(1))).intValue();
+            }
+            return toDecimal(value, name).setScale(scale, RoundingMode.HALF_UP);
+        }
+
+        if ("double".equals(name) || "float".equals(name) || "real".equals(name)) {
+            if (value instanceof Number) {
+                return ((Number) value).doubleValue();
+            }
+            return toDecimal(value, name).doubleValue();
+        }
+
+        if (name.endsWith("char") || name.endsWith("text") || "enum".equals(name) || "set".equals(name)) {
+            if (value instanceof BigDecimal) {
+                return ((BigDecimal) value).toPlainString();
+            }
+            return value.toString();
+        }
+
+        return value;
+    }
+
+    private static BigDecimal toDecimal(Object value, String typeName) throws SQLException {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        if (value instanceof Double || value instanceof Float) {
+            if (!isFinite(value)) {
+                throw new SQLException("Incorrect " + typeName + " value: '" + value + "'", "HY000", 1366);
+            }
+            return BigDecimal.valueOf(((Number) value).doubleValue());
+        }
+        if (value instanceof BigInteger) {
+            return new BigDecimal((BigInteger) value);
+        }
+        if (value instanceof Number) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        }
+        if (value instanceof Boolean) {
+            return ((Boolean) value).booleanValue() ? BigDecimal.ONE : BigDecimal.ZERO;
+        }
+
+        try {
+            return new BigDecimal(value.toString().trim());
+        } catch (NumberFormatException ex) {
+            throw new SQLException("Incorrect " + typeName + " value: '" + value + "'", "HY000", 1366);
+        }
+    }
+
+    /**
+     * false for the infinity and nan of a double division by zero
+     */
+    static boolean isFinite(Object value) {
+        if (value instanceof Double) {
+            double doubleValue = ((Double) value).doubleValue();
+            return !Double.isInfinite(doubleValue) && !Double.isNaN(doubleValue);
+        }
+        if (value instanceof Float) {
+            float floatValue = ((Float) value).floatValue();
+            return !Float.isInfinite(floatValue) && !Float.isNaN(floatValue);
+        }
+        return true;
+    }
+
+    static boolean isTrue(Object value) {
+        if (value == null) {
+            return false;
+        }
+        if (value instanceof Boolean) {
+            return ((Boolean) value).booleanValue();
+        }
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).signum() != 0;
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return ((Number) value).doubleValue() != 0;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).longValue() != 0;
+        }
+
+        try {
+            return new BigDecimal(value.toString().trim()).signum() != 0;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    static SQLException notFound() {
+        return new SQLException("No data - zero rows fetched, selected, or processed", "02000", 1329);
+    }
+
+    /**
+     * the compiled procedure, shared by the executions
+     */
+    static final class Program {
+
+        String               name;
+        ParameterType[]      parameterTypes;
+        SQLDataType[]        slotTypes;
+        Map<String, Integer> userVariables;
+        int                  cursorCount;
+        Block                body;
+
+        Frame newFrame(MySqlProcedureStatementHandler statementHandler) {
+            return new Frame(this, statementHandler);
+        }
+    }
+
+    /**
+     * the state of an execution, the values of the variables and the open cursors
+     */
+    static final class Frame {
+
+        final Object[]                       values;
+        final List<Object>                   parameters;
+        final SQLDataType[]                  types;
+        final CursorRows[]                   cursors;
+        final MySqlProcedureStatementHandler statementHandler;
+
+        private List<Handler>                handlers = new ArrayList<Handler>();
+        private SQLException                 unhandled;
+
+        Frame(Program program, MySqlProcedureStatementHandler statementHandler){
+            this.values = new Object[program.slotTypes.length];
+            this.parameters = Arrays.asList(values);
+            this.types = program.slotTypes;
+            this.cursors = new CursorRows[program.cursorCount];
+            this.statementHandler = statementHandler;
+        }
+
+        void assign(int slot, Object value) throws SQLException {
+            values[slot] = cast(value, types[slot]);
+        }
+
+        /**
+         * run the handler of the innermost block which matches the condition best
+         *
+         * @return the jump of an exit handler, null to continue with the next statement
+         */
+        Jump handle(SQLException ex) throws SQLException {
+            if (ex == unhandled) {
+                throw ex;
+            }
+
+            Handler handler = null;
+            int index = -1;
+            int best = 0;
+            for (int i = handlers.size() - 1; i >= 0; --i) {
+                Handler item = handlers.get(i);
+                if (handler != null && item.block != handler.block) {
+                    break;
+                }
+
+                int match = item.match(ex);
+                if (match > best) {
+                    handler = item;
+                    index = i;
+                    best = match;
+                }
+            }
+
+            if (handler == null) {
+                unhandled = ex;
+                throw ex;
+            }
+
+            // a condition of the handler body is handled by the handlers of the outer blocks
+            int base = index;
+            while (base > 0 && handlers.get(base - 1).block == handler.block) {
+                --base;
+            }
+            List<Handler> saved = handlers;
+            handlers = new ArrayList<Handler>(saved.subList(0, base));
+
+            Jump jump;
+            try {
+                jump = execute(handler.body, this);
+            } catch (SQLException e) {
+                unhandled = e;
+                throw e;
+            } finally {
+                handlers = saved;
+            }
+
+            if (jump != null) {
+                return jump;
+            }
+            return handler.exit ? handler.block.exit : null;
+        }
+    }
+
+    static final class CursorRows {
+
+        final List<Object[]> rows;
+        int                  position;
+
+        CursorRows(List<Object[]> rows){
+            this.rows = rows;
+        }
+    }
+
+    static Jump execute(Instruction[] instructions, Frame frame) throws SQLException {
+        for (Instruction instruction : instructions) {
+            Jump jump;
+            try {
+                jump = instruction.execute(frame);
+            } catch (SQLException ex) {
+                jump = frame.handle(ex);
+            }
+
+            if (jump != null) {
+                return jump;
+            }
+        }
+        return null;
+    }
+
+    abstract static class Instruction {
+
+        /**
+         * @return null to go on with the next statement, or the jump of a LEAVE, ITERATE or EXIT handler
+         */
+        abstract Jump execute(Frame frame) throws SQLException;
+    }
+
+    static final class Jump extends Instruction {
+
+        final Instruction target;
+        final boolean     iterate;
+
+        Jump(Instruction target, boolean iterate){
+            this.target = target;
+            this.iterate = iterate;
+        }
+
+        Jump execute(Frame frame) {
+            return this;
+        }
+    }
+
+    static final class Block extends Instruction {
+
+        final Jump    exit       = new Jump(this, false);
+
+        Instruction[] statements;
+        Handler[]     handlers   = new Handler[0];
+        int[]         cursors    = new int[0];
+
+        Jump execute(Frame frame) throws SQLException {
+            List<Handler> handlerStack = frame.handlers;
+            int depth = handlerStack.size();
+            handlerStack.addAll(Arrays.asList(handlers));
+            try {
+                Jump jump = MySqlProcedureCompiler.execute(statements, frame);
+                return jump == null || jump.target == this ? null : jump;
+            } finally {
+                while (handlerStack.size() > depth) {
+                    handlerStack.remove(handlerStack.size() - 1);
+                }
+                for (int cursor : cursors) {
+                    frame.cursors[cursor] = null;
+                }
+            }
+        }
+    }
+
+    static final class If extends Instruction {
+
+        Value[]         conditions;
+        Instruction[][] bodies;
+        Instruction[]   elseBody;
+
+        Jump execute(Frame frame) throws SQLException {
+            for (int i = 0; i < conditions.length; ++i) {
+                if (isTrue(conditions[i].eval(frame))) {
+                    return MySqlProcedureCompiler.execute(bodies[i], frame);
+                }
+            }
+            if (elseBody != null) {
+                return MySqlProcedureCompiler.execute(elseBody, frame);
+            }
+            return null;
+        }
+    }
+
+    static final class Case extends Instruction {
+
+        Value           value;
+        Value[]         whens;
+        Instruction[][] bodies;
+        Instruction[]   elseBody;
+
+        Jump execute(Frame frame) throws SQLException {
+            Object caseValue = value == null ? null : value.eval(frame);
+            for (int i = 0; i < whens.length; ++i) {
+                Object when = whens[i].eval(frame);
+                boolean match;
+                if (value == null) {
+                    match = isTrue(when);
+                } else {
+                    match = caseValue != null && when != null && SQLEvalVisitorUtils.eq(caseValue, when);
+                }
+
+                if (match) {
+                    return MySqlProcedureCompiler.execute(bodies[i], frame);
+                }
+            }
+            if (elseBody == null) {
+                throw new SQLException("Case not found for CASE statement", "20000", 1339);
+            }
+            return MySqlProcedureCompiler.execute(elseBody, frame);
+        }
+    }
+
+    static final class While extends Instruction {
+
+        Value         condition;
+        Instruction[] body;
+
+        Jump execute(Frame frame) throws SQLException {
+            while (isTrue(condition.eval(frame))) {
+                Jump jump = MySqlProcedureCompiler.execute(body, frame);
+                if (jump != null) {
+                    if (jump.target != this) {
+                        return jump;
+                    }
+                    if (!jump.iterate) {
+                        break;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    static final class Loop extends Instruction {
+
+        Instruction[] body;
+
+        Jump execute(Frame frame) throws SQLException {
+            for (;;) {
+                Jump jump = MySqlProcedureCompiler.execute(body, frame);
+                if (jump != null) {
+                    if (jump.target != this) {
+                        return jump;
+                    }
+                    if (!jump.iterate) {
+                        return null;
+                    }
+                }
+            }
+        }
+    }
+
+    static final class Repeat extends Instruction {
+
+        Instruction[] body;
+        Value         condition;
+
+        Jump execute(Frame frame) throws SQLException {
+            for (;;) {
+                Jump jump = MySqlProcedureCompiler.execute(body, frame);
+                if (jump != null) {
+                    if (jump.target != this) {
+                        return jump;
+                    }
+                    if (!jump.iterate) {
+                        return null;
+                    }
+                    continue;
+                }
+
+                if (isTrue(condition.eval(frame))) {
+                    return null;
+                }
+            }
+        }
+    }
+
+    static final class Assign extends Instruction {
+
+        final int   slot;
+        final Value value;
+
+        Assign(int slot, Value value){
+            this.slot = slot;
+            this.value = value;
+        }
+
+        Jump execute(Frame frame) throws SQLException {
+            frame.assign(slot, value == null ? null : value.eval(frame));
+            return null;
+        }
+    }
+
+    static final class Update extends Instruction {
+
+        final Sql sql;
+
+        Update(Sql sql){
+            this.sql = sql;
+        }
+
+        Jump execute(Frame frame) throws SQLException {
+            sql.update(frame);
+            return null;
+        }
+    }
+
+    static final class Query extends Instruction {
+
+        final Sql sql;
+
+        Query(Sql sql){
+            this.sql = sql;
+        }
+
+        Jump execute(Frame frame) throws SQLException {
+            sql.query(frame);
+            return null;
+        }
+    }
+
+    static final class SelectInto extends Instruction {
+
+        final Sql   sql;
+        final int[] targets;
+
+        SelectInto(Sql sql, int[] targets){
+            this.sql = sql;
+            this.targets = targets;
+        }
+
+        Jump execute(Frame frame) throws SQLException {
+            List<Object[]> rows = sql.query(frame);
+            if (rows.isEmpty()) {
+                throw notFound();
+            }
+            if (rows.size() > 1) {
+                throw new SQLException("Result consisted of more than one row", "42000", 1172);
+            }
+
+            Object[] row = rows.get(0);
+            if (row.length != targets.length) {
+                throw new SQLException("The used SELECT statements have a different number of columns", "21000", 1222);
+            }
+            for (int i = 0; i < targets.length; ++i) {
+                frame.assign(targets[i], row[i]);
+            }
+            return null;
+        }
+    }
+
+    static final class Open extends Instruction {
+
+        final int cursor;
+        final Sql sql;
+
+        Open(int cursor, Sql sql){
+            this.cursor = cursor;
+            this.sql = sql;
+        }
+
+        Jump execute(Frame frame) throws SQLException {
+            if (frame.cursors[cursor] != null) {
+                throw new SQLException("Cursor is already open", "24000", 1325);
+            }
+            frame.cursors[cursor] = new CursorRows(sql.query(frame));
+            return null;
+        }
+    }
+
+    static final class Fetch extends Instruction {
+
+        final int   cursor;
+        final int[] targets;
+
+        Fetch(int cursor, int[] targets){
+            this.cursor = cursor;
+            this.targets = targets;
+        }
+
+        Jump execute(Frame frame) throws SQLException {
+            CursorRows cursorRows = frame.cursors[cursor];
+            if (cursorRows == null) {
+                throw new SQLException("Cursor is not open", "24000", 1326);
+            }
+            if (cursorRows.position >= cursorRows.rows.size()) {
+                throw notFound();
+            }
+
+            Object[] row = cursorRows.rows.get(cursorRows.position++);
+            if (row.length != targets.length) {
+                throw new SQLException("Incorrect number of FETCH variables", "HY000", 1328);
+            }
+            for (int i = 0; i < targets.length; ++i) {
+                frame.assign(targets[i], row[i]);
+            }
+            return null;
+        }
+    }
+
+    static final class Close extends Instruction {
+
+        final int cursor;
+
+        Close(int cursor){
+            this.cursor = cursor;
+        }
+
+        Jump execute(Frame frame) throws SQLException {
+            if (frame.cursors[cursor] == null) {
+                throw new SQLException("Cursor is not open", "24000", 1326);
+            }
+            frame.cursors[cursor] = null;
+            return null;
+        }
+    }
+
+    static final class Handler {
+
+        Block         block;
+        boolean       exit;
+        Condition[]   conditions;
+        Instruction[] body;
+
+        /**
+         * @return 0 if the handler does not match the condition, greater for a more specific match
+         */
+        int match(SQLException ex) {
+            int best = 0;
+            for (Condition condition : conditions) {
+                best = Math.max(best, condition.match(ex));
+            }
+            return best;
+        }
+    }
+
+    static final class Condition {
+
+        final static int SQLEXCEPTION = 0;
+        final static int SQLWARNING   = 1;
+        final static int NOT_FOUND    = 2;
+        final static int SQLSTATE     = 3;
+        final static int ERROR_CODE   = 4;
+
+        int              type;
+        String           sqlState;
+        int              errorCode;
+
+        int match(SQLException ex) {
+            String state = ex.getSQLState();
+            switch (type) {
+                case ERROR_CODE:
+                    return ex.getErrorCode() == errorCode ? 3 : 0;
+                case SQLSTATE:
+                    return sqlState.equals(state) ? 2 : 0;
+                case NOT_FOUND:
+                    return state != null && state.startsWith("02") ? 1 : 0;
+                case SQLWARNING:
+                    return state != null && state.startsWith("01") ? 1 : 0;
+                default:
+                    return state == null || !(state.startsWith("00") || state.startsWith("01") || state.startsWith("02")) ? 1 : 0;
+            }
+        }
+    }
+
+    /**
+     * an expression, compiled with the variables as parameters, or a sub query sent to the statement handler
+     */
+    static final class Value {
+
+        final SQLExpr         expr;
+        final SQLCompiledExpr compiled;
+        final Sql             query;
+
+        Value(SQLExpr expr, SQLCompiledExpr compiled, Sql query){
+            this.expr = expr;
+            this.compiled = compiled;
+            this.query = query;
+        }
+
+        Object eval(Frame frame) throws SQLException {
+            if (compiled != null) {
+                Object value;
+                try {
+                    value = compiled.eval(frame.parameters);
+                } catch (ArithmeticException ex) {
+                    // the division of decimals by zero, null as mysql
+                    return null;
+                }
+                return isFinite(value) ? value : null;
+            }
+
+            List<Object[]> rows = query.query(frame);
+            if (rows.isEmpty()) {
+                return null;
+            }
+            if (rows.size() > 1) {
+                throw new SQLException("Subquery returns more than 1 row", "21000", 1242);
+            }
+            Object[] row = rows.get(0);
+            return row.length == 0 ? null : row[0];
+        }
+    }
+
+    /**
+     * an embedded statement, the values of the slots are the parameters of the '?'
+     */
+    static final class Sql {
+
+        final String sql;
+        final int[]  slots;
+
+        Sql(String sql, int[] slots){
+            this.sql = sql;
+            this.slots = slots;
+        }
+
+        List<Object> parameters(Frame frame) {
+            List<Object> parameters = new ArrayList<Object>(slots.length);
+            for (int slot : slots) {
+                parameters.add(frame.values[slot]);
+            }
+            return parameters;
+        }
+
+        int update(Frame frame) throws SQLException {
+            return handler(frame).executeUpdate(sql, parameters(frame));
+        }
+
+        List<Object[]> query(Frame frame) throws SQLException {
+            List<Object[]> rows = handler(frame).executeQuery(sql, parameters(frame));
+            if (rows == null) {
+                return Collections.emptyList();
+            }
+            return rows;
+        }
+
+        private MySqlProcedureStatementHandler handler(Frame frame) {
+            if (frame.statementHandler == null) {
+                throw new DruidRuntimeException("statement handler not set, can not execute : " + sql);
+            }
+            return frame.statementHandler;
+        }
+
+        public String toString() {
+            return sql;
+        }
+    }
+
+    private static final class Scope {
+
+        final Scope                         parent;
+        final Map<String, Integer>          variables  = new HashMap<String, Integer>();
+        final Map<String, Integer>          cursors    = new HashMap<String, Integer>();
+        final Map<String, ConditionValue>   conditions = new HashMap<String, ConditionValue>();
+
+        Scope(Scope parent){
+            this.parent = parent;
+        }
+    }
+
+    private static final class Label {
+
+        final String      name;
+        final Instruction target;
+        final boolean     loop;
+
+        Label(String name, Instruction target, boolean loop){
+            this.name = name;
+            this.target = target;
+            this.loop = loop;
+        }
+    }
+
+    private static final class SubQueryFinder extends MySqlASTVisitorAdapter {
+
+        boolean found;
+
+        public boolean visit(SQLSelect x) {
+            found = true;
+            return false;
+        }
+    }
+
+    /**
+     * prints a '?' for each variable and records its slot, the names of tables, columns and assign targets are kept
+     */
+    private static final class BindOutputVisitor extends MySqlOutputVisitor {
+
+        final Map<String, Integer> variables;
+        final List<Integer>        slots = new ArrayList<Integer>();
+
+        BindOutputVisitor(Appendable appender, Map<String, Integer> variables){
+            super(appender);
+            this.variables = variables;
+        }
+
+        // the embedded statement is sent without the ';' of the procedure body
+        public void postVisit(SQLObject x) {
+        }
+
+        public boolean visit(SQLIdentifierExpr x) {
+            return bind(x) && super.visit(x);
+        }
+
+        public boolean visit(SQLVariantRefExpr x) {
+            return bind(x) && super.visit(x);
+        }
+
+        /**
+         * @return false if the variable is printed as '?'
+         */
+        private boolean bind(SQLExpr x) {
+            Integer slot = variables.get(nameOf(x));
+            if (slot == null || !bindable(x)) {
+                return true;
+            }
+
+            print('?');
+            slots.add(slot);
+            return false;
+        }
+
+        private static boolean bindable(SQLExpr x) {
+            SQLObject parent = x.getParent();
+            if (parent instanceof SQLExprTableSource //
+                || parent instanceof SQLPropertyExpr //
+                || parent instanceof SQLColumnDefinition) {
+                return false;
+            }
+            if (parent instanceof SQLMethodInvokeExpr) {
+                return ((SQLMethodInvokeExpr) parent).getOwner() != x;
+            }
+            if (parent instanceof SQLAssignItem) {
+                return ((SQLAssignItem) parent).getTarget() != x;
+            }
+            if (parent instanceof SQLUpdateSetItem) {
+                return ((SQLUpdateSetItem) parent).getColumn() != x;
+            }
+            if (parent instanceof SQLInsertStatement) {
+                return !((SQLInsertStatement) parent).getColumns().contains(x);
+            }
+            return true;
+        }
+    }
+}
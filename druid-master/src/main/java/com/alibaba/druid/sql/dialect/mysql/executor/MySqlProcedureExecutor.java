@@ -15,61 +15,114 @@
  */
 package com.alibaba.druid.sql.dialect.mysql.executor;
 
+import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
+import com.alibaba.druid.sql.SQLUtils;
+import com.alibaba.druid.sql.ast.SQLParameter.ParameterType;
 import com.alibaba.druid.sql.ast.SQLStatement;
+import com.alibaba.druid.sql.ast.statement.SQLCreateProcedureStatement;
+import com.alibaba.druid.sql.dialect.mysql.executor.MySqlProcedureCompiler.Frame;
+import com.alibaba.druid.sql.dialect.mysql.executor.MySqlProcedureCompiler.Program;
+import com.alibaba.druid.util.JdbcConstants;
 
 /**
+ * executes a mysql procedure in process. the body is compiled once, variables to slots, expressions by
+ * SQLEvalVisitorUtils.compile, the embedded sql to a string with a '?' for each variable, so an execution only evaluates
+ * the compiled expressions and sends the sql to the MySqlProcedureStatementHandler.
+ * <p>
+ * if, case, while, loop, repeat, leave, iterate, local variables, cursors, conditions and CONTINUE / EXIT handlers are
+ * supported. the executor can be used from several threads at the same time, each execution has its own variables.
+ *
  * @author zz [455910092@qq.com]
  */
 public class MySqlProcedureExecutor {
 
-    public static int executeStatements(List<SQLStatement> list) {
-        return 0;
-    }
-
-    public static int executeStatement(SQLStatement stmt) {
-        return 0;
-    }
+    private final SQLCreateProcedureStatement procedure;
+    private final Program                     program;
 
-    public static int executeIf(SQLStatement stmt) {
-        return 0;
-    }
+    private MySqlProcedureStatementHandler    statementHandler;
 
-    public static int executeWhile(SQLStatement stmt) {
-        return 0;
+    public MySqlProcedureExecutor(SQLCreateProcedureStatement procedure){
+        this.procedure = procedure;
+        this.program = new MySqlProcedureCompiler(procedure).compile();
     }
 
-    public static int executeLoop(SQLStatement stmt) {
-        return 0;
+    public static MySqlProcedureExecutor compile(String sql) {
+        List<SQLStatement> statementList = SQLUtils.parseStatements(sql, JdbcConstants.MYSQL);
+        if (statementList.size() != 1 || !(statementList.get(0) instanceof SQLCreateProcedureStatement)) {
+            throw new IllegalArgumentException("not a create procedure statement : " + sql);
+        }
+        return new MySqlProcedureExecutor((SQLCreateProcedureStatement) statementList.get(0));
     }
 
-    public static int executeCase(SQLStatement stmt) {
-        return 0;
+    public SQLCreateProcedureStatement getProcedure() {
+        return procedure;
     }
 
-    public static int executeAssign(SQLStatement stmt) {
-        return 0;
+    public String getName() {
+        return program.name;
     }
 
-    public static int executeOpen(SQLStatement stmt) {
-        return 0;
+    public int getParameterCount() {
+        return program.parameterTypes.length;
     }
 
-    public static int executeFetch(SQLStatement stmt) {
-        return 0;
+    public MySqlProcedureStatementHandler getStatementHandler() {
+        return statementHandler;
     }
 
-    public static int executeClose(SQLStatement stmt) {
-        return 0;
+    public void setStatementHandler(MySqlProcedureStatementHandler statementHandler) {
+        this.statementHandler = statementHandler;
     }
 
-    public static int executeSQL(SQLStatement stmt) {
-        return 0;
+    /**
+     * call the procedure, an OUT parameter is passed as null.
+     *
+     * @return the values of the parameters at the end of the call, the results of the OUT and INOUT parameters
+     * @throws SQLException a condition without a handler, of the statement handler, or of the procedure
+     */
+    public Object[] execute(Object... args) throws SQLException {
+        return execute(args, null);
     }
 
-    public static int executeFunction(SQLStatement stmt) {
-        return 0;
+    /**
+     * call the procedure with the user variables of a session, keyed by the lower case name without '@'. the user
+     * variables the procedure references are read from the map and written back after the call.
+     */
+    public Object[] execute(Object[] args, Map<String, Object> userVariables) throws SQLException {
+        ParameterType[] parameterTypes = program.parameterTypes;
+        if (args.length != parameterTypes.length) {
+            throw new SQLException("Incorrect number of arguments for PROCEDURE " + program.name + "; expected "
+                                   + parameterTypes.length + ", got " + args.length, "42000", 1318);
+        }
+
+        Frame frame = program.newFrame(statementHandler);
+        for (int i = 0; i < parameterTypes.length; ++i) {
+            if (parameterTypes[i] != ParameterType.OUT) {
+                frame.assign(i, args[i]);
+            }
+        }
+
+        if (userVariables != null) {
+            for (Map.Entry<String, Integer> entry : program.userVariables.entrySet()) {
+                frame.values[entry.getValue()] = userVariables.get(entry.getKey().substring(1));
+            }
+        }
+
+        program.body.execute(frame);
+
+        if (userVariables != null) {
+            for (Map.Entry<String, Integer> entry : program.userVariables.entrySet()) {
+                Object value = frame.values[entry.getValue()];
+                if (value != null || userVariables.containsKey(entry.getKey().substring(1))) {
+                    userVariables.put(entry.getKey().substring(1), value);
+                }
+            }
+        }
+
+        return Arrays.copyOf(frame.values, parameterTypes.length);
     }
-
 }
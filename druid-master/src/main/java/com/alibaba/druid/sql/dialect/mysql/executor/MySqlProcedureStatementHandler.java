@@ -0,0 +1,43 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.sql.dialect.mysql.executor;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * executes the sql statements embedded in a procedure body for MySqlProcedureExecutor. the variables of the procedure
+ * are replaced by '?' in the sql, their values are passed in parameters in the order of the '?'.
+ * <p>
+ * a SQLException thrown by the handler is a condition of the procedure, it is caught by the DECLARE ... HANDLER of the
+ * procedure which matches its sql state or error code.
+ */
+public interface MySqlProcedureStatementHandler {
+
+    /**
+     * execute an insert, update, delete or another statement without a result set.
+     *
+     * @return the update count
+     */
+    int executeUpdate(String sql, List<Object> parameters) throws SQLException;
+
+    /**
+     * execute a select, of a cursor, a SELECT ... INTO or a sub query in an expression.
+     *
+     * @return the rows of the result set
+     */
+    List<Object[]> executeQuery(String sql, List<Object> parameters) throws SQLException;
+}
@@ -240,8 +240,8 @@ public class MySqlLexer extends Lexer {
 
             this.ch = charAt(pos);
 
-            stringVal = subString(mark, bufPos);
-            Token tok = keywods.getKeyword(stringVal);
+            lazySymbol();
+            Token tok = keywods.getKeyword(text, mark, bufPos);
             if (tok != null) {
                 token = tok;
             } else {
@@ -287,8 +287,8 @@ public class MySqlLexer extends Lexer {
 
             this.ch = charAt(pos);
 
-            stringVal = addSymbol();
-            Token tok = keywods.getKeyword(stringVal);
+            lazySymbol();
+            Token tok = keywods.getKeyword(text, mark, bufPos);
             if (tok != null) {
                 token = tok;
             } else {
@@ -301,6 +301,10 @@ public class MySqlLexer extends Lexer {
         scanString2();
     }
 
+    protected boolean isBackslashEscape() {
+        return true;
+    }
+
     public void scanComment() {
         Token lastToken = this.token;
         
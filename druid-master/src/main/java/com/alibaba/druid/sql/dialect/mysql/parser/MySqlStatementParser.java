@@ -735,6 +735,11 @@ public class MySqlStatementParser extends SQLStatementParser {
             return true;
         }
 
+        if (lexer.token() == Token.ITERATE) {
+            statementList.add(this.parseIterate());
+            return true;
+        }
+
         if (lexer.token() == Token.IDENTIFIER) {
             String label = lexer.stringVal();
             char ch = lexer.current();
@@ -2186,6 +2191,10 @@ public class MySqlStatementParser extends SQLStatementParser {
     }
 
     private void parseValueClause(List<ValuesClause> valueClauseList, int columnSize) {
+        if (lazyValues && parseLazyValues(valueClauseList, null)) {
+            return;
+        }
+
         for (int i = 0; ; ++i) {
             if (lexer.token() != Token.LPAREN) {
                 throw new ParserException("syntax error, expect ')'");
@@ -2203,7 +2212,7 @@ public class MySqlStatementParser extends SQLStatementParser {
                 for (; ; ) {
                     SQLExpr expr;
                     if (lexer.token() == Token.LITERAL_INT) {
-                        expr = new SQLIntegerExpr(lexer.integerValue());
+                        expr = integerLiteralExpr();
                         lexer.nextTokenComma();
                     } else if (lexer.token() == Token.LITERAL_CHARS) {
                         expr = new SQLCharExpr(lexer.stringVal());
@@ -3608,20 +3617,23 @@ public class MySqlStatementParser extends SQLStatementParser {
 
         accept(Token.THEN);
 
-        this.parseStatementList(stmt.getStatements(), -1, stmt);
+        this.parseIfStatementList(stmt.getStatements(), stmt);
 
-        while (lexer.token() == Token.ELSE) {
+        while (lexer.token() == Token.ELSE || identifierEquals("ELSEIF")) {
+            boolean elseIfKeyword = lexer.token() != Token.ELSE;
             lexer.nextToken();
 
-            if (lexer.token() == Token.IF) {
-                lexer.nextToken();
+            if (elseIfKeyword || lexer.token() == Token.IF) {
+                if (!elseIfKeyword) {
+                    lexer.nextToken();
+                }
 
                 SQLIfStatement.ElseIf elseIf = new SQLIfStatement.ElseIf();
 
                 elseIf.setCondition(this.exprParser.expr());
 
                 accept(Token.THEN);
-                this.parseStatementList(elseIf.getStatements(), -1, elseIf);
+                this.parseIfStatementList(elseIf.getStatements(), elseIf);
 
 
                 stmt.getElseIfList().add(elseIf);
@@ -3641,6 +3653,31 @@ public class MySqlStatementParser extends SQLStatementParser {
         return stmt;
     }
 
+    /**
+     * the statements of a then block, which end at ELSE, ELSEIF or END
+     */
+    private void parseIfStatementList(List<SQLStatement> statementList, SQLObject parent) {
+        for (;;) {
+            if (lexer.token() == Token.SEMI) {
+                lexer.nextToken();
+                if (statementList.size() > 0) {
+                    statementList.get(statementList.size() - 1).setAfterSemi(true);
+                }
+                continue;
+            }
+
+            if (identifierEquals("ELSEIF")) {
+                return;
+            }
+
+            int size = statementList.size();
+            this.parseStatementList(statementList, size + 1, parent);
+            if (statementList.size() == size) {
+                return;
+            }
+        }
+    }
+
     /**
      * parse while statement
      *
@@ -3708,7 +3745,7 @@ public class MySqlStatementParser extends SQLStatementParser {
         if (lexer.token() == Token.WHEN)// grammar 1
         {
             while (lexer.token() == Token.WHEN) {
-
+                accept(Token.WHEN);
                 MySqlWhenStatement when = new MySqlWhenStatement();
                 // when expr
                 when.setCondition(exprParser.expr());
@@ -3721,6 +3758,7 @@ public class MySqlStatementParser extends SQLStatementParser {
                 stmt.addWhenStatement(when);
             }
             if (lexer.token() == Token.ELSE) {
+                accept(Token.ELSE);
                 // parse else block
                 SQLIfStatement.Else elseStmt = new SQLIfStatement.Else();
                 this.parseStatementList(elseStmt.getStatements(), -1, elseStmt);
@@ -4036,10 +4074,10 @@ public class MySqlStatementParser extends SQLStatementParser {
         //String handlerType = exprParser.name().getSimpleName();
         if (lexer.token() == Token.CONTINUE) {
             stmt.setHandleType(MySqlHandlerType.CONTINUE);
-        } else if (lexer.token() == Token.EXIT) {
-            stmt.setHandleType(MySqlHandlerType.CONTINUE);
-        } else if (lexer.token() == Token.UNDO) {
-            stmt.setHandleType(MySqlHandlerType.CONTINUE);
+        } else if (lexer.token() == Token.EXIT || identifierEquals("EXIT")) {
+            stmt.setHandleType(MySqlHandlerType.EXIT);
+        } else if (lexer.token() == Token.UNDO || identifierEquals("UNDO")) {
+            stmt.setHandleType(MySqlHandlerType.UNDO);
         } else {
             throw new ParserException("unkown handle type");
         }
@@ -248,8 +248,8 @@ public class OdpsLexer extends Lexer {
         }
         this.ch = charAt(pos);
 
-        stringVal = addSymbol();
-        Token tok = keywods.getKeyword(stringVal);
+        lazySymbol();
+        Token tok = keywods.getKeyword(text, mark, bufPos);
         if (tok != null) {
             token = tok;
         } else {
@@ -354,6 +354,10 @@ public class OdpsLexer extends Lexer {
     protected final void scanString() {
         scanString2();
     }
+
+    protected boolean isBackslashEscape() {
+        return true;
+    }
     
     protected final void scanAlias() {
         scanAlias2();
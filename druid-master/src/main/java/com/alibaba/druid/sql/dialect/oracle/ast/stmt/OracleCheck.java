@@ -20,6 +20,7 @@ import com.alibaba.druid.sql.ast.statement.SQLCheck;
 import com.alibaba.druid.sql.dialect.oracle.ast.OracleSQLObject;
 import com.alibaba.druid.sql.dialect.oracle.visitor.OracleASTVisitor;
 import com.alibaba.druid.sql.visitor.SQLASTVisitor;
+import com.alibaba.druid.sql.visitor.SQLASTVisitorDialect;
 
 public class OracleCheck extends SQLCheck implements OracleConstraint, OracleSQLObject {
 
@@ -30,7 +31,7 @@ public class OracleCheck extends SQLCheck implements OracleConstraint, OracleSQL
 
     @Override
     protected void accept0(SQLASTVisitor visitor) {
-        if (visitor instanceof OracleASTVisitor) {
+        if (SQLASTVisitorDialect.isDialect(visitor, SQLASTVisitorDialect.ORACLE)) {
             accept0((OracleASTVisitor) visitor);
             return;
         }
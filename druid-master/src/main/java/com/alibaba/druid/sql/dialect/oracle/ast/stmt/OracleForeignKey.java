@@ -20,6 +20,7 @@ import com.alibaba.druid.sql.ast.statement.SQLForeignKeyImpl;
 import com.alibaba.druid.sql.dialect.oracle.ast.OracleSQLObject;
 import com.alibaba.druid.sql.dialect.oracle.visitor.OracleASTVisitor;
 import com.alibaba.druid.sql.visitor.SQLASTVisitor;
+import com.alibaba.druid.sql.visitor.SQLASTVisitorDialect;
 
 public class OracleForeignKey extends SQLForeignKeyImpl implements OracleConstraint, OracleSQLObject {
 
@@ -30,7 +31,7 @@ public class OracleForeignKey extends SQLForeignKeyImpl implements OracleConstra
 
     @Override
     protected void accept0(SQLASTVisitor visitor) {
-        if (visitor instanceof OracleASTVisitor) {
+        if (SQLASTVisitorDialect.isDialect(visitor, SQLASTVisitorDialect.ORACLE)) {
             accept0((OracleASTVisitor) visitor);
             return;
         }
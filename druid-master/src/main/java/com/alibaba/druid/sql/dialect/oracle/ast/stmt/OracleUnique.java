@@ -20,6 +20,7 @@ import com.alibaba.druid.sql.ast.statement.SQLUnique;
 import com.alibaba.druid.sql.dialect.oracle.ast.OracleSQLObject;
 import com.alibaba.druid.sql.dialect.oracle.visitor.OracleASTVisitor;
 import com.alibaba.druid.sql.visitor.SQLASTVisitor;
+import com.alibaba.druid.sql.visitor.SQLASTVisitorDialect;
 
 public class OracleUnique extends SQLUnique implements OracleConstraint, OracleSQLObject {
 
@@ -30,7 +31,7 @@ public class OracleUnique extends SQLUnique implements OracleConstraint, OracleS
 
     @Override
     protected void accept0(SQLASTVisitor visitor) {
-        if (visitor instanceof OracleASTVisitor) {
+        if (SQLASTVisitorDialect.isDialect(visitor, SQLASTVisitorDialect.ORACLE)) {
             accept0((OracleASTVisitor) visitor);
             return;
         }
@@ -23,6 +23,7 @@ import com.alibaba.druid.sql.ast.SQLHint;
 import com.alibaba.druid.sql.ast.statement.SQLUpdateStatement;
 import com.alibaba.druid.sql.dialect.oracle.visitor.OracleASTVisitor;
 import com.alibaba.druid.sql.visitor.SQLASTVisitor;
+import com.alibaba.druid.sql.visitor.SQLASTVisitorDialect;
 import com.alibaba.druid.util.JdbcConstants;
 
 public class OracleUpdateStatement extends SQLUpdateStatement implements OracleStatement {
@@ -47,7 +48,7 @@ public class OracleUpdateStatement extends SQLUpdateStatement implements OracleS
 
     @Override
     protected void accept0(SQLASTVisitor visitor) {
-        if (visitor instanceof OracleASTVisitor) {
+        if (SQLASTVisitorDialect.isDialect(visitor, SQLASTVisitorDialect.ORACLE)) {
             accept0((OracleASTVisitor) visitor);
             return;
         }
@@ -339,7 +339,7 @@ public class OracleExprParser extends SQLExprParser {
                 lexer.nextToken();
                 switch (lexer.token()) {
                     case LITERAL_INT:
-                        sqlExpr = new SQLIntegerExpr(lexer.integerValue());
+                        sqlExpr = integerLiteralExpr();
                         lexer.nextToken();
                         break;
                     case LITERAL_FLOAT:
@@ -188,8 +188,8 @@ public class OracleLexer extends Lexer {
 
         this.ch = charAt(pos);
 
-        stringVal = addSymbol();
-        Token tok = keywods.getKeyword(stringVal);
+        lazySymbol();
+        Token tok = keywods.getKeyword(text, mark, bufPos);
         if (tok != null) {
             token = tok;
         } else {
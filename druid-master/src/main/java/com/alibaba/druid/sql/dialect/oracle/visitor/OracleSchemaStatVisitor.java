@@ -391,7 +391,7 @@ public class OracleSchemaStatVisitor extends SchemaStatVisitor implements Oracle
                 String columnName = ((SQLIdentifierExpr) item).getName();
                 String leftTable = (String) x.getLeft().getAttribute(ATTR_TABLE);
                 String rightTable = (String) x.getRight().getAttribute(ATTR_TABLE);
-                if (leftTable != null && rightTable != null) {
+                if (leftTable != null && rightTable != null && profile == Profile.Full) {
                     Relationship relationship = new Relationship();
                     relationship.setLeft(new Column(leftTable, columnName));
                     relationship.setRight(new Column(rightTable, columnName));
@@ -20,6 +20,7 @@ import com.alibaba.druid.sql.dialect.db2.ast.DB2Object;
 import com.alibaba.druid.sql.dialect.db2.visitor.DB2ASTVisitor;
 import com.alibaba.druid.sql.dialect.phoenix.visitor.PhoenixASTVisitor;
 import com.alibaba.druid.sql.visitor.SQLASTVisitor;
+import com.alibaba.druid.sql.visitor.SQLASTVisitorDialect;
 import com.alibaba.druid.util.JdbcConstants;
 
 /**
@@ -33,7 +34,7 @@ public abstract class PhoenixStatementImpl extends SQLStatementImpl implements P
 
     @Override
     protected void accept0(SQLASTVisitor visitor) {
-        if (visitor instanceof PhoenixASTVisitor) {
+        if (SQLASTVisitorDialect.isDialect(visitor, SQLASTVisitorDialect.PHOENIX)) {
             accept0((PhoenixASTVisitor) visitor);
             return;
         }
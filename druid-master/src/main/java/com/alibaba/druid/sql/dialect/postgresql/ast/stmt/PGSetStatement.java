@@ -19,6 +19,7 @@ import com.alibaba.druid.sql.ast.SQLExpr;
 import com.alibaba.druid.sql.ast.statement.SQLSetStatement;
 import com.alibaba.druid.sql.dialect.postgresql.visitor.PGASTVisitor;
 import com.alibaba.druid.sql.visitor.SQLASTVisitor;
+import com.alibaba.druid.sql.visitor.SQLASTVisitorDialect;
 import com.alibaba.druid.util.JdbcConstants;
 
 import java.util.List;
@@ -39,7 +40,7 @@ public class PGSetStatement extends SQLSetStatement implements PGSQLStatement {
 
     @Override
     protected void accept0(SQLASTVisitor visitor) {
-        if (visitor instanceof PGASTVisitor) {
+        if (SQLASTVisitorDialect.isDialect(visitor, SQLASTVisitorDialect.POSTGRESQL)) {
             accept0((PGASTVisitor) visitor);
         }
     }
@@ -18,6 +18,7 @@ package com.alibaba.druid.sql.dialect.postgresql.ast.stmt;
 import com.alibaba.druid.sql.ast.SQLStatementImpl;
 import com.alibaba.druid.sql.dialect.postgresql.visitor.PGASTVisitor;
 import com.alibaba.druid.sql.visitor.SQLASTVisitor;
+import com.alibaba.druid.sql.visitor.SQLASTVisitorDialect;
 import com.alibaba.druid.util.JdbcConstants;
 
 public class PGStartTransactionStatement extends SQLStatementImpl implements PGSQLStatement {
@@ -27,7 +28,7 @@ public class PGStartTransactionStatement extends SQLStatementImpl implements PGS
 
     @Override
     protected void accept0(SQLASTVisitor visitor) {
-        if (visitor instanceof PGASTVisitor) {
+        if (SQLASTVisitorDialect.isDialect(visitor, SQLASTVisitorDialect.POSTGRESQL)) {
             accept0((PGASTVisitor) visitor);
         }
     }
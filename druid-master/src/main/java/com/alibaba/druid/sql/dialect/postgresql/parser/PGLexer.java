@@ -79,6 +79,10 @@ public class PGLexer extends Lexer {
         super.dbType = JdbcConstants.POSTGRESQL;
     }
     
+    protected boolean isBackslashEscape() {
+        return true;
+    }
+
     protected void scanString() {
         mark = pos;
         boolean hasSpecial = false;
@@ -131,18 +131,20 @@ public class PGSQLStatementParser extends SQLStatementParser {
         if (lexer.token() == (Token.VALUES)) {
             lexer.nextToken();
 
-            for (;;) {
-                accept(Token.LPAREN);
-                SQLInsertStatement.ValuesClause valuesCaluse = new SQLInsertStatement.ValuesClause();
-                this.exprParser.exprList(valuesCaluse.getValues(), valuesCaluse);
-                stmt.addValueCause(valuesCaluse);
-
-                accept(Token.RPAREN);
-                if (lexer.token() == Token.COMMA) {
-                    lexer.nextToken();
-                    continue;
+            if (!lazyValues || !parseLazyValues(stmt.getValuesList(), stmt)) {
+                for (;;) {
+                    accept(Token.LPAREN);
+                    SQLInsertStatement.ValuesClause valuesCaluse = new SQLInsertStatement.ValuesClause();
+                    this.exprParser.exprList(valuesCaluse.getValues(), valuesCaluse);
+                    stmt.addValueCause(valuesCaluse);
+
+                    accept(Token.RPAREN);
+                    if (lexer.token() == Token.COMMA) {
+                        lexer.nextToken();
+                        continue;
+                    }
+                    break;
                 }
-                break;
             }
         } else if (lexer.token() == (Token.SELECT)) {
             SQLQueryExpr queryExpr = (SQLQueryExpr) this.exprParser.expr();
@@ -20,6 +20,7 @@ import com.alibaba.druid.sql.ast.statement.SQLRollbackStatement;
 import com.alibaba.druid.sql.dialect.sqlserver.ast.SQLServerStatement;
 import com.alibaba.druid.sql.dialect.sqlserver.visitor.SQLServerASTVisitor;
 import com.alibaba.druid.sql.visitor.SQLASTVisitor;
+import com.alibaba.druid.sql.visitor.SQLASTVisitorDialect;
 
 public class SQLServerRollbackStatement extends SQLRollbackStatement implements SQLServerStatement {
 
@@ -37,7 +38,7 @@ public class SQLServerRollbackStatement extends SQLRollbackStatement implements
 
     @Override
     public void accept0(SQLASTVisitor visitor) {
-        if (visitor instanceof SQLServerASTVisitor) {
+        if (SQLASTVisitorDialect.isDialect(visitor, SQLASTVisitorDialect.SQL_SERVER)) {
             accept0((SQLServerASTVisitor) visitor);
         } else {
             throw new IllegalArgumentException("not support visitor type : " + visitor.getClass().getName());
@@ -279,6 +279,10 @@ public class SQLServerStatementParser extends SQLStatementParser {
         if (lexer.token() == Token.VALUES) {
             lexer.nextToken();
 
+            if (lazyValues && parseLazyValues(insertStatement.getValuesList(), insertStatement)) {
+                return;
+            }
+
             for (;;) {
                 accept(Token.LPAREN);
                 SQLInsertStatement.ValuesClause values = new SQLInsertStatement.ValuesClause();
@@ -25,6 +25,12 @@ public class Keywords {
 
     private final Map<String, Token> keywords;
 
+    private final char[][]           symbols;
+    private final int[]              symbolHashes;
+    private final Token[]            symbolTokens;
+    private final int                maxSymbolLength;
+    private final boolean[]          tokenFlags;
+
     public final static Keywords     DEFAULT_KEYWORDS;
 
     public final static Keywords     SQLITE_KEYWORDS;
@@ -164,11 +170,61 @@ public class Keywords {
     }
 
     public boolean containsValue(Token token) {
-        return this.keywords.containsValue(token);
+        return token != null && tokenFlags[token.ordinal()];
     }
 
     public Keywords(Map<String, Token> keywords){
         this.keywords = keywords;
+
+        int tableSize = 16;
+        while (tableSize < keywords.size() * 4) {
+            tableSize <<= 1;
+        }
+        this.symbols = new char[tableSize][];
+        this.symbolHashes = new int[tableSize];
+        this.symbolTokens = new Token[tableSize];
+        this.tokenFlags = new boolean[Token.values().length];
+
+        int maxLength = 0;
+        for (Map.Entry<String, Token> entry : keywords.entrySet()) {
+            String key = entry.getKey();
+            Token token = entry.getValue();
+            if (token != null) {
+                tokenFlags[token.ordinal()] = true;
+            }
+
+            // getKeyword(String) matches the upper case key only
+            if (token == null || !key.equals(key.toUpperCase())) {
+                continue;
+            }
+
+            char[] chars = key.toCharArray();
+            int hash = 0;
+            boolean ascii = true;
+            for (int i = 0; i < chars.length; ++i) {
+                if (chars[i] >= 0x80) {
+                    ascii = false;
+                    break;
+                }
+                hash = 31 * hash + chars[i];
+            }
+            if (!ascii) {
+                continue;
+            }
+
+            int index = hash & (tableSize - 1);
+            while (symbols[index] != null) {
+                index = (index + 1) & (tableSize - 1);
+            }
+            symbols[index] = chars;
+            symbolHashes[index] = hash;
+            symbolTokens[index] = token;
+
+            if (chars.length > maxLength) {
+                maxLength = chars.length;
+            }
+        }
+        this.maxSymbolLength = maxLength;
     }
 
     public Token getKeyword(String key) {
@@ -176,6 +232,54 @@ public class Keywords {
         return keywords.get(key);
     }
 
+    /**
+     * same as getKeyword(text.substring(offset, offset + count)), without creating the substring for the ascii
+     * identifiers.
+     */
+    public Token getKeyword(String text, int offset, int count) {
+        if (count > maxSymbolLength || count <= 0) {
+            return null;
+        }
+
+        final int end = offset + count;
+        int hash = 0;
+        for (int i = offset; i < end; ++i) {
+            char ch = text.charAt(i);
+            if (ch >= 0x80) {
+                return getKeyword(text.substring(offset, end));
+            }
+            if (ch >= 'a' && ch <= 'z') {
+                ch -= 32;
+            }
+            hash = 31 * hash + ch;
+        }
+
+        final int mask = symbols.length - 1;
+        for (int index = hash & mask;; index = (index + 1) & mask) {
+            char[] symbol = symbols[index];
+            if (symbol == null) {
+                return null;
+            }
+
+            if (symbolHashes[index] == hash && symbol.length == count && symbolEquals(symbol, text, offset)) {
+                return symbolTokens[index];
+            }
+        }
+    }
+
+    private static boolean symbolEquals(char[] symbol, String text, int offset) {
+        for (int i = 0; i < symbol.length; ++i) {
+            char ch = text.charAt(offset + i);
+            if (ch >= 'a' && ch <= 'z') {
+                ch -= 32;
+            }
+            if (ch != symbol[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public Map<String, Token> getKeywords() {
         return keywords;
     }
@@ -62,6 +62,10 @@ public class Lexer {
 
     protected String       stringVal;
 
+    // range of the identifier token in text, stringVal is created from it on demand
+    private int            symbolOffset;
+    private int            symbolCount;
+
     protected int          commentCount = 0;
 
     protected List<String> comments = new ArrayList<String>(2);
@@ -89,6 +93,8 @@ public class Lexer {
 
     protected String         dbType;
 
+    protected boolean        compactAST   = false;
+
     public Lexer(String input){
         this(input, null);
     }
@@ -116,6 +122,18 @@ public class Lexer {
         this.keepComments = keepComments;
     }
 
+    public boolean isCompactAST() {
+        return compactAST;
+    }
+
+    /**
+     * share the identifier names through SymbolTable.global and keep int literals unboxed, for statements which are
+     * cached for a long time.
+     */
+    public void setCompactAST(boolean compactAST) {
+        this.compactAST = compactAST;
+    }
+
     public CommentHandler getCommentHandler() {
         return commentHandler;
     }
@@ -133,9 +151,21 @@ public class Lexer {
     }
 
     public final String addSymbol() {
+        if (compactAST) {
+            return SymbolTable.global.addSymbol(text, mark, bufPos);
+        }
         return subString(mark, bufPos);
     }
 
+    /**
+     * set the current identifier [mark, mark + bufPos) as stringVal without creating the string, see stringVal()
+     */
+    protected final void lazySymbol() {
+        this.stringVal = null;
+        this.symbolOffset = mark;
+        this.symbolCount = bufPos;
+    }
+
     public final String subString(int offset, int count) {
         return text.substring(offset, offset + count);
     }
@@ -175,6 +205,8 @@ public class Lexer {
         char  ch;
         Token token;
         String stringVal;
+        int   symbolOffset;
+        int   symbolCount;
     }
 
     public Keywords getKeywods() {
@@ -189,6 +221,8 @@ public class Lexer {
         savePoint.ch = ch;
         savePoint.token = token;
         savePoint.stringVal = stringVal;
+        savePoint.symbolOffset = symbolOffset;
+        savePoint.symbolCount = symbolCount;
         return this.savePoint = savePoint;
     }
 
@@ -199,6 +233,8 @@ public class Lexer {
         this.ch = savePoint.ch;
         this.token = savePoint.token;
         this.stringVal = savePoint.stringVal;
+        this.symbolOffset = savePoint.symbolOffset;
+        this.symbolCount = savePoint.symbolCount;
     }
 
     public void reset() {
@@ -1233,8 +1269,8 @@ public class Lexer {
 
         this.ch = charAt(pos);
 
-        stringVal = addSymbol();
-        Token tok = keywods.getKeyword(stringVal);
+        lazySymbol();
+        Token tok = keywods.getKeyword(text, mark, bufPos);
         if (tok != null) {
             token = tok;
         } else {
@@ -1356,10 +1392,36 @@ public class Lexer {
         return pos;
     }
 
+    /**
+     * the sql being scanned.
+     */
+    public final String text() {
+        return text;
+    }
+
+    /**
+     * offset in text() of the name of the current identifier, -1 if the name is not read from there on demand. the name
+     * is text()[symbolOffset(), symbolOffset() + symbolCount()), reading it there does not create stringVal.
+     */
+    public final int symbolOffset() {
+        return stringVal == null && symbolCount > 0 ? symbolOffset : -1;
+    }
+
+    public final int symbolCount() {
+        return symbolCount;
+    }
+
     /**
      * The value of a literal token, recorded as a string. For integers, leading 0x and 'l' suffixes are suppressed.
      */
     public final String stringVal() {
+        if (stringVal == null && symbolCount > 0) {
+            if (compactAST) {
+                stringVal = SymbolTable.global.addSymbol(text, symbolOffset, symbolCount);
+            } else {
+                stringVal = subString(symbolOffset, symbolCount);
+            }
+        }
         return stringVal;
     }
     
@@ -1455,6 +1517,31 @@ public class Lexer {
         }
     }
 
+    /**
+     * the current LITERAL_INT has at most 9 digits, it always fits an int and can be read by intValue without boxing.
+     */
+    public boolean isShortIntLiteral() {
+        int digitCount = charAt(mark) == '-' ? bufPos - 1 : bufPos;
+        return digitCount > 0 && digitCount <= 9;
+    }
+
+    /**
+     * the value of the current LITERAL_INT, only if isShortIntLiteral.
+     */
+    public int intValue() {
+        int i = mark, max = mark + bufPos;
+        boolean negative = charAt(i) == '-';
+        if (negative) {
+            i++;
+        }
+
+        int result = 0;
+        while (i < max) {
+            result = result * 10 + digits[charAt(i++)];
+        }
+        return negative ? -result : result;
+    }
+
     public int bp() {
         return this.pos;
     }
@@ -1498,6 +1585,81 @@ public class Lexer {
         this.token = Token.EOF;
     }
 
+    /**
+     * the current token is LPAREN, skip to the matching ')' by scanning the chars, nested parentheses, quoted strings
+     * and comments are skipped over without creating tokens. the current token is RPAREN on return.
+     *
+     * @return offset of the matching ')', -1 if not found and the lexer is unchanged
+     */
+    public int skipParenthesized() {
+        if (token != LPAREN || pos == 0 || text.charAt(pos - 1) != '(') {
+            return -1;
+        }
+
+        final int len = text.length();
+        final boolean backslashEscape = isBackslashEscape();
+        int depth = 1;
+        for (int i = pos; i < len; ++i) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '(':
+                    depth++;
+                    break;
+                case ')':
+                    if (--depth == 0) {
+                        pos = i;
+                        scanChar();
+                        token = RPAREN;
+                        return i;
+                    }
+                    break;
+                case '\'':
+                case '"':
+                case '`':
+                    for (++i; i < len; ++i) {
+                        char q = text.charAt(i);
+                        if (q == '\\' && backslashEscape) {
+                            ++i;
+                        } else if (q == c) {
+                            break;
+                        }
+                    }
+                    if (i >= len) {
+                        return -1;
+                    }
+                    break;
+                case '-':
+                    if (i + 1 < len && text.charAt(i + 1) == '-') {
+                        i = text.indexOf('\n', i);
+                        if (i == -1) {
+                            return -1;
+                        }
+                    }
+                    break;
+                case '/':
+                    if (i + 1 < len && text.charAt(i + 1) == '*') {
+                        i = text.indexOf("*/", i + 2);
+                        if (i == -1) {
+                            return -1;
+                        }
+                        i++;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * whether '\\' escapes the next char in a quoted string.
+     */
+    protected boolean isBackslashEscape() {
+        return false;
+    }
+
     public boolean isEndOfComment() {
         return endOfComment;
     }
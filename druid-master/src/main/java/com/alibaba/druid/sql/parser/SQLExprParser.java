@@ -187,7 +187,7 @@ public class SQLExprParser extends SQLParser {
     }
     
     public SQLIntegerExpr integerExpr() {
-        SQLIntegerExpr intExpr = new SQLIntegerExpr(lexer.integerValue());
+        SQLIntegerExpr intExpr = integerLiteralExpr();
         accept(Token.LITERAL_INT);
         return intExpr;
     }
@@ -261,7 +261,7 @@ public class SQLExprParser extends SQLParser {
             case NEW:
                 throw new ParserException("TODO");
             case LITERAL_INT:
-                sqlExpr = new SQLIntegerExpr(lexer.integerValue());
+                sqlExpr = integerLiteralExpr();
                 lexer.nextToken();
                 break;
             case LITERAL_FLOAT:
@@ -523,7 +523,7 @@ public class SQLExprParser extends SQLParser {
                 lexer.nextToken();
                 switch (lexer.token()) {
                     case LITERAL_INT:
-                        sqlExpr = new SQLIntegerExpr(lexer.integerValue());
+                        sqlExpr = integerLiteralExpr();
                         lexer.nextToken();
                         break;
                     case LITERAL_FLOAT:
@@ -0,0 +1,282 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.sql.parser;
+
+/**
+ * the shape of a sql from the lexer tokens only, without parsing. literals are replaced by '?', a list of literals
+ * after IN is collapsed to IN (?), the rows after the first row of VALUES are dropped, comments and whitespace are
+ * dropped, keywords are upper case and unquoted identifiers are lower case. sql of the same shape get the same
+ * fingerprint.
+ *
+ * <pre>
+ * select * from T where ID in (1, 2, 3) and name = 'a'  -&gt;  SELECT * FROM t WHERE id IN (?) AND name = ?
+ * </pre>
+ */
+public class SQLFingerprintUtils {
+
+    private final static long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private final static long FNV_PRIME        = 0x100000001b3L;
+
+    public static String fingerprint(String sql, String dbType) {
+        Fingerprint fingerprint = new Fingerprint(new StringBuilder(sql.length()));
+        fingerprint.scan(SQLParserUtils.createLexer(sql, dbType));
+        return fingerprint.out.toString();
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the fingerprint, computed without creating the fingerprint text.
+     */
+    public static long fingerprintHash64(String sql, String dbType) {
+        Fingerprint fingerprint = new Fingerprint(null);
+        fingerprint.scan(SQLParserUtils.createLexer(sql, dbType));
+        return fingerprint.hash;
+    }
+
+    private static class Fingerprint {
+
+        final StringBuilder out;
+        long                hash = FNV_OFFSET_BASIS;
+
+        // no space before the next token
+        boolean             noSpace = true;
+
+        // the last token is an operand, a '-' after it is not a sign
+        boolean             operand;
+
+        Fingerprint(StringBuilder out){
+            this.out = out;
+        }
+
+        void scan(Lexer lexer) {
+            lexer.nextToken();
+            for (;;) {
+                Token token = lexer.token();
+                switch (token) {
+                    case EOF:
+                        return;
+                    case ERROR:
+                        throw new ParserException("illegal sql, " + lexer.info());
+                    case LITERAL_INT:
+                    case LITERAL_FLOAT:
+                    case LITERAL_HEX:
+                    case LITERAL_CHARS:
+                    case LITERAL_NCHARS:
+                    case BINARY_FLOAT:
+                    case BINARY_DOUBLE:
+                        print("?");
+                        break;
+                    case IDENTIFIER:
+                        printIdentifier(lexer);
+                        lexer.nextToken();
+                        // function name
+                        noSpace = lexer.token() == Token.LPAREN;
+                        operand = true;
+                        continue;
+                    case SUB:
+                        if (!operand) {
+                            Lexer.SavePoint savePoint = lexer.mark();
+                            lexer.nextToken();
+                            if (lexer.token() == Token.LITERAL_INT || lexer.token() == Token.LITERAL_FLOAT) {
+                                print("?");
+                                break;
+                            }
+                            lexer.reset(savePoint);
+                        }
+                        print(token.name);
+                        break;
+                    case VARIANT:
+                    case LITERAL_ALIAS:
+                        print(lexer.stringVal());
+                        break;
+                    case HINT:
+                    case LINE_COMMENT:
+                    case MULTI_LINE_COMMENT:
+                        break;
+                    case IN:
+                        print(token.name);
+                        lexer.nextToken();
+                        if (lexer.token() == Token.LPAREN) {
+                            Lexer.SavePoint savePoint = lexer.mark();
+                            if (skipLiteralList(lexer)) {
+                                print("(");
+                                print("?");
+                                print(")");
+                                continue;
+                            }
+                            lexer.reset(savePoint);
+                        }
+                        continue;
+                    case VALUES:
+                        print(token.name);
+                        lexer.nextToken();
+                        if (lexer.token() != Token.LPAREN) {
+                            continue;
+                        }
+                        print("(");
+                        lexer.nextToken();
+                        scanRow(lexer);
+                        continue;
+                    default:
+                        print(token.name != null ? token.name : token.name());
+                        break;
+                }
+
+                lexer.nextToken();
+            }
+        }
+
+        /**
+         * the current token is the token after the LPAREN of the first row. the first row is printed, the following
+         * rows are skipped by the lexer.
+         */
+        private void scanRow(Lexer lexer) {
+            int depth = 1;
+            for (;;) {
+                Token token = lexer.token();
+                if (token == Token.EOF) {
+                    return;
+                }
+
+                if (token == Token.LPAREN) {
+                    depth++;
+                } else if (token == Token.RPAREN && --depth == 0) {
+                    print(")");
+                    lexer.nextToken();
+                    break;
+                }
+
+                if (token == Token.LPAREN || token == Token.RPAREN || token == Token.COMMA) {
+                    print(token.name);
+                } else if (isLiteral(token)) {
+                    print("?");
+                } else if (token == Token.IDENTIFIER) {
+                    printIdentifier(lexer);
+                } else if (token == Token.ERROR) {
+                    throw new ParserException("illegal sql, " + lexer.info());
+                } else {
+                    print(token.name != null ? token.name : lexer.stringVal());
+                }
+                lexer.nextToken();
+            }
+
+            while (lexer.token() == Token.COMMA) {
+                Lexer.SavePoint savePoint = lexer.mark();
+                lexer.nextToken();
+                if (lexer.token() != Token.LPAREN || lexer.skipParenthesized() == -1) {
+                    lexer.reset(savePoint);
+                    return;
+                }
+                lexer.nextToken();
+            }
+        }
+
+        /**
+         * the current token is LPAREN. skip to the RPAREN if there are only literals and commas in between.
+         */
+        private static boolean skipLiteralList(Lexer lexer) {
+            lexer.nextToken();
+            for (;;) {
+                Token token = lexer.token();
+                if (!isLiteral(token) && token != Token.QUES && token != Token.SUB) {
+                    return false;
+                }
+                lexer.nextToken();
+
+                token = lexer.token();
+                if (token == Token.RPAREN) {
+                    lexer.nextToken();
+                    return true;
+                }
+                if (token != Token.COMMA && !isLiteral(token)) {
+                    return false;
+                }
+                if (token == Token.COMMA) {
+                    lexer.nextToken();
+                }
+            }
+        }
+
+        private static boolean isLiteral(Token token) {
+            switch (token) {
+                case LITERAL_INT:
+                case LITERAL_FLOAT:
+                case LITERAL_HEX:
+                case LITERAL_CHARS:
+                case LITERAL_NCHARS:
+                case BINARY_FLOAT:
+                case BINARY_DOUBLE:
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        private void printIdentifier(Lexer lexer) {
+            int symbolOffset = lexer.symbolOffset();
+            if (symbolOffset != -1) {
+                int symbolCount = lexer.symbolCount();
+                String text = lexer.text();
+                char first = symbolCount == 0 ? 0 : text.charAt(symbolOffset);
+                print(text, symbolOffset, symbolCount, !isQuote(first));
+                return;
+            }
+
+            String name = lexer.stringVal();
+            char first = name.length() == 0 ? 0 : name.charAt(0);
+            print(name, 0, name.length(), !isQuote(first));
+        }
+
+        private static boolean isQuote(char ch) {
+            return ch == '`' || ch == '"' || ch == '[';
+        }
+
+        private void print(String text) {
+            print(text, 0, text.length(), false);
+        }
+
+        private void print(String text, int offset, int len, boolean lowerCase) {
+            if (len == 0) {
+                return;
+            }
+
+            char first = text.charAt(offset);
+            if (!noSpace && first != ')' && first != ',' && first != '.') {
+                append(' ');
+            }
+
+            for (int i = offset, end = offset + len; i < end; ++i) {
+                char ch = text.charAt(i);
+                if (lowerCase && ch >= 'A' && ch <= 'Z') {
+                    ch += 32;
+                }
+                append(ch);
+            }
+
+            char last = text.charAt(offset + len - 1);
+            noSpace = len == 1 && (last == '(' || last == '.');
+            operand = last == ')' || last == '?';
+        }
+
+        private void append(char ch) {
+            if (out != null) {
+                out.append(ch);
+            } else {
+                hash ^= ch;
+                hash *= FNV_PRIME;
+            }
+        }
+    }
+}
@@ -15,6 +15,8 @@
  */
 package com.alibaba.druid.sql.parser;
 
+import com.alibaba.druid.sql.ast.expr.SQLIntegerExpr;
+
 public class SQLParser {
 
     protected final Lexer lexer;
@@ -47,6 +49,21 @@ public class SQLParser {
         return dbType;
     }
 
+    /**
+     * the current token is LITERAL_INT.
+     */
+    protected SQLIntegerExpr integerLiteralExpr() {
+        if (lexer.compactAST && lexer.isShortIntLiteral()) {
+            return new SQLIntegerExpr(lexer.intValue());
+        }
+
+        Number number = lexer.integerValue();
+        if (lexer.compactAST && number instanceof Integer) {
+            return new SQLIntegerExpr(number.intValue());
+        }
+        return new SQLIntegerExpr(number);
+    }
+
     protected boolean identifierEquals(String text) {
         return lexer.token() == Token.IDENTIFIER && lexer.stringVal().equalsIgnoreCase(text);
     }
@@ -78,7 +95,7 @@ public class SQLParser {
         }
 
         if (token == Token.IDENTIFIER) {
-            String ident = lexer.stringVal;
+            String ident = lexer.stringVal();
             if (ident.equalsIgnoreCase("START") || ident.equalsIgnoreCase("CONNECT")) {
                 if (must) {
                     throw new ParserException("illegal alias. " + lexer.info());
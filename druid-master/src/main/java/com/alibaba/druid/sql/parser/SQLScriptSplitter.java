@@ -0,0 +1,335 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.sql.parser;
+
+import com.alibaba.druid.util.JdbcConstants;
+
+/**
+ * char scan of a script for the statement delimiters outside of quotes and comments. the scan can be started at the
+ * end of any segment it returned before, with the delimiter of that point.
+ *
+ * <pre>
+ * mysql  : 'DELIMITER xx' lines change the delimiter
+ * oracle : a line of a single '/' ends a statement, the ';' inside a pl/sql block (BEGIN, DECLARE, CREATE PROCEDURE,
+ *          FUNCTION, PACKAGE, TRIGGER or TYPE) does not
+ * </pre>
+ */
+class SQLScriptSplitter {
+
+    final CharSequence sql;
+    final String       dbType;
+    final boolean      mysql;
+    final boolean      oracle;
+
+    String             delimiter = ";";
+
+    // where the next scan starts
+    int                pos;
+
+    // the last segment, the ';' is kept at the end
+    int                start;
+    int                end;
+
+    // the text may be continued behind its end, a segment is returned only if its end is known
+    boolean            partial;
+
+    // set when next() returned false because the end of the text is not known yet
+    boolean            more;
+
+    SQLScriptSplitter(CharSequence sql, String dbType){
+        this.sql = sql;
+        this.dbType = dbType;
+        this.mysql = JdbcConstants.MYSQL.equals(dbType) || JdbcConstants.MARIADB.equals(dbType)
+                     || JdbcConstants.H2.equals(dbType);
+        this.oracle = JdbcConstants.ORACLE.equals(dbType) || JdbcConstants.ALI_ORACLE.equals(dbType);
+    }
+
+    void reset(int pos, String delimiter) {
+        this.pos = pos;
+        this.delimiter = delimiter;
+        this.more = false;
+    }
+
+    /**
+     * @return false if there is no segment which is not blank after pos, or if partial and more text is needed
+     */
+    boolean next() {
+        final CharSequence sql = this.sql;
+        final int len = sql.length();
+        int start = pos;
+        boolean lineStart = start == 0 || sql.charAt(start - 1) == '\n';
+        boolean begun = false;
+        boolean block = false;
+        more = false;
+        for (int i = start; i < len; ++i) {
+            char ch = sql.charAt(i);
+
+            if (lineStart) {
+                lineStart = false;
+
+                int p = i;
+                while (p < len && (sql.charAt(p) == ' ' || sql.charAt(p) == '\t')) {
+                    p++;
+                }
+
+                if (mysql && matches(p, "DELIMITER", true) //
+                    && p + 9 < len && Character.isWhitespace(sql.charAt(p + 9))) {
+                    int lineEnd = lineEnd(p);
+                    if (lineEnd == len && partial) {
+                        more = true;
+                        return false;
+                    }
+
+                    // the line is scanned again by the next call
+                    if (segment(start, i, i)) {
+                        return true;
+                    }
+
+                    delimiter = sql.subSequence(p + 9, lineEnd).toString().trim();
+                    if (delimiter.length() == 0) {
+                        delimiter = ";";
+                    }
+
+                    i = lineEnd;
+                    start = lineEnd;
+                    lineStart = true;
+                    continue;
+                }
+
+                if (oracle && p < len && sql.charAt(p) == '/') {
+                    int lineEnd = lineEnd(p);
+                    if (lineEnd == len && partial) {
+                        more = true;
+                        return false;
+                    }
+
+                    if (isBlank(p + 1, lineEnd)) {
+                        if (segment(start, i, i)) {
+                            return true;
+                        }
+
+                        i = lineEnd;
+                        start = lineEnd;
+                        lineStart = true;
+                        begun = false;
+                        block = false;
+                        continue;
+                    }
+                }
+            }
+
+            switch (ch) {
+                case '\n':
+                    lineStart = true;
+                    continue;
+                case '\'':
+                case '"':
+                case '`':
+                    if (ch == '`' && !mysql) {
+                        break;
+                    }
+                    begun = true;
+                    for (++i; i < len; ++i) {
+                        char c = sql.charAt(i);
+                        if (c == '\\' && mysql) {
+                            ++i;
+                        } else if (c == ch) {
+                            break;
+                        }
+                    }
+                    continue;
+                case '#':
+                    if (mysql) {
+                        i = lineEnd(i) - 1;
+                        continue;
+                    }
+                    break;
+                case '-':
+                    if (i + 1 < len && sql.charAt(i + 1) == '-') {
+                        i = lineEnd(i) - 1;
+                        continue;
+                    }
+                    break;
+                case '/':
+                    if (i + 1 < len && sql.charAt(i + 1) == '*') {
+                        int end = indexOf("*/", i + 2);
+                        i = end == -1 ? len : end + 1;
+                        continue;
+                    }
+                    break;
+                default:
+                    break;
+            }
+
+            if (!begun && !Character.isWhitespace(ch)) {
+                begun = true;
+                block = oracle && isBlockStart(i);
+            }
+
+            if (!block && ch == delimiter.charAt(0) && matches(i, delimiter, false)) {
+                int end = delimiter.equals(";") ? i + 1 : i;
+                i += delimiter.length() - 1;
+                if (segment(start, end, i + 1)) {
+                    return true;
+                }
+                start = i + 1;
+                begun = false;
+            }
+        }
+
+        if (partial) {
+            more = true;
+            return false;
+        }
+
+        pos = len;
+        return segment(start, len, len);
+    }
+
+    /**
+     * change of the block nesting by the tokens of sql[start, end). BEGIN, CASE and CREATE PACKAGE open a block, END
+     * closes it. END IF, END LOOP, END WHILE and END REPEAT close the statements which are not counted. used to join the
+     * segments of a procedure body split at its ';', so the body is parsed once.
+     */
+    int blockDepth(int start, int end) {
+        Lexer lexer = SQLParserUtils.createLexer(sql.subSequence(start, end).toString(), dbType);
+        int depth = 0;
+        Token last = null;
+        try {
+            for (lexer.nextToken(); lexer.token() != Token.EOF; lexer.nextToken()) {
+                Token token = lexer.token();
+                if (last == Token.END) {
+                    if (token == Token.IF || token == Token.LOOP || token == Token.WHILE || token == Token.REPEAT) {
+                        depth++;
+                        last = null;
+                        continue;
+                    }
+                    if (token == Token.CASE) {
+                        last = null;
+                        continue;
+                    }
+                }
+
+                if (token == Token.BEGIN || token == Token.CASE) {
+                    depth++;
+                } else if (token == Token.END) {
+                    depth--;
+                } else if ((last == Token.CREATE || last == Token.REPLACE) && token == Token.IDENTIFIER
+                           && "PACKAGE".equalsIgnoreCase(lexer.stringVal())) {
+                    depth++;
+                }
+                last = token;
+            }
+        } catch (ParserException ex) {
+            // the text is not a block, the parse error is reported
+        }
+        return depth;
+    }
+
+    private boolean isBlockStart(int i) {
+        if (matches(i, "BEGIN", true) || matches(i, "DECLARE", true)) {
+            return true;
+        }
+
+        if (!matches(i, "CREATE", true)) {
+            return false;
+        }
+        i = skipWhitespace(i + 6);
+        if (matches(i, "OR", true)) {
+            i = skipWhitespace(i + 2);
+            if (!matches(i, "REPLACE", true)) {
+                return false;
+            }
+            i = skipWhitespace(i + 7);
+        }
+        if (matches(i, "EDITIONABLE", true)) {
+            i = skipWhitespace(i + 11);
+        } else if (matches(i, "NONEDITIONABLE", true)) {
+            i = skipWhitespace(i + 14);
+        }
+        return matches(i, "PROCEDURE", true) || matches(i, "FUNCTION", true) || matches(i, "PACKAGE", true)
+               || matches(i, "TRIGGER", true) || matches(i, "TYPE", true);
+    }
+
+    /**
+     * @param word true if text must not be followed by a letter, digit or '_'
+     */
+    private boolean matches(int i, String text, boolean word) {
+        final int len = text.length();
+        if (i < 0 || i + len > sql.length()) {
+            return false;
+        }
+        for (int j = 0; j < len; ++j) {
+            char ch = sql.charAt(i + j);
+            char expected = text.charAt(j);
+            if (ch != expected && !(word && Character.toUpperCase(ch) == expected)) {
+                return false;
+            }
+        }
+        if (word && i + len < sql.length()) {
+            char ch = sql.charAt(i + len);
+            return !(Character.isLetterOrDigit(ch) || ch == '_' || ch == '$' || ch == '#');
+        }
+        return true;
+    }
+
+    private int skipWhitespace(int i) {
+        final int len = sql.length();
+        while (i < len && Character.isWhitespace(sql.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private boolean isBlank(int start, int end) {
+        for (int i = start; i < end; ++i) {
+            if (!Character.isWhitespace(sql.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean segment(int start, int end, int next) {
+        if (isBlank(start, end)) {
+            return false;
+        }
+        this.start = start;
+        this.end = end;
+        this.pos = next;
+        return true;
+    }
+
+    private int indexOf(String text, int start) {
+        final int max = sql.length() - text.length();
+        for (int i = start; i <= max; ++i) {
+            if (sql.charAt(i) == text.charAt(0) && matches(i, text, false)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int lineEnd(int start) {
+        final int len = sql.length();
+        for (int i = start; i < len; ++i) {
+            if (sql.charAt(i) == '\n') {
+                return i;
+            }
+        }
+        return len;
+    }
+}
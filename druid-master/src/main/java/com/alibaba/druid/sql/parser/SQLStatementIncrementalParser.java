@@ -0,0 +1,324 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.sql.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.alibaba.druid.sql.ast.SQLStatement;
+import com.alibaba.druid.sql.ast.SQLStatementImpl;
+
+/**
+ * parse a script which is edited again and again, like the script of a sql editor. the script is split at the
+ * statement delimiters as SQLStatementParallelParser does, and the statements of each segment are kept with the range
+ * of the segment. after an edit only the segments from the one the edit starts in up to the first segment boundary
+ * behind the edit are scanned and parsed again, the statements of the other segments are reused.
+ *
+ * <pre>
+ * SQLStatementIncrementalParser parser = new SQLStatementIncrementalParser(JdbcConstants.MYSQL);
+ * parser.parse(script);
+ * parser.edit(start, end, text); // replace script[start, end) with text
+ * </pre>
+ *
+ * a segment which can not be parsed does not fail the script, its error is returned by getErrors(). the statements
+ * keep the range of their segment in the current script, see SQLStatementImpl.getSourceStart.
+ */
+public class SQLStatementIncrementalParser {
+
+    private final String       dbType;
+
+    private String             sql         = "";
+    private List<Unit>         units       = new ArrayList<Unit>();
+
+    private List<SQLStatement> statementList;
+    private List<SQLStatement> reparsedList = new ArrayList<SQLStatement>();
+
+    public SQLStatementIncrementalParser(String dbType){
+        this.dbType = dbType;
+    }
+
+    public String getDbType() {
+        return dbType;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public List<SQLStatement> parse(String sql) {
+        this.sql = sql;
+        this.units = new ArrayList<Unit>();
+        this.reparsedList = new ArrayList<SQLStatement>();
+
+        SQLScriptSplitter splitter = new SQLScriptSplitter(sql, dbType);
+        scan(splitter, null, 0);
+        return statementList();
+    }
+
+    /**
+     * replace sql[start, end) with text and parse the changed segments again.
+     *
+     * @return the statements of the whole script
+     */
+    public List<SQLStatement> edit(int start, int end, String text) {
+        if (start < 0 || end < start || end > sql.length()) {
+            throw new IllegalArgumentException("illegal edit range : " + start + ", " + end);
+        }
+
+        final String oldSql = this.sql;
+        final List<Unit> oldUnits = this.units;
+        final int delta = text.length() - (end - start);
+
+        this.sql = oldSql.substring(0, start) + text + oldSql.substring(end);
+        this.units = new ArrayList<Unit>(oldUnits.size() + 1);
+        this.reparsedList = new ArrayList<SQLStatement>();
+
+        // the first unit the edit touches, the last unit if the edit is behind all units. a unit can end at a
+        // DELIMITER line, the edit of the line changes the end of the unit before it.
+        final int lineStart = oldSql.lastIndexOf('\n', start - 1) + 1;
+        int first = oldUnits.size();
+        for (int i = 0; i < oldUnits.size(); ++i) {
+            if (oldUnits.get(i).rawEnd >= lineStart) {
+                first = i;
+                break;
+            }
+        }
+        if (first == oldUnits.size() && first > 0) {
+            first--;
+        }
+
+        for (int i = 0; i < first; ++i) {
+            units.add(oldUnits.get(i));
+        }
+
+        SQLScriptSplitter splitter = new SQLScriptSplitter(sql, dbType);
+        if (first < oldUnits.size()) {
+            Unit unit = oldUnits.get(first);
+            splitter.reset(unit.rawStart, unit.delimiter);
+        }
+
+        scan(splitter, new Resync(oldSql, oldUnits, end, delta), delta);
+        return statementList();
+    }
+
+    /**
+     * @return the statements parsed by the last parse or edit, the other statements are reused
+     */
+    public List<SQLStatement> getReparsedStatements() {
+        return Collections.unmodifiableList(reparsedList);
+    }
+
+    public List<ParserException> getErrors() {
+        List<ParserException> errors = new ArrayList<ParserException>();
+        for (Unit unit : units) {
+            if (unit.error != null) {
+                errors.add(unit.error);
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * scan and parse the units from the splitter position. if resync is not null, the scan stops at the first unit end
+     * which is the end of an old unit behind the edit, and the old units behind it are moved by delta.
+     */
+    private void scan(SQLScriptSplitter splitter, Resync resync, int delta) {
+        for (;;) {
+            final int rawStart = splitter.pos;
+            final String delimiter = splitter.delimiter;
+            if (!splitter.next()) {
+                break;
+            }
+
+            int start = splitter.start;
+            int end = splitter.end;
+            Unit unit = parseUnit(rawStart, start, end, splitter.pos, delimiter);
+
+            // a procedure body is split at its ';', the following segments are joined until the block is closed
+            if (unit.incomplete && sql.charAt(end - 1) == ';') {
+                int depth = splitter.blockDepth(start, end);
+                int blockEnd = -1;
+                while (depth > 0) {
+                    final int pos = splitter.pos;
+                    final String nextDelimiter = splitter.delimiter;
+                    if (!splitter.next()) {
+                        splitter.reset(pos, nextDelimiter);
+                        break;
+                    }
+                    blockEnd = splitter.end;
+                    depth += splitter.blockDepth(splitter.start, blockEnd);
+                }
+                if (blockEnd != -1) {
+                    unit = parseUnit(rawStart, start, blockEnd, splitter.pos, delimiter);
+                }
+            }
+            units.add(unit);
+            if (unit.statementList != null) {
+                reparsedList.addAll(unit.statementList);
+            }
+
+            if (resync != null) {
+                int next = resync.find(splitter, unit.rawEnd);
+                if (next != -1) {
+                    for (int i = next; i < resync.oldUnits.size(); ++i) {
+                        units.add(resync.oldUnits.get(i).move(delta));
+                    }
+                    break;
+                }
+            }
+        }
+        statementList = null;
+    }
+
+    private Unit parseUnit(int rawStart, int start, int end, int rawEnd, String delimiter) {
+        Unit unit = new Unit(rawStart, rawEnd, delimiter);
+
+        SQLStatementParser parser = null;
+        List<SQLStatement> statementList = new ArrayList<SQLStatement>(1);
+        try {
+            parser = SQLParserUtils.createSQLStatementParser(sql.substring(start, end), dbType);
+            parser.parseStatementList(statementList);
+            if (parser.getLexer().token() != Token.EOF) {
+                throw new ParserException("syntax error, " + parser.getLexer().info());
+            }
+        } catch (ParserException ex) {
+            unit.error = ex;
+            unit.incomplete = parser != null && parser.getLexer().token() == Token.EOF;
+            return unit;
+        } catch (RuntimeException ex) {
+            // the text of an editor is often broken in the middle of typing
+            unit.error = new ParserException("syntax error, " + ex.getMessage(), ex);
+            return unit;
+        }
+
+        while (start < end && Character.isWhitespace(sql.charAt(start))) {
+            start++;
+        }
+        for (SQLStatement stmt : statementList) {
+            if (stmt instanceof SQLStatementImpl) {
+                ((SQLStatementImpl) stmt).setSourceRange(start, end);
+            }
+        }
+        unit.statementList = statementList;
+        return unit;
+    }
+
+    private List<SQLStatement> statementList() {
+        if (statementList == null) {
+            List<SQLStatement> statementList = new ArrayList<SQLStatement>(units.size());
+            for (Unit unit : units) {
+                if (unit.statementList != null) {
+                    statementList.addAll(unit.statementList);
+                }
+            }
+            this.statementList = statementList;
+        }
+        return statementList;
+    }
+
+    public List<SQLStatement> getStatementList() {
+        return statementList();
+    }
+
+    /**
+     * the old units of an edit, to find where the new scan is back at an old unit boundary.
+     */
+    private static class Resync {
+
+        final String     oldSql;
+        final List<Unit> oldUnits;
+        final int        oldEditEnd;
+        final int        delta;
+
+        Resync(String oldSql, List<Unit> oldUnits, int oldEditEnd, int delta){
+            this.oldSql = oldSql;
+            this.oldUnits = oldUnits;
+            this.oldEditEnd = oldEditEnd;
+            this.delta = delta;
+        }
+
+        /**
+         * @return index of the old unit which starts at rawEnd, if the scan of the new sql from rawEnd is the same as the
+         * scan of the old sql from there, otherwise -1
+         */
+        int find(SQLScriptSplitter splitter, int rawEnd) {
+            int oldPos = rawEnd - delta;
+            if (oldPos < oldEditEnd) {
+                return -1;
+            }
+
+            // the scan of a line start depends on the char before
+            CharSequence sql = splitter.sql;
+            boolean lineStart = rawEnd == 0 || sql.charAt(rawEnd - 1) == '\n';
+            boolean oldLineStart = oldPos == 0 || oldSql.charAt(oldPos - 1) == '\n';
+            if (lineStart != oldLineStart) {
+                return -1;
+            }
+
+            for (int i = 0; i < oldUnits.size(); ++i) {
+                Unit unit = oldUnits.get(i);
+                if (unit.rawStart == oldPos) {
+                    return unit.delimiter.equals(splitter.delimiter) ? i : -1;
+                }
+                if (unit.rawStart > oldPos) {
+                    break;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private static class Unit {
+
+        // range of the scan, the units cover the script without gaps
+        final int          rawStart;
+        final int          rawEnd;
+
+        // delimiter at rawStart
+        final String       delimiter;
+
+        List<SQLStatement> statementList;
+        ParserException    error;
+        boolean            incomplete;
+
+        Unit(int rawStart, int rawEnd, String delimiter){
+            this.rawStart = rawStart;
+            this.rawEnd = rawEnd;
+            this.delimiter = delimiter;
+        }
+
+        Unit move(int delta) {
+            if (delta == 0) {
+                return this;
+            }
+
+            Unit unit = new Unit(rawStart + delta, rawEnd + delta, delimiter);
+            unit.statementList = statementList;
+            unit.error = error;
+            unit.incomplete = incomplete;
+            if (statementList != null) {
+                for (SQLStatement stmt : statementList) {
+                    if (stmt instanceof SQLStatementImpl) {
+                        SQLStatementImpl impl = (SQLStatementImpl) stmt;
+                        impl.setSourceRange(impl.getSourceStart() + delta, impl.getSourceEnd() + delta);
+                    }
+                }
+            }
+            return unit;
+        }
+    }
+}
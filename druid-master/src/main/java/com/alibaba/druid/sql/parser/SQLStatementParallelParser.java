@@ -0,0 +1,239 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.sql.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.alibaba.druid.sql.ast.SQLStatement;
+import com.alibaba.druid.util.DaemonThreadFactory;
+
+/**
+ * parse a large sql script on multiple threads. the script is split at the statement delimiters by a char scan, the
+ * segments are parsed concurrently and the statements are returned in the original order. a segment which is not a
+ * complete statement (the ';' inside a procedure body) is joined with the following segments up to the END of the
+ * block, the joined blocks are parsed concurrently again.
+ *
+ * <pre>
+ * mysql  : 'DELIMITER xx' lines change the delimiter
+ * oracle : a line of a single '/' ends a statement, the ';' inside a pl/sql block does not
+ * </pre>
+ */
+public class SQLStatementParallelParser {
+
+    private final String          dbType;
+    private final ExecutorService executor;
+    private final int             parallelism;
+
+    // segments of a task
+    private int                   batchSize = 0;
+
+    public SQLStatementParallelParser(String dbType){
+        this(dbType, null, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param executor the executor is not shut down by the parser, a thread pool of parallelism threads is created for
+     * each parse if null
+     */
+    public SQLStatementParallelParser(String dbType, ExecutorService executor, int parallelism){
+        this.dbType = dbType;
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    public String getDbType() {
+        return dbType;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * segments parsed by a task, 0 to divide the segments into parallelism * 4 tasks.
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public List<SQLStatement> parse(String sql) {
+        SQLScriptSplitter splitter = new SQLScriptSplitter(sql, dbType);
+        List<Segment> segments = new ArrayList<Segment>();
+        while (splitter.next()) {
+            segments.add(new Segment(splitter.start, splitter.end));
+        }
+        parseAll(sql, segments);
+
+        // a procedure body is split at its ';', the segments of the block are joined and the blocks are parsed again
+        List<Segment> blocks = new ArrayList<Segment>();
+        final int size = segments.size();
+        for (int i = 0; i < size; ++i) {
+            Segment segment = segments.get(i);
+            if (!segment.incomplete || sql.charAt(segment.end - 1) != ';' || i + 1 == size) {
+                continue;
+            }
+
+            int depth = splitter.blockDepth(segment.start, segment.end);
+            int last = i;
+            while (depth > 0 && last + 1 < size) {
+                Segment next = segments.get(++last);
+                depth += splitter.blockDepth(next.start, next.end);
+            }
+            if (last == i) {
+                continue;
+            }
+
+            Segment block = new Segment(segment.start, segments.get(last).end);
+            blocks.add(block);
+            segments.set(i, block);
+            for (int j = i + 1; j <= last; ++j) {
+                segments.set(j, null);
+            }
+            i = last;
+        }
+        parseAll(sql, blocks);
+
+        List<SQLStatement> statementList = new ArrayList<SQLStatement>(size);
+        for (Segment segment : segments) {
+            if (segment == null) {
+                continue;
+            }
+            if (segment.error != null) {
+                throw segment.error;
+            }
+            statementList.addAll(segment.statementList);
+        }
+
+        return statementList;
+    }
+
+    private void parseAll(final String sql, final List<Segment> segments) {
+        final int size = segments.size();
+        if (parallelism <= 1 || size < 2) {
+            for (Segment segment : segments) {
+                parseSegment(sql, segment);
+            }
+            return;
+        }
+
+        ExecutorService executor = this.executor;
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(parallelism, new DaemonThreadFactory("druid-sql-parser"));
+        }
+
+        try {
+            int batchSize = this.batchSize;
+            if (batchSize <= 0) {
+                batchSize = Math.max(1, size / (parallelism * 4));
+            }
+
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int start = 0; start < size; start += batchSize) {
+                final int from = start;
+                final int to = Math.min(size, start + batchSize);
+                futures.add(executor.submit(new Callable<Object>() {
+
+                    public Object call() {
+                        for (int i = from; i < to; ++i) {
+                            parseSegment(sql, segments.get(i));
+                        }
+                        return null;
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ParserException("parse interrupted", e);
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new ParserException("parse error", cause);
+                }
+            }
+        } finally {
+            if (executor != this.executor) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    private void parseSegment(String sql, Segment segment) {
+        String text = sql.substring(segment.start, segment.end);
+        SQLStatementParser parser = SQLParserUtils.createSQLStatementParser(text, dbType);
+        List<SQLStatement> statementList = new ArrayList<SQLStatement>(1);
+        try {
+            parser.parseStatementList(statementList);
+        } catch (ParserException ex) {
+            segment.error = ex;
+            segment.incomplete = parser.getLexer().token() == Token.EOF;
+            return;
+        }
+
+        if (parser.getLexer().token() != Token.EOF) {
+            segment.error = new ParserException("syntax error : " + text);
+            return;
+        }
+
+        segment.statementList = statementList;
+    }
+
+    /**
+     * split the script at the delimiters outside of quotes and comments, the ';' is kept at the end of the segment.
+     * blank segments are not returned.
+     */
+    public static List<String> split(String sql, String dbType) {
+        List<String> segments = new ArrayList<String>();
+        SQLScriptSplitter splitter = new SQLScriptSplitter(sql, dbType);
+        while (splitter.next()) {
+            segments.add(sql.substring(splitter.start, splitter.end));
+        }
+        return segments;
+    }
+
+    private static class Segment {
+
+        final int          start;
+        final int          end;
+
+        List<SQLStatement> statementList;
+        ParserException    error;
+        boolean            incomplete;
+
+        Segment(int start, int end){
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
@@ -42,6 +42,8 @@ public class SQLStatementParser extends SQLParser {
 
     protected int           parseValuesSize     = 3;
 
+    protected boolean       lazyValues          = false;
+
     public SQLStatementParser(String sql){
         this(sql, null);
     }
@@ -1632,6 +1634,9 @@ public class SQLStatementParser extends SQLParser {
 
         if (lexer.token() == Token.VALUES) {
             lexer.nextToken();
+            if (lazyValues && parseLazyValues(insertStatement.getValuesList(), insertStatement)) {
+                return;
+            }
             for (;;) {
                 accept(Token.LPAREN);
                 SQLInsertStatement.ValuesClause values = new SQLInsertStatement.ValuesClause();
@@ -2253,7 +2258,7 @@ public class SQLStatementParser extends SQLParser {
             if (identifierEquals("FORMAT")
                     || identifierEquals("EXTENDED")
                     || identifierEquals("PARTITIONS")) {
-                explain.setType(lexer.stringVal);
+                explain.setType(lexer.stringVal());
                 lexer.nextToken();
             }
         }
@@ -2292,7 +2297,7 @@ public class SQLStatementParser extends SQLParser {
             if (JdbcConstants.MYSQL.equals(dbType)) {
                 if (identifierEquals("USING")) {
                     lexer.nextToken();
-                    String indexType = lexer.stringVal;
+                    String indexType = lexer.stringVal();
                     item.setType(indexType);
                     accept(Token.IDENTIFIER);
                 }
@@ -2390,6 +2395,62 @@ public class SQLStatementParser extends SQLParser {
     public void setParseValuesSize(int parseValuesSize) {
         this.parseValuesSize = parseValuesSize;
     }
+
+    public boolean isLazyValues() {
+        return lazyValues;
+    }
+
+    /**
+     * keep the rows of INSERT ... VALUES as text ranges, the values of a row are parsed when it is visited or
+     * ValuesClause.getValues is called. a syntax error in a row is reported then.
+     */
+    public void setLazyValues(boolean lazyValues) {
+        this.lazyValues = lazyValues;
+    }
+
+    /**
+     * the current token is the LPAREN of the first row. each row is skipped by the lexer and added as a lazy
+     * ValuesClause.
+     *
+     * @return false if a row can not be skipped, nothing is added then
+     */
+    protected boolean parseLazyValues(List<SQLInsertStatement.ValuesClause> valuesList, SQLObject parent) {
+        if (lexer.token() != Token.LPAREN) {
+            return false;
+        }
+
+        int start = lexer.pos();
+        int end = lexer.skipParenthesized();
+        if (end == -1) {
+            return false;
+        }
+
+        String text = lexer.text;
+        for (;;) {
+            SQLInsertStatement.ValuesClause values = new SQLInsertStatement.ValuesClause(text, start, end, dbType);
+            if (parent != null) {
+                values.setParent(parent);
+            }
+            valuesList.add(values);
+
+            if (!parseCompleteValues && valuesList.size() >= parseValuesSize) {
+                lexer.skipToEOF();
+                return true;
+            }
+
+            lexer.nextToken();
+            if (lexer.token() != Token.COMMA) {
+                return true;
+            }
+            lexer.nextToken();
+
+            start = lexer.pos();
+            end = lexer.skipParenthesized();
+            if (end == -1) {
+                throw new ParserException("syntax error, expect ')', " + lexer.info());
+            }
+        }
+    }
     
     public SQLMergeStatement parseMerge() {
         accept(Token.MERGE);
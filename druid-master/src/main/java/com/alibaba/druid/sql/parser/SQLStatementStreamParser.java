@@ -0,0 +1,246 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.sql.parser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.alibaba.druid.sql.ast.SQLStatement;
+import com.alibaba.druid.util.JdbcUtils;
+
+/**
+ * parse a sql script from a Reader one statement at a time. the script is read in chunks and cut at the delimiters
+ * outside of quotes and comments by the same scan as SQLStatementParallelParser, only the text of the statement being
+ * parsed is kept in memory. the text up to a ';' inside a procedure body is joined with the following segments up to
+ * the END of the block, then parsed once.
+ *
+ * <pre>
+ * SQLStatementStreamParser parser = new SQLStatementStreamParser(reader, JdbcConstants.MYSQL);
+ * while (parser.hasNext()) {
+ *     SQLStatement stmt = parser.next();
+ * }
+ * parser.close();
+ * </pre>
+ */
+public class SQLStatementStreamParser implements Iterator<SQLStatement>, Closeable {
+
+    public final static int                DEFAULT_BUFFER_SIZE        = 1024 * 8;
+    public final static int                DEFAULT_MAX_STATEMENT_SIZE = 1024 * 1024 * 64;
+
+    private final Reader                   reader;
+    private final String                   dbType;
+    private final char[]                   buf;
+    private int                            maxStatementSize           = DEFAULT_MAX_STATEMENT_SIZE;
+
+    private final StringBuilder            text                       = new StringBuilder();
+    private final SQLScriptSplitter        splitter;
+
+    // the last parse failed at the end of its text
+    private boolean                        incomplete;
+
+    // the procedure body being joined, -1 if none
+    private int                            blockStart                 = -1;
+    private int                            blockDepth;
+    private ParserException                blockError;
+
+    private final LinkedList<SQLStatement> statements                 = new LinkedList<SQLStatement>();
+    private long                           statementCount;
+
+    public SQLStatementStreamParser(Reader reader, String dbType){
+        this(reader, dbType, DEFAULT_BUFFER_SIZE);
+    }
+
+    public SQLStatementStreamParser(Reader reader, String dbType, int bufferSize){
+        this.reader = reader;
+        this.dbType = dbType;
+        this.buf = new char[bufferSize];
+        this.splitter = new SQLScriptSplitter(text, dbType);
+        this.splitter.partial = true;
+    }
+
+    public String getDbType() {
+        return dbType;
+    }
+
+    public int getMaxStatementSize() {
+        return maxStatementSize;
+    }
+
+    /**
+     * a ParserException is thrown when the text of a single statement exceeds this size.
+     */
+    public void setMaxStatementSize(int maxStatementSize) {
+        this.maxStatementSize = maxStatementSize;
+    }
+
+    public long getStatementCount() {
+        return statementCount;
+    }
+
+    public boolean hasNext() {
+        while (statements.isEmpty()) {
+            if (!parseNext()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public SQLStatement next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        statementCount++;
+        return statements.removeFirst();
+    }
+
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    public List<SQLStatement> readAll() {
+        List<SQLStatement> list = new ArrayList<SQLStatement>();
+        while (hasNext()) {
+            list.add(next());
+        }
+        return list;
+    }
+
+    public void close() {
+        JdbcUtils.close(reader);
+    }
+
+    private boolean parseNext() {
+        for (;;) {
+            final int pos = splitter.pos;
+            final String delimiter = splitter.delimiter;
+            if (!splitter.next()) {
+                if (splitter.more) {
+                    splitter.reset(pos, delimiter);
+                    fill();
+                    continue;
+                }
+
+                if (blockStart != -1) {
+                    throw blockError;
+                }
+                return false;
+            }
+
+            final int start = splitter.start;
+            final int end = splitter.end;
+
+            if (blockStart != -1) {
+                blockDepth += splitter.blockDepth(start, end);
+                if (blockDepth > 0) {
+                    continue;
+                }
+
+                String sql = text.substring(blockStart, end);
+                blockStart = -1;
+                blockError = null;
+                ParserException error = parse(sql);
+                if (error != null) {
+                    throw error;
+                }
+                return true;
+            }
+
+            ParserException error = parse(text.substring(start, end));
+            if (error == null) {
+                return true;
+            }
+
+            // a procedure body split at its ';'
+            if (incomplete && text.charAt(end - 1) == ';') {
+                blockDepth = splitter.blockDepth(start, end);
+                if (blockDepth > 0) {
+                    blockStart = start;
+                    blockError = error;
+                    continue;
+                }
+            }
+            throw error;
+        }
+    }
+
+    /**
+     * @return null if the statements of sql are parsed
+     */
+    private ParserException parse(String sql) {
+        SQLStatementParser parser = SQLParserUtils.createSQLStatementParser(sql, dbType);
+        List<SQLStatement> list = new ArrayList<SQLStatement>(1);
+        incomplete = false;
+        try {
+            parser.parseStatementList(list);
+        } catch (ParserException ex) {
+            incomplete = parser.getLexer().token() == Token.EOF;
+            return ex;
+        }
+
+        if (parser.getLexer().token() != Token.EOF) {
+            return new ParserException("syntax error : " + sql);
+        }
+
+        statements.addAll(list);
+        return null;
+    }
+
+    /**
+     * drop the text before the scan and read at least as much as the text left, so a statement larger than the buffer
+     * is scanned O(log n) times.
+     */
+    private void fill() {
+        int keep = blockStart != -1 ? blockStart : splitter.pos;
+        if (keep > 1) {
+            // the char before the scan tells the scan if it is at a line start
+            keep--;
+            text.delete(0, keep);
+            splitter.pos -= keep;
+            if (blockStart != -1) {
+                blockStart -= keep;
+            }
+        }
+
+        final int min = Math.max(1, text.length() - splitter.pos);
+        int read = 0;
+        while (read < min) {
+            int len;
+            try {
+                len = reader.read(buf);
+            } catch (IOException e) {
+                throw new ParserException("read sql error", e);
+            }
+
+            if (len == -1) {
+                splitter.partial = false;
+                return;
+            }
+
+            if (text.length() + len > maxStatementSize) {
+                throw new ParserException("statement too large, more than " + maxStatementSize + " chars");
+            }
+            text.append(buf, 0, len);
+            read += len;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.sql.parser;
+
+/**
+ * shared instances of the identifier names, so the parsed statements do not keep a copy of the same name each. the
+ * table is a fixed size array indexed by the hash of the name, a name is replaced by another one of the same slot, so
+ * the memory is bounded. lookups and replacements are not locked, the slots only hold immutable strings.
+ */
+public class SymbolTable {
+
+    public final static SymbolTable global = new SymbolTable(1024 * 32);
+
+    private final String[]          symbols;
+    private final int               mask;
+
+    public SymbolTable(int capacity){
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.symbols = new String[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * @return the shared instance of text[offset, offset + len)
+     */
+    public String addSymbol(String text, int offset, int len) {
+        int hash = 0;
+        for (int i = offset, end = offset + len; i < end; ++i) {
+            hash = 31 * hash + text.charAt(i);
+        }
+
+        final int index = (hash ^ (hash >>> 16)) & mask;
+        String symbol = symbols[index];
+        if (symbol != null && symbol.length() == len && text.regionMatches(offset, symbol, 0, len)) {
+            return symbol;
+        }
+
+        symbol = text.substring(offset, offset + len);
+        symbols[index] = symbol;
+        return symbol;
+    }
+
+    public String addSymbol(String symbol) {
+        return addSymbol(symbol, 0, symbol.length());
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.sql.repository;
+
+import com.alibaba.druid.sql.ast.SQLObject;
+import com.alibaba.druid.sql.ast.SQLStatement;
+import com.alibaba.druid.sql.ast.statement.SQLColumnDefinition;
+import com.alibaba.druid.sql.ast.statement.SQLTableSource;
+
+/**
+ * the schema objects of the table sources and column references of a statement, computed once by
+ * SchemaRepository.resolve. the bindings are kept in arrays by the identity of the ast node, not in the attributes of
+ * the nodes.
+ */
+public class SchemaBinding {
+
+    public final static String ATTR_BINDING = "schema.binding";
+
+    private Object[]              keys;
+    private SchemaObject[]        tables;
+    private SQLColumnDefinition[] columns;
+    private SQLTableSource[]      tableSources;
+    private int                   size;
+
+    SchemaBinding(){
+        keys = new Object[32];
+        tables = new SchemaObject[32];
+        columns = new SQLColumnDefinition[32];
+        tableSources = new SQLTableSource[32];
+    }
+
+    /**
+     * @return the binding computed by the last SchemaRepository.resolve of the statement, null if not resolved
+     */
+    public static SchemaBinding get(SQLStatement stmt) {
+        return (SchemaBinding) stmt.getAttribute(ATTR_BINDING);
+    }
+
+    /**
+     * @param x a table source or a column reference, a SQLIdentifierExpr or SQLPropertyExpr
+     * @return the table of the table source or of the column
+     */
+    public SchemaObject getTable(SQLObject x) {
+        int index = indexOf(x);
+        return index == -1 ? null : tables[index];
+    }
+
+    public SQLColumnDefinition getColumn(SQLObject x) {
+        int index = indexOf(x);
+        return index == -1 ? null : columns[index];
+    }
+
+    /**
+     * @return the table source a column reference is resolved in
+     */
+    public SQLTableSource getTableSource(SQLObject x) {
+        int index = indexOf(x);
+        return index == -1 ? null : tableSources[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    void put(SQLObject x, SchemaObject table, SQLColumnDefinition column, SQLTableSource tableSource) {
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+
+        int mask = keys.length - 1;
+        int i = System.identityHashCode(x) & mask;
+        for (;;) {
+            Object key = keys[i];
+            if (key == null) {
+                keys[i] = x;
+                size++;
+                break;
+            }
+            if (key == x) {
+                break;
+            }
+            i = (i + 1) & mask;
+        }
+        tables[i] = table;
+        columns[i] = column;
+        tableSources[i] = tableSource;
+    }
+
+    private int indexOf(SQLObject x) {
+        int mask = keys.length - 1;
+        int i = System.identityHashCode(x) & mask;
+        for (;;) {
+            Object key = keys[i];
+            if (key == null) {
+                return -1;
+            }
+            if (key == x) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    private void resize() {
+        Object[] oldKeys = keys;
+        SchemaObject[] oldTables = tables;
+        SQLColumnDefinition[] oldColumns = columns;
+        SQLTableSource[] oldTableSources = tableSources;
+
+        int length = oldKeys.length * 2;
+        keys = new Object[length];
+        tables = new SchemaObject[length];
+        columns = new SQLColumnDefinition[length];
+        tableSources = new SQLTableSource[length];
+        size = 0;
+
+        for (int i = 0; i < oldKeys.length; ++i) {
+            if (oldKeys[i] != null) {
+                put((SQLObject) oldKeys[i], oldTables[i], oldColumns[i], oldTableSources[i]);
+            }
+        }
+    }
+}
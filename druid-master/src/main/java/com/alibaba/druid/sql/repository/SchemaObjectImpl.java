@@ -15,11 +15,20 @@
  */
 package com.alibaba.druid.sql.repository;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.druid.sql.SQLUtils;
+import com.alibaba.druid.sql.ast.SQLExpr;
 import com.alibaba.druid.sql.ast.SQLStatement;
+import com.alibaba.druid.sql.ast.expr.SQLIdentifierExpr;
 import com.alibaba.druid.sql.ast.statement.SQLColumnDefinition;
 import com.alibaba.druid.sql.ast.statement.SQLCreateTableStatement;
 import com.alibaba.druid.sql.ast.statement.SQLTableElement;
 import com.alibaba.druid.sql.ast.statement.SQLUniqueConstraint;
+import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlTableIndex;
 
 /**
  * Created by wenshao on 08/06/2017.
@@ -29,6 +38,11 @@ public class SchemaObjectImpl implements SchemaObject {
     private final SchemaObjectType type;
     private SQLStatement statement;
 
+    // lower case column name -> column, and lower case column name -> the first index of the column is a key. the
+    // indexes are built once when the object is created, the lookups do not walk the table elements.
+    final Map<String, SQLColumnDefinition> columns;
+    final Map<String, Boolean>             indexes;
+
     public long rowCount = -1;
 
     public SchemaObjectImpl(String name, SchemaObjectType type) {
@@ -39,6 +53,57 @@ public class SchemaObjectImpl implements SchemaObject {
         this.name = name;
         this.type = type;
         this.statement = statement;
+
+        if (statement instanceof SQLCreateTableStatement) {
+            Map<String, SQLColumnDefinition> columns = new LinkedHashMap<String, SQLColumnDefinition>();
+            Map<String, Boolean> indexes = new LinkedHashMap<String, Boolean>();
+            for (SQLTableElement element : ((SQLCreateTableStatement) statement).getTableElementList()) {
+                if (element instanceof SQLColumnDefinition) {
+                    SQLColumnDefinition column = (SQLColumnDefinition) element;
+                    String columnName = column.computeAlias();
+                    if (columnName != null && !columns.containsKey(columnName.toLowerCase())) {
+                        columns.put(columnName.toLowerCase(), column);
+                    }
+                    continue;
+                }
+
+                List<SQLExpr> keyColumns = null;
+                if (element instanceof SQLUniqueConstraint) {
+                    keyColumns = ((SQLUniqueConstraint) element).getColumns();
+                } else if (element instanceof MySqlTableIndex) {
+                    keyColumns = ((MySqlTableIndex) element).getColumns();
+                }
+
+                if (keyColumns == null) {
+                    continue;
+                }
+
+                for (SQLExpr columnExpr : keyColumns) {
+                    if (columnExpr instanceof SQLIdentifierExpr) {
+                        String keyColumnName = SQLUtils.normalize(((SQLIdentifierExpr) columnExpr).getName());
+                        if (!indexes.containsKey(keyColumnName.toLowerCase())) {
+                            indexes.put(keyColumnName.toLowerCase(), element instanceof SQLUniqueConstraint);
+                        }
+                    }
+                }
+            }
+            this.columns = columns;
+            this.indexes = indexes;
+        } else {
+            this.columns = Collections.emptyMap();
+            this.indexes = Collections.emptyMap();
+        }
+    }
+
+    /**
+     * a table of a snapshot, without the statement.
+     */
+    SchemaObjectImpl(String name, SchemaObjectType type, Map<String, SQLColumnDefinition> columns,
+                     Map<String, Boolean> indexes) {
+        this.name = name;
+        this.type = type;
+        this.columns = columns;
+        this.indexes = indexes;
     }
 
     public static enum Type {
@@ -50,41 +115,15 @@ public class SchemaObjectImpl implements SchemaObject {
     }
 
     public SQLColumnDefinition findColumn(String columName) {
-        if (statement == null) {
-            return null;
-        }
-
-        if (statement instanceof SQLCreateTableStatement) {
-            return ((SQLCreateTableStatement) statement).findColumn(columName);
-        }
-
-        return null;
+        return columns.get(columName.toLowerCase());
     }
 
     public boolean matchIndex(String columnName) {
-        if (statement == null) {
-            return false;
-        }
-
-        if (statement instanceof SQLCreateTableStatement) {
-            SQLTableElement index = ((SQLCreateTableStatement) statement).findIndex(columnName);
-            return index != null;
-        }
-
-        return false;
+        return indexes.containsKey(columnName.toLowerCase());
     }
 
     public boolean matchKey(String columnName) {
-        if (statement == null) {
-            return false;
-        }
-
-        if (statement instanceof SQLCreateTableStatement) {
-            SQLTableElement index = ((SQLCreateTableStatement) statement).findIndex(columnName);
-            return index instanceof SQLUniqueConstraint;
-        }
-
-        return false;
+        return Boolean.TRUE.equals(indexes.get(columnName.toLowerCase()));
     }
 
     @Override
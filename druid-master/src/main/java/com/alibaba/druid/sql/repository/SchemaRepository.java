@@ -16,29 +16,43 @@
 package com.alibaba.druid.sql.repository;
 
 import com.alibaba.druid.sql.SQLUtils;
+import com.alibaba.druid.sql.ast.SQLDataType;
+import com.alibaba.druid.sql.ast.SQLDataTypeImpl;
 import com.alibaba.druid.sql.ast.SQLExpr;
 import com.alibaba.druid.sql.ast.SQLName;
 import com.alibaba.druid.sql.ast.SQLStatement;
 import com.alibaba.druid.sql.ast.expr.SQLAggregateExpr;
 import com.alibaba.druid.sql.ast.expr.SQLAllColumnExpr;
 import com.alibaba.druid.sql.ast.expr.SQLIdentifierExpr;
+import com.alibaba.druid.sql.ast.expr.SQLIntegerExpr;
 import com.alibaba.druid.sql.ast.expr.SQLPropertyExpr;
 import com.alibaba.druid.sql.ast.statement.*;
 import com.alibaba.druid.sql.dialect.oracle.ast.stmt.OracleCreateTableStatement;
 import com.alibaba.druid.sql.dialect.oracle.visitor.OracleASTVisitorAdapter;
-
+import com.alibaba.druid.sql.parser.SQLStatementParallelParser;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Created by wenshao on 03/06/2017.
  */
 public class SchemaRepository {
-    private final Map<String, SchemaObject> objects = new ConcurrentSkipListMap<String, SchemaObject>();
+    private final static int SNAPSHOT_MAGIC = 0x44534E31;
+
+    // lower case name -> object
+    private final Map<String, SchemaObject> objects = new ConcurrentHashMap<String, SchemaObject>();
 
-    private final Map<String, SchemaObject> functions  = new ConcurrentSkipListMap<String, SchemaObject>();
+    private final Map<String, SchemaObject> functions  = new ConcurrentHashMap<String, SchemaObject>();
 
     private final SchemaVisitor visitor = new SchemaVisitor();
 
@@ -65,12 +79,38 @@ public class SchemaRepository {
         }
     }
 
+    /**
+     * load a large ddl script, the statements are parsed in parallel and accepted in the order of the script.
+     *
+     * @param executor the executor is not shut down, a thread pool of parallelism threads is created if null
+     */
+    public void acceptDDL(String ddl, String dbType, ExecutorService executor, int parallelism) {
+        SQLStatementParallelParser parser = new SQLStatementParallelParser(dbType, executor, parallelism);
+        for (SQLStatement stmt : parser.parse(ddl)) {
+            accept(stmt);
+        }
+    }
+
     public void accept(SQLStatement stmt) {
         stmt.accept(visitor);
     }
 
+    /**
+     * bind the table sources and the column references of the statement to the tables and columns of the repository
+     * once. the binding is kept as the attribute SchemaBinding.ATTR_BINDING of the statement, the table of each
+     * SQLExprTableSource is set to its schema object.
+     */
+    public SchemaBinding resolve(SQLStatement stmt) {
+        SchemaResolveVisitor resolveVisitor = new SchemaResolveVisitor(this);
+        stmt.accept(resolveVisitor);
+
+        SchemaBinding binding = resolveVisitor.getBinding();
+        stmt.putAttribute(SchemaBinding.ATTR_BINDING, binding);
+        return binding;
+    }
+
     public boolean isSequence(String name) {
-        SchemaObject object = objects.get(name);
+        SchemaObject object = objects.get(name.toLowerCase());
         return object != null
                 && object.getType() == SchemaObjectType.Sequence;
     }
@@ -79,7 +119,7 @@ public class SchemaRepository {
 
         public boolean visit(SQLDropSequenceStatement x) {
             String name = x.getName().getSimpleName();
-            objects.remove(name);
+            objects.remove(name.toLowerCase());
             return false;
         }
 
@@ -298,4 +338,111 @@ public class SchemaRepository {
         }
         return count;
     }
+
+    /**
+     * write the objects in a compact binary form, readSnapshot loads them without parsing the ddl again. a table keeps
+     * its columns with the data type name and integer arguments, and its indexes, but not its statement.
+     */
+    public void writeSnapshot(OutputStream out) throws IOException {
+        DataOutputStream dataOut = new DataOutputStream(out);
+        dataOut.writeInt(SNAPSHOT_MAGIC);
+        writeObjects(dataOut, objects);
+        writeObjects(dataOut, functions);
+        dataOut.flush();
+    }
+
+    private static void writeObjects(DataOutputStream out, Map<String, SchemaObject> objects) throws IOException {
+        List<SchemaObject> list = new ArrayList<SchemaObject>(objects.values());
+        out.writeInt(list.size());
+        for (SchemaObject object : list) {
+            out.writeUTF(object.getType().name());
+            out.writeUTF(object.getName());
+
+            if (!(object instanceof SchemaObjectImpl)) {
+                out.writeInt(0);
+                out.writeInt(0);
+                continue;
+            }
+
+            SchemaObjectImpl impl = (SchemaObjectImpl) object;
+            out.writeInt(impl.columns.size());
+            for (SQLColumnDefinition column : impl.columns.values()) {
+                out.writeUTF(column.computeAlias());
+
+                SQLDataType dataType = column.getDataType();
+                out.writeUTF(dataType == null || dataType.getName() == null ? "" : dataType.getName());
+
+                List<SQLExpr> arguments = dataType == null ? null : dataType.getArguments();
+                int count = 0;
+                while (arguments != null && count < arguments.size() && arguments.get(count) instanceof SQLIntegerExpr) {
+                    count++;
+                }
+                out.writeInt(count);
+                for (int i = 0; i < count; ++i) {
+                    out.writeLong(((SQLIntegerExpr) arguments.get(i)).getNumber().longValue());
+                }
+            }
+
+            out.writeInt(impl.indexes.size());
+            for (Map.Entry<String, Boolean> entry : impl.indexes.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeBoolean(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * load the objects written by writeSnapshot, an object replaces the object of the same name.
+     */
+    public void readSnapshot(InputStream in) throws IOException {
+        DataInputStream dataIn = new DataInputStream(in);
+        if (dataIn.readInt() != SNAPSHOT_MAGIC) {
+            throw new IOException("not a schema snapshot");
+        }
+        readObjects(dataIn, objects);
+        readObjects(dataIn, functions);
+    }
+
+    private static void readObjects(DataInputStream in, Map<String, SchemaObject> objects) throws IOException {
+        int size = in.readInt();
+        for (int i = 0; i < size; ++i) {
+            SchemaObjectType type = SchemaObjectType.valueOf(in.readUTF());
+            String name = in.readUTF();
+
+            int columnCount = in.readInt();
+            Map<String, SQLColumnDefinition> columns = new LinkedHashMap<String, SQLColumnDefinition>();
+            for (int j = 0; j < columnCount; ++j) {
+                SQLColumnDefinition column = new SQLColumnDefinition();
+                String columnName = in.readUTF();
+                column.setName(new SQLIdentifierExpr(columnName));
+
+                String dataTypeName = in.readUTF();
+                int argumentCount = in.readInt();
+                if (dataTypeName.length() != 0) {
+                    SQLDataTypeImpl dataType = new SQLDataTypeImpl(dataTypeName);
+                    for (int k = 0; k < argumentCount; ++k) {
+                        long value = in.readLong();
+                        dataType.addArgument(value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE //
+                            ? new SQLIntegerExpr((int) value) //
+                            : new SQLIntegerExpr(value));
+                    }
+                    column.setDataType(dataType);
+                } else {
+                    for (int k = 0; k < argumentCount; ++k) {
+                        in.readLong();
+                    }
+                }
+                columns.put(columnName.toLowerCase(), column);
+            }
+
+            int indexCount = in.readInt();
+            Map<String, Boolean> indexes = new LinkedHashMap<String, Boolean>();
+            for (int j = 0; j < indexCount; ++j) {
+                String columnName = in.readUTF();
+                indexes.put(columnName, in.readBoolean());
+            }
+
+            objects.put(name.toLowerCase(), new SchemaObjectImpl(name, type, columns, indexes));
+        }
+    }
 }
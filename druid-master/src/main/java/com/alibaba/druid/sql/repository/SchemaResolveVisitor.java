@@ -0,0 +1,258 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.sql.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.druid.sql.ast.SQLExpr;
+import com.alibaba.druid.sql.ast.SQLObject;
+import com.alibaba.druid.sql.ast.expr.SQLIdentifierExpr;
+import com.alibaba.druid.sql.ast.expr.SQLMethodInvokeExpr;
+import com.alibaba.druid.sql.ast.expr.SQLPropertyExpr;
+import com.alibaba.druid.sql.ast.statement.SQLColumnDefinition;
+import com.alibaba.druid.sql.ast.statement.SQLDeleteStatement;
+import com.alibaba.druid.sql.ast.statement.SQLExprTableSource;
+import com.alibaba.druid.sql.ast.statement.SQLInsertStatement;
+import com.alibaba.druid.sql.ast.statement.SQLJoinTableSource;
+import com.alibaba.druid.sql.ast.statement.SQLSelectQueryBlock;
+import com.alibaba.druid.sql.ast.statement.SQLTableSource;
+import com.alibaba.druid.sql.ast.statement.SQLUpdateStatement;
+import com.alibaba.druid.sql.dialect.oracle.ast.stmt.OracleDeleteStatement;
+import com.alibaba.druid.sql.dialect.oracle.ast.stmt.OracleInsertStatement;
+import com.alibaba.druid.sql.dialect.oracle.ast.stmt.OracleSelectQueryBlock;
+import com.alibaba.druid.sql.dialect.oracle.ast.stmt.OracleSelectTableReference;
+import com.alibaba.druid.sql.dialect.oracle.ast.stmt.OracleUpdateStatement;
+import com.alibaba.druid.sql.dialect.oracle.visitor.OracleASTVisitorAdapter;
+
+/**
+ * bind the table sources and column references of a statement. each query block, update and delete is a scope of the
+ * table sources of its from, a column is looked up in the scope it is in and then in the outer scopes. an oracle
+ * visitor like SchemaVisitor, the oracle nodes are bound as their common nodes.
+ */
+class SchemaResolveVisitor extends OracleASTVisitorAdapter {
+
+    private final SchemaRepository repository;
+    private final SchemaBinding    binding = new SchemaBinding();
+
+    private Scope                  scope;
+
+    SchemaResolveVisitor(SchemaRepository repository){
+        this.repository = repository;
+    }
+
+    SchemaBinding getBinding() {
+        return binding;
+    }
+
+    public boolean visit(SQLSelectQueryBlock x) {
+        scope = new Scope(scope, x.getFrom(), null);
+        return true;
+    }
+
+    public void endVisit(SQLSelectQueryBlock x) {
+        scope = scope.parent;
+    }
+
+    public boolean visit(SQLUpdateStatement x) {
+        scope = new Scope(scope, x.getTableSource(), x.getFrom());
+        return true;
+    }
+
+    public void endVisit(SQLUpdateStatement x) {
+        scope = scope.parent;
+    }
+
+    public boolean visit(SQLDeleteStatement x) {
+        scope = new Scope(scope, x.getTableSource(), x.getFrom());
+        return true;
+    }
+
+    public void endVisit(SQLDeleteStatement x) {
+        scope = scope.parent;
+    }
+
+    public boolean visit(SQLInsertStatement x) {
+        SQLExprTableSource tableSource = x.getTableSource();
+        if (tableSource != null) {
+            tableSource.accept(this);
+
+            SchemaObject table = tableSource.getSchemaObject();
+            if (table != null) {
+                for (SQLExpr column : x.getColumns()) {
+                    if (column instanceof SQLIdentifierExpr) {
+                        bind(column, table, ((SQLIdentifierExpr) column).getName(), tableSource);
+                    }
+                }
+            }
+        }
+
+        for (SQLInsertStatement.ValuesClause values : x.getValuesList()) {
+            values.accept(this);
+        }
+        if (x.getQuery() != null) {
+            x.getQuery().accept(this);
+        }
+        return false;
+    }
+
+    public boolean visit(OracleSelectQueryBlock x) {
+        return visit((SQLSelectQueryBlock) x);
+    }
+
+    public void endVisit(OracleSelectQueryBlock x) {
+        endVisit((SQLSelectQueryBlock) x);
+    }
+
+    public boolean visit(OracleUpdateStatement x) {
+        return visit((SQLUpdateStatement) x);
+    }
+
+    public void endVisit(OracleUpdateStatement x) {
+        endVisit((SQLUpdateStatement) x);
+    }
+
+    public boolean visit(OracleDeleteStatement x) {
+        return visit((SQLDeleteStatement) x);
+    }
+
+    public void endVisit(OracleDeleteStatement x) {
+        endVisit((SQLDeleteStatement) x);
+    }
+
+    public boolean visit(OracleInsertStatement x) {
+        return visit((SQLInsertStatement) x);
+    }
+
+    public boolean visit(OracleSelectTableReference x) {
+        return visit((SQLExprTableSource) x);
+    }
+
+    public boolean visit(SQLExprTableSource x) {
+        SQLExpr expr = x.getExpr();
+        if (expr instanceof SQLIdentifierExpr) {
+            SchemaObject table = x.getSchemaObject();
+            if (table == null) {
+                table = repository.findTable(((SQLIdentifierExpr) expr).getName());
+                x.setSchemaObject(table);
+            }
+            if (table != null) {
+                binding.put(x, table, null, x);
+            }
+        }
+        return false;
+    }
+
+    public boolean visit(SQLIdentifierExpr x) {
+        SQLObject parent = x.getParent();
+        if (parent instanceof SQLMethodInvokeExpr && ((SQLMethodInvokeExpr) parent).getOwner() == x) {
+            return false;
+        }
+
+        String name = x.getName();
+        for (Scope scope = this.scope; scope != null; scope = scope.parent) {
+            for (SQLExprTableSource tableSource : scope.tableSources) {
+                SchemaObject table = tableSource.getSchemaObject();
+                if (table != null && bind(x, table, name, tableSource)) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    public boolean visit(SQLPropertyExpr x) {
+        SQLExpr owner = x.getOwner();
+        if (!(owner instanceof SQLIdentifierExpr)) {
+            return true;
+        }
+
+        String alias = ((SQLIdentifierExpr) owner).getName();
+        for (Scope scope = this.scope; scope != null; scope = scope.parent) {
+            SQLTableSource tableSource = scope.findTableSource(alias);
+            if (tableSource == null) {
+                continue;
+            }
+
+            if (tableSource instanceof SQLExprTableSource) {
+                SchemaObject table = ((SQLExprTableSource) tableSource).getSchemaObject();
+                if (table != null) {
+                    bind(x, table, x.getName(), tableSource);
+                }
+            }
+            break;
+        }
+        return false;
+    }
+
+    private boolean bind(SQLExpr x, SchemaObject table, String columnName, SQLTableSource tableSource) {
+        SQLColumnDefinition column = table.findColumn(columnName);
+        if (column == null) {
+            return false;
+        }
+
+        binding.put(x, table, column, tableSource);
+        return true;
+    }
+
+    /**
+     * the table sources of a from, the joins flattened and the tables resolved once when the scope is entered.
+     */
+    private class Scope {
+
+        final Scope                    parent;
+        final List<SQLTableSource>     all          = new ArrayList<SQLTableSource>(2);
+        final List<String>             aliases      = new ArrayList<String>(2);
+        final List<SQLExprTableSource> tableSources = new ArrayList<SQLExprTableSource>(2);
+
+        Scope(Scope parent, SQLTableSource from, SQLTableSource from2){
+            this.parent = parent;
+            add(from);
+            add(from2);
+        }
+
+        private void add(SQLTableSource x) {
+            if (x == null) {
+                return;
+            }
+
+            if (x instanceof SQLJoinTableSource) {
+                add(((SQLJoinTableSource) x).getLeft());
+                add(((SQLJoinTableSource) x).getRight());
+                return;
+            }
+
+            String alias = x.computeAlias();
+            all.add(x);
+            aliases.add(alias == null ? null : alias.toLowerCase());
+
+            if (x instanceof SQLExprTableSource) {
+                x.accept(SchemaResolveVisitor.this);
+                tableSources.add((SQLExprTableSource) x);
+            }
+        }
+
+        SQLTableSource findTableSource(String alias) {
+            String lowerAlias = alias.toLowerCase();
+            for (int i = 0; i < all.size(); ++i) {
+                if (lowerAlias.equals(aliases.get(i))) {
+                    return all.get(i);
+                }
+            }
+            return null;
+        }
+    }
+}
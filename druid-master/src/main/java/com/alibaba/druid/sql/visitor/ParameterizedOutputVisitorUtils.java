@@ -16,7 +16,9 @@
 package com.alibaba.druid.sql.visitor;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.alibaba.druid.sql.ast.*;
 import com.alibaba.druid.sql.ast.expr.*;
@@ -38,15 +40,28 @@ public class ParameterizedOutputVisitorUtils {
 
     public static final String ATTR_PARAMS_SKIP = "druid.parameterized.skip";
 
+    // buffers grown larger than this are not kept by the thread
+    private final static int   MAX_POOLED_BUFFER_SIZE = 1024 * 16;
+
+    private final static ThreadLocal<Map<String, SQLASTOutputVisitor>> localVisitors = new ThreadLocal<Map<String, SQLASTOutputVisitor>>() {
+
+        protected Map<String, SQLASTOutputVisitor> initialValue() {
+            return new HashMap<String, SQLASTOutputVisitor>();
+        }
+    };
+
     public static String parameterize(String sql, String dbType) {
         SQLStatementParser parser = SQLParserUtils.createSQLStatementParser(sql, dbType);
+        // only the first row of a multi-row insert is printed
+        parser.setLazyValues(true);
         List<SQLStatement> statementList = parser.parseStatementList();
         if (statementList.size() == 0) {
             return sql;
         }
 
-        StringBuilder out = new StringBuilder(sql.length());
-        ParameterizedVisitor visitor = createParameterizedOutputVisitor(out, dbType);
+        SQLASTOutputVisitor visitor = borrowVisitor(dbType);
+        StringBuilder out = (StringBuilder) visitor.getAppender();
+        out.ensureCapacity(sql.length());
 
         for (int i = 0; i < statementList.size(); i++) {
             if (i > 0) {
@@ -60,17 +75,21 @@ public class ParameterizedOutputVisitorUtils {
             stmt.accept(visitor);
         }
 
+        String result;
         if (visitor.getReplaceCount() == 0
                 && parser.getLexer().getCommentCount() == 0) {
-            return sql;
+            result = sql;
+        } else {
+            result = out.toString();
         }
 
-        return out.toString();
+        returnVisitor(dbType, visitor);
+        return result;
     }
 
     public static String parameterize(List<SQLStatement> statementList, String dbType) {
-        StringBuilder out = new StringBuilder();
-        ParameterizedVisitor visitor = createParameterizedOutputVisitor(out, dbType);
+        SQLASTOutputVisitor visitor = borrowVisitor(dbType);
+        StringBuilder out = (StringBuilder) visitor.getAppender();
 
         for (int i = 0; i < statementList.size(); i++) {
             if (i > 0) {
@@ -84,7 +103,31 @@ public class ParameterizedOutputVisitorUtils {
             stmt.accept(visitor);
         }
 
-        return out.toString();
+        String result = out.toString();
+        returnVisitor(dbType, visitor);
+        return result;
+    }
+
+    /**
+     * the visitor of the current thread for dbType, writing to a StringBuilder. it is removed from the pool until
+     * returned, so a nested parameterize call gets another one.
+     */
+    private static SQLASTOutputVisitor borrowVisitor(String dbType) {
+        SQLASTOutputVisitor visitor = localVisitors.get().remove(dbType);
+        if (visitor == null) {
+            visitor = (SQLASTOutputVisitor) createParameterizedOutputVisitor(new StringBuilder(), dbType);
+        }
+        return visitor;
+    }
+
+    private static void returnVisitor(String dbType, SQLASTOutputVisitor visitor) {
+        StringBuilder out = (StringBuilder) visitor.getAppender();
+        if (out.capacity() > MAX_POOLED_BUFFER_SIZE) {
+            return;
+        }
+
+        visitor.reset();
+        localVisitors.get().put(dbType, visitor);
     }
 
     public static ParameterizedVisitor createParameterizedOutputVisitor(Appendable out, String dbType) {
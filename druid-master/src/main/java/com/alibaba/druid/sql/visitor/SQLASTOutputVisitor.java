@@ -43,7 +43,23 @@ import com.alibaba.druid.util.JdbcUtils;
 
 public class SQLASTOutputVisitor extends SQLASTVisitorAdapter implements ParameterizedVisitor, PrintableVisitor {
 
+    private final static ThreadLocal<SimpleDateFormat> localDateFormat      = new ThreadLocal<SimpleDateFormat>() {
+
+        protected SimpleDateFormat initialValue() {
+            return new SimpleDateFormat("yyyy-MM-dd");
+        }
+    };
+
+    private final static ThreadLocal<SimpleDateFormat> localTimestampFormat = new ThreadLocal<SimpleDateFormat>() {
+
+        protected SimpleDateFormat initialValue() {
+            return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+        }
+    };
+
     protected final Appendable appender;
+    // appender without IOException, written directly
+    private final StringBuilder builder;
     private String indent = "\t";
     private int indentCount = 0;
     private boolean prettyFormat = true;
@@ -75,18 +91,37 @@ public class SQLASTOutputVisitor extends SQLASTVisitorAdapter implements Paramet
 
     public SQLASTOutputVisitor(Appendable appender){
         this.appender = appender;
+        this.builder = appender instanceof StringBuilder ? (StringBuilder) appender : null;
     }
 
     public SQLASTOutputVisitor(Appendable appender, String dbType){
         this.appender = appender;
+        this.builder = appender instanceof StringBuilder ? (StringBuilder) appender : null;
         this.dbType = dbType;
     }
 
     public SQLASTOutputVisitor(Appendable appender, boolean parameterized){
         this.appender = appender;
+        this.builder = appender instanceof StringBuilder ? (StringBuilder) appender : null;
         this.parameterized = parameterized;
     }
 
+    /**
+     * reset the output state so the visitor can print another statement, a StringBuilder appender is cleared.
+     */
+    public void reset() {
+        if (builder != null) {
+            builder.setLength(0);
+        }
+        indentCount = 0;
+        replaceCount = 0;
+        lines = 0;
+        if (parameters != null) {
+            parameters = new ArrayList<Object>();
+        }
+        tables = null;
+    }
+
     public int getReplaceCount() {
         return this.replaceCount;
     }
@@ -188,6 +223,11 @@ public class SQLASTOutputVisitor extends SQLASTVisitorAdapter implements Paramet
     }
 
     public void print(char value) {
+        if (builder != null) {
+            builder.append(value);
+            return;
+        }
+
         if (this.appender == null) {
             return;
         }
@@ -200,6 +240,11 @@ public class SQLASTOutputVisitor extends SQLASTVisitorAdapter implements Paramet
     }
 
     public void print(int value) {
+        if (builder != null) {
+            builder.append(value);
+            return;
+        }
+
         if (this.appender == null) {
             return;
         }
@@ -214,14 +259,21 @@ public class SQLASTOutputVisitor extends SQLASTVisitorAdapter implements Paramet
 
         SimpleDateFormat dateFormat;
         if (date instanceof java.sql.Timestamp) {
-            dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+            dateFormat = localTimestampFormat.get();
         } else {
-            dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+            dateFormat = localDateFormat.get();
         }
-        print0("'" + dateFormat.format(date) + "'");
+        print('\'');
+        print0(dateFormat.format(date));
+        print('\'');
     }
 
     public void print(long value) {
+        if (builder != null) {
+            builder.append(value);
+            return;
+        }
+
         if (this.appender == null) {
             return;
         }
@@ -236,6 +288,11 @@ public class SQLASTOutputVisitor extends SQLASTVisitorAdapter implements Paramet
     }
 
     protected void print0(String text) {
+        if (builder != null) {
+            builder.append(text);
+            return;
+        }
+
         if (appender == null) {
             return;
         }
@@ -247,6 +304,23 @@ public class SQLASTOutputVisitor extends SQLASTVisitorAdapter implements Paramet
         }
     }
 
+    protected void print0(String text, int start, int end) {
+        if (builder != null) {
+            builder.append(text, start, end);
+            return;
+        }
+
+        if (appender == null) {
+            return;
+        }
+
+        try {
+            this.appender.append(text, start, end);
+        } catch (IOException e) {
+            throw new RuntimeException("println error", e);
+        }
+    }
+
     protected void printAlias(String alias) {
         if ((alias != null) && (alias.length() > 0)) {
             print(' ');
@@ -328,7 +402,7 @@ public class SQLASTOutputVisitor extends SQLASTVisitorAdapter implements Paramet
             return;
         }
 
-        print0("\n");
+        print('\n');
         lines++;
         printIndent();
     }
@@ -2189,6 +2263,13 @@ public class SQLASTOutputVisitor extends SQLASTVisitorAdapter implements Paramet
 
     @Override
     public boolean visit(ValuesClause x) {
+        if (x.isLazy() && !parameterized) {
+            print('(');
+            print0(x.getSource(), x.getSourceStart(), x.getSourceEnd());
+            print(')');
+            return false;
+        }
+
         print('(');
         incrementIndent();
         for (int i = 0, size = x.getValues().size(); i < size; ++i) {
@@ -27,6 +27,9 @@ import com.alibaba.druid.sql.ast.statement.SQLCommitStatement;
 
 public class SQLASTVisitorAdapter implements SQLASTVisitor {
 
+    // see SQLASTVisitorDialect
+    final int dialects = SQLASTVisitorDialect.dialectsOf(this);
+
     public void endVisit(SQLAllColumnExpr x) {
     }
 
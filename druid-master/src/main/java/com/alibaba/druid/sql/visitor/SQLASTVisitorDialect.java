@@ -0,0 +1,80 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.sql.visitor;
+
+import com.alibaba.druid.sql.dialect.db2.visitor.DB2ASTVisitor;
+import com.alibaba.druid.sql.dialect.mysql.visitor.MySqlASTVisitor;
+import com.alibaba.druid.sql.dialect.odps.visitor.OdpsASTVisitor;
+import com.alibaba.druid.sql.dialect.oracle.visitor.OracleASTVisitor;
+import com.alibaba.druid.sql.dialect.phoenix.visitor.PhoenixASTVisitor;
+import com.alibaba.druid.sql.dialect.postgresql.visitor.PGASTVisitor;
+import com.alibaba.druid.sql.dialect.sqlserver.visitor.SQLServerASTVisitor;
+
+/**
+ * the dialect visitor interfaces of a visitor as bits of an int. the dialect nodes test the bits, which the
+ * SQLASTVisitorAdapter computes once when the visitor is created, instead of an instanceof of the dialect visitor
+ * interface for every node. an instanceof of an interface scans the secondary super types of the visitor class when it
+ * fails, and thrashes the one entry cache of the class when the same visitor is tested against several interfaces.
+ */
+public final class SQLASTVisitorDialect {
+
+    public final static int MYSQL      = 1;
+    public final static int ORACLE     = 1 << 1;
+    public final static int POSTGRESQL = 1 << 2;
+    public final static int SQL_SERVER = 1 << 3;
+    public final static int DB2        = 1 << 4;
+    public final static int ODPS       = 1 << 5;
+    public final static int PHOENIX    = 1 << 6;
+
+    private SQLASTVisitorDialect(){
+    }
+
+    public static int dialectsOf(SQLASTVisitor visitor) {
+        int dialects = 0;
+        if (visitor instanceof MySqlASTVisitor) {
+            dialects |= MYSQL;
+        }
+        if (visitor instanceof OracleASTVisitor) {
+            dialects |= ORACLE;
+        }
+        if (visitor instanceof PGASTVisitor) {
+            dialects |= POSTGRESQL;
+        }
+        if (visitor instanceof SQLServerASTVisitor) {
+            dialects |= SQL_SERVER;
+        }
+        if (visitor instanceof DB2ASTVisitor) {
+            dialects |= DB2;
+        }
+        if (visitor instanceof OdpsASTVisitor) {
+            dialects |= ODPS;
+        }
+        if (visitor instanceof PhoenixASTVisitor) {
+            dialects |= PHOENIX;
+        }
+        return dialects;
+    }
+
+    /**
+     * @return true if the visitor implements the visitor interface of the dialect
+     */
+    public static boolean isDialect(SQLASTVisitor visitor, int dialect) {
+        if (visitor instanceof SQLASTVisitorAdapter) {
+            return (((SQLASTVisitorAdapter) visitor).dialects & dialect) != 0;
+        }
+        return (dialectsOf(visitor) & dialect) != 0;
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.sql.visitor;
+
+import static com.alibaba.druid.sql.visitor.SQLEvalVisitor.EVAL_VALUE_NULL;
+
+import java.lang.reflect.Array;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import com.alibaba.druid.DruidRuntimeException;
+import com.alibaba.druid.sql.SQLUtils;
+import com.alibaba.druid.sql.ast.SQLExpr;
+
+/**
+ * an expression compiled by SQLEvalVisitorUtils.compile. the compiled expression does not change the ast, it can be
+ * evaluated again and again with other parameters, and from several threads at the same time.
+ */
+public abstract class SQLCompiledExpr {
+
+    protected final SQLExpr expr;
+
+    protected SQLCompiledExpr(SQLExpr expr){
+        this.expr = expr;
+    }
+
+    public SQLExpr getExpr() {
+        return expr;
+    }
+
+    /**
+     * the value of the expression with the parameters bound to the '?' by index, the same as
+     * SQLEvalVisitorUtils.eval(dbType, expr, parameters)
+     */
+    public Object eval(Object... parameters) {
+        return eval(Arrays.asList(parameters));
+    }
+
+    public Object eval(List<Object> parameters) {
+        Object value = evalValue(parameters);
+        if (value == null) {
+            throw new DruidRuntimeException("eval error : " + this);
+        }
+
+        if (value == EVAL_VALUE_NULL) {
+            return null;
+        }
+        return value;
+    }
+
+    /**
+     * @return EVAL_VALUE_NULL for sql null, null if the expression has no value
+     */
+    public abstract Object evalValue(List<Object> parameters);
+
+    /**
+     * evaluate the expression for a batch of rows at once, the same as eval for each row but without a parameter list
+     * for each row. columns[i] is the column of the parameter i, an int[], long[], double[], Object[] or List, with a
+     * value for each row. a null element is sql null. the column of a parameter the expression does not read may be
+     * null.
+     *
+     * @return the value of each row, null for sql null
+     */
+    public Object[] evalBatch(Object[] columns, int size) {
+        Object[] values = evalBatch0(columns, size);
+        for (int row = 0; row < size; ++row) {
+            Object value = values[row];
+            if (value == null) {
+                throw new DruidRuntimeException("eval error : " + this + ", row " + row);
+            }
+            if (value == EVAL_VALUE_NULL) {
+                values[row] = null;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * evaluate a predicate for a batch of rows, see evalBatch.
+     *
+     * @return the rows the predicate is true for, the rows of sql null and of no value are not set
+     */
+    public BitSet select(Object[] columns, int size) {
+        Object[] values = evalBatch0(columns, size);
+        BitSet selection = new BitSet(size);
+        for (int row = 0; row < size; ++row) {
+            Object value = values[row];
+            if (value == Boolean.TRUE
+                || (value != null && value != EVAL_VALUE_NULL && SQLEvalVisitorUtils.eq(value, Boolean.TRUE))) {
+                selection.set(row);
+            }
+        }
+        return selection;
+    }
+
+    private Object[] evalBatch0(Object[] columns, int size) {
+        Batch batch = new Batch(columns, size);
+        Object[] values = new Object[size];
+        evalBatch(batch, batch.allRows(), size, values);
+        return values;
+    }
+
+    /**
+     * set values[rows[i]] for the first size rows to the value of evalValue for the row. the nodes which can evaluate a
+     * column at a time override this.
+     */
+    void evalBatch(Batch batch, int[] rows, int size, Object[] values) {
+        Batch.Row parameters = batch.new Row();
+        for (int i = 0; i < size; ++i) {
+            int row = rows[i];
+            parameters.row = row;
+            values[row] = evalValue(parameters);
+        }
+    }
+
+    /**
+     * @return true if the expression does not depend on the parameters
+     */
+    public boolean isConstant() {
+        return false;
+    }
+
+    // the value of the expression is evaluated once at compile time if true
+    boolean foldable() {
+        return false;
+    }
+
+    public String toString() {
+        return SQLUtils.toSQLString(expr);
+    }
+
+    /**
+     * the parameter columns of evalBatch.
+     */
+    static class Batch {
+
+        final Object[] columns;
+        final int      size;
+
+        private int[]  allRows;
+
+        Batch(Object[] columns, int size){
+            for (Object column : columns) {
+                if (column == null) {
+                    continue;
+                }
+                int length = column instanceof List ? ((List<?>) column).size() : Array.getLength(column);
+                if (length < size) {
+                    throw new IllegalArgumentException("column size " + length + " < " + size);
+                }
+            }
+            this.columns = columns;
+            this.size = size;
+        }
+
+        int[] allRows() {
+            if (allRows == null) {
+                allRows = new int[size];
+                for (int i = 0; i < size; ++i) {
+                    allRows[i] = i;
+                }
+            }
+            return allRows;
+        }
+
+        /**
+         * @return the value of parameter index of the row the same as Param.evalValue, EVAL_VALUE_NULL for sql null
+         */
+        Object get(int index, int row) {
+            if (index >= columns.length) {
+                return null;
+            }
+
+            Object column = columns[index];
+            Object value;
+            if (column instanceof Object[]) {
+                value = ((Object[]) column)[row];
+            } else if (column instanceof int[]) {
+                return ((int[]) column)[row];
+            } else if (column instanceof long[]) {
+                return ((long[]) column)[row];
+            } else if (column instanceof List) {
+                value = ((List<?>) column).get(row);
+            } else {
+                return Array.get(column, row);
+            }
+            return value == null ? EVAL_VALUE_NULL : value;
+        }
+
+        /**
+         * the parameters of one row for evalValue.
+         */
+        class Row extends AbstractList<Object> {
+
+            int row;
+
+            public Object get(int index) {
+                Object value = Batch.this.get(index, row);
+                return value == EVAL_VALUE_NULL ? null : value;
+            }
+
+            public int size() {
+                return columns.length;
+            }
+        }
+    }
+}
@@ -124,6 +124,34 @@ public class SQLEvalVisitorUtils {
         return value;
     }
 
+    /**
+     * compile the expression to evaluate it with other parameters again and again, without the visitor and the
+     * attributes of the ast.
+     */
+    public static SQLCompiledExpr compile(String dbType, SQLExpr expr) {
+        return new SQLExprCompiler(dbType).compile(expr);
+    }
+
+    /**
+     * compile the expression with the identifiers and variables named in variables (lowercase) bound to the parameter
+     * of the mapped index.
+     */
+    public static SQLCompiledExpr compile(String dbType, SQLExpr expr, Map<String, Integer> variables) {
+        return new SQLExprCompiler(dbType, variables).compile(expr);
+    }
+
+    public static SQLCompiledExpr compile(String dbType, String expr) {
+        return compile(dbType, SQLUtils.toSQLExpr(expr, dbType));
+    }
+
+    /**
+     * evaluate the expression for a batch of rows, columns[i] is the column of the parameter i, see
+     * SQLCompiledExpr.evalBatch.
+     */
+    public static Object[] evalBatch(String dbType, String expr, Object[] columns, int size) {
+        return compile(dbType, expr).evalBatch(columns, size);
+    }
+
     public static Object getValue(SQLObject sqlObject) {
         if (sqlObject instanceof SQLNumericLiteralExpr) {
             return ((SQLNumericLiteralExpr) sqlObject).getNumber();
@@ -226,14 +254,19 @@ public class SQLEvalVisitorUtils {
         functions.put("space", OneParamFunctions.instance);
     }
 
-    public static boolean visit(SQLEvalVisitor visitor, SQLMethodInvokeExpr x) {
-        String methodName = x.getMethodName().toLowerCase();
-
+    static Function getFunction(SQLEvalVisitor visitor, String methodName) {
         Function function = visitor.getFunction(methodName);
 
         if (function == null) {
             function = functions.get(methodName);
         }
+        return function;
+    }
+
+    public static boolean visit(SQLEvalVisitor visitor, SQLMethodInvokeExpr x) {
+        String methodName = x.getMethodName().toLowerCase();
+
+        Function function = getFunction(visitor, methodName);
 
         if (function != null) {
             Object result = function.eval(visitor, x);
@@ -1077,7 +1110,7 @@ public class SQLEvalVisitorUtils {
     }
 
     @SuppressWarnings("rawtypes")
-    private static Object processValue(Object value) {
+    static Object processValue(Object value) {
         if (value instanceof List) {
             List list = (List) value;
             if (list.size() == 1) {
@@ -1089,7 +1122,7 @@ public class SQLEvalVisitorUtils {
         return value;
     }
 
-    private static boolean isAlwayTrueLikePattern(SQLExpr x) {
+    static boolean isAlwayTrueLikePattern(SQLExpr x) {
         if (x instanceof SQLCharExpr) {
             String text = ((SQLCharExpr) x).getText();
 
@@ -1427,6 +1460,10 @@ public class SQLEvalVisitorUtils {
             return null;
         }
 
+        if (a == EVAL_VALUE_NULL || b == EVAL_VALUE_NULL) {
+            return EVAL_VALUE_NULL;
+        }
+
         if (a instanceof Long || b instanceof Long) {
             return castToLong(a).longValue() >> castToLong(b).longValue();
         }
@@ -1923,6 +1960,10 @@ public class SQLEvalVisitorUtils {
             return null;
         }
 
+        if (a == EVAL_VALUE_NULL || b == EVAL_VALUE_NULL) {
+            return EVAL_VALUE_NULL;
+        }
+
         if (a instanceof String) {
             a = castToNumber((String) a);
         }
@@ -1974,6 +2015,14 @@ public class SQLEvalVisitorUtils {
     }
 
     public static boolean like(String input, String pattern) {
+        Pattern regex = likePattern(pattern);
+        return regex == null || regex.matcher(input).matches();
+    }
+
+    /**
+     * @return the regex of the like pattern, null if the pattern matches everything
+     */
+    static Pattern likePattern(String pattern) {
         if (pattern == null) {
             throw new IllegalArgumentException("pattern is null");
         }
@@ -2033,11 +2082,10 @@ public class SQLEvalVisitorUtils {
             }
         }
         if ("%".equals(pattern) || "%%".equals(pattern)) {
-            return true;
+            return null;
         }
 
-        String regexpr = regexprBuilder.toString();
-        return Pattern.matches(regexpr, input);
+        return Pattern.compile(regexprBuilder.toString());
     }
 
     public static boolean visit(SQLEvalVisitor visitor, SQLIdentifierExpr x) {
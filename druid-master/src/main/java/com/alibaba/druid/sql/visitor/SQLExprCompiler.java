@@ -0,0 +1,1273 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.sql.visitor;
+
+import static com.alibaba.druid.sql.visitor.SQLEvalVisitor.EVAL_ERROR;
+import static com.alibaba.druid.sql.visitor.SQLEvalVisitor.EVAL_EXPR;
+import static com.alibaba.druid.sql.visitor.SQLEvalVisitor.EVAL_VALUE;
+import static com.alibaba.druid.sql.visitor.SQLEvalVisitor.EVAL_VALUE_NULL;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import com.alibaba.druid.DruidRuntimeException;
+import com.alibaba.druid.sql.SQLUtils;
+import com.alibaba.druid.sql.ast.SQLDataType;
+import com.alibaba.druid.sql.ast.SQLExpr;
+import com.alibaba.druid.sql.ast.SQLExprImpl;
+import com.alibaba.druid.sql.ast.SQLObject;
+import com.alibaba.druid.sql.ast.expr.SQLBetweenExpr;
+import com.alibaba.druid.sql.ast.expr.SQLBinaryOpExpr;
+import com.alibaba.druid.sql.ast.expr.SQLBinaryOperator;
+import com.alibaba.druid.sql.ast.expr.SQLBooleanExpr;
+import com.alibaba.druid.sql.ast.expr.SQLCaseExpr;
+import com.alibaba.druid.sql.ast.expr.SQLCastExpr;
+import com.alibaba.druid.sql.ast.expr.SQLCharExpr;
+import com.alibaba.druid.sql.ast.expr.SQLHexExpr;
+import com.alibaba.druid.sql.ast.expr.SQLIdentifierExpr;
+import com.alibaba.druid.sql.ast.expr.SQLInListExpr;
+import com.alibaba.druid.sql.ast.expr.SQLMethodInvokeExpr;
+import com.alibaba.druid.sql.ast.expr.SQLNotExpr;
+import com.alibaba.druid.sql.ast.expr.SQLNullExpr;
+import com.alibaba.druid.sql.ast.expr.SQLNumericLiteralExpr;
+import com.alibaba.druid.sql.ast.expr.SQLPropertyExpr;
+import com.alibaba.druid.sql.ast.expr.SQLUnaryExpr;
+import com.alibaba.druid.sql.ast.expr.SQLUnaryOperator;
+import com.alibaba.druid.sql.ast.expr.SQLVariantRefExpr;
+import com.alibaba.druid.sql.visitor.functions.Function;
+import com.alibaba.druid.sql.visitor.functions.If;
+import com.alibaba.druid.sql.visitor.functions.Now;
+import com.alibaba.druid.sql.visitor.functions.VectorFunction;
+import com.alibaba.druid.util.HexBin;
+
+/**
+ * compile an expression to a tree of SQLCompiledExpr with the semantics of SQLEvalVisitorUtils. the functions are
+ * looked up once, the sub expressions without parameters are evaluated once, the integer arithmetic and comparison
+ * do not go through the castToXxx. the expressions the compiler does not know are evaluated by the visitor.
+ * <p>
+ * for evalBatch the nodes evaluate a column of values at a time, with the int and long columns compared without boxing
+ * and the VectorFunction called once for the batch. if and case evaluate their branches only for the rows which take
+ * the branch.
+ * <p>
+ * the identifiers and variables named in variables are compiled to the parameter of the mapped index, so a procedure
+ * binds its local variables as parameters. a qualified name such as t.id is looked up as "t.id". a variable the
+ * compiler can not bind is an error at compile time.
+ */
+class SQLExprCompiler {
+
+    private final String               dbType;
+    private final SQLEvalVisitor       visitor;
+    private final Map<String, Integer> variables;
+
+    SQLExprCompiler(String dbType){
+        this(dbType, null);
+    }
+
+    SQLExprCompiler(String dbType, Map<String, Integer> variables){
+        this.dbType = dbType;
+        this.visitor = SQLEvalVisitorUtils.createEvalVisitor(dbType);
+        this.variables = variables;
+    }
+
+    SQLCompiledExpr compile(SQLExpr x) {
+        SQLCompiledExpr compiled = compile0(x);
+        if (!compiled.isConstant() && compiled.foldable()) {
+            try {
+                return new Constant(x, compiled.evalValue(Collections.emptyList()));
+            } catch (RuntimeException ex) {
+                // fails again at eval
+            }
+        }
+        return compiled;
+    }
+
+    private SQLCompiledExpr compile0(SQLExpr x) {
+        if (x instanceof SQLNumericLiteralExpr) {
+            return new Constant(x, ((SQLNumericLiteralExpr) x).getNumber());
+        }
+
+        Class<?> clazz = x.getClass();
+        if (clazz == SQLCharExpr.class) {
+            return new Constant(x, ((SQLCharExpr) x).getText());
+        }
+
+        if (clazz == SQLNullExpr.class) {
+            return new Constant(x, EVAL_VALUE_NULL);
+        }
+
+        if (clazz == SQLBooleanExpr.class) {
+            return new Constant(x, ((SQLBooleanExpr) x).getValue());
+        }
+
+        if (clazz == SQLHexExpr.class) {
+            byte[] bytes = HexBin.decode(((SQLHexExpr) x).getHex());
+            return new Constant(x, bytes == null ? EVAL_ERROR : new String(bytes));
+        }
+
+        if (clazz == SQLIdentifierExpr.class) {
+            Integer index = variable(x);
+            return index == null ? new Constant(x, null) : new Param(x, index);
+        }
+
+        if (clazz == SQLPropertyExpr.class) {
+            Integer index = variable(x);
+            if (index != null) {
+                return new Param(x, index);
+            }
+        }
+
+        if (clazz == SQLVariantRefExpr.class) {
+            SQLVariantRefExpr var = (SQLVariantRefExpr) x;
+            if ("?".equals(var.getName()) && var.getIndex() != -1) {
+                return new Param(x, var.getIndex());
+            }
+            Integer index = variable(x);
+            return index == null ? new Constant(x, null) : new Param(x, index);
+        }
+
+        if (clazz == SQLUnaryExpr.class) {
+            SQLUnaryExpr unary = (SQLUnaryExpr) x;
+            return new Unary(x, unary.getOperator(), compile(unary.getExpr()));
+        }
+
+        if (clazz == SQLNotExpr.class) {
+            return new Unary(x, SQLUnaryOperator.NOT, compile(((SQLNotExpr) x).getExpr()));
+        }
+
+        if (clazz == SQLCastExpr.class) {
+            SQLCastExpr cast = (SQLCastExpr) x;
+            return new Cast(x, compile(cast.getExpr()), cast.getDataType());
+        }
+
+        if (clazz == SQLBinaryOpExpr.class) {
+            return compileBinary((SQLBinaryOpExpr) x);
+        }
+
+        if (clazz == SQLBetweenExpr.class) {
+            SQLBetweenExpr between = (SQLBetweenExpr) x;
+            return new Between(x, compile(SQLEvalVisitorUtils.unwrap(between.getTestExpr())), //
+                               compile(SQLEvalVisitorUtils.unwrap(between.getBeginExpr())), //
+                               compile(SQLEvalVisitorUtils.unwrap(between.getEndExpr())), //
+                               between.isNot());
+        }
+
+        if (clazz == SQLInListExpr.class) {
+            SQLInListExpr inList = (SQLInListExpr) x;
+            return new InList(x, compile(inList.getExpr()), compile(inList.getTargetList()), inList.isNot());
+        }
+
+        if (clazz == SQLCaseExpr.class) {
+            SQLCaseExpr caseExpr = (SQLCaseExpr) x;
+            List<SQLCaseExpr.Item> items = caseExpr.getItems();
+            SQLCompiledExpr[] conditions = new SQLCompiledExpr[items.size()];
+            SQLCompiledExpr[] values = new SQLCompiledExpr[items.size()];
+            for (int i = 0; i < items.size(); ++i) {
+                conditions[i] = compile(items.get(i).getConditionExpr());
+                values[i] = compile(items.get(i).getValueExpr());
+            }
+            return new Case(x, //
+                            caseExpr.getValueExpr() == null ? null : compile(caseExpr.getValueExpr()), //
+                            conditions, //
+                            values, //
+                            caseExpr.getElseExpr() == null ? null : compile(caseExpr.getElseExpr()));
+        }
+
+        if (clazz == SQLMethodInvokeExpr.class && ((SQLMethodInvokeExpr) x).getOwner() == null) {
+            SQLMethodInvokeExpr method = (SQLMethodInvokeExpr) x;
+            String methodName = method.getMethodName().toLowerCase();
+            Function function = SQLEvalVisitorUtils.getFunction(visitor, methodName);
+            if (function == If.instance && method.getParameters().size() == 3) {
+                List<SQLExpr> parameters = method.getParameters();
+                return new Condition(x, compile(parameters.get(0)), compile(parameters.get(1)),
+                                     compile(parameters.get(2)));
+            }
+
+            boolean deterministic = function != Now.instance && !"rand".equals(methodName)
+                                    && !"current_user".equals(methodName);
+            return new Call(x, dbType, methodName, function, compile(method.getParameters()), deterministic);
+        }
+
+        if (variables != null) {
+            return new Interpreted(bindVariables(x), dbType);
+        }
+        return new Interpreted(x, dbType);
+    }
+
+    private Integer variable(SQLExpr x) {
+        if (variables == null) {
+            return null;
+        }
+
+        String name;
+        if (x instanceof SQLIdentifierExpr) {
+            name = ((SQLIdentifierExpr) x).getName();
+        } else if (x instanceof SQLVariantRefExpr) {
+            name = ((SQLVariantRefExpr) x).getName();
+        } else if (x instanceof SQLPropertyExpr) {
+            SQLPropertyExpr property = (SQLPropertyExpr) x;
+            if (!(property.getOwner() instanceof SQLIdentifierExpr)) {
+                return null;
+            }
+            name = ((SQLIdentifierExpr) property.getOwner()).getName() + '.' + property.getName();
+        } else {
+            return null;
+        }
+        return variables.get(name.toLowerCase());
+    }
+
+    /**
+     * a copy of the expression with the variables replaced by the '?' of their index, for the visitor
+     */
+    private SQLExpr bindVariables(SQLExpr x) {
+        final List<SQLExpr> refs = new ArrayList<SQLExpr>();
+        SQLASTVisitorAdapter collector = new SQLASTVisitorAdapter() {
+
+            public boolean visit(SQLIdentifierExpr x) {
+                if (variable(x) != null) {
+                    refs.add(x);
+                }
+                return false;
+            }
+
+            public boolean visit(SQLVariantRefExpr x) {
+                if (variable(x) != null) {
+                    refs.add(x);
+                }
+                return false;
+            }
+
+            public boolean visit(SQLPropertyExpr x) {
+                if (variable(x) != null) {
+                    refs.add(x);
+                }
+                return false;
+            }
+        };
+
+        x.accept(collector);
+        if (refs.isEmpty()) {
+            return x;
+        }
+        refs.clear();
+
+        SQLExpr copy;
+        try {
+            copy = x.clone();
+        } catch (UnsupportedOperationException ex) {
+            throw new DruidRuntimeException("can not bind the variables of " + x, ex);
+        }
+
+        copy.accept(collector);
+        for (SQLExpr ref : refs) {
+            SQLVariantRefExpr param = new SQLVariantRefExpr("?");
+            param.setIndex(variable(ref));
+            if (!SQLUtils.replaceInParent(ref, param)) {
+                throw new DruidRuntimeException("can not bind the variable " + ref + " of " + x);
+            }
+        }
+        return copy;
+    }
+
+    private SQLCompiledExpr[] compile(List<SQLExpr> exprList) {
+        SQLCompiledExpr[] compiled = new SQLCompiledExpr[exprList.size()];
+        for (int i = 0; i < compiled.length; ++i) {
+            compiled[i] = compile(exprList.get(i));
+        }
+        return compiled;
+    }
+
+    private SQLCompiledExpr compileBinary(SQLBinaryOpExpr x) {
+        SQLExpr left = SQLEvalVisitorUtils.unwrap(x.getLeft());
+        SQLExpr right = SQLEvalVisitorUtils.unwrap(x.getRight());
+        SQLBinaryOperator operator = x.getOperator();
+
+        if (operator == SQLBinaryOperator.Like && SQLEvalVisitorUtils.isAlwayTrueLikePattern(x.getRight())) {
+            return new Constant(x, Boolean.TRUE);
+        }
+
+        if (operator == SQLBinaryOperator.NotLike && SQLEvalVisitorUtils.isAlwayTrueLikePattern(x.getRight())) {
+            return new Constant(x, Boolean.FALSE);
+        }
+
+        // the same column on both sides
+        if (left instanceof SQLIdentifierExpr && left.equals(right) && variable(left) == null) {
+            switch (operator) {
+                case Like:
+                case Equality:
+                case GreaterThanOrEqual:
+                case LessThanOrEqual:
+                case NotLessThan:
+                case NotGreaterThan:
+                    return new Constant(x, Boolean.TRUE);
+                case NotEqual:
+                case NotLike:
+                case GreaterThan:
+                case LessThan:
+                    return new Constant(x, Boolean.FALSE);
+                default:
+                    break;
+            }
+        }
+
+        return new Binary(x, operator, compile(left), compile(right));
+    }
+
+    static class Constant extends SQLCompiledExpr {
+
+        final Object value;
+
+        Constant(SQLExpr expr, Object value){
+            super(expr);
+            this.value = value;
+        }
+
+        public Object evalValue(List<Object> parameters) {
+            return value;
+        }
+
+        void evalBatch(Batch batch, int[] rows, int size, Object[] values) {
+            for (int i = 0; i < size; ++i) {
+                values[rows[i]] = value;
+            }
+        }
+
+        public boolean isConstant() {
+            return true;
+        }
+    }
+
+    static class Param extends SQLCompiledExpr {
+
+        final int index;
+
+        Param(SQLExpr expr, int index){
+            super(expr);
+            this.index = index;
+        }
+
+        public Object evalValue(List<Object> parameters) {
+            if (parameters.size() <= index) {
+                return null;
+            }
+
+            Object value = parameters.get(index);
+            return value == null ? EVAL_VALUE_NULL : value;
+        }
+
+        void evalBatch(Batch batch, int[] rows, int size, Object[] values) {
+            for (int i = 0; i < size; ++i) {
+                int row = rows[i];
+                values[row] = batch.get(index, row);
+            }
+        }
+
+        boolean foldable() {
+            return false;
+        }
+    }
+
+    static class Unary extends SQLCompiledExpr {
+
+        final SQLUnaryOperator operator;
+        final SQLCompiledExpr  child;
+
+        Unary(SQLExpr expr, SQLUnaryOperator operator, SQLCompiledExpr child){
+            super(expr);
+            this.operator = operator;
+            this.child = child;
+        }
+
+        public Object evalValue(List<Object> parameters) {
+            return apply(child.evalValue(parameters));
+        }
+
+        void evalBatch(Batch batch, int[] rows, int size, Object[] values) {
+            Object[] childValues = new Object[batch.size];
+            child.evalBatch(batch, rows, size, childValues);
+            for (int i = 0; i < size; ++i) {
+                int row = rows[i];
+                values[row] = apply(childValues[row]);
+            }
+        }
+
+        private Object apply(Object val) {
+            if (val == EVAL_ERROR) {
+                return EVAL_ERROR;
+            }
+
+            if (val == null) {
+                return EVAL_VALUE_NULL;
+            }
+
+            switch (operator) {
+                case BINARY:
+                case RAW:
+                case Plus:
+                    return val;
+                case NOT:
+                case Not: {
+                    Boolean booleanVal = SQLEvalVisitorUtils.castToBoolean(val);
+                    return booleanVal == null ? null : !booleanVal;
+                }
+                case Negative:
+                    if (val instanceof Integer) {
+                        return -((Integer) val).intValue();
+                    }
+                    if (val instanceof Long) {
+                        return -((Long) val).longValue();
+                    }
+                    return SQLEvalVisitorUtils.multi(val, -1);
+                case Compl:
+                    return ~SQLEvalVisitorUtils.castToInteger(val);
+                default:
+                    return null;
+            }
+        }
+
+        boolean foldable() {
+            return child.isConstant();
+        }
+    }
+
+    static class Binary extends SQLCompiledExpr {
+
+        final SQLBinaryOperator operator;
+        final SQLCompiledExpr   left;
+        final SQLCompiledExpr   right;
+
+        // the regex of a constant like or regexp pattern
+        final Pattern           pattern;
+
+        Binary(SQLExpr expr, SQLBinaryOperator operator, SQLCompiledExpr left, SQLCompiledExpr right){
+            super(expr);
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+
+            Pattern pattern = null;
+            if (right instanceof Constant && ((Constant) right).value instanceof String) {
+                String text = (String) ((Constant) right).value;
+                try {
+                    switch (operator) {
+                        case Like:
+                        case NotLike:
+                            pattern = SQLEvalVisitorUtils.likePattern(text);
+                            break;
+                        case RegExp:
+                        case RLike:
+                        case NotRegExp:
+                        case NotRLike:
+                            pattern = Pattern.compile(text);
+                            break;
+                        default:
+                            break;
+                    }
+                } catch (RuntimeException ex) {
+                    // fails again at eval
+                }
+            }
+            this.pattern = pattern;
+        }
+
+        public Object evalValue(List<Object> parameters) {
+            Object leftValue = left.evalValue(parameters);
+            if (decides(leftValue)) {
+                return operator == SQLBinaryOperator.BooleanOr;
+            }
+            return apply(leftValue, right.evalValue(parameters));
+        }
+
+        void evalBatch(Batch batch, int[] rows, int size, Object[] values) {
+            if (operator == SQLBinaryOperator.BooleanAnd || operator == SQLBinaryOperator.BooleanOr) {
+                evalLogicalBatch(batch, rows, size, values);
+                return;
+            }
+
+            if (evalLongBatch(batch, rows, size, values)) {
+                return;
+            }
+
+            Object[] leftValues = new Object[batch.size];
+            Object[] rightValues = new Object[batch.size];
+            left.evalBatch(batch, rows, size, leftValues);
+            right.evalBatch(batch, rows, size, rightValues);
+            for (int i = 0; i < size; ++i) {
+                int row = rows[i];
+                values[row] = apply(leftValues[row], rightValues[row]);
+            }
+        }
+
+        /**
+         * the right side of and / or is evaluated only for the rows the left side does not decide.
+         */
+        private void evalLogicalBatch(Batch batch, int[] rows, int size, Object[] values) {
+            Object[] leftValues = new Object[batch.size];
+            left.evalBatch(batch, rows, size, leftValues);
+
+            int[] restRows = new int[size];
+            int restSize = 0;
+            for (int i = 0; i < size; ++i) {
+                int row = rows[i];
+                if (decides(leftValues[row])) {
+                    values[row] = operator == SQLBinaryOperator.BooleanOr;
+                } else {
+                    restRows[restSize++] = row;
+                }
+            }
+
+            if (restSize == 0) {
+                return;
+            }
+
+            Object[] rightValues = new Object[batch.size];
+            right.evalBatch(batch, restRows, restSize, rightValues);
+            for (int i = 0; i < restSize; ++i) {
+                int row = restRows[i];
+                values[row] = apply(leftValues[row], rightValues[row]);
+            }
+        }
+
+        /**
+         * a false left side of and, or a true left side of or, is the result without the right side. a left side
+         * without a value does not decide.
+         */
+        private boolean decides(Object leftValue) {
+            if (operator != SQLBinaryOperator.BooleanAnd && operator != SQLBinaryOperator.BooleanOr) {
+                return false;
+            }
+
+            leftValue = SQLEvalVisitorUtils.processValue(leftValue);
+            if (leftValue == null) {
+                return false;
+            }
+
+            boolean isTrue = SQLEvalVisitorUtils.eq(leftValue, true);
+            return operator == SQLBinaryOperator.BooleanAnd ? !isTrue : isTrue;
+        }
+
+        /**
+         * the int and long columns and constants, without boxing the operands.
+         *
+         * @return false if an operand is not an int or long column or constant
+         */
+        private boolean evalLongBatch(Batch batch, int[] rows, int size, Object[] values) {
+            // not an operator of the int and long path
+            if (apply(operator, 0, 0, false) == null) {
+                return false;
+            }
+
+            LongOperand a = LongOperand.of(batch, left);
+            LongOperand b = a == null ? null : LongOperand.of(batch, right);
+            if (b == null) {
+                return false;
+            }
+
+            boolean ints = a.isInt && b.isInt;
+            for (int i = 0; i < size; ++i) {
+                int row = rows[i];
+                values[row] = apply(operator, a.get(row), b.get(row), ints);
+            }
+            return true;
+        }
+
+        private Object apply(Object leftValue, Object rightValue) {
+            if (leftValue == null || rightValue == null) {
+                return null;
+            }
+
+            // int and long without boxing through castToXxx
+            if ((leftValue instanceof Integer || leftValue instanceof Long)
+                && (rightValue instanceof Integer || rightValue instanceof Long)) {
+                long a = ((Number) leftValue).longValue();
+                long b = ((Number) rightValue).longValue();
+                boolean ints = leftValue instanceof Integer && rightValue instanceof Integer;
+                Object value = apply(operator, a, b, ints);
+                if (value != null) {
+                    return value;
+                }
+            }
+
+            leftValue = SQLEvalVisitorUtils.processValue(leftValue);
+            rightValue = SQLEvalVisitorUtils.processValue(rightValue);
+            if (leftValue == null || rightValue == null) {
+                return null;
+            }
+
+            // sql null of an arithmetic or bitwise operand is sql null, as the visitor
+            if ((leftValue == EVAL_VALUE_NULL || rightValue == EVAL_VALUE_NULL) && isArithmetic(operator)) {
+                return EVAL_VALUE_NULL;
+            }
+
+            switch (operator) {
+                case Add:
+                    return SQLEvalVisitorUtils.add(leftValue, rightValue);
+                case Subtract:
+                    return SQLEvalVisitorUtils.sub(leftValue, rightValue);
+                case Multiply:
+                    return SQLEvalVisitorUtils.multi(leftValue, rightValue);
+                case Divide:
+                    return SQLEvalVisitorUtils.div(leftValue, rightValue);
+                case RightShift:
+                    return SQLEvalVisitorUtils.rightShift(leftValue, rightValue);
+                case BitwiseAnd:
+                    return SQLEvalVisitorUtils.bitAnd(leftValue, rightValue);
+                case BitwiseOr:
+                    return SQLEvalVisitorUtils.bitOr(leftValue, rightValue);
+                case GreaterThan:
+                    return SQLEvalVisitorUtils.gt(leftValue, rightValue);
+                case GreaterThanOrEqual:
+                    return SQLEvalVisitorUtils.gteq(leftValue, rightValue);
+                case LessThan:
+                    return SQLEvalVisitorUtils.lt(leftValue, rightValue);
+                case LessThanOrEqual:
+                    return SQLEvalVisitorUtils.lteq(leftValue, rightValue);
+                case Is:
+                    if (rightValue == EVAL_VALUE_NULL) {
+                        return leftValue == EVAL_VALUE_NULL;
+                    }
+                    return null;
+                case IsNot:
+                    return leftValue != EVAL_VALUE_NULL;
+                case Equality:
+                    return SQLEvalVisitorUtils.eq(leftValue, rightValue);
+                case NotEqual:
+                    return !SQLEvalVisitorUtils.eq(leftValue, rightValue);
+                case RegExp:
+                case RLike:
+                    return matches(leftValue, rightValue, false);
+                case NotRegExp:
+                case NotRLike:
+                    return !matches(leftValue, rightValue, false);
+                case Like:
+                    return matches(leftValue, rightValue, true);
+                case NotLike:
+                    return !matches(leftValue, rightValue, true);
+                case Concat:
+                    return leftValue.toString() + rightValue.toString();
+                case BooleanAnd:
+                    return SQLEvalVisitorUtils.eq(leftValue, true) && SQLEvalVisitorUtils.eq(rightValue, true);
+                case BooleanOr:
+                    return SQLEvalVisitorUtils.eq(leftValue, true) || SQLEvalVisitorUtils.eq(rightValue, true);
+                default:
+                    return null;
+            }
+        }
+
+        private static boolean isArithmetic(SQLBinaryOperator operator) {
+            switch (operator) {
+                case Add:
+                case Subtract:
+                case Multiply:
+                case Divide:
+                case RightShift:
+                case BitwiseAnd:
+                case BitwiseOr:
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        /**
+         * @return null if the operator is not an int and long operator
+         */
+        private static Object apply(SQLBinaryOperator operator, long a, long b, boolean ints) {
+            switch (operator) {
+                case Add:
+                    return ints ? (Object) ((int) a + (int) b) : (Object) (a + b);
+                case Subtract:
+                    return ints ? (Object) ((int) a - (int) b) : (Object) (a - b);
+                case Multiply:
+                    return ints ? (Object) ((int) a * (int) b) : (Object) (a * b);
+                case Equality:
+                    return a == b;
+                case NotEqual:
+                    return a != b;
+                case GreaterThan:
+                    return a > b;
+                case GreaterThanOrEqual:
+                    return a >= b;
+                case LessThan:
+                    return a < b;
+                case LessThanOrEqual:
+                    return a <= b;
+                default:
+                    return null;
+            }
+        }
+
+        private boolean matches(Object leftValue, Object rightValue, boolean like) {
+            String input = SQLEvalVisitorUtils.castToString(leftValue);
+            if (pattern != null) {
+                return pattern.matcher(input).matches();
+            }
+
+            String regex = SQLEvalVisitorUtils.castToString(rightValue);
+            if (like) {
+                return SQLEvalVisitorUtils.like(input, regex);
+            }
+            return Pattern.matches(regex, input);
+        }
+
+        boolean foldable() {
+            return left.isConstant() && right.isConstant();
+        }
+    }
+
+    static class Between extends SQLCompiledExpr {
+
+        final SQLCompiledExpr test;
+        final SQLCompiledExpr begin;
+        final SQLCompiledExpr end;
+        final boolean         not;
+
+        Between(SQLExpr expr, SQLCompiledExpr test, SQLCompiledExpr begin, SQLCompiledExpr end, boolean not){
+            super(expr);
+            this.test = test;
+            this.begin = begin;
+            this.end = end;
+            this.not = not;
+        }
+
+        public Object evalValue(List<Object> parameters) {
+            Object value = test.evalValue(parameters);
+            if (value == null) {
+                return null;
+            }
+
+            Object beginValue = begin.evalValue(parameters);
+            if (beginValue == null) {
+                return null;
+            }
+
+            if (SQLEvalVisitorUtils.lt(value, beginValue)) {
+                return not;
+            }
+
+            Object endValue = end.evalValue(parameters);
+            if (endValue == null) {
+                return null;
+            }
+
+            if (SQLEvalVisitorUtils.gt(value, endValue)) {
+                return not;
+            }
+
+            return !not;
+        }
+
+        boolean foldable() {
+            return test.isConstant() && begin.isConstant() && end.isConstant();
+        }
+    }
+
+    static class InList extends SQLCompiledExpr {
+
+        final SQLCompiledExpr   value;
+        final SQLCompiledExpr[] targets;
+        final boolean           not;
+
+        InList(SQLExpr expr, SQLCompiledExpr value, SQLCompiledExpr[] targets, boolean not){
+            super(expr);
+            this.value = value;
+            this.targets = targets;
+            this.not = not;
+        }
+
+        public Object evalValue(List<Object> parameters) {
+            Object val = value.evalValue(parameters);
+            if (val == null) {
+                return null;
+            }
+
+            for (SQLCompiledExpr target : targets) {
+                Object targetValue = target.evalValue(parameters);
+                if (targetValue == null) {
+                    return null;
+                }
+                if (SQLEvalVisitorUtils.eq(val, targetValue)) {
+                    return !not;
+                }
+            }
+            return not;
+        }
+
+        void evalBatch(Batch batch, int[] rows, int size, Object[] values) {
+            if (!allConstant(targets)) {
+                super.evalBatch(batch, rows, size, values);
+                return;
+            }
+
+            Object[] targetValues = new Object[targets.length];
+            for (int i = 0; i < targets.length; ++i) {
+                targetValues[i] = ((Constant) targets[i]).value;
+            }
+
+            Object[] vals = new Object[batch.size];
+            value.evalBatch(batch, rows, size, vals);
+            for (int i = 0; i < size; ++i) {
+                int row = rows[i];
+                values[row] = in(vals[row], targetValues);
+            }
+        }
+
+        private Object in(Object val, Object[] targetValues) {
+            if (val == null) {
+                return null;
+            }
+
+            for (Object targetValue : targetValues) {
+                if (targetValue == null) {
+                    return null;
+                }
+                if (SQLEvalVisitorUtils.eq(val, targetValue)) {
+                    return !not;
+                }
+            }
+            return not;
+        }
+
+        boolean foldable() {
+            return value.isConstant() && allConstant(targets);
+        }
+    }
+
+    static class Case extends SQLCompiledExpr {
+
+        final SQLCompiledExpr   value;
+        final SQLCompiledExpr[] conditions;
+        final SQLCompiledExpr[] values;
+        final SQLCompiledExpr   elseValue;
+
+        Case(SQLExpr expr, SQLCompiledExpr value, SQLCompiledExpr[] conditions, SQLCompiledExpr[] values,
+             SQLCompiledExpr elseValue){
+            super(expr);
+            this.value = value;
+            this.conditions = conditions;
+            this.values = values;
+            this.elseValue = elseValue;
+        }
+
+        public Object evalValue(List<Object> parameters) {
+            Object val = null;
+            if (value != null) {
+                val = value.evalValue(parameters);
+                if (val == null) {
+                    return null;
+                }
+            }
+
+            for (int i = 0; i < conditions.length; ++i) {
+                Object condition = conditions[i].evalValue(parameters);
+                if (condition == null) {
+                    return null;
+                }
+
+                if ((value != null && SQLEvalVisitorUtils.eq(val, condition))
+                    || (value == null && condition == Boolean.TRUE)) {
+                    return values[i].evalValue(parameters);
+                }
+            }
+
+            if (elseValue != null) {
+                return elseValue.evalValue(parameters);
+            }
+            return null;
+        }
+
+        boolean foldable() {
+            return (value == null || value.isConstant()) && allConstant(conditions) && allConstant(values)
+                   && (elseValue == null || elseValue.isConstant());
+        }
+    }
+
+    /**
+     * cast to the type of the data type name, no value if the conversion fails. the types it does not know keep the
+     * value.
+     */
+    static class Cast extends SQLCompiledExpr {
+
+        final SQLCompiledExpr child;
+        final String          typeName;
+        final int             scale;
+
+        Cast(SQLExpr expr, SQLCompiledExpr child, SQLDataType dataType){
+            super(expr);
+            this.child = child;
+            this.typeName = dataType == null ? null : dataType.getName().toLowerCase();
+
+            int scale = 0;
+            if (dataType != null && dataType.getArguments().size() > 1) {
+                Object value = SQLEvalVisitorUtils.getValue(dataType.getArguments().get(1));
+                if (value instanceof Number) {
+                    scale = ((Number) value).intValue();
+                }
+            }
+            this.scale = scale;
+        }
+
+        public Object evalValue(List<Object> parameters) {
+            return apply(child.evalValue(parameters));
+        }
+
+        void evalBatch(Batch batch, int[] rows, int size, Object[] values) {
+            Object[] childValues = new Object[batch.size];
+            child.evalBatch(batch, rows, size, childValues);
+            for (int i = 0; i < size; ++i) {
+                int row = rows[i];
+                values[row] = apply(childValues[row]);
+            }
+        }
+
+        private Object apply(Object val) {
+            if (val == null || val == EVAL_ERROR || val == EVAL_VALUE_NULL || typeName == null) {
+                return val;
+            }
+
+            try {
+                if (typeName.endsWith("int") || "integer".equals(typeName) || "signed".equals(typeName)
+                    || "unsigned".equals(typeName)) {
+                    if (val instanceof Integer || val instanceof Long) {
+                        return ((Number) val).longValue();
+                    }
+                    return decimal(val).setScale(0, RoundingMode.HALF_UP).longValue();
+                }
+
+                if ("decimal".equals(typeName) || "numeric".equals(typeName)) {
+                    return decimal(val).setScale(scale, RoundingMode.HALF_UP);
+                }
+
+                if ("double".equals(typeName) || "float".equals(typeName) || "real".equals(typeName)) {
+                    return decimal(val).doubleValue();
+                }
+
+                if (typeName.endsWith("char") || typeName.endsWith("text")) {
+                    if (val instanceof BigDecimal) {
+                        return ((BigDecimal) val).toPlainString();
+                    }
+                    return SQLEvalVisitorUtils.castToString(val);
+                }
+
+                if ("date".equals(typeName) || "datetime".equals(typeName) || "timestamp".equals(typeName)) {
+                    return SQLEvalVisitorUtils.castToDate(val);
+                }
+            } catch (RuntimeException ex) {
+                return null;
+            }
+
+            return val;
+        }
+
+        private static BigDecimal decimal(Object val) {
+            if (val instanceof Boolean) {
+                return ((Boolean) val).booleanValue() ? BigDecimal.ONE : BigDecimal.ZERO;
+            }
+            if (val instanceof String) {
+                return new BigDecimal(((String) val).trim());
+            }
+            if (val instanceof Double || val instanceof Float) {
+                return BigDecimal.valueOf(((Number) val).doubleValue());
+            }
+            return SQLEvalVisitorUtils.castToDecimal(val);
+        }
+
+        boolean foldable() {
+            return child.isConstant();
+        }
+    }
+
+    /**
+     * the function is called with an ast of the argument values and an eval visitor, both created for each call as
+     * the visitor keeps state and the compiled expression is shared by threads.
+     */
+    static class Call extends SQLCompiledExpr {
+
+        final String            dbType;
+        final String            methodName;
+        final Function          function;
+        final SQLCompiledExpr[] arguments;
+        final boolean           deterministic;
+
+        Call(SQLExpr expr, String dbType, String methodName, Function function, SQLCompiledExpr[] arguments,
+             boolean deterministic){
+            super(expr);
+            this.dbType = dbType;
+            this.methodName = methodName;
+            this.function = function;
+            this.arguments = arguments;
+            this.deterministic = deterministic;
+        }
+
+        public Object evalValue(List<Object> parameters) {
+            Object[] argumentValues = new Object[arguments.length];
+            for (int i = 0; i < arguments.length; ++i) {
+                argumentValues[i] = arguments[i].evalValue(parameters);
+            }
+            return call(SQLEvalVisitorUtils.createEvalVisitor(dbType), argumentValues);
+        }
+
+        void evalBatch(Batch batch, int[] rows, int size, Object[] values) {
+            Object[][] argumentValues = new Object[arguments.length][];
+            for (int i = 0; i < arguments.length; ++i) {
+                argumentValues[i] = new Object[batch.size];
+                arguments[i].evalBatch(batch, rows, size, argumentValues[i]);
+            }
+
+            if (function instanceof VectorFunction) {
+                ((VectorFunction) function).eval(argumentValues, rows, size, values);
+                for (int i = 0; i < size; ++i) {
+                    int row = rows[i];
+                    values[row] = result(values[row]);
+                }
+                return;
+            }
+
+            // the visitor keeps state, one per batch
+            SQLEvalVisitor visitor = SQLEvalVisitorUtils.createEvalVisitor(dbType);
+            Object[] rowValues = new Object[arguments.length];
+            for (int i = 0; i < size; ++i) {
+                int row = rows[i];
+                for (int j = 0; j < arguments.length; ++j) {
+                    rowValues[j] = argumentValues[j][row];
+                }
+                values[row] = call(visitor, rowValues);
+            }
+        }
+
+        private Object call(SQLEvalVisitor visitor, Object[] argumentValues) {
+            SQLMethodInvokeExpr call = new SQLMethodInvokeExpr(methodName);
+            for (Object argumentValue : argumentValues) {
+                call.addParameter(new ValueExpr(argumentValue));
+            }
+
+            if (function == null) {
+                SQLEvalVisitorUtils.visit(visitor, call);
+                return value(call);
+            }
+
+            return result(function.eval(visitor, call));
+        }
+
+        private static Object result(Object result) {
+            if (result == EVAL_ERROR) {
+                return null;
+            }
+            return result == null ? EVAL_VALUE_NULL : result;
+        }
+
+        boolean foldable() {
+            return deterministic && allConstant(arguments);
+        }
+    }
+
+    /**
+     * if(condition, trueValue, falseValue), the same as the If function but only the branch of the condition is
+     * evaluated.
+     */
+    static class Condition extends SQLCompiledExpr {
+
+        final SQLCompiledExpr condition;
+        final SQLCompiledExpr trueValue;
+        final SQLCompiledExpr falseValue;
+
+        Condition(SQLExpr expr, SQLCompiledExpr condition, SQLCompiledExpr trueValue, SQLCompiledExpr falseValue){
+            super(expr);
+            this.condition = condition;
+            this.trueValue = trueValue;
+            this.falseValue = falseValue;
+        }
+
+        public Object evalValue(List<Object> parameters) {
+            Object conditionValue = condition.evalValue(parameters);
+            if (conditionValue == null) {
+                return EVAL_VALUE_NULL;
+            }
+
+            Object value = isTrue(conditionValue) ? trueValue.evalValue(parameters) : falseValue.evalValue(parameters);
+            return value == null ? EVAL_VALUE_NULL : value;
+        }
+
+        void evalBatch(Batch batch, int[] rows, int size, Object[] values) {
+            Object[] conditionValues = new Object[batch.size];
+            condition.evalBatch(batch, rows, size, conditionValues);
+
+            int[] trueRows = new int[size];
+            int[] falseRows = new int[size];
+            int trueSize = 0, falseSize = 0;
+            for (int i = 0; i < size; ++i) {
+                int row = rows[i];
+                Object conditionValue = conditionValues[row];
+                if (conditionValue == null) {
+                    values[row] = EVAL_VALUE_NULL;
+                } else if (isTrue(conditionValue)) {
+                    trueRows[trueSize++] = row;
+                } else {
+                    falseRows[falseSize++] = row;
+                }
+            }
+
+            trueValue.evalBatch(batch, trueRows, trueSize, values);
+            falseValue.evalBatch(batch, falseRows, falseSize, values);
+            for (int i = 0; i < size; ++i) {
+                int row = rows[i];
+                if (values[row] == null) {
+                    values[row] = EVAL_VALUE_NULL;
+                }
+            }
+        }
+
+        private static boolean isTrue(Object conditionValue) {
+            return Boolean.TRUE == conditionValue || !SQLEvalVisitorUtils.eq(conditionValue, 0);
+        }
+
+        boolean foldable() {
+            return condition.isConstant() && trueValue.isConstant() && falseValue.isConstant();
+        }
+    }
+
+    /**
+     * an int or long operand of a batch, a column of int[] or long[] or a constant.
+     */
+    private static class LongOperand {
+
+        final int[]   ints;
+        final long[]  longs;
+        final long    value;
+        final boolean isInt;
+
+        LongOperand(int[] ints, long[] longs, long value, boolean isInt){
+            this.ints = ints;
+            this.longs = longs;
+            this.value = value;
+            this.isInt = isInt;
+        }
+
+        static LongOperand of(SQLCompiledExpr.Batch batch, SQLCompiledExpr expr) {
+            if (expr instanceof Constant) {
+                Object value = ((Constant) expr).value;
+                if (value instanceof Integer || value instanceof Long) {
+                    return new LongOperand(null, null, ((Number) value).longValue(), value instanceof Integer);
+                }
+                return null;
+            }
+
+            if (expr instanceof Param) {
+                int index = ((Param) expr).index;
+                Object column = index < batch.columns.length ? batch.columns[index] : null;
+                if (column instanceof int[]) {
+                    return new LongOperand((int[]) column, null, 0, true);
+                }
+                if (column instanceof long[]) {
+                    return new LongOperand(null, (long[]) column, 0, false);
+                }
+            }
+            return null;
+        }
+
+        long get(int row) {
+            if (ints != null) {
+                return ints[row];
+            }
+            if (longs != null) {
+                return longs[row];
+            }
+            return value;
+        }
+    }
+
+    /**
+     * the expressions the compiler does not know, evaluated by the visitor on the ast. the ast keeps the values in its
+     * attributes, so the evaluations are serialized and the attributes are cleared before each one.
+     */
+    static class Interpreted extends SQLCompiledExpr {
+
+        final String dbType;
+
+        Interpreted(SQLExpr expr, String dbType){
+            super(expr);
+            this.dbType = dbType;
+        }
+
+        public Object evalValue(List<Object> parameters) {
+            synchronized (expr) {
+                expr.accept(ClearValueVisitor.instance);
+
+                SQLEvalVisitor visitor = SQLEvalVisitorUtils.createEvalVisitor(dbType);
+                visitor.setParameters(parameters);
+                expr.accept(visitor);
+                return value(expr);
+            }
+        }
+    }
+
+    private static class ClearValueVisitor extends SQLASTVisitorAdapter {
+
+        final static ClearValueVisitor instance = new ClearValueVisitor();
+
+        public void preVisit(SQLObject x) {
+            if (x.getAttributes().isEmpty()) {
+                return;
+            }
+            x.getAttributes().remove(EVAL_VALUE);
+            x.getAttributes().remove(EVAL_EXPR);
+        }
+    }
+
+    /**
+     * an argument value of a function call.
+     */
+    private static class ValueExpr extends SQLExprImpl {
+
+        ValueExpr(Object value){
+            if (value != null) {
+                putAttribute(EVAL_VALUE, value);
+            }
+        }
+
+        protected void accept0(SQLASTVisitor visitor) {
+        }
+
+        public boolean equals(Object o) {
+            return this == o;
+        }
+
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+
+    private static Object value(SQLObject x) {
+        Object value = SQLEvalVisitorUtils.getValue(x);
+        if (value == null && x.getAttributes().containsKey(EVAL_VALUE)) {
+            return EVAL_VALUE_NULL;
+        }
+        return value;
+    }
+
+    private static boolean allConstant(SQLCompiledExpr[] exprs) {
+        for (SQLCompiledExpr expr : exprs) {
+            if (!expr.isConstant()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -43,6 +43,18 @@ import com.alibaba.druid.util.StringUtils;
 
 public class SchemaStatVisitor extends SQLASTVisitorAdapter {
 
+    /**
+     * what the visitor collects, the less it collects the less of the ast it visits.
+     */
+    public static enum Profile {
+        // the tables and their modes only
+        Tables,
+        // the tables and the columns
+        Columns,
+        // the tables, columns, conditions, relationships, order by and group by columns and functions
+        Full
+    }
+
     protected final HashMap<TableStat.Name, TableStat> tableStats     = new LinkedHashMap<TableStat.Name, TableStat>();
     protected final Map<Column, Column>                columns        = new LinkedHashMap<Column, Column>();
     protected final List<Condition>                    conditions     = new ArrayList<Condition>();
@@ -67,6 +79,8 @@ public class SchemaStatVisitor extends SQLASTVisitorAdapter {
 
     private Mode mode;
 
+    protected Profile profile = Profile.Full;
+
     public SchemaStatVisitor(){
         this(new ArrayList<Object>());
     }
@@ -83,11 +97,48 @@ public class SchemaStatVisitor extends SQLASTVisitorAdapter {
         this.parameters = parameters;
     }
 
+    public Profile getProfile() {
+        return profile;
+    }
+
+    public void setProfile(Profile profile) {
+        if (profile == null) {
+            throw new IllegalArgumentException("profile is null");
+        }
+        this.profile = profile;
+    }
+
+    /**
+     * clear what is collected, to visit other statements with the same visitor.
+     */
+    public void reset() {
+        tableStats.clear();
+        columns.clear();
+        conditions.clear();
+        relationships.clear();
+        orderByColumns.clear();
+        groupByColumns.clear();
+        aggregateFunctions.clear();
+        functions.clear();
+        subQueryMap.clear();
+        variants.clear();
+        aliasMap = new LinkedHashMap<String, String>();
+        currentTable = null;
+        mode = null;
+    }
+
     public TableStat getTableStat(String ident) {
         return getTableStat(ident, null);
     }
 
+    /**
+     * @return null if the profile does not collect the columns
+     */
     public Column addColumn(String tableName, String columnName) {
+        if (profile == Profile.Tables) {
+            return null;
+        }
+
         tableName = handleName(tableName);
         columnName = handleName(columnName);
 
@@ -361,6 +412,10 @@ public class SchemaStatVisitor extends SQLASTVisitorAdapter {
     }
 
     public boolean visit(SQLOrderBy x) {
+        if (profile != Profile.Full) {
+            return true;
+        }
+
         final SQLASTVisitor orderByVisitor = createOrderByVisitor(x);
 
         SQLSelectQueryBlock query = null;
@@ -472,6 +527,10 @@ public class SchemaStatVisitor extends SQLASTVisitorAdapter {
     }
 
     protected void handleRelationship(SQLExpr left, String operator, SQLExpr right) {
+        if (profile != Profile.Full) {
+            return;
+        }
+
         Column leftColumn = getColumn(left);
         if (leftColumn == null) {
             return;
@@ -495,6 +554,10 @@ public class SchemaStatVisitor extends SQLASTVisitorAdapter {
     }
 
     protected void handleCondition(SQLExpr expr, String operator, SQLExpr... valueExprs) {
+        if (profile != Profile.Full) {
+            return;
+        }
+
         if (expr instanceof SQLCastExpr) {
             expr = ((SQLCastExpr) expr).getExpr();
         }
@@ -832,6 +895,10 @@ public class SchemaStatVisitor extends SQLASTVisitorAdapter {
     }
 
     public boolean visit(SQLPropertyExpr x) {
+        if (profile == Profile.Tables) {
+            return false;
+        }
+
         if (x.getOwner() instanceof SQLIdentifierExpr) {
             String owner = ((SQLIdentifierExpr) x.getOwner()).getName();
 
@@ -845,7 +912,7 @@ public class SchemaStatVisitor extends SQLASTVisitorAdapter {
                 Column column = addColumn(owner, x.getName());
                 x.putAttribute(ATTR_COLUMN, column);
                 if (column != null) {
-                    if (isParentGroupBy(x)) {
+                    if (profile == Profile.Full && isParentGroupBy(x)) {
                         this.groupByColumns.add(column);
                     }
                     
@@ -997,7 +1064,7 @@ public class SchemaStatVisitor extends SQLASTVisitorAdapter {
     }
 
     public boolean visit(SQLIdentifierExpr x) {
-        if (isParam(x)) {
+        if (profile == Profile.Tables || isParam(x)) {
             return false;
         }
 
@@ -1029,7 +1096,7 @@ public class SchemaStatVisitor extends SQLASTVisitorAdapter {
         if (currentTable != null) {
             column = addColumn(currentTable, ident);
             
-            if (column != null && isParentGroupBy(x)) {
+            if (column != null && profile == Profile.Full && isParentGroupBy(x)) {
                 this.groupByColumns.add(column);
             }
             x.putAttribute(ATTR_COLUMN, column);
@@ -1144,6 +1211,10 @@ public class SchemaStatVisitor extends SQLASTVisitorAdapter {
     }
 
     public boolean visit(SQLAllColumnExpr x) {
+        if (profile == Profile.Tables) {
+            return false;
+        }
+
         String currentTable = getCurrentTable();
 
         if (containsSubQuery(currentTable)) {
@@ -1369,7 +1440,9 @@ public class SchemaStatVisitor extends SQLASTVisitorAdapter {
     }
 
     public boolean visit(SQLAggregateExpr x) {
-        this.aggregateFunctions.add(x);
+        if (profile == Profile.Full) {
+            this.aggregateFunctions.add(x);
+        }
         
         accept(x.getArguments());
         accept(x.getWithinGroup());
@@ -1378,7 +1451,9 @@ public class SchemaStatVisitor extends SQLASTVisitorAdapter {
     }
 
     public boolean visit(SQLMethodInvokeExpr x) {
-        this.functions.add(x);
+        if (profile == Profile.Full) {
+            this.functions.add(x);
+        }
 
         accept(x.getParameters());
         return false;
@@ -1507,6 +1582,10 @@ public class SchemaStatVisitor extends SQLASTVisitorAdapter {
 
         String columnName = x.getName().toString();
         Column column = addColumn(tableName, columnName);
+        if (column == null) {
+            return false;
+        }
+
         if (x.getDataType() != null) {
             column.setDataType(x.getDataType().getName());
         }
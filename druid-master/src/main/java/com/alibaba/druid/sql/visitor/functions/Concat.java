@@ -21,7 +21,7 @@ import com.alibaba.druid.sql.ast.SQLExpr;
 import com.alibaba.druid.sql.ast.expr.SQLMethodInvokeExpr;
 import com.alibaba.druid.sql.visitor.SQLEvalVisitor;
 
-public class Concat implements Function {
+public class Concat implements VectorFunction {
 
     public final static Concat instance = new Concat();
 
@@ -40,4 +40,24 @@ public class Concat implements Function {
 
         return buf.toString();
     }
+
+    public void eval(Object[][] arguments, int[] rows, int size, Object[] result) {
+        StringBuilder buf = new StringBuilder();
+
+        for (int i = 0; i < size; ++i) {
+            int row = rows[i];
+            buf.setLength(0);
+
+            boolean noValue = false;
+            for (Object[] argument : arguments) {
+                Object itemValue = argument[row];
+                if (itemValue == null) {
+                    noValue = true;
+                    break;
+                }
+                buf.append(itemValue.toString());
+            }
+            result[row] = noValue ? null : buf.toString();
+        }
+    }
 }
@@ -23,7 +23,7 @@ import com.alibaba.druid.sql.parser.ParserException;
 import com.alibaba.druid.sql.visitor.SQLEvalVisitor;
 import com.alibaba.druid.util.HexBin;
 
-public class Hex implements Function {
+public class Hex implements VectorFunction {
 
     public final static Hex instance = new Hex();
 
@@ -36,6 +36,22 @@ public class Hex implements Function {
         param0.accept(visitor);
 
         Object param0Value = param0.getAttributes().get(EVAL_VALUE);
+        return hex(param0Value);
+    }
+
+    public void eval(Object[][] arguments, int[] rows, int size, Object[] result) {
+        if (arguments.length != 1) {
+            throw new ParserException("argument's != 1, " + arguments.length);
+        }
+
+        Object[] values = arguments[0];
+        for (int i = 0; i < size; ++i) {
+            int row = rows[i];
+            result[row] = hex(values[row]);
+        }
+    }
+
+    private static Object hex(Object param0Value) {
         if (param0Value == null) {
             return SQLEvalVisitor.EVAL_ERROR;
         }
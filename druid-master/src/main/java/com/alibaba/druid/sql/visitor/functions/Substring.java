@@ -23,7 +23,7 @@ import com.alibaba.druid.sql.ast.SQLExpr;
 import com.alibaba.druid.sql.ast.expr.SQLMethodInvokeExpr;
 import com.alibaba.druid.sql.visitor.SQLEvalVisitor;
 
-public class Substring implements Function {
+public class Substring implements VectorFunction {
 
     public final static Substring instance = new Substring();
 
@@ -45,17 +45,8 @@ public class Substring implements Function {
             return SQLEvalVisitor.EVAL_ERROR;
         }
 
-        String str = param0Value.toString();
-        int index = ((Number) param1Value).intValue();
-
         if (paramSize == 2) {
-
-            if (index <= 0) {
-                int lastIndex = str.length() + index;
-                return str.substring(lastIndex);
-            }
-
-            return str.substring(index - 1);
+            return substring(param0Value, param1Value, null);
         }
 
         SQLExpr param2 = params.get(2);
@@ -65,7 +56,33 @@ public class Substring implements Function {
             return SQLEvalVisitor.EVAL_ERROR;
         }
 
-        int len = ((Number) param2Value).intValue();
+        return substring(param0Value, param1Value, param2Value);
+    }
+
+    public void eval(Object[][] arguments, int[] rows, int size, Object[] result) {
+        int paramSize = arguments.length;
+        for (int i = 0; i < size; ++i) {
+            int row = rows[i];
+            if (paramSize != 2 && paramSize != 3) {
+                result[row] = SQLEvalVisitor.EVAL_ERROR;
+                continue;
+            }
+
+            Object param0Value = arguments[0][row];
+            Object param1Value = arguments[1][row];
+            Object param2Value = paramSize == 3 ? arguments[2][row] : null;
+            if (param0Value == null || param1Value == null || (paramSize == 3 && param2Value == null)) {
+                result[row] = SQLEvalVisitor.EVAL_ERROR;
+                continue;
+            }
+
+            result[row] = substring(param0Value, param1Value, param2Value);
+        }
+    }
+
+    private static String substring(Object param0Value, Object param1Value, Object param2Value) {
+        String str = param0Value.toString();
+        int index = ((Number) param1Value).intValue();
 
         String result;
         if (index <= 0) {
@@ -75,6 +92,11 @@ public class Substring implements Function {
             result = str.substring(index - 1);
         }
 
+        if (param2Value == null) {
+            return result;
+        }
+
+        int len = ((Number) param2Value).intValue();
         if (len > result.length()) {
             return result;
         }
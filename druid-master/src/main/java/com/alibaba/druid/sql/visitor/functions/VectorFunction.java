@@ -0,0 +1,31 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.sql.visitor.functions;
+
+/**
+ * a function which can be evaluated for a batch of rows at once, see SQLCompiledExpr.evalBatch. the values are the
+ * same as the values of the per row eval: an argument value is the EVAL_VALUE of the argument, null if it has no value,
+ * and a result is the return value of eval, EVAL_ERROR if it has no value.
+ */
+public interface VectorFunction extends Function {
+
+    /**
+     * @param arguments the values of the arguments, arguments[i][row] is the value of argument i of the row
+     * @param rows the rows to evaluate, the first size of them
+     * @param result result[row] is set for each of the rows
+     */
+    void eval(Object[][] arguments, int[] rows, int size, Object[] result);
+}
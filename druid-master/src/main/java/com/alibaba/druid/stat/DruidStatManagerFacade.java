@@ -19,17 +19,21 @@ import java.sql.Driver;
 import java.sql.DriverManager;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 
 import com.alibaba.druid.VERSION;
 import com.alibaba.druid.pool.DruidDataSource;
+import com.alibaba.druid.sql.SQLUtils;
 import com.alibaba.druid.sql.visitor.SQLEvalVisitorUtils;
 import com.alibaba.druid.support.http.stat.WebAppStatManager;
 import com.alibaba.druid.support.spring.stat.SpringStatManager;
@@ -91,6 +95,7 @@ public final class DruidStatManagerFacade {
         WebAppStatManager.getInstance().resetStat();
         resetSqlStat();
         resetDataSourceStat();
+        SQLUtils.getStatementCache().resetStat();
         resetCount.incrementAndGet();
     }
 
@@ -319,6 +324,74 @@ public final class DruidStatManagerFacade {
         return result;
     }
 
+    /**
+     * the sql stats of a data source, or of all if dataSourceId is null, which were executed, in the order of the
+     * comparator, from offset, at most limit. a sql stat is the JdbcSqlStat, or its data map if it is of another class
+     * loader. only offset + limit of the sql stats are kept while they are selected, so a top n is cheap.
+     */
+    public List<Object> getSqlStatList(Integer dataSourceId, Comparator<Object> comparator, int offset, int limit) {
+        long count = (long) offset + limit;
+        int capacity = count < Integer.MAX_VALUE ? (int) count : Integer.MAX_VALUE;
+
+        // the max at the head, to drop when there are more than capacity
+        PriorityQueue<Object> top = null;
+        List<Object> all = null;
+        if (comparator != null && capacity < 1024) {
+            top = new PriorityQueue<Object>(capacity + 1, Collections.reverseOrder(comparator));
+        } else {
+            all = new ArrayList<Object>();
+        }
+
+        for (Object datasource : getDruidDataSourceInstances()) {
+            if (dataSourceId != null && dataSourceId.intValue() != System.identityHashCode(datasource)) {
+                continue;
+            }
+
+            Map<?, ?> sqlStatMap = DruidDataSourceUtils.getSqlStatMap(datasource);
+            if (sqlStatMap == null) {
+                continue;
+            }
+
+            for (Object sqlStat : sqlStatMap.values()) {
+                Object row;
+                if (sqlStat instanceof JdbcSqlStat) {
+                    JdbcSqlStat stat = (JdbcSqlStat) sqlStat;
+                    if (stat.getExecuteCount() == 0 && stat.getRunningCount() == 0) {
+                        continue;
+                    }
+                    row = stat;
+                } else {
+                    Map<String, Object> data = JdbcSqlStatUtils.getData(sqlStat);
+                    if (data == null || ((Long) data.get("ExecuteCount") == 0 && (Long) data.get("RunningCount") == 0)) {
+                        continue;
+                    }
+                    row = data;
+                }
+
+                if (top == null) {
+                    all.add(row);
+                } else if (capacity > 0) {
+                    top.add(row);
+                    if (top.size() > capacity) {
+                        top.poll();
+                    }
+                }
+            }
+        }
+
+        if (top != null) {
+            all = new ArrayList<Object>(top);
+        }
+        if (comparator != null) {
+            Collections.sort(all, comparator);
+        }
+
+        if (offset >= all.size()) {
+            return new ArrayList<Object>();
+        }
+        return all.subList(offset, (int) Math.min(count, all.size()));
+    }
+
     public Map<String, Object> getSqlStatData(Integer id) {
         if (id == null) {
             return null;
@@ -366,6 +439,7 @@ public final class DruidStatManagerFacade {
         dataMap.put("JavaVersion", System.getProperty("java.version"));
         dataMap.put("JavaClassPath", System.getProperty("java.class.path"));
         dataMap.put("StartTime", Utils.getStartTime());
+        dataMap.put("StatementCache", SQLUtils.getStatementCache().getStatData());
         return dataMap;
     }
 
@@ -0,0 +1,410 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.stat;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import com.alibaba.druid.filter.Filter;
+import com.alibaba.druid.pool.DruidDataSource;
+import com.alibaba.druid.support.http.stat.WebAppStat;
+import com.alibaba.druid.support.http.stat.WebAppStatManager;
+import com.alibaba.druid.support.http.stat.WebURIStat;
+import com.alibaba.druid.wall.WallFilter;
+import com.alibaba.druid.wall.WallProvider;
+
+/**
+ * writes the stats in the text exposition format of prometheus: the gauges and counters of each DruidDataSource, the
+ * counters and the execute time histogram of the top sql by total time, the counters of WallFilter and of the top uri
+ * of each web app by request time. the values are read from the stat objects as they are written, and only the top
+ * sql and uri of a scrape are kept, so the labels are bounded by the top count. a sql is labeled by its sql_id, the
+ * text of the sql is only written as a label if sqlLabel is set.
+ * <p>
+ * the data sources of another class loader are not written.
+ */
+public class DruidStatPrometheusWriter {
+
+    public final static String                   CONTENT_TYPE      = "text/plain; version=0.0.4; charset=utf-8";
+
+    public final static int                      DEFAULT_TOP_COUNT = 20;
+
+    private final static int                     MAX_SQL_LENGTH    = 200;
+
+    // the buckets of JdbcSqlStat.getHistogramValues are 0-1, 1-10 ... ms
+    private final static String[]                SQL_BUCKETS       = {
+            "0.001", "0.01", "0.1", "1", "10", "100", "1000", "+Inf" };
+
+    private final static String[]                POOL_METRICS      = {
+            "druid_pool_active_connections", "gauge", "connections borrowed from the pool",
+            "druid_pool_idle_connections", "gauge", "connections in the pool",
+            "druid_pool_max_active_connections", "gauge", "maxActive of the pool",
+            "druid_pool_wait_threads", "gauge", "threads waiting for a connection",
+            "druid_pool_connects_total", "counter", "connections borrowed",
+            "druid_pool_connect_errors_total", "counter", "failed borrows",
+            "druid_pool_physical_connects_total", "counter", "physical connections created",
+            "druid_pool_physical_closes_total", "counter", "physical connections closed",
+            "druid_pool_discards_total", "counter", "connections discarded",
+            "druid_pool_waits_total", "counter", "borrows which waited for a connection",
+            "druid_pool_wait_seconds_total", "counter", "time borrows waited for a connection",
+            "druid_pool_errors_total", "counter", "errors of the statements",
+            "druid_pool_executions_total", "counter", "statements executed"
+    };
+
+    private final static String[]                SQL_METRICS       = {
+            "druid_sql_executions_total", "counter", "executions of the sql",
+            "druid_sql_errors_total", "counter", "failed executions of the sql",
+            "druid_sql_running", "gauge", "running executions of the sql",
+            "druid_sql_fetched_rows_total", "counter", "rows fetched by the sql",
+            "druid_sql_updated_rows_total", "counter", "rows updated by the sql"
+    };
+
+    private final static String[]                WALL_METRICS      = {
+            "druid_wall_checks_total", "counter", "sql checked by the wall",
+            "druid_wall_hard_checks_total", "counter", "sql parsed and checked by the wall",
+            "druid_wall_violations_total", "counter", "sql denied by the wall",
+            "druid_wall_syntax_errors_total", "counter", "sql the wall failed to parse",
+            "druid_wall_blacklist_hits_total", "counter", "checks answered by the black list",
+            "druid_wall_whitelist_hits_total", "counter", "checks answered by the white list"
+    };
+
+    private final static String[]                URI_METRICS       = {
+            "druid_web_uri_requests_total", "counter", "requests of the uri",
+            "druid_web_uri_request_seconds_total", "counter", "time of the requests of the uri",
+            "druid_web_uri_errors_total", "counter", "failed requests of the uri",
+            "druid_web_uri_running", "gauge", "running requests of the uri",
+            "druid_web_uri_jdbc_executions_total", "counter", "statements executed by the requests of the uri"
+    };
+
+    private final static Comparator<WebURIStat>  URI_REQUEST_TIME  = new Comparator<WebURIStat>() {
+
+        public int compare(WebURIStat o1, WebURIStat o2) {
+            long t1 = o1.getRequestTimeNano(), t2 = o2.getRequestTimeNano();
+            return t1 < t2 ? -1 : (t1 == t2 ? 0 : 1);
+        }
+    };
+
+    private final Writer                         out;
+    private final int                            topCount;
+    private boolean                              sqlLabel;
+
+    private final List<DruidDataSource>          dataSources       = new ArrayList<DruidDataSource>();
+    private final List<List<Object>>             topSqlStats       = new ArrayList<List<Object>>();
+    private final List<WallProvider>             wallProviders     = new ArrayList<WallProvider>();
+    private final List<String>                   wallDataSources   = new ArrayList<String>();
+    private final List<WebURIStat>               topUriStats       = new ArrayList<WebURIStat>();
+    private final List<String>                   topUriContexts    = new ArrayList<String>();
+
+    public DruidStatPrometheusWriter(Writer out){
+        this(out, DEFAULT_TOP_COUNT);
+    }
+
+    /**
+     * @param topCount the sql of each data source and the uri of each web app which are written
+     */
+    public DruidStatPrometheusWriter(Writer out, int topCount){
+        this.out = out;
+        this.topCount = topCount;
+    }
+
+    public boolean isSqlLabel() {
+        return sqlLabel;
+    }
+
+    /**
+     * write the text of the sql, at most 200 chars, as the label sql
+     */
+    public void setSqlLabel(boolean sqlLabel) {
+        this.sqlLabel = sqlLabel;
+    }
+
+    public void write() throws IOException {
+        select();
+
+        for (int i = 0; i < POOL_METRICS.length; i += 3) {
+            writeHeader(POOL_METRICS[i], POOL_METRICS[i + 1], POOL_METRICS[i + 2]);
+            for (DruidDataSource dataSource : dataSources) {
+                writeName(POOL_METRICS[i]);
+                writeLabel('{', "datasource", dataSource.getName());
+                out.write("} ");
+                if (i / 3 == 10) { // druid_pool_wait_seconds_total
+                    writeSeconds(dataSource.getNotEmptyWaitNanos());
+                } else {
+                    out.write(Long.toString(getPoolValue(dataSource, i / 3)));
+                }
+                out.write('\n');
+            }
+        }
+
+        for (int i = 0; i < SQL_METRICS.length; i += 3) {
+            writeHeader(SQL_METRICS[i], SQL_METRICS[i + 1], SQL_METRICS[i + 2]);
+            for (int j = 0; j < dataSources.size(); ++j) {
+                for (Object item : topSqlStats.get(j)) {
+                    JdbcSqlStat sqlStat = (JdbcSqlStat) item;
+                    writeSqlLabels(SQL_METRICS[i], dataSources.get(j), sqlStat, null);
+                    out.write(Long.toString(getSqlValue(sqlStat, i / 3)));
+                    out.write('\n');
+                }
+            }
+        }
+
+        writeHeader("druid_sql_execute_seconds", "histogram", "execute time of the sql");
+        for (int j = 0; j < dataSources.size(); ++j) {
+            for (Object item : topSqlStats.get(j)) {
+                JdbcSqlStat sqlStat = (JdbcSqlStat) item;
+                long[] histogram = sqlStat.getHistogramValues();
+                long count = 0;
+                for (int k = 0; k < histogram.length; ++k) {
+                    count += histogram[k];
+                    writeSqlLabels("druid_sql_execute_seconds_bucket", dataSources.get(j), sqlStat, SQL_BUCKETS[k]);
+                    out.write(Long.toString(count));
+                    out.write('\n');
+                }
+                writeSqlLabels("druid_sql_execute_seconds_sum", dataSources.get(j), sqlStat, null);
+                writeSeconds(sqlStat.getExecuteSpanNanoTotal());
+                out.write('\n');
+                writeSqlLabels("druid_sql_execute_seconds_count", dataSources.get(j), sqlStat, null);
+                out.write(Long.toString(count));
+                out.write('\n');
+            }
+        }
+
+        for (int i = 0; i < WALL_METRICS.length; i += 3) {
+            writeHeader(WALL_METRICS[i], WALL_METRICS[i + 1], WALL_METRICS[i + 2]);
+            for (int j = 0; j < wallProviders.size(); ++j) {
+                writeName(WALL_METRICS[i]);
+                writeLabel('{', "datasource", wallDataSources.get(j));
+                out.write("} ");
+                out.write(Long.toString(getWallValue(wallProviders.get(j), i / 3)));
+                out.write('\n');
+            }
+        }
+
+        for (int i = 0; i < URI_METRICS.length; i += 3) {
+            writeHeader(URI_METRICS[i], URI_METRICS[i + 1], URI_METRICS[i + 2]);
+            for (int j = 0; j < topUriStats.size(); ++j) {
+                WebURIStat uriStat = topUriStats.get(j);
+                writeName(URI_METRICS[i]);
+                writeLabel('{', "context", topUriContexts.get(j));
+                writeLabel(',', "uri", uriStat.getUri());
+                out.write("} ");
+                if (i / 3 == 1) { // druid_web_uri_request_seconds_total
+                    writeSeconds(uriStat.getRequestTimeNano());
+                } else {
+                    out.write(Long.toString(getUriValue(uriStat, i / 3)));
+                }
+                out.write('\n');
+            }
+        }
+
+        out.flush();
+    }
+
+    private void select() {
+        DruidStatManagerFacade facade = DruidStatManagerFacade.getInstance();
+        JdbcSqlStatComparator totalTime = new JdbcSqlStatComparator("TotalTime", true);
+
+        for (Object item : DruidDataSourceStatManager.getInstances().keySet()) {
+            if (!(item instanceof DruidDataSource)) {
+                continue;
+            }
+
+            DruidDataSource dataSource = (DruidDataSource) item;
+            dataSources.add(dataSource);
+
+            List<Object> sqlStats = new ArrayList<Object>(facade.getSqlStatList(System.identityHashCode(dataSource),
+                                                                                totalTime, 0, topCount));
+            for (int i = sqlStats.size() - 1; i >= 0; --i) {
+                if (!(sqlStats.get(i) instanceof JdbcSqlStat)) {
+                    sqlStats.remove(i);
+                }
+            }
+            topSqlStats.add(sqlStats);
+
+            for (Filter filter : dataSource.getProxyFilters()) {
+                if (filter instanceof WallFilter) {
+                    wallProviders.add(((WallFilter) filter).getProvider());
+                    wallDataSources.add(dataSource.getName());
+                    break;
+                }
+            }
+        }
+
+        if (topCount <= 0) {
+            return;
+        }
+
+        for (Object item : WebAppStatManager.getInstance().getWebAppStatSet()) {
+            if (!(item instanceof WebAppStat)) {
+                continue;
+            }
+
+            WebAppStat webAppStat = (WebAppStat) item;
+            PriorityQueue<WebURIStat> top = new PriorityQueue<WebURIStat>(topCount + 1, URI_REQUEST_TIME);
+            for (WebURIStat uriStat : webAppStat.getURIStats()) {
+                top.add(uriStat);
+                if (top.size() > topCount) {
+                    top.poll();
+                }
+            }
+
+            List<WebURIStat> uriStats = new ArrayList<WebURIStat>(top);
+            Collections.sort(uriStats, Collections.reverseOrder(URI_REQUEST_TIME));
+            for (WebURIStat uriStat : uriStats) {
+                topUriStats.add(uriStat);
+                topUriContexts.add(webAppStat.getContextPath());
+            }
+        }
+    }
+
+    private static long getPoolValue(DruidDataSource dataSource, int metric) {
+        switch (metric) {
+            case 0:
+                return dataSource.getActiveCount();
+            case 1:
+                return dataSource.getPoolingCount();
+            case 2:
+                return dataSource.getMaxActive();
+            case 3:
+                return dataSource.getWaitThreadCount();
+            case 4:
+                return dataSource.getConnectCount();
+            case 5:
+                return dataSource.getConnectErrorCount();
+            case 6:
+                return dataSource.getCreateCount();
+            case 7:
+                return dataSource.getDestroyCount();
+            case 8:
+                return dataSource.getDiscardCount();
+            case 9:
+                return dataSource.getNotEmptyWaitCount();
+            case 11:
+                return dataSource.getErrorCount();
+            default:
+                return dataSource.getExecuteCount();
+        }
+    }
+
+    private static long getSqlValue(JdbcSqlStat sqlStat, int metric) {
+        switch (metric) {
+            case 0:
+                return sqlStat.getExecuteCount();
+            case 1:
+                return sqlStat.getErrorCount();
+            case 2:
+                return sqlStat.getRunningCount();
+            case 3:
+                return sqlStat.getFetchRowCount();
+            default:
+                return sqlStat.getUpdateCount();
+        }
+    }
+
+    private static long getWallValue(WallProvider provider, int metric) {
+        switch (metric) {
+            case 0:
+                return provider.getCheckCount();
+            case 1:
+                return provider.getHardCheckCount();
+            case 2:
+                return provider.getViolationCount();
+            case 3:
+                return provider.getSyntaxErrorCount();
+            case 4:
+                return provider.getBlackListHitCount();
+            default:
+                return provider.getWhiteListHitCount();
+        }
+    }
+
+    private static long getUriValue(WebURIStat uriStat, int metric) {
+        switch (metric) {
+            case 0:
+                return uriStat.getRequestCount();
+            case 2:
+                return uriStat.getErrorCount();
+            case 3:
+                return uriStat.getRunningCount();
+            default:
+                return uriStat.getJdbcExecuteCount();
+        }
+    }
+
+    private void writeHeader(String name, String type, String help) throws IOException {
+        out.write("# HELP ");
+        out.write(name);
+        out.write(' ');
+        out.write(help);
+        out.write("\n# TYPE ");
+        out.write(name);
+        out.write(' ');
+        out.write(type);
+        out.write('\n');
+    }
+
+    private void writeName(String name) throws IOException {
+        out.write(name);
+    }
+
+    private void writeSqlLabels(String name, DruidDataSource dataSource, JdbcSqlStat sqlStat, String le)
+                                                                                                    throws IOException {
+        writeName(name);
+        writeLabel('{', "datasource", dataSource.getName());
+        out.write(",sql_id=\"");
+        out.write(Long.toString(sqlStat.getId()));
+        out.write('"');
+        if (sqlLabel) {
+            String sql = sqlStat.getSql();
+            writeLabel(',', "sql", sql.length() > MAX_SQL_LENGTH ? sql.substring(0, MAX_SQL_LENGTH) : sql);
+        }
+        if (le != null) {
+            out.write(",le=\"");
+            out.write(le);
+            out.write('"');
+        }
+        out.write("} ");
+    }
+
+    private void writeLabel(char separator, String name, String value) throws IOException {
+        out.write(separator);
+        out.write(name);
+        out.write("=\"");
+        if (value != null) {
+            for (int i = 0; i < value.length(); ++i) {
+                char c = value.charAt(i);
+                if (c == '\\') {
+                    out.write("\\\\");
+                } else if (c == '"') {
+                    out.write("\\\"");
+                } else if (c == '\n') {
+                    out.write("\\n");
+                } else {
+                    out.write(c);
+                }
+            }
+        }
+        out.write('"');
+    }
+
+    private void writeSeconds(long nanos) throws IOException {
+        out.write(Double.toString(nanos / 1000000000D));
+    }
+}
@@ -15,6 +15,9 @@
  */
 package com.alibaba.druid.stat;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.lang.management.ManagementFactory;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
@@ -32,7 +35,9 @@ import com.alibaba.druid.sql.SQLUtils;
 import com.alibaba.druid.sql.ast.SQLStatement;
 import com.alibaba.druid.sql.visitor.SchemaStatVisitor;
 import com.alibaba.druid.support.http.stat.WebAppStatManager;
+import com.alibaba.druid.support.json.JSONStreamWriter;
 import com.alibaba.druid.support.json.JSONUtils;
+import com.alibaba.druid.support.json.JSONWriter;
 import com.alibaba.druid.support.logging.Log;
 import com.alibaba.druid.support.logging.LogFactory;
 import com.alibaba.druid.support.spring.stat.SpringStatManager;
@@ -63,6 +68,7 @@ public final class DruidStatService implements DruidStatServiceMBean {
     private static final String           ORDER_TYPE_ASC         = "asc";
     private static final String           DEFAULT_ORDER_TYPE     = ORDER_TYPE_ASC;
     private static final String           DEFAULT_ORDERBY        = "SQL";
+    private static final int              MAX_METRICS_TOP_COUNT  = 1000;
 
     private DruidStatService(){
     }
@@ -79,6 +85,26 @@ public final class DruidStatService implements DruidStatServiceMBean {
         statManagerFacade.setResetEnable(value);
     }
 
+    /**
+     * write the result of service to out. /sql.json and /metrics are written from the stats as they are selected, the
+     * others are written as the text of service.
+     */
+    public void service(String url, Writer out) throws IOException {
+        if (url.startsWith("/metrics")) {
+            writeMetrics(getParameters(url), out);
+            return;
+        }
+
+        if (url.startsWith("/sql.json")) {
+            JSONStreamWriter writer = new JSONStreamWriter(out);
+            writeSqlStatDataList(getParameters(url), writer);
+            writer.flush();
+            return;
+        }
+
+        out.write(service(url));
+    }
+
     public String service(String url) {
 
         Map<String, String> parameters = getParameters(url);
@@ -125,8 +151,20 @@ public final class DruidStatService implements DruidStatServiceMBean {
             return returnJSONActiveConnectionStackTrace(id);
         }
 
+        if (url.startsWith("/metrics")) {
+            StringWriter out = new StringWriter();
+            try {
+                writeMetrics(parameters, out);
+            } catch (IOException e) {
+                // not thrown by StringWriter
+            }
+            return out.toString();
+        }
+
         if (url.startsWith("/sql.json")) {
-            return returnJSONResult(RESULT_CODE_SUCCESS, getSqlStatDataList(parameters));
+            StringWriter out = new StringWriter();
+            writeSqlStatDataList(parameters, new JSONStreamWriter(out));
+            return out.toString();
         }
 
         if (url.startsWith("/wall.json")) {
@@ -262,7 +300,33 @@ public final class DruidStatService implements DruidStatServiceMBean {
         return array.subList(fromIndex, toIndex);
     }
 
-    private List<Map<String, Object>> getSqlStatDataList(Map<String, String> parameters) {
+    /**
+     * the stats in the text format of prometheus, the top sql and uri by time, at most the parameter top of each. the
+     * parameter sqlLabel=true adds the text of the sql as a label.
+     */
+    private void writeMetrics(Map<String, String> parameters, Writer out) throws IOException {
+        int topCount = DruidStatPrometheusWriter.DEFAULT_TOP_COUNT;
+
+        String topParam = parameters.get("top");
+        if (topParam != null && topParam.length() > 0) {
+            try {
+                topCount = Math.max(0, Math.min(Integer.parseInt(topParam), MAX_METRICS_TOP_COUNT));
+            } catch (NumberFormatException e) {
+                // the default
+            }
+        }
+
+        DruidStatPrometheusWriter writer = new DruidStatPrometheusWriter(out, topCount);
+        writer.setSqlLabel("true".equals(parameters.get("sqlLabel")));
+        writer.write();
+    }
+
+    /**
+     * the same as comparatorOrderBy over the data maps of the sql stats, but only the sql stats of the page are kept
+     * while they are sorted, and each is written from its counters
+     */
+    @SuppressWarnings("unchecked")
+    private void writeSqlStatDataList(Map<String, String> parameters, JSONWriter out) {
         Integer dataSourceId = null;
 
         String dataSourceIdParam = parameters.get("dataSourceId");
@@ -270,9 +334,58 @@ public final class DruidStatService implements DruidStatServiceMBean {
             dataSourceId = Integer.parseInt(dataSourceIdParam);
         }
 
-        List<Map<String, Object>> array = statManagerFacade.getSqlStatDataList(dataSourceId);
-        List<Map<String, Object>> sortedArray = comparatorOrderBy(array, parameters);
-        return sortedArray;
+        String orderBy = parameters.get("orderBy");
+        String orderType = parameters.get("orderType");
+        int page = DEFAULT_PAGE;
+        int perPageCount = DEFAULT_PER_PAGE_COUNT;
+
+        String pageParam = parameters.get("page");
+        if (pageParam != null && pageParam.length() != 0) {
+            page = Integer.parseInt(pageParam);
+        }
+        String pageCountParam = parameters.get("perPageCount");
+        if (pageCountParam != null && pageCountParam.length() > 0) {
+            perPageCount = Integer.parseInt(pageCountParam);
+        }
+
+        orderBy = orderBy == null ? DEFAULT_ORDERBY : orderBy.trim();
+        JdbcSqlStatComparator comparator = null;
+        if (orderBy.length() != 0) {
+            comparator = new JdbcSqlStatComparator(orderBy, ORDER_TYPE_DESC.equals(orderType));
+        }
+
+        long offset = (long) (page - 1) * perPageCount;
+        List<Object> sqlList = statManagerFacade.getSqlStatList(dataSourceId, comparator,
+                                                                (int) Math.min(offset, Integer.MAX_VALUE),
+                                                                perPageCount);
+
+        out.writeMapStart();
+        out.writeName("ResultCode");
+        out.writeNumber(RESULT_CODE_SUCCESS);
+        out.writeComma();
+        out.writeName("Content");
+
+        // when open the stat page before executing some sql
+        if (sqlList.isEmpty() && offset == 0) {
+            out.writeNull();
+        } else {
+            out.writeArrayStart();
+            for (int i = 0; i < sqlList.size(); ++i) {
+                if (i != 0) {
+                    out.writeComma();
+                }
+
+                Object sqlStat = sqlList.get(i);
+                if (sqlStat instanceof JdbcSqlStat) {
+                    ((JdbcSqlStat) sqlStat).writeData(out);
+                } else {
+                    out.writeMap((Map<String, Object>) sqlStat);
+                }
+            }
+            out.writeArrayEnd();
+        }
+
+        out.writeMapEnd();
     }
 
     @SuppressWarnings("unchecked")
@@ -31,6 +31,7 @@ import javax.management.openmbean.SimpleType;
 
 import com.alibaba.druid.proxy.DruidDriver;
 import com.alibaba.druid.proxy.jdbc.StatementExecuteType;
+import com.alibaba.druid.support.json.JSONWriter;
 import com.alibaba.druid.util.JMXUtils;
 import com.alibaba.druid.util.Utils;
 
@@ -784,6 +785,10 @@ public final class JdbcSqlStat implements JdbcSqlStatMBean, Comparable<JdbcSqlSt
         return executeSpanNanoTotal / (1000 * 1000);
     }
 
+    public long getExecuteSpanNanoTotal() {
+        return executeSpanNanoTotal;
+    }
+
     public long getExecuteMillisMax() {
         return executeSpanNanoMax / (1000 * 1000);
     }
@@ -954,6 +959,162 @@ public final class JdbcSqlStat implements JdbcSqlStatMBean, Comparable<JdbcSqlSt
         return getValue(false).getData();
     }
 
+    /**
+     * write the entries of getData to out as a json object, straight from the counters
+     */
+    public void writeData(JSONWriter out) {
+        out.writeMapStart();
+
+        out.writeName("ID");
+        out.writeNumber(id);
+        out.writeComma();
+        out.writeName("DataSource");
+        out.writeString(dataSource);
+        out.writeComma();
+        out.writeName("SQL");
+        out.writeString(sql);
+        out.writeComma();
+        out.writeName("ExecuteCount");
+        out.writeNumber(getExecuteCount());
+        out.writeComma();
+        out.writeName("ErrorCount");
+        out.writeNumber(getErrorCount());
+        out.writeComma();
+
+        out.writeName("TotalTime");
+        out.writeNumber(getExecuteMillisTotal());
+        out.writeComma();
+        out.writeName("LastTime");
+        out.writeDate(getExecuteLastStartTime());
+        out.writeComma();
+        out.writeName("MaxTimespan");
+        out.writeNumber(getExecuteMillisMax());
+        out.writeComma();
+
+        Throwable error = executeErrorLast;
+        out.writeName("LastError");
+        if (error == null) {
+            out.writeNull();
+        } else {
+            out.writeMapStart();
+            out.writeName("class");
+            out.writeString(error.getClass().getName());
+            out.writeComma();
+            out.writeName("message");
+            out.writeString(error.getMessage());
+            out.writeComma();
+            out.writeName("stackTrace");
+            out.writeString(Utils.getStackTrace(error));
+            out.writeMapEnd();
+        }
+        out.writeComma();
+        out.writeName("EffectedRowCount");
+        out.writeNumber(getUpdateCount());
+        out.writeComma();
+
+        out.writeName("FetchRowCount");
+        out.writeNumber(getFetchRowCount());
+        out.writeComma();
+        out.writeName("MaxTimespanOccurTime");
+        out.writeDate(getExecuteNanoSpanMaxOccurTime());
+        out.writeComma();
+        out.writeName("BatchSizeMax");
+        out.writeNumber(getExecuteBatchSizeMax());
+        out.writeComma();
+        out.writeName("BatchSizeTotal");
+        out.writeNumber(getExecuteBatchSizeTotal());
+        out.writeComma();
+        out.writeName("ConcurrentMax");
+        out.writeNumber(getConcurrentMax());
+        out.writeComma();
+
+        out.writeName("RunningCount");
+        out.writeNumber(getRunningCount());
+        out.writeComma();
+        out.writeName("Name");
+        out.writeString(getName());
+        out.writeComma();
+        out.writeName("File");
+        out.writeString(getFile());
+        out.writeComma();
+
+        out.writeName("LastErrorMessage");
+        out.writeString(error == null ? null : error.getMessage());
+        out.writeComma();
+        out.writeName("LastErrorClass");
+        out.writeString(error == null ? null : error.getClass().getName());
+        out.writeComma();
+        out.writeName("LastErrorStackTrace");
+        out.writeString(error == null ? null : Utils.toString(error.getStackTrace()));
+        out.writeComma();
+        out.writeName("LastErrorTime");
+        out.writeDate(error == null ? null : getExecuteErrorLastTime());
+        out.writeComma();
+
+        out.writeName("DbType");
+        out.writeString(dbType);
+        out.writeComma();
+        out.writeName("URL");
+        out.writeNull();
+        out.writeComma();
+        out.writeName("InTransactionCount");
+        out.writeNumber(getInTransactionCount());
+        out.writeComma();
+
+        out.writeName("Histogram");
+        out.writeArray(getHistogramValues());
+        out.writeComma();
+        out.writeName("LastSlowParameters");
+        out.writeString(lastSlowParameters);
+        out.writeComma();
+        out.writeName("ResultSetHoldTime");
+        out.writeNumber(getResultSetHoldTimeMilis());
+        out.writeComma();
+        out.writeName("ExecuteAndResultSetHoldTime");
+        out.writeNumber(getExecuteAndResultSetHoldTimeMilis());
+        out.writeComma();
+        out.writeName("FetchRowCountHistogram");
+        out.writeArray(getFetchRowCountHistogramValues());
+        out.writeComma();
+
+        out.writeName("EffectedRowCountHistogram");
+        out.writeArray(getUpdateCountHistogramValues());
+        out.writeComma();
+        out.writeName("ExecuteAndResultHoldTimeHistogram");
+        out.writeArray(getExecuteAndResultHoldTimeHistogramValues());
+        out.writeComma();
+        out.writeName("EffectedRowCountMax");
+        out.writeNumber(getUpdateCountMax());
+        out.writeComma();
+        out.writeName("FetchRowCountMax");
+        out.writeNumber(getFetchRowCountMax());
+        out.writeComma();
+        out.writeName("ClobOpenCount");
+        out.writeNumber(getClobOpenCount());
+        out.writeComma();
+
+        out.writeName("BlobOpenCount");
+        out.writeNumber(getBlobOpenCount());
+        out.writeComma();
+        out.writeName("ReadStringLength");
+        out.writeNumber(getReadStringLength());
+        out.writeComma();
+        out.writeName("ReadBytesLength");
+        out.writeNumber(getReadBytesLength());
+        out.writeComma();
+        out.writeName("InputStreamOpenCount");
+        out.writeNumber(getInputStreamOpenCount());
+        out.writeComma();
+        out.writeName("ReaderOpenCount");
+        out.writeNumber(getReaderOpenCount());
+        out.writeComma();
+
+        out.writeName("HASH");
+        out.writeNumber(getSqlHash());
+
+        out.writeMapEnd();
+    }
+
     public long[] getHistogramValues() {
         return new long[] {
                 //
@@ -0,0 +1,214 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.stat;
+
+import java.lang.reflect.Array;
+import java.text.Collator;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * orders the sql stats by a key of JdbcSqlStat.getData like MapComparator, but reads the value from the JdbcSqlStat, so
+ * no map is built to sort. a row is a JdbcSqlStat, or the data map of a sql stat of another class loader. the key may
+ * be an item of a histogram, such as "Histogram[2]". rows of the same value are in the order of the id.
+ */
+public class JdbcSqlStatComparator implements Comparator<Object> {
+
+    private final String   key;
+    private final int      index;
+    private final boolean  desc;
+    private final Collator collator = Collator.getInstance();
+
+    public JdbcSqlStatComparator(String key, boolean desc){
+        int index = -1;
+        int start = key.indexOf('[');
+        if (start > 0 && key.endsWith("]")) {
+            try {
+                index = Integer.parseInt(key.substring(start + 1, key.length() - 1));
+                key = key.substring(0, start);
+            } catch (NumberFormatException e) {
+                index = -1;
+            }
+        }
+
+        this.key = key;
+        this.index = index;
+        this.desc = desc;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public boolean isDesc() {
+        return desc;
+    }
+
+    public int compare(Object o1, Object o2) {
+        int result = compareValue(getValue(o1), getValue(o2));
+
+        if (desc) {
+            result = -result;
+        }
+
+        if (result == 0) {
+            long id1 = getId(o1), id2 = getId(o2);
+            result = id1 < id2 ? -1 : (id1 == id2 ? 0 : 1);
+        }
+
+        return result;
+    }
+
+    private int compareValue(Object v1, Object v2) {
+        if (v1 == null && v2 == null) {
+            return 0;
+        }
+        if (v1 == null) {
+            return -1;
+        }
+        if (v2 == null) {
+            return 1;
+        }
+
+        if (v1 instanceof Number && v2 instanceof Number) {
+            if (v1 instanceof Long && v2 instanceof Long) {
+                long l1 = (Long) v1, l2 = (Long) v2;
+                return l1 < l2 ? -1 : (l1 == l2 ? 0 : 1);
+            }
+            return Double.compare(((Number) v1).doubleValue(), ((Number) v2).doubleValue());
+        }
+
+        if (v1 instanceof String && v2 instanceof String) {
+            return collator.compare((String) v1, (String) v2);
+        }
+
+        if (v1 instanceof Date && v2 instanceof Date) {
+            long t1 = ((Date) v1).getTime(), t2 = ((Date) v2).getTime();
+            return t1 < t2 ? -1 : (t1 == t2 ? 0 : 1);
+        }
+
+        return 0;
+    }
+
+    private static long getId(Object row) {
+        if (row instanceof JdbcSqlStat) {
+            return ((JdbcSqlStat) row).getId();
+        }
+
+        Object id = ((Map<?, ?>) row).get("ID");
+        return id instanceof Number ? ((Number) id).longValue() : 0;
+    }
+
+    public Object getValue(Object row) {
+        if (row instanceof JdbcSqlStat) {
+            return getValue((JdbcSqlStat) row);
+        }
+
+        Object value = ((Map<?, ?>) row).get(key);
+        if (index >= 0) {
+            if (value == null || !value.getClass().isArray() || index >= Array.getLength(value)) {
+                return null;
+            }
+            return Array.get(value, index);
+        }
+        return value;
+    }
+
+    private Object getValue(JdbcSqlStat stat) {
+        if (index >= 0) {
+            long[] values;
+            if ("Histogram".equals(key)) {
+                values = stat.getHistogramValues();
+            } else if ("FetchRowCountHistogram".equals(key)) {
+                values = stat.getFetchRowCountHistogramValues();
+            } else if ("EffectedRowCountHistogram".equals(key)) {
+                values = stat.getUpdateCountHistogramValues();
+            } else if ("ExecuteAndResultHoldTimeHistogram".equals(key)) {
+                values = stat.getExecuteAndResultHoldTimeHistogramValues();
+            } else {
+                return null;
+            }
+            return index < values.length ? values[index] : null;
+        }
+
+        if ("SQL".equals(key)) {
+            return stat.getSql();
+        } else if ("ID".equals(key)) {
+            return stat.getId();
+        } else if ("ExecuteCount".equals(key)) {
+            return stat.getExecuteCount();
+        } else if ("ErrorCount".equals(key)) {
+            return stat.getErrorCount();
+        } else if ("TotalTime".equals(key)) {
+            return stat.getExecuteMillisTotal();
+        } else if ("MaxTimespan".equals(key)) {
+            return stat.getExecuteMillisMax();
+        } else if ("LastTime".equals(key)) {
+            return stat.getExecuteLastStartTime();
+        } else if ("EffectedRowCount".equals(key)) {
+            return stat.getUpdateCount();
+        } else if ("FetchRowCount".equals(key)) {
+            return stat.getFetchRowCount();
+        } else if ("RunningCount".equals(key)) {
+            return stat.getRunningCount();
+        } else if ("ConcurrentMax".equals(key)) {
+            return stat.getConcurrentMax();
+        } else if ("InTransactionCount".equals(key)) {
+            return stat.getInTransactionCount();
+        } else if ("MaxTimespanOccurTime".equals(key)) {
+            return stat.getExecuteNanoSpanMaxOccurTime();
+        } else if ("BatchSizeMax".equals(key)) {
+            return stat.getExecuteBatchSizeMax();
+        } else if ("BatchSizeTotal".equals(key)) {
+            return stat.getExecuteBatchSizeTotal();
+        } else if ("ResultSetHoldTime".equals(key)) {
+            return stat.getResultSetHoldTimeMilis();
+        } else if ("ExecuteAndResultSetHoldTime".equals(key)) {
+            return stat.getExecuteAndResultSetHoldTimeMilis();
+        } else if ("EffectedRowCountMax".equals(key)) {
+            return stat.getUpdateCountMax();
+        } else if ("FetchRowCountMax".equals(key)) {
+            return stat.getFetchRowCountMax();
+        } else if ("ClobOpenCount".equals(key)) {
+            return stat.getClobOpenCount();
+        } else if ("BlobOpenCount".equals(key)) {
+            return stat.getBlobOpenCount();
+        } else if ("ReadStringLength".equals(key)) {
+            return stat.getReadStringLength();
+        } else if ("ReadBytesLength".equals(key)) {
+            return stat.getReadBytesLength();
+        } else if ("InputStreamOpenCount".equals(key)) {
+            return stat.getInputStreamOpenCount();
+        } else if ("ReaderOpenCount".equals(key)) {
+            return stat.getReaderOpenCount();
+        } else if ("DataSource".equals(key)) {
+            return stat.getDataSource();
+        } else if ("DbType".equals(key)) {
+            return stat.getDbType();
+        } else if ("Name".equals(key)) {
+            return stat.getName();
+        } else if ("File".equals(key)) {
+            return stat.getFile();
+        } else if ("LastErrorTime".equals(key)) {
+            return stat.getExecuteErrorLastTime();
+        } else if ("HASH".equals(key)) {
+            return stat.getSqlHash();
+        }
+
+        return null;
+    }
+}
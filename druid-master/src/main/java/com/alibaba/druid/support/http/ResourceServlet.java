@@ -28,8 +28,12 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @SuppressWarnings("serial")
 public abstract class ResourceServlet extends HttpServlet {
@@ -250,7 +254,11 @@ public abstract class ResourceServlet extends HttpServlet {
             if (request.getQueryString() != null && request.getQueryString().length() > 0) {
                 fullUrl += "?" + request.getQueryString();
             }
-            response.getWriter().print(process(fullUrl));
+            returnProcessResult(fullUrl, request, response);
+            return;
+        }
+
+        if (processPath(path, request, response)) {
             return;
         }
 
@@ -298,4 +306,41 @@ public abstract class ResourceServlet extends HttpServlet {
     }
 
     protected abstract String process(String url);
+
+    /**
+     * write the result of url to out, by default the text of process
+     */
+    protected void process(String url, Writer out) throws IOException {
+        out.write(String.valueOf(process(url)));
+    }
+
+    /**
+     * a path which is neither json nor a resource file, true if it is written to the response
+     */
+    protected boolean processPath(String path, HttpServletRequest request, HttpServletResponse response)
+                                                                                                    throws IOException {
+        return false;
+    }
+
+    /**
+     * write the result of url to the response, gzipped if the client accepts gzip
+     */
+    protected void returnProcessResult(String url, HttpServletRequest request, HttpServletResponse response)
+                                                                                                    throws IOException {
+        String acceptEncoding = request.getHeader("Accept-Encoding");
+        if (acceptEncoding == null || acceptEncoding.indexOf("gzip") == -1) {
+            PrintWriter out = response.getWriter();
+            process(url, out);
+            out.flush();
+            return;
+        }
+
+        response.setHeader("Content-Encoding", "gzip");
+        response.setHeader("Vary", "Accept-Encoding");
+        GZIPOutputStream gzipOut = new GZIPOutputStream(response.getOutputStream(), 8192);
+        Writer out = new OutputStreamWriter(gzipOut, "UTF-8");
+        process(url, out);
+        out.flush();
+        gzipOut.finish();
+    }
 }
@@ -16,6 +16,7 @@
 package com.alibaba.druid.support.http;
 
 import java.io.IOException;
+import java.io.Writer;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -25,7 +26,10 @@ import javax.management.remote.JMXConnector;
 import javax.management.remote.JMXConnectorFactory;
 import javax.management.remote.JMXServiceURL;
 import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
+import com.alibaba.druid.stat.DruidStatPrometheusWriter;
 import com.alibaba.druid.stat.DruidStatService;
 import com.alibaba.druid.support.logging.Log;
 import com.alibaba.druid.support.logging.LogFactory;
@@ -37,25 +41,30 @@ import com.alibaba.druid.support.logging.LogFactory;
  */
 public class StatViewServlet extends ResourceServlet {
 
-    private final static Log      LOG                     = LogFactory.getLog(StatViewServlet.class);
+    private final static Log      LOG                       = LogFactory.getLog(StatViewServlet.class);
 
-    private static final long     serialVersionUID        = 1L;
+    private static final long     serialVersionUID          = 1L;
 
-    public static final String    PARAM_NAME_RESET_ENABLE = "resetEnable";
+    public static final String    PARAM_NAME_RESET_ENABLE   = "resetEnable";
 
-    public static final String    PARAM_NAME_JMX_URL      = "jmxUrl";
-    public static final String    PARAM_NAME_JMX_USERNAME = "jmxUsername";
-    public static final String    PARAM_NAME_JMX_PASSWORD = "jmxPassword";
+    public static final String    PARAM_NAME_METRICS_ENABLE = "metricsEnable";
 
-    private DruidStatService      statService             = DruidStatService.getInstance();
+    public static final String    PARAM_NAME_JMX_URL        = "jmxUrl";
+    public static final String    PARAM_NAME_JMX_USERNAME   = "jmxUsername";
+    public static final String    PARAM_NAME_JMX_PASSWORD   = "jmxPassword";
+
+    private DruidStatService      statService               = DruidStatService.getInstance();
 
     /** web.xml中配置的jmx的连接地址 */
-    private String                jmxUrl                  = null;
+    private String                jmxUrl                    = null;
     /** web.xml中配置的jmx的用户名 */
-    private String                jmxUsername             = null;
+    private String                jmxUsername               = null;
     /** web.xml中配置的jmx的密码 */
-    private String                jmxPassword             = null;
-    private MBeanServerConnection conn                    = null;
+    private String                jmxPassword               = null;
+    private MBeanServerConnection conn                      = null;
+
+    /** 是否开放/metrics，prometheus格式的监控数据 */
+    private boolean               metricsEnable             = true;
 
     public StatViewServlet(){
         super("support/http/resources");
@@ -76,6 +85,11 @@ public class StatViewServlet extends ResourceServlet {
             LOG.error(msg, e);
         }
 
+        String metricsEnableParam = readInitParam(PARAM_NAME_METRICS_ENABLE);
+        if (metricsEnableParam != null) {
+            metricsEnable = Boolean.parseBoolean(metricsEnableParam);
+        }
+
         // 获取jmx的连接配置信息
         String param = readInitParam(PARAM_NAME_JMX_URL);
         if (param != null) {
@@ -149,6 +163,36 @@ public class StatViewServlet extends ResourceServlet {
         return result;
     }
 
+    /**
+     * /metrics返回prometheus的文本格式，可以用参数top指定输出的sql和uri的个数，sqlLabel=true时输出sql文本的label
+     */
+    protected boolean processPath(String path, HttpServletRequest request, HttpServletResponse response)
+                                                                                                    throws IOException {
+        if (!metricsEnable || !"/metrics".equals(path)) {
+            return false;
+        }
+
+        String url = path;
+        if (request.getQueryString() != null && request.getQueryString().length() > 0) {
+            url += "?" + request.getQueryString();
+        }
+        response.setContentType(DruidStatPrometheusWriter.CONTENT_TYPE);
+        returnProcessResult(url, request, response);
+        return true;
+    }
+
+    /**
+     * 本地的druid服务直接写到out，不生成中间的字符串
+     */
+    protected void process(String url, Writer out) throws IOException {
+        if (jmxUrl == null) {
+            statService.service(url, out);
+            return;
+        }
+
+        super.process(url, out);
+    }
+
     /**
      * 程序首先判断是否存在jmx连接地址，如果不存在，则直接调用本地的duird服务； 如果存在，则调用远程jmx服务。在进行jmx通信，首先判断一下jmx连接是否已经建立成功，如果已经
      * 建立成功，则直接进行通信，如果之前没有成功建立，则会尝试重新建立一遍。.
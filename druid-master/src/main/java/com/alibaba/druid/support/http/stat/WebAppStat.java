@@ -20,6 +20,7 @@ import com.alibaba.druid.support.logging.LogFactory;
 import com.alibaba.druid.util.LRUCache;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -259,6 +260,13 @@ public class WebAppStat {
         return getURIStat(uri, false);
     }
 
+    /**
+     * the uri stats, not copied
+     */
+    public Collection<WebURIStat> getURIStats() {
+        return uriStatMap.values();
+    }
+
     public WebURIStat getURIStat(String uri, boolean create) {
         WebURIStat uriStat = uriStatMap.get(uri);
 
@@ -0,0 +1,76 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.support.json;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * a JSONWriter which writes to a Writer as it goes instead of building the text. the first IOException stops the
+ * output and is thrown by flush.
+ */
+public class JSONStreamWriter extends JSONWriter {
+
+    private final Writer writer;
+    private IOException  error;
+
+    public JSONStreamWriter(Writer writer){
+        this.writer = writer;
+    }
+
+    public void flush() throws IOException {
+        if (error != null) {
+            throw error;
+        }
+        writer.flush();
+    }
+
+    protected void write(String text) {
+        if (error != null) {
+            return;
+        }
+
+        try {
+            writer.write(text);
+        } catch (IOException e) {
+            error = e;
+        }
+    }
+
+    protected void write(char c) {
+        if (error != null) {
+            return;
+        }
+
+        try {
+            writer.write(c);
+        } catch (IOException e) {
+            error = e;
+        }
+    }
+
+    protected void write(int c) {
+        write(Integer.toString(c));
+    }
+
+    protected void write(long c) {
+        write(Long.toString(c));
+    }
+
+    public String toString() {
+        return writer.toString();
+    }
+}
@@ -50,6 +50,42 @@ public class JSONWriter {
     public void writeNull() {
         write("null");
     }
+
+    public void writeMapStart() {
+        write('{');
+    }
+
+    public void writeMapEnd() {
+        write('}');
+    }
+
+    /**
+     * the key of a map entry and the colon, the value is written next
+     */
+    public void writeName(String name) {
+        writeString(name);
+        write(':');
+    }
+
+    public void writeNumber(long value) {
+        write(value);
+    }
+
+    public void writeArray(long[] array) {
+        if (array == null) {
+            writeNull();
+            return;
+        }
+
+        write('[');
+        for (int i = 0; i < array.length; ++i) {
+            if (i != 0) {
+                write(',');
+            }
+            write(array[i]);
+        }
+        write(']');
+    }
     
     @SuppressWarnings({ "unchecked", "rawtypes" })
     public void writeObject(Object o) {
@@ -102,15 +138,7 @@ public class JSONWriter {
         }
 
         if (o instanceof long[]) {
-            long[] array = (long[]) o;
-            write('[');
-            for (int i = 0; i < array.length; ++i) {
-                if (i != 0) {
-                    write(',');
-                }
-                write(array[i]);
-            }
-            write(']');
+            writeArray((long[]) o);
             return;
         }
 
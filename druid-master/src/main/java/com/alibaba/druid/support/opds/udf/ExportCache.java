@@ -0,0 +1,125 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.support.opds.udf;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * the results of a udf for the last evaluated sql texts. a udf instance is used by one task, so the cache is not
+ * synchronized. the same sql recurs a lot in a sql log, it is parsed once as long as it stays in the cache.
+ */
+final class ExportCache<V> {
+
+    public final static int   DEFAULT_CAPACITY = 1024;
+
+    // the sql longer than this is not cached
+    public final static int   MAX_SQL_LENGTH   = 1024 * 64;
+
+    private final Map<Key, V> map;
+
+    ExportCache(){
+        this(DEFAULT_CAPACITY);
+    }
+
+    ExportCache(final int capacity){
+        map = new LinkedHashMap<Key, V>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            protected boolean removeEldestEntry(Map.Entry<Key, V> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * @return null if the sql is not cached, the value may be null for a sql which failed to be parsed
+     */
+    Entry<V> get(String sql, String dbType, int option) {
+        if (sql == null || sql.length() > MAX_SQL_LENGTH) {
+            return null;
+        }
+
+        Key key = new Key(sql, dbType, option);
+        V value = map.get(key);
+        if (value == null && !map.containsKey(key)) {
+            return null;
+        }
+        return new Entry<V>(value);
+    }
+
+    void put(String sql, String dbType, int option, V value) {
+        if (sql == null || sql.length() > MAX_SQL_LENGTH) {
+            return;
+        }
+
+        map.put(new Key(sql, dbType, option), value);
+    }
+
+    int size() {
+        return map.size();
+    }
+
+    static final class Entry<V> {
+
+        final V value;
+
+        Entry(V value){
+            this.value = value;
+        }
+    }
+
+    /**
+     * the hash of the sql is cached by the string, the text is only compared when the hash matches.
+     */
+    private static final class Key {
+
+        final String sql;
+        final String dbType;
+        final int    option;
+        final int    hash;
+
+        Key(String sql, String dbType, int option){
+            this.sql = sql;
+            this.dbType = dbType;
+            this.option = option;
+
+            int hash = sql.hashCode();
+            hash = hash * 31 + (dbType == null ? 0 : dbType.hashCode());
+            this.hash = hash * 31 + option;
+        }
+
+        public int hashCode() {
+            return hash;
+        }
+
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) obj;
+            return hash == other.hash //
+                   && option == other.option //
+                   && (dbType == null ? other.dbType == null : dbType.equals(other.dbType)) //
+                   && sql.equals(other.sql);
+        }
+    }
+}
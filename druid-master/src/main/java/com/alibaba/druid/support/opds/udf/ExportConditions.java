@@ -18,8 +18,6 @@ package com.alibaba.druid.support.opds.udf;
 import java.util.ArrayList;
 import java.util.List;
 
-import com.alibaba.druid.sql.SQLUtils;
-import com.alibaba.druid.sql.ast.SQLStatement;
 import com.alibaba.druid.sql.visitor.SchemaStatVisitor;
 import com.alibaba.druid.stat.TableStat;
 import com.alibaba.druid.stat.TableStat.Column;
@@ -29,6 +27,22 @@ import com.aliyun.odps.udf.UDF;
 
 public class ExportConditions extends UDF {
 
+    private final static ExportUtils.Exporter<String> EXPORTER         = new ExportUtils.Exporter<String>(SchemaStatVisitor.Profile.Full) {
+
+        String export(SchemaStatVisitor visitor) {
+            return ExportConditions.export(visitor, false);
+        }
+    };
+
+    private final static ExportUtils.Exporter<String> COMPACT_EXPORTER = new ExportUtils.Exporter<String>(SchemaStatVisitor.Profile.Full) {
+
+        String export(SchemaStatVisitor visitor) {
+            return ExportConditions.export(visitor, true);
+        }
+    };
+
+    private final ExportCache<String>                 cache            = new ExportCache<String>();
+
     public String evaluate(String sql) {
         return evaluate(sql, null);
     }
@@ -38,45 +52,39 @@ public class ExportConditions extends UDF {
     }
 
     public String evaluate(String sql, String dbType, Boolean compactValues) {
-        try {
-            List<SQLStatement> statementList = SQLUtils.parseStatements(sql, dbType);
-            SchemaStatVisitor visitor = SQLUtils.createSchemaStatVisitor(dbType);
-
-            for (SQLStatement stmt : statementList) {
-                stmt.accept(visitor);
-            }
+        if (compactValues != null && compactValues.booleanValue()) {
+            return ExportUtils.evaluate(cache, sql, dbType, 1, COMPACT_EXPORTER);
+        }
+        return ExportUtils.evaluate(cache, sql, dbType, 0, EXPORTER);
+    }
 
-            List<List<Object>> rows = new ArrayList<List<Object>>();
-            List<Condition> conditions = visitor.getConditions();
-            for (int i = 0; i < conditions.size(); ++i) {
-                TableStat.Condition condition = conditions.get(i);
-                Column column = condition.getColumn();
-                String operator = condition.getOperator();
-                List<Object> values = condition.getValues();
-                
-                List<Object> row = new ArrayList<Object>();
-                row.add(column.getTable());
-                row.add(column.getName());
-                row.add(operator);
-                if (values.size() == 0) {
-                    row.add(null);
-                } else if (values.size() == 1) {
-                    if (compactValues != null && compactValues.booleanValue()) {
-                        row.add(values);                        
-                    } else {
-                        row.add(values.get(0));
-                    }
+    static String export(SchemaStatVisitor visitor, boolean compactValues) {
+        List<List<Object>> rows = new ArrayList<List<Object>>();
+        List<Condition> conditions = visitor.getConditions();
+        for (int i = 0; i < conditions.size(); ++i) {
+            TableStat.Condition condition = conditions.get(i);
+            Column column = condition.getColumn();
+            String operator = condition.getOperator();
+            List<Object> values = condition.getValues();
+            
+            List<Object> row = new ArrayList<Object>();
+            row.add(column.getTable());
+            row.add(column.getName());
+            row.add(operator);
+            if (values.size() == 0) {
+                row.add(null);
+            } else if (values.size() == 1) {
+                if (compactValues) {
+                    row.add(values);                        
                 } else {
-                    row.add(values);
+                    row.add(values.get(0));
                 }
-                rows.add(row);
+            } else {
+                row.add(values);
             }
-
-            return JSONUtils.toJSONString(rows);
-        } catch (Throwable ex) {
-            System.err.println("error sql : " + sql);
-            ex.printStackTrace();
-            return null;
+            rows.add(row);
         }
+
+        return JSONUtils.toJSONString(rows);
     }
 }
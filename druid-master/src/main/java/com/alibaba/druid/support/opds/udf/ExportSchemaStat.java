@@ -0,0 +1,56 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.support.opds.udf;
+
+import com.alibaba.druid.sql.visitor.SchemaStatVisitor;
+import com.aliyun.odps.udf.UDFException;
+import com.aliyun.odps.udf.UDTF;
+import com.aliyun.odps.udf.annotation.Resolve;
+
+/**
+ * the results of ExportTables, ExportColumns, ExportSelectListColumns, ExportConditionColumns and ExportConditions from
+ * one parse of the sql, forwarded as one row of 5 columns. the columns are null if the sql can not be parsed.
+ */
+@Resolve({ "string->string,string,string,string,string", "string,string->string,string,string,string,string" })
+public class ExportSchemaStat extends UDTF {
+
+    private final static ExportUtils.Exporter<String[]> EXPORTER = new ExportUtils.Exporter<String[]>(SchemaStatVisitor.Profile.Full) {
+
+        String[] export(SchemaStatVisitor visitor) {
+            String[] row = new String[5];
+            row[0] = ExportTables.export(visitor);
+            row[1] = ExportColumns.export(visitor);
+            row[2] = ExportSelectListColumns.export(visitor);
+            row[3] = ExportConditionColumns.export(visitor);
+            row[4] = ExportConditions.export(visitor, false);
+            return row;
+        }
+    };
+
+    private final ExportCache<String[]>                 cache    = new ExportCache<String[]>();
+
+    public void process(Object[] args) throws UDFException {
+        String sql = (String) args[0];
+        String dbType = args.length > 1 ? (String) args[1] : null;
+
+        forward((Object[]) evaluate(sql, dbType));
+    }
+
+    public String[] evaluate(String sql, String dbType) {
+        String[] row = ExportUtils.evaluate(cache, sql, dbType, 0, EXPORTER);
+        return row == null ? new String[5] : row;
+    }
+}
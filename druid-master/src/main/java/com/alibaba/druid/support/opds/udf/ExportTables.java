@@ -15,46 +15,39 @@
  */
 package com.alibaba.druid.support.opds.udf;
 
-import java.util.List;
-import java.util.Map;
-
-import com.alibaba.druid.sql.SQLUtils;
-import com.alibaba.druid.sql.ast.SQLStatement;
 import com.alibaba.druid.sql.visitor.SchemaStatVisitor;
 import com.alibaba.druid.stat.TableStat;
 import com.aliyun.odps.udf.UDF;
 
 public class ExportTables extends UDF {
 
+    private final static ExportUtils.Exporter<String> EXPORTER = new ExportUtils.Exporter<String>(SchemaStatVisitor.Profile.Tables) {
+
+        String export(SchemaStatVisitor visitor) {
+            return ExportTables.export(visitor);
+        }
+    };
+
+    private final ExportCache<String>                 cache    = new ExportCache<String>();
+
     public String evaluate(String sql) {
         return evaluate(sql, null);
     }
 
     public String evaluate(String sql, String dbType) {
-        try {
-            List<SQLStatement> statementList = SQLUtils.parseStatements(sql, dbType);
-            SchemaStatVisitor visitor = SQLUtils.createSchemaStatVisitor(dbType);
-
-            for (SQLStatement stmt : statementList) {
-                stmt.accept(visitor);
-            }
-
-            StringBuffer buf = new StringBuffer();
+        return ExportUtils.evaluate(cache, sql, dbType, 0, EXPORTER);
+    }
 
-            for (Map.Entry<TableStat.Name, TableStat> entry : visitor.getTables().entrySet()) {
-                TableStat.Name name = entry.getKey();
+    static String export(SchemaStatVisitor visitor) {
+        StringBuffer buf = new StringBuffer();
 
-                if (buf.length() != 0) {
-                    buf.append(',');
-                }
-                buf.append(name.toString());
+        for (TableStat.Name name : visitor.getTables().keySet()) {
+            if (buf.length() != 0) {
+                buf.append(',');
             }
-
-            return buf.toString();
-        } catch (Throwable ex) {
-            System.err.println("error sql : " + sql);
-            ex.printStackTrace();
-            return null;
+            buf.append(name.toString());
         }
+
+        return buf.toString();
     }
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.support.opds.udf;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.druid.sql.SQLUtils;
+import com.alibaba.druid.sql.ast.SQLStatement;
+import com.alibaba.druid.sql.parser.ParserException;
+import com.alibaba.druid.sql.visitor.SchemaStatVisitor;
+import com.alibaba.druid.support.logging.Log;
+import com.alibaba.druid.support.logging.LogFactory;
+
+final class ExportUtils {
+
+    private final static Log                                            LOG      = LogFactory.getLog(ExportUtils.class);
+
+    // the visitors of a thread by db type, reset before each sql
+    private final static ThreadLocal<Map<String, SchemaStatVisitor>> visitors = new ThreadLocal<Map<String, SchemaStatVisitor>>();
+
+    private ExportUtils(){
+    }
+
+    /**
+     * the result of the exporter for the sql, from the cache of the udf or from one parse. a sql which can not be parsed
+     * fails the same way each time, its null result is cached. other failures, such as an Error, are not cached.
+     *
+     * @return null if the sql fails to be evaluated
+     */
+    static <V> V evaluate(ExportCache<V> cache, String sql, String dbType, int option, Exporter<V> exporter) {
+        ExportCache.Entry<V> entry = cache.get(sql, dbType, option);
+        if (entry != null) {
+            return entry.value;
+        }
+
+        V result;
+        try {
+            result = exporter.export(visit(sql, dbType, exporter.profile));
+        } catch (ParserException ex) {
+            error(sql, ex);
+            result = null;
+        } catch (Throwable ex) {
+            error(sql, ex);
+            return null;
+        }
+
+        cache.put(sql, dbType, option, result);
+        return result;
+    }
+
+    /**
+     * the result of a udf from the statements visited with profile
+     */
+    abstract static class Exporter<V> {
+
+        final SchemaStatVisitor.Profile profile;
+
+        Exporter(SchemaStatVisitor.Profile profile){
+            this.profile = profile;
+        }
+
+        abstract V export(SchemaStatVisitor visitor);
+    }
+
+    /**
+     * parse the sql and visit the statements with the visitor of the current thread. the visitor is only valid until the
+     * next call of the same thread.
+     */
+    static SchemaStatVisitor visit(String sql, String dbType, SchemaStatVisitor.Profile profile) {
+        List<SQLStatement> statementList = SQLUtils.parseStatements(sql, dbType);
+
+        SchemaStatVisitor visitor = getVisitor(dbType);
+        visitor.setProfile(profile);
+
+        for (SQLStatement stmt : statementList) {
+            stmt.accept(visitor);
+        }
+        return visitor;
+    }
+
+    private static SchemaStatVisitor getVisitor(String dbType) {
+        Map<String, SchemaStatVisitor> map = visitors.get();
+        if (map == null) {
+            map = new HashMap<String, SchemaStatVisitor>(4);
+            visitors.set(map);
+        }
+
+        SchemaStatVisitor visitor = map.get(dbType);
+        if (visitor == null) {
+            visitor = SQLUtils.createSchemaStatVisitor(dbType);
+            map.put(dbType, visitor);
+        } else {
+            visitor.reset();
+        }
+        return visitor;
+    }
+
+    private static void error(String sql, Throwable ex) {
+        LOG.error("error sql : " + sql, ex);
+    }
+}
@@ -853,4 +853,59 @@ public class WallConfig implements WallConfigMBean {
             }
         }
     }
+
+    /**
+     * the settings which decide the verdict of a check, in a fixed order. the dir and the inited flag are not part of
+     * it, the permit and deny sets loaded from the dir are.
+     */
+    public String getFingerprint() {
+        boolean[] flags = { noneBaseStatementAllow, callAllow, selelctAllow, selectIntoAllow, selectIntoOutfileAllow,
+                            selectWhereAlwayTrueCheck, selectHavingAlwayTrueCheck, selectUnionCheck, selectMinusCheck,
+                            selectExceptCheck, selectIntersectCheck, createTableAllow, dropTableAllow, alterTableAllow,
+                            renameTableAllow, hintAllow, lockTableAllow, startTransactionAllow, blockAllow,
+                            conditionAndAlwayTrueAllow, conditionAndAlwayFalseAllow, conditionDoubleConstAllow,
+                            conditionLikeTrueAllow, selectAllColumnAllow, deleteAllow, deleteWhereAlwayTrueCheck,
+                            deleteWhereNoneCheck, updateAllow, updateWhereAlayTrueCheck, updateWhereNoneCheck,
+                            insertAllow, mergeAllow, minusAllow, intersectAllow, replaceAllow, setAllow, commitAllow,
+                            rollbackAllow, useAllow, multiStatementAllow, truncateAllow, commentAllow,
+                            strictSyntaxCheck, constArithmeticAllow, limitZeroAllow, describeAllow, showAllow,
+                            schemaCheck, tableCheck, functionCheck, objectCheck, variantCheck, mustParameterized,
+                            doPrivilegedAllow, wrapAllow, metadataAllow, conditionOpXorAllow, conditionOpBitwseAllow,
+                            caseConditionConstAllow, completeInsertValuesCheck };
+        StringBuilder buf = new StringBuilder(256);
+        for (boolean flag : flags) {
+            buf.append(flag ? '1' : '0');
+        }
+        buf.append(';').append(insertValuesCheckSize);
+        buf.append(';').append(selectLimit);
+
+        appendFingerprint(buf, denyFunctions);
+        appendFingerprint(buf, denyTables);
+        appendFingerprint(buf, denySchemas);
+        appendFingerprint(buf, denyVariants);
+        appendFingerprint(buf, denyObjects);
+        appendFingerprint(buf, permitFunctions);
+        appendFingerprint(buf, permitTables);
+        appendFingerprint(buf, permitSchemas);
+        appendFingerprint(buf, permitVariants);
+        appendFingerprint(buf, readOnlyTables);
+
+        buf.append(';').append(tenantTablePattern);
+        buf.append(';').append(tenantColumn);
+        buf.append(';').append(tenantCallBack == null ? null : tenantCallBack.getClass().getName());
+        return buf.toString();
+    }
+
+    private static void appendFingerprint(StringBuilder buf, Set<String> set) {
+        buf.append(';');
+        // sorted by the ConcurrentSkipListSet
+        boolean first = true;
+        for (String item : set) {
+            if (!first) {
+                buf.append(',');
+            }
+            buf.append(item);
+            first = false;
+        }
+    }
 }
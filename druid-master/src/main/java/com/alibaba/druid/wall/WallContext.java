@@ -15,9 +15,14 @@
  */
 package com.alibaba.druid.wall;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import com.alibaba.druid.sql.ast.SQLExpr;
+
 public class WallContext {
 
     private final static ThreadLocal<WallContext> contextLocal                 = new ThreadLocal<WallContext>();
@@ -32,6 +37,7 @@ public class WallContext {
     private int                                   updateNoneConditionWarnings  = 0;
     private int                                   deleteNoneConditionWarnings  = 0;
     private int                                   likeNumberWarnings           = 0;
+    private List<SQLExpr>                         tenantValues;
 
     public WallContext(String dbType){
         this.dbType = dbType;
@@ -186,4 +192,21 @@ public class WallContext {
         this.deleteNoneConditionWarnings++;
     }
 
+    public void addTenantValue(SQLExpr expr) {
+        if (tenantValues == null) {
+            tenantValues = new ArrayList<SQLExpr>(2);
+        }
+        tenantValues.add(expr);
+    }
+
+    public List<SQLExpr> getTenantValues() {
+        if (tenantValues == null) {
+            return Collections.emptyList();
+        }
+        return tenantValues;
+    }
+
+    public void clearTenantValues() {
+        tenantValues = null;
+    }
 }
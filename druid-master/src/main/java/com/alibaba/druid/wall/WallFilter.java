@@ -77,6 +77,7 @@ public class WallFilter extends FilterAdapter implements WallFilterMBean {
 
     private volatile boolean   logViolation   = false;
     private volatile boolean   throwException = true;
+    private boolean            shareVerdict   = false;
 
     public final static String ATTR_SQL_STAT  = "wall.sqlStat";
 
@@ -98,6 +99,12 @@ public class WallFilter extends FilterAdapter implements WallFilterMBean {
                 this.throwException = value;
             }
         }
+        {
+            Boolean value = getBoolean(properties, "druid.wall.shareVerdict");
+            if (value != null) {
+                this.shareVerdict = value;
+            }
+        }
         
         if (this.config != null) {
             this.config.configFromProperties(properties);
@@ -162,6 +169,11 @@ public class WallFilter extends FilterAdapter implements WallFilterMBean {
         }
         
         provider.setName(dataSource.getName());
+        provider.setFailFast(!logViolation);
+
+        if (shareVerdict) {
+            provider.setVerdictStore(WallVerdictStore.getInstance(provider));
+        }
 
         this.inited = true;
     }
@@ -180,6 +192,40 @@ public class WallFilter extends FilterAdapter implements WallFilterMBean {
 
     public void setLogViolation(boolean logViolation) {
         this.logViolation = logViolation;
+        if (provider != null) {
+            provider.setFailFast(!logViolation);
+        }
+    }
+
+    public boolean isShareVerdict() {
+        return shareVerdict;
+    }
+
+    /**
+     * share check verdicts with the other WallFilters using the same dbType and the same WallConfig settings
+     */
+    public synchronized void setShareVerdict(boolean shareVerdict) {
+        this.shareVerdict = shareVerdict;
+        if (provider == null) {
+            return;
+        }
+
+        WallVerdictStore store = provider.getVerdictStore();
+        if (shareVerdict && store == null) {
+            provider.setVerdictStore(WallVerdictStore.getInstance(provider));
+        } else if (!shareVerdict && store != null) {
+            provider.setVerdictStore(null);
+            WallVerdictStore.release(store);
+        }
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (provider != null && provider.getVerdictStore() != null) {
+            WallVerdictStore store = provider.getVerdictStore();
+            provider.setVerdictStore(null);
+            WallVerdictStore.release(store);
+        }
     }
 
     public boolean isThrowException() {
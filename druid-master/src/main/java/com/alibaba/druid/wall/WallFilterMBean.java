@@ -29,6 +29,10 @@ public interface WallFilterMBean {
     boolean isThrowException();
     
     void setThrowException(boolean throwException);
+
+    boolean isShareVerdict();
+
+    void setShareVerdict(boolean shareVerdict);
     
     boolean isInited();
     
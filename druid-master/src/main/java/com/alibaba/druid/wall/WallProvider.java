@@ -31,6 +31,7 @@ import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import com.alibaba.druid.sql.SQLUtils;
+import com.alibaba.druid.sql.ast.SQLExpr;
 import com.alibaba.druid.sql.ast.SQLStatement;
 import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlHintStatement;
 import com.alibaba.druid.sql.parser.Lexer;
@@ -39,7 +40,6 @@ import com.alibaba.druid.sql.parser.ParserException;
 import com.alibaba.druid.sql.parser.SQLStatementParser;
 import com.alibaba.druid.sql.parser.Token;
 import com.alibaba.druid.sql.visitor.ExportParameterVisitor;
-import com.alibaba.druid.sql.visitor.ParameterizedOutputVisitorUtils;
 import com.alibaba.druid.util.LRUCache;
 import com.alibaba.druid.util.Utils;
 import com.alibaba.druid.wall.spi.WallVisitorUtils;
@@ -58,6 +58,7 @@ public abstract class WallProvider {
 
     private boolean                                       whiteListEnable         = true;
     private LRUCache<String, WallSqlStat>                 whiteList;
+    private LRUCache<String, WallTenantSqlTemplate>       tenantSqlTemplates;
 
     private int                                           MAX_SQL_LENGTH          = 8192;                                              // 8k
 
@@ -69,6 +70,10 @@ public abstract class WallProvider {
 
     private int                                           blackSqlMaxSize         = 200;
 
+    private volatile boolean                              failFast                = false;
+
+    private volatile WallVerdictStore                     verdictStore;
+
     protected final WallConfig                            config;
 
     private final ReentrantReadWriteLock                  lock                    = new ReentrantReadWriteLock();
@@ -94,6 +99,7 @@ public abstract class WallProvider {
     protected final AtomicLong                            syntaxErrorCount        = new AtomicLong();
     protected final AtomicLong                            violationCount          = new AtomicLong();
     protected final AtomicLong                            violationEffectRowCount = new AtomicLong();
+    protected final AtomicLong                            verdictStoreHitCount    = new AtomicLong();
 
     public WallProvider(WallConfig config){
         this.config = config;
@@ -116,8 +122,32 @@ public abstract class WallProvider {
         return attributes;
     }
 
+    public boolean isFailFast() {
+        return failFast;
+    }
+
+    /**
+     * stop checking a sql once the first violation is found, the remaining statements and conditions are not visited.
+     */
+    public void setFailFast(boolean failFast) {
+        this.failFast = failFast;
+    }
+
+    public WallVerdictStore getVerdictStore() {
+        return verdictStore;
+    }
+
+    /**
+     * share check verdicts with the other providers attached to the same store, see
+     * {@link WallVerdictStore#getInstance(WallProvider)}
+     */
+    public void setVerdictStore(WallVerdictStore verdictStore) {
+        this.verdictStore = verdictStore;
+    }
+
     public void reset() {
         this.checkCount.set(0);
+        this.verdictStoreHitCount.set(0);
         this.hardCheckCount.set(0);
         this.violationCount.set(0);
         this.whiteListHitCount.set(0);
@@ -250,8 +280,22 @@ public abstract class WallProvider {
 
         String mergedSql;
         try {
-            mergedSql = ParameterizedOutputVisitorUtils.parameterize(sql, dbType);
+            mergedSql = SQLUtils.getStatementCache().getParameterized(sql, dbType);
         } catch (Exception ex) {
+            mergedSql = null;
+        }
+
+        return addWhiteSql(sql, mergedSql, tableStats, functionStats, syntaxError);
+    }
+
+    private WallSqlStat addWhiteSql(String sql, String mergedSql, Map<String, WallSqlTableStat> tableStats,
+                                    Map<String, WallSqlFunctionStat> functionStats, boolean syntaxError) {
+        if (!whiteListEnable) {
+            WallSqlStat stat = new WallSqlStat(tableStats, functionStats, syntaxError);
+            return stat;
+        }
+
+        if (mergedSql == null) {
             WallSqlStat stat = new WallSqlStat(tableStats, functionStats, syntaxError);
             stat.incrementAndGetExecuteCount();
             return stat;
@@ -321,12 +365,18 @@ public abstract class WallProvider {
 
         String mergedSql;
         try {
-            mergedSql = ParameterizedOutputVisitorUtils.parameterize(sql, dbType);
+            mergedSql = SQLUtils.getStatementCache().getParameterized(sql, dbType);
         } catch (Exception ex) {
             // skip
             mergedSql = sql;
         }
 
+        return addBlackSql(sql, mergedSql, tableStats, functionStats, violations, syntaxError);
+    }
+
+    private WallSqlStat addBlackSql(String sql, String mergedSql, Map<String, WallSqlTableStat> tableStats,
+                                    Map<String, WallSqlFunctionStat> functionStats, List<Violation> violations,
+                                    boolean syntaxError) {
         lock.writeLock().lock();
         try {
             if (blackList == null) {
@@ -408,6 +458,7 @@ public abstract class WallProvider {
             if (whiteList != null) {
                 whiteList = null;
             }
+            tenantSqlTemplates = null;
 
             if (blackList != null) {
                 blackList = null;
@@ -426,6 +477,7 @@ public abstract class WallProvider {
             if (whiteList != null) {
                 whiteList = null;
             }
+            tenantSqlTemplates = null;
         } finally {
             lock.writeLock().unlock();
         }
@@ -460,7 +512,7 @@ public abstract class WallProvider {
 
         String mergedSql;
         try {
-            mergedSql = ParameterizedOutputVisitorUtils.parameterize(sql, dbType);
+            mergedSql = SQLUtils.getStatementCache().getParameterized(sql, dbType);
         } catch (Exception ex) {
             // skip
             return null;
@@ -592,12 +644,29 @@ public abstract class WallProvider {
 
         // first step, check whiteList
         boolean mulltiTenant = config.getTenantTablePattern() != null && config.getTenantTablePattern().length() > 0;
+        boolean tenantTemplateEnable = false;
         if (!mulltiTenant) {
             WallCheckResult checkResult = checkWhiteAndBlackList(sql);
             if (checkResult != null) {
                 checkResult.setSql(sql);
                 return checkResult;
             }
+
+            if (verdictStore != null && sql.length() < MAX_SQL_LENGTH) {
+                checkResult = checkVerdictStore(sql, context);
+                if (checkResult != null) {
+                    return checkResult;
+                }
+            }
+        } else if (whiteListEnable && context != null && sql.length() < MAX_SQL_LENGTH
+                   && config.getTenantCallBack() == null && !WallTenantSqlTemplate.containsMarker(sql)) {
+            // the tenant column of a TenantCallBack is resolved per table, it is not part of the template key
+            WallCheckResult checkResult = checkTenantSqlTemplate(sql, context);
+            if (checkResult != null) {
+                return checkResult;
+            }
+            tenantTemplateEnable = true;
+            context.clearTenantValues();
         }
 
         hardCheckCount.incrementAndGet();
@@ -660,6 +729,10 @@ public abstract class WallProvider {
                 } catch (ParserException e) {
                     violations.add(new SyntaxErrorViolation(e, sql));
                 }
+
+                if (failFast && (violations.size() > 0 || visitor.getViolations().size() > 0)) {
+                    break;
+                }
             }
         }
 
@@ -667,19 +740,43 @@ public abstract class WallProvider {
             violations.addAll(visitor.getViolations());
         }
 
+        WallVerdictStore verdictStore = mulltiTenant ? null : this.verdictStore;
+        String mergedSql = null;
+        if (verdictStore != null && sql.length() < MAX_SQL_LENGTH) {
+            try {
+                mergedSql = SQLUtils.getStatementCache().getParameterized(sql, dbType);
+            } catch (Exception ex) {
+                // skip
+            }
+        } else {
+            verdictStore = null;
+        }
+
         WallSqlStat sqlStat = null;
         if (violations.size() > 0) {
             violationCount.incrementAndGet();
 
-            if (sql.length() < MAX_SQL_LENGTH) {
+            if (verdictStore != null) {
+                sqlStat = addBlackSql(sql, mergedSql != null ? mergedSql : sql, context.getTableStats(),
+                                      context.getFunctionStats(), violations, syntaxError);
+            } else if (sql.length() < MAX_SQL_LENGTH) {
                 sqlStat = addBlackSql(sql, context.getTableStats(), context.getFunctionStats(), violations, syntaxError);
             }
         } else {
-            if (sql.length() < MAX_SQL_LENGTH) {
+            if (verdictStore != null) {
+                sqlStat = addWhiteSql(sql, mergedSql, context.getTableStats(), context.getFunctionStats(),
+                                      syntaxError);
+            } else if (sql.length() < MAX_SQL_LENGTH) {
                 sqlStat = addWhiteSql(sql, context.getTableStats(), context.getFunctionStats(), syntaxError);
             }
         }
 
+        if (verdictStore != null) {
+            verdictStore.put(sql, new WallVerdictStore.Verdict(mergedSql, context.getTableStats(),
+                                                               context.getFunctionStats(), violations, syntaxError,
+                                                               failFast));
+        }
+
         Map<String, WallSqlTableStat> tableStats = null;
         Map<String, WallSqlFunctionStat> functionStats = null;
         if (context != null) {
@@ -696,15 +793,129 @@ public abstract class WallProvider {
             result = new WallCheckResult(null, violations, tableStats, functionStats, statementList, syntaxError);
         }
 
+        String resultSql = null;
+        if (tenantTemplateEnable && sqlStat != null && violations.size() == 0 && !syntaxError) {
+            resultSql = addTenantSqlTemplate(sql, statementList, visitor.isSqlModified(), context, sqlStat);
+        }
+
+        if (resultSql == null) {
+            if (visitor.isSqlModified()) {
+                resultSql = SQLUtils.toSQLString(statementList, dbType);
+            } else {
+                resultSql = sql;
+            }
+        }
+        result.setSql(resultSql);
+
+        return result;
+    }
+
+    private WallCheckResult checkVerdictStore(String sql, WallContext context) {
+        WallVerdictStore.Verdict verdict = verdictStore.get(sql);
+        if (verdict == null) {
+            return null;
+        }
+
+        List<Violation> violations = verdict.getViolations();
+        if (violations.size() > 0 && verdict.isFailFast() && !failFast) {
+            return null;
+        }
+
+        verdictStoreHitCount.incrementAndGet();
+        if (verdict.isSyntaxError()) {
+            syntaxErrorCount.incrementAndGet();
+        }
+
+        String mergedSql = verdict.getMergedSql();
+        WallSqlStat sqlStat;
+        if (violations.size() > 0) {
+            violationCount.incrementAndGet();
+            sqlStat = addBlackSql(sql, mergedSql != null ? mergedSql : sql, verdict.getTableStats(),
+                                  verdict.getFunctionStats(), violations, verdict.isSyntaxError());
+        } else {
+            sqlStat = addWhiteSql(sql, mergedSql, verdict.getTableStats(), verdict.getFunctionStats(),
+                                  verdict.isSyntaxError());
+        }
+
+        recordStats(sqlStat.getTableStats(), sqlStat.getFunctionStats());
+        if (context != null) {
+            context.setSqlStat(sqlStat);
+        }
+
+        WallCheckResult checkResult = new WallCheckResult(sqlStat);
+        checkResult.setSql(sql);
+        return checkResult;
+    }
+
+    private WallCheckResult checkTenantSqlTemplate(String sql, WallContext context) {
+        WallTenantSqlTemplate template;
+        lock.readLock().lock();
+        try {
+            if (tenantSqlTemplates == null) {
+                return null;
+            }
+            template = tenantSqlTemplates.get(sql);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (template == null) {
+            return null;
+        }
+
+        String tenantColumn = config.getTenantColumn();
+        if (tenantColumn == null ? template.getTenantColumn() != null : !tenantColumn.equals(template.getTenantColumn())) {
+            return null;
+        }
+        if (!config.getTenantTablePattern().equals(template.getTenantTablePattern())) {
+            return null;
+        }
+
+        WallSqlStat sqlStat = template.getSqlStat();
+        whiteListHitCount.incrementAndGet();
+        sqlStat.incrementAndGetExecuteCount();
+        recordStats(sqlStat.getTableStats(), sqlStat.getFunctionStats());
+        context.setSqlStat(sqlStat);
+
+        WallCheckResult checkResult = new WallCheckResult(sqlStat);
+        checkResult.setSql(template.render(dbType));
+        return checkResult;
+    }
+
+    private String addTenantSqlTemplate(String sql, List<SQLStatement> statementList, boolean sqlModified,
+                                        WallContext context, WallSqlStat sqlStat) {
+        WallTenantSqlTemplate template;
         String resultSql;
-        if (visitor.isSqlModified()) {
-            resultSql = SQLUtils.toSQLString(statementList, dbType);
+        if (sqlModified) {
+            List<SQLExpr> tenantValues = context.getTenantValues();
+            String[] values = new String[tenantValues.size()];
+            for (int i = 0; i < values.length; ++i) {
+                values[i] = SQLUtils.toSQLString(tenantValues.get(i), dbType);
+            }
+
+            template = WallTenantSqlTemplate.build(statementList, tenantValues, dbType, config.getTenantTablePattern(),
+                                                   config.getTenantColumn(), sqlStat);
+            if (template == null) {
+                return null;
+            }
+            resultSql = template.render(values);
         } else {
+            template = WallTenantSqlTemplate.build(sql, config.getTenantTablePattern(), config.getTenantColumn(),
+                                                   sqlStat);
             resultSql = sql;
         }
-        result.setSql(resultSql);
 
-        return result;
+        lock.writeLock().lock();
+        try {
+            if (tenantSqlTemplates == null) {
+                tenantSqlTemplates = new LRUCache<String, WallTenantSqlTemplate>(whiteSqlMaxSize);
+            }
+            tenantSqlTemplates.put(sql, template);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        return resultSql;
     }
 
     private WallCheckResult checkWhiteAndBlackList(String sql) {
@@ -820,6 +1031,10 @@ public abstract class WallProvider {
         return violationCount.get();
     }
 
+    public long getVerdictStoreHitCount() {
+        return verdictStoreHitCount.get();
+    }
+
     public long getHardCheckCount() {
         return hardCheckCount.get();
     }
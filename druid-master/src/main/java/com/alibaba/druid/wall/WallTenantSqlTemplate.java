@@ -0,0 +1,253 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.wall;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.alibaba.druid.sql.SQLUtils;
+import com.alibaba.druid.sql.ast.SQLExpr;
+import com.alibaba.druid.sql.ast.SQLStatement;
+import com.alibaba.druid.sql.ast.expr.SQLCharExpr;
+import com.alibaba.druid.sql.ast.expr.SQLNumberExpr;
+
+/**
+ * rewritten sql of a multi-tenant statement, split at the positions of the tenant values, so the same sql shape can be
+ * rendered for another tenant value without parsing and serializing again.
+ */
+public class WallTenantSqlTemplate {
+
+    private static final String MARKER_PREFIX = "$druid_tenant_";
+
+    private final String        tenantTablePattern;
+    private final String        tenantColumn;
+    private final WallSqlStat   sqlStat;
+
+    private final String[]      parts;
+    private final int[]         valueIndexes;
+    private final int           valueCount;
+
+    private WallTenantSqlTemplate(String tenantTablePattern, String tenantColumn, WallSqlStat sqlStat, String[] parts,
+                                  int[] valueIndexes, int valueCount){
+        this.tenantTablePattern = tenantTablePattern;
+        this.tenantColumn = tenantColumn;
+        this.sqlStat = sqlStat;
+        this.parts = parts;
+        this.valueIndexes = valueIndexes;
+        this.valueCount = valueCount;
+    }
+
+    public String getTenantTablePattern() {
+        return tenantTablePattern;
+    }
+
+    public String getTenantColumn() {
+        return tenantColumn;
+    }
+
+    public WallSqlStat getSqlStat() {
+        return sqlStat;
+    }
+
+    public int getTenantValueCount() {
+        return valueCount;
+    }
+
+    public static boolean containsMarker(String sql) {
+        return sql.indexOf(MARKER_PREFIX) != -1;
+    }
+
+    public String render(String[] values) {
+        if (valueIndexes.length == 0) {
+            return parts[0];
+        }
+
+        int len = 0;
+        for (int i = 0; i < parts.length; ++i) {
+            len += parts[i].length();
+        }
+        for (int i = 0; i < valueIndexes.length; ++i) {
+            len += values[valueIndexes[i]].length();
+        }
+
+        StringBuilder buf = new StringBuilder(len);
+        for (int i = 0; i < valueIndexes.length; ++i) {
+            buf.append(parts[i]);
+            buf.append(values[valueIndexes[i]]);
+        }
+        buf.append(parts[parts.length - 1]);
+        return buf.toString();
+    }
+
+    /**
+     * render with the tenant value of the current thread, the template is used only without a TenantCallBack, so all
+     * the tenant values are the same.
+     */
+    public String render(String dbType) {
+        if (valueCount == 0) {
+            return parts[0];
+        }
+
+        Object tenantValue = WallProvider.getTenantValue();
+        SQLExpr valueExpr;
+        if (tenantValue instanceof Number) {
+            valueExpr = new SQLNumberExpr((Number) tenantValue);
+        } else if (tenantValue instanceof String) {
+            valueExpr = new SQLCharExpr((String) tenantValue);
+        } else {
+            throw new IllegalStateException("tenant value not support type " + tenantValue);
+        }
+
+        String[] values = new String[valueCount];
+        Arrays.fill(values, SQLUtils.toSQLString(valueExpr, dbType));
+        return render(values);
+    }
+
+    public static WallTenantSqlTemplate build(String sql, String tenantTablePattern, String tenantColumn,
+                                              WallSqlStat sqlStat) {
+        return new WallTenantSqlTemplate(tenantTablePattern, tenantColumn, sqlStat, new String[] { sql }, new int[0],
+                                         0);
+    }
+
+    /**
+     * serialize the statements once with the tenant values replaced by markers, the tenant value exprs are restored
+     * before return.
+     *
+     * @return null if the markers can not be located in the output
+     */
+    public static WallTenantSqlTemplate build(List<SQLStatement> statementList, List<SQLExpr> tenantValues,
+                                              String dbType, String tenantTablePattern, String tenantColumn,
+                                              WallSqlStat sqlStat) {
+        final int size = tenantValues.size();
+        Object[] originalValues = new Object[size];
+
+        String sql;
+        try {
+            for (int i = 0; i < size; ++i) {
+                SQLExpr expr = tenantValues.get(i);
+                if (expr instanceof SQLNumberExpr) {
+                    originalValues[i] = ((SQLNumberExpr) expr).getNumber();
+                    ((SQLNumberExpr) expr).setNumber(new Marker(i));
+                } else if (expr instanceof SQLCharExpr) {
+                    originalValues[i] = ((SQLCharExpr) expr).getText();
+                    ((SQLCharExpr) expr).setText(Marker.toString(i));
+                } else {
+                    return null;
+                }
+            }
+
+            sql = SQLUtils.toSQLString(statementList, dbType);
+        } finally {
+            for (int i = 0; i < size; ++i) {
+                SQLExpr expr = tenantValues.get(i);
+                if (originalValues[i] == null) {
+                    continue;
+                }
+                if (expr instanceof SQLNumberExpr) {
+                    ((SQLNumberExpr) expr).setNumber((Number) originalValues[i]);
+                } else {
+                    ((SQLCharExpr) expr).setText((String) originalValues[i]);
+                }
+            }
+        }
+
+        List<String> parts = new ArrayList<String>();
+        List<Integer> valueIndexes = new ArrayList<Integer>();
+
+        int start = 0;
+        for (;;) {
+            int markerStart = sql.indexOf(MARKER_PREFIX, start);
+            if (markerStart == -1) {
+                break;
+            }
+
+            int indexStart = markerStart + MARKER_PREFIX.length();
+            int markerEnd = sql.indexOf('$', indexStart);
+            if (markerEnd == -1) {
+                return null;
+            }
+
+            int valueIndex;
+            try {
+                valueIndex = Integer.parseInt(sql.substring(indexStart, markerEnd));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (valueIndex < 0 || valueIndex >= size) {
+                return null;
+            }
+
+            markerEnd++;
+            if (tenantValues.get(valueIndex) instanceof SQLCharExpr) {
+                if (markerStart == 0 || sql.charAt(markerStart - 1) != '\'' //
+                    || markerEnd >= sql.length() || sql.charAt(markerEnd) != '\'') {
+                    return null;
+                }
+                markerStart--;
+                markerEnd++;
+            }
+
+            parts.add(sql.substring(start, markerStart));
+            valueIndexes.add(valueIndex);
+            start = markerEnd;
+        }
+        parts.add(sql.substring(start));
+
+        int[] valueIndexArray = new int[valueIndexes.size()];
+        for (int i = 0; i < valueIndexArray.length; ++i) {
+            valueIndexArray[i] = valueIndexes.get(i);
+        }
+
+        return new WallTenantSqlTemplate(tenantTablePattern, tenantColumn, sqlStat,
+                                         parts.toArray(new String[parts.size()]), valueIndexArray, size);
+    }
+
+    private static class Marker extends Number {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int         index;
+
+        Marker(int index){
+            this.index = index;
+        }
+
+        static String toString(int index) {
+            return MARKER_PREFIX + index + '$';
+        }
+
+        public String toString() {
+            return toString(index);
+        }
+
+        public int intValue() {
+            return index;
+        }
+
+        public long longValue() {
+            return index;
+        }
+
+        public float floatValue() {
+            return index;
+        }
+
+        public double doubleValue() {
+            return index;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.wall;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.alibaba.druid.util.LRUCache;
+
+/**
+ * check verdicts shared by the WallProviders of the same type and the same WallConfig fingerprint, so a sql checked by
+ * one provider is not parsed and visited again by the others. the providers keep their own WallSqlStat. a store is
+ * removed when the last provider using it is released.
+ */
+public class WallVerdictStore {
+
+    private final static Map<String, WallVerdictStore> stores           = new HashMap<String, WallVerdictStore>();
+
+    public final static int                            DEFAULT_MAX_SIZE = 2000;
+
+    private final String                               key;
+    private final LRUCache<String, Verdict>            verdicts;
+    private final ReentrantReadWriteLock               lock             = new ReentrantReadWriteLock();
+
+    private final AtomicLong                           hitCount         = new AtomicLong();
+    private final AtomicLong                           missCount        = new AtomicLong();
+
+    // providers using the store, guarded by stores
+    private int                                        refCount;
+
+    public WallVerdictStore(String key, int maxSize){
+        this.key = key;
+        this.verdicts = new LRUCache<String, Verdict>(maxSize);
+    }
+
+    /**
+     * the store of the provider type and config fingerprint, each call must be paired with a
+     * {@link #release(WallVerdictStore)} when the provider is no longer used. the config should not be changed after the
+     * provider is attached.
+     */
+    public static WallVerdictStore getInstance(WallProvider provider) {
+        String key = getKey(provider);
+
+        synchronized (stores) {
+            WallVerdictStore store = stores.get(key);
+            if (store == null) {
+                store = new WallVerdictStore(key, DEFAULT_MAX_SIZE);
+                stores.put(key, store);
+            }
+            store.refCount++;
+            return store;
+        }
+    }
+
+    public static void release(WallVerdictStore store) {
+        synchronized (stores) {
+            if (--store.refCount <= 0 && stores.get(store.key) == store) {
+                stores.remove(store.key);
+            }
+        }
+    }
+
+    public static int getInstanceCount() {
+        synchronized (stores) {
+            return stores.size();
+        }
+    }
+
+    public static void clearInstances() {
+        synchronized (stores) {
+            stores.clear();
+        }
+    }
+
+    public static String getKey(WallProvider provider) {
+        return provider.getClass().getName() + ';' + provider.getConfig().getFingerprint();
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Verdict get(String sql) {
+        Verdict verdict;
+        lock.readLock().lock();
+        try {
+            verdict = verdicts.get(sql);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (verdict != null) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+        }
+        return verdict;
+    }
+
+    public void put(String sql, Verdict verdict) {
+        lock.writeLock().lock();
+        try {
+            verdicts.put(sql, verdict);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return verdicts.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            verdicts.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public static class Verdict {
+
+        private final String                           mergedSql;
+        private final Map<String, WallSqlTableStat>    tableStats;
+        private final Map<String, WallSqlFunctionStat> functionStats;
+        private final List<Violation>                  violations;
+        private final boolean                          syntaxError;
+        private final boolean                          failFast;
+
+        public Verdict(String mergedSql, Map<String, WallSqlTableStat> tableStats,
+                       Map<String, WallSqlFunctionStat> functionStats, List<Violation> violations,
+                       boolean syntaxError, boolean failFast){
+            this.mergedSql = mergedSql;
+            this.tableStats = tableStats;
+            this.functionStats = functionStats;
+            this.violations = violations;
+            this.syntaxError = syntaxError;
+            this.failFast = failFast;
+        }
+
+        public String getMergedSql() {
+            return mergedSql;
+        }
+
+        public Map<String, WallSqlTableStat> getTableStats() {
+            return tableStats;
+        }
+
+        public Map<String, WallSqlFunctionStat> getFunctionStats() {
+            return functionStats;
+        }
+
+        public List<Violation> getViolations() {
+            return violations;
+        }
+
+        public boolean isSyntaxError() {
+            return syntaxError;
+        }
+
+        /**
+         * violations of a fail fast check only contain the first one.
+         */
+        public boolean isFailFast() {
+            return failFast;
+        }
+    }
+}
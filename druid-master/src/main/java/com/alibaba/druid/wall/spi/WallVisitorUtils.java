@@ -96,7 +96,9 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
 
@@ -108,6 +110,9 @@ public class WallVisitorUtils {
 
     public final static String   HAS_TRUE_LIKE = "hasTrueLike";
 
+    // the result of foldConst for an expression which is not folded
+    private final static Object  NOT_CONST     = new Object();
+
     public final static String[] whiteHints    = { "LOCAL", "TEMPORARY", "SQL_NO_CACHE", "SQL_CACHE", "HIGH_PRIORITY",
             "LOW_PRIORITY", "STRAIGHT_JOIN", "SQL_BUFFER_RESULT", "SQL_BIG_RESULT", "SQL_SMALL_RESULT", "DELAYED" };
 
@@ -853,6 +858,11 @@ public class WallVisitorUtils {
             throw new IllegalStateException("tenant value not support type " + tenantValue);
         }
 
+        WallContext context = WallContext.current();
+        if (context != null) {
+            context.addTenantValue(value);
+        }
+
         return value;
     }
 
@@ -998,7 +1008,7 @@ public class WallVisitorUtils {
 
         if (x.getLeft() instanceof SQLName) {
             if (x.getRight() instanceof SQLName) {
-                if (x.getLeft().toString().equalsIgnoreCase(x.getRight().toString())) {
+                if (nameEquals((SQLName) x.getLeft(), (SQLName) x.getRight())) {
                     switch (x.getOperator()) {
                         case Equality:
                         case Like:
@@ -1045,6 +1055,17 @@ public class WallVisitorUtils {
             }
         }
 
+        String dbType = null;
+        WallContext wallContext = WallContext.current();
+        if (wallContext != null) {
+            dbType = wallContext.getDbType();
+        }
+
+        Object constValue = foldConst(x, isBooleanEval(dbType));
+        if (constValue != NOT_CONST) {
+            return constValue;
+        }
+
         Object leftResult = getValue(visitor, x.getLeft());
         Object rightResult = getValue(visitor, x.getRight());
 
@@ -1053,21 +1074,193 @@ public class WallVisitorUtils {
         }
 
         if (x.getOperator() == SQLBinaryOperator.Like || x.getOperator() == SQLBinaryOperator.NotLike) {
-            WallContext context = WallContext.current();
-            if (context != null) {
+            if (wallContext != null) {
                 if (rightResult instanceof Number || leftResult instanceof Number) {
-                    context.incrementLikeNumberWarnings();
+                    wallContext.incrementLikeNumberWarnings();
                 }
             }
         }
 
-        String dbType = null;
-        WallContext wallContext = WallContext.current();
+        return eval(visitor, dbType, x, Collections.emptyList());
+    }
+
+    /**
+     * the value of a constant expression of int and long, string and boolean literals, folded without the eval visitor.
+     * the int and long arithmetic is on primitives, as SQLEvalVisitorUtils: int if both operands are int, else long.
+     * the values and the condition context flags are set the same as the eval visitor.
+     *
+     * @param foldBoolean false if the eval visitor of the db type has no value for boolean literals
+     * @return NOT_CONST if the expression is not a constant of these or the operator is not folded here
+     */
+    private static Object foldConst(SQLExpr x, boolean foldBoolean) {
+        if (x instanceof SQLIntegerExpr) {
+            Number number = ((SQLIntegerExpr) x).getNumber();
+            return number instanceof Integer || number instanceof Long ? number : NOT_CONST;
+        }
+
+        if (x instanceof SQLCharExpr) {
+            return ((SQLCharExpr) x).getText();
+        }
+
+        if (x instanceof SQLBooleanExpr && foldBoolean) {
+            return ((SQLBooleanExpr) x).getValue();
+        }
+
+        if (!(x instanceof SQLBinaryOpExpr)) {
+            return NOT_CONST;
+        }
+
+        SQLBinaryOpExpr binary = (SQLBinaryOpExpr) x;
+        SQLBinaryOperator operator = binary.getOperator();
+        switch (operator) {
+            case Add:
+            case Subtract:
+            case Multiply:
+            case BitwiseAnd:
+            case BitwiseOr:
+            case Equality:
+            case NotEqual:
+            case GreaterThan:
+            case GreaterThanOrEqual:
+            case LessThan:
+            case LessThanOrEqual:
+            case Concat:
+                break;
+            default:
+                return NOT_CONST;
+        }
+
+        Object left = foldConst(binary.getLeft(), foldBoolean);
+        if (left == NOT_CONST) {
+            return NOT_CONST;
+        }
+        Object right = foldConst(binary.getRight(), foldBoolean);
+        if (right == NOT_CONST) {
+            return NOT_CONST;
+        }
+
+        Object value = foldConst(operator, left, right);
+        if (value == NOT_CONST) {
+            return NOT_CONST;
+        }
+
+        final WallConditionContext wallContext = WallVisitorUtils.getWallConditionContext();
         if (wallContext != null) {
-            dbType = wallContext.getDbType();
+            if (operator == SQLBinaryOperator.BitwiseAnd || operator == SQLBinaryOperator.BitwiseOr) {
+                wallContext.setBitwise(true);
+            }
+            wallContext.setConstArithmetic(true);
         }
 
-        return eval(visitor, dbType, x, Collections.emptyList());
+        binary.putAttribute(EVAL_VALUE, value);
+        return value;
+    }
+
+    private static boolean isBooleanEval(String dbType) {
+        return !(JdbcUtils.ORACLE.equals(dbType) || JdbcUtils.ALI_ORACLE.equals(dbType)
+                 || JdbcUtils.POSTGRESQL.equals(dbType) || JdbcUtils.ENTERPRISEDB.equals(dbType)
+                 || JdbcUtils.SQL_SERVER.equals(dbType) || JdbcUtils.JTDS.equals(dbType)
+                 || JdbcUtils.DB2.equals(dbType));
+    }
+
+    private static Object foldConst(SQLBinaryOperator operator, Object left, Object right) {
+        switch (operator) {
+            case Equality:
+                return SQLEvalVisitorUtils.eq(left, right);
+            case NotEqual:
+                return !SQLEvalVisitorUtils.eq(left, right);
+            case Concat:
+                return left.toString() + right.toString();
+            default:
+                break;
+        }
+
+        if (left instanceof String && right instanceof String) {
+            int compare = ((String) left).compareTo((String) right);
+            switch (operator) {
+                case GreaterThan:
+                    return compare > 0;
+                case GreaterThanOrEqual:
+                    return compare >= 0;
+                case LessThan:
+                    return compare < 0;
+                case LessThanOrEqual:
+                    return compare <= 0;
+                default:
+                    return NOT_CONST;
+            }
+        }
+
+        if (!(left instanceof Integer || left instanceof Long) || !(right instanceof Integer || right instanceof Long)) {
+            return NOT_CONST;
+        }
+
+        if (left instanceof Integer && right instanceof Integer) {
+            int a = ((Integer) left).intValue();
+            int b = ((Integer) right).intValue();
+            switch (operator) {
+                case Add:
+                    return a + b;
+                case Subtract:
+                    return a - b;
+                case Multiply:
+                    return a * b;
+                case BitwiseAnd:
+                    return a & b;
+                case BitwiseOr:
+                    return a | b;
+                default:
+                    break;
+            }
+        }
+
+        long a = ((Number) left).longValue();
+        long b = ((Number) right).longValue();
+        switch (operator) {
+            case Add:
+                return a + b;
+            case Subtract:
+                return a - b;
+            case Multiply:
+                return a * b;
+            case BitwiseAnd:
+                return a & b;
+            case BitwiseOr:
+                return a | b;
+            case GreaterThan:
+                return a > b;
+            case GreaterThanOrEqual:
+                return a >= b;
+            case LessThan:
+                return a < b;
+            case LessThanOrEqual:
+                return a <= b;
+            default:
+                return NOT_CONST;
+        }
+    }
+
+    private static boolean nameEquals(SQLName left, SQLName right) {
+        if (left instanceof SQLIdentifierExpr && right instanceof SQLIdentifierExpr) {
+            return ((SQLIdentifierExpr) left).getName().equalsIgnoreCase(((SQLIdentifierExpr) right).getName());
+        }
+
+        if (left instanceof SQLPropertyExpr && right instanceof SQLPropertyExpr) {
+            SQLPropertyExpr leftProp = (SQLPropertyExpr) left;
+            SQLPropertyExpr rightProp = (SQLPropertyExpr) right;
+
+            if (!leftProp.getName().equalsIgnoreCase(rightProp.getName())) {
+                return false;
+            }
+
+            SQLExpr leftOwner = leftProp.getOwner();
+            SQLExpr rightOwner = rightProp.getOwner();
+            if (leftOwner instanceof SQLName && rightOwner instanceof SQLName) {
+                return nameEquals((SQLName) leftOwner, (SQLName) rightOwner);
+            }
+        }
+
+        return left.toString().equalsIgnoreCase(right.toString());
     }
 
     public static SQLExpr getFirst(SQLExpr x) {
@@ -1271,6 +1464,12 @@ public class WallVisitorUtils {
         public void setFromPermitTable(boolean fromPermitTable) {
             this.fromPermitTable = fromPermitTable;
         }
+
+        void reset() {
+            fromSysTable = false;
+            fromSysSchema = false;
+            fromPermitTable = false;
+        }
     }
 
     public static class WallConditionContext {
@@ -1321,10 +1520,37 @@ public class WallVisitorUtils {
             this.bitwise = bitwise;
         }
 
+        void reset() {
+            partAlwayTrue = false;
+            partAlwayFalse = false;
+            constArithmetic = false;
+            xor = false;
+            bitwise = false;
+        }
+    }
+
+    /**
+     * contexts and eval visitors reused by the checks running on the current thread
+     */
+    private static class WallThreadCache {
+
+        final WallConditionContext        conditionContext    = new WallConditionContext();
+        final WallTopStatementContext     topStatementContext = new WallTopStatementContext();
+        final Map<String, SQLEvalVisitor> evalVisitors        = new HashMap<String, SQLEvalVisitor>(4);
     }
 
     private static ThreadLocal<WallConditionContext>    wallConditionContextLocal    = new ThreadLocal<WallConditionContext>();
     private static ThreadLocal<WallTopStatementContext> wallTopStatementContextLocal = new ThreadLocal<WallTopStatementContext>();
+    private static ThreadLocal<WallThreadCache>         wallThreadCacheLocal         = new ThreadLocal<WallThreadCache>();
+
+    private static WallThreadCache getWallThreadCache() {
+        WallThreadCache cache = wallThreadCacheLocal.get();
+        if (cache == null) {
+            cache = new WallThreadCache();
+            wallThreadCacheLocal.set(cache);
+        }
+        return cache;
+    }
 
     public static WallConditionContext getWallConditionContext() {
         return wallConditionContextLocal.get();
@@ -1339,16 +1565,29 @@ public class WallVisitorUtils {
     }
 
     public static void initWallTopStatementContext() {
-        wallTopStatementContextLocal.set(new WallTopStatementContext());
+        WallTopStatementContext context = getWallThreadCache().topStatementContext;
+        context.reset();
+        wallTopStatementContextLocal.set(context);
     }
 
     public static Object getConditionValue(WallVisitor visitor, SQLExpr x, boolean alwayTrueCheck) {
+        if (visitor != null && isFailFast(visitor)) {
+            return null;
+        }
+
         final WallConditionContext old = wallConditionContextLocal.get();
         try {
-            wallConditionContextLocal.set(new WallConditionContext());
+            final WallConditionContext current;
+            if (old == null) {
+                current = getWallThreadCache().conditionContext;
+                current.reset();
+            } else {
+                current = new WallConditionContext();
+            }
+            wallConditionContextLocal.set(current);
+
             final Object value = getValue(visitor, x);
 
-            final WallConditionContext current = wallConditionContextLocal.get();
             WallContext context = WallContext.current();
             if (context != null) {
                 if (current.hasPartAlwayTrue() || Boolean.TRUE == value) {
@@ -1505,13 +1744,19 @@ public class WallVisitorUtils {
     }
 
     public static Object eval(WallVisitor wallVisitor, String dbType, SQLObject sqlObject, List<Object> parameters) {
-        SQLEvalVisitor visitor = SQLEvalVisitorUtils.createEvalVisitor(dbType);
+        SQLEvalVisitor visitor;
+        if (parameters.isEmpty()) {
+            // eval visitors carry no state besides parameters, so the parameterless ones can be shared per thread
+            Map<String, SQLEvalVisitor> evalVisitors = getWallThreadCache().evalVisitors;
+            visitor = evalVisitors.get(dbType);
+            if (visitor == null) {
+                visitor = createEvalVisitor(dbType);
+                evalVisitors.put(dbType, visitor);
+            }
+        } else {
+            visitor = createEvalVisitor(dbType);
+        }
         visitor.setParameters(parameters);
-        visitor.registerFunction("rand", Nil.instance);
-        visitor.registerFunction("sin", Nil.instance);
-        visitor.registerFunction("cos", Nil.instance);
-        visitor.registerFunction("asin", Nil.instance);
-        visitor.registerFunction("acos", Nil.instance);
         sqlObject.accept(visitor);
 
         if (sqlObject instanceof SQLNumericLiteralExpr) {
@@ -1520,6 +1765,16 @@ public class WallVisitorUtils {
         return getValueFromAttributes(wallVisitor, sqlObject);
     }
 
+    private static SQLEvalVisitor createEvalVisitor(String dbType) {
+        SQLEvalVisitor visitor = SQLEvalVisitorUtils.createEvalVisitor(dbType);
+        visitor.registerFunction("rand", Nil.instance);
+        visitor.registerFunction("sin", Nil.instance);
+        visitor.registerFunction("cos", Nil.instance);
+        visitor.registerFunction("asin", Nil.instance);
+        visitor.registerFunction("acos", Nil.instance);
+        return visitor;
+    }
+
     public static boolean isSimpleCountTableSource(WallVisitor visitor, SQLTableSource tableSource) {
         if (!(tableSource instanceof SQLSubqueryTableSource)) {
             return false;
@@ -2161,6 +2416,13 @@ public class WallVisitorUtils {
         return true;
     }
 
+    /**
+     * in fail fast mode only the first violation is reported, so the remaining checks can be skipped once one was found
+     */
+    public static boolean isFailFast(WallVisitor visitor) {
+        return visitor.getViolations().size() > 0 && visitor.getProvider().isFailFast();
+    }
+
     private static void addViolation(WallVisitor visitor, int errorCode, String message, SQLObject x) {
         visitor.addViolation(new IllegalSQLObjectViolation(errorCode, message, visitor.toSQL(x)));
     }
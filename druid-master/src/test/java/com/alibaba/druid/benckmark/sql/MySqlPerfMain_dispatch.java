@@ -0,0 +1,101 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.benckmark.sql;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import com.alibaba.druid.sql.ast.SQLStatement;
+import com.alibaba.druid.sql.dialect.mysql.parser.MySqlStatementParser;
+import com.alibaba.druid.sql.dialect.mysql.visitor.MySqlASTVisitor;
+import com.alibaba.druid.sql.dialect.mysql.visitor.MySqlOutputVisitor;
+import com.alibaba.druid.sql.dialect.mysql.visitor.MySqlSchemaStatVisitor;
+import com.alibaba.druid.sql.visitor.ParameterizedVisitor;
+import com.alibaba.druid.sql.visitor.SQLASTVisitor;
+import com.alibaba.druid.sql.visitor.SQLASTVisitorDialect;
+import com.alibaba.druid.sql.visitor.SchemaStatVisitor;
+
+/**
+ * the dialect test of the visitor dispatch, instanceof of the visitor interface against SQLASTVisitorDialect, with the
+ * visitors tested against several interfaces in turn like the output and wall visitors are.
+ */
+public class MySqlPerfMain_dispatch {
+
+    static int count;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println(System.getProperty("java.vm.name") + " " + System.getProperty("java.runtime.version"));
+        List<String> arguments = ManagementFactory.getRuntimeMXBean().getInputArguments();
+        System.out.println(arguments);
+
+        SQLASTVisitor[] visitors = new SQLASTVisitor[] { new MySqlOutputVisitor(new StringBuilder()),
+                new MySqlSchemaStatVisitor(), new SchemaStatVisitor() };
+
+        for (int i = 0; i < 5; ++i) {
+            perfInstanceOf(visitors);
+            perfDialect(visitors);
+        }
+
+        String sql = "SELECT ID, NAME, AGE FROM USER WHERE ID = ? AND NAME LIKE 'a%' ORDER BY ID LIMIT 10";
+        List<SQLStatement> statementList = new MySqlStatementParser(sql).parseStatementList();
+        for (int i = 0; i < 5; ++i) {
+            perfVisit(statementList);
+        }
+        System.out.println(count);
+    }
+
+    static void perfInstanceOf(SQLASTVisitor[] visitors) {
+        long startMillis = System.currentTimeMillis();
+        for (int i = 0; i < 1000 * 1000 * 10; ++i) {
+            SQLASTVisitor visitor = visitors[i % visitors.length];
+            if (visitor instanceof MySqlASTVisitor) {
+                count++;
+            }
+            if (visitor instanceof ParameterizedVisitor) {
+                count++;
+            }
+        }
+        long millis = System.currentTimeMillis() - startMillis;
+        System.out.println("instanceof\t" + millis);
+    }
+
+    static void perfDialect(SQLASTVisitor[] visitors) {
+        long startMillis = System.currentTimeMillis();
+        for (int i = 0; i < 1000 * 1000 * 10; ++i) {
+            SQLASTVisitor visitor = visitors[i % visitors.length];
+            if (SQLASTVisitorDialect.isDialect(visitor, SQLASTVisitorDialect.MYSQL)) {
+                count++;
+            }
+            if (visitor instanceof ParameterizedVisitor) {
+                count++;
+            }
+        }
+        long millis = System.currentTimeMillis() - startMillis;
+        System.out.println("dialect\t" + millis);
+    }
+
+    static void perfVisit(List<SQLStatement> statementList) {
+        long startMillis = System.currentTimeMillis();
+        for (int i = 0; i < 1000 * 1000; ++i) {
+            SQLASTVisitor visitor = (i & 1) == 0 ? new MySqlSchemaStatVisitor() : new MySqlOutputVisitor(new StringBuilder());
+            for (SQLStatement statement : statementList) {
+                statement.accept(visitor);
+            }
+        }
+        long millis = System.currentTimeMillis() - startMillis;
+        System.out.println("visit\t" + millis);
+    }
+}
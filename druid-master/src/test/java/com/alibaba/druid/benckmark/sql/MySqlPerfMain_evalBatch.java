@@ -0,0 +1,76 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.benckmark.sql;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import com.alibaba.druid.sql.visitor.SQLCompiledExpr;
+import com.alibaba.druid.sql.visitor.SQLEvalVisitorUtils;
+import com.alibaba.druid.util.JdbcConstants;
+
+/**
+ * the eval of an expression for the rows of a batch insert, evalExpr for each row against SQLCompiledExpr.evalBatch.
+ */
+public class MySqlPerfMain_evalBatch {
+
+    static final String EXPR = "? >= 1000 and ? < 5000 and substring(?, 1, 2) = 'ab'";
+
+    static int          count;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println(System.getProperty("java.vm.name") + " " + System.getProperty("java.runtime.version"));
+        List<String> arguments = ManagementFactory.getRuntimeMXBean().getInputArguments();
+        System.out.println(arguments);
+
+        int[] ids = new int[1000 * 10];
+        Object[] names = new Object[ids.length];
+        for (int i = 0; i < ids.length; ++i) {
+            ids[i] = i;
+            names[i] = (i & 1) == 0 ? "abc" + i : "xyz" + i;
+        }
+
+        for (int i = 0; i < 5; ++i) {
+            perfEvalExpr(ids, names);
+            perfBatch(ids, names);
+        }
+        System.out.println(count);
+    }
+
+    static void perfEvalExpr(int[] ids, Object[] names) {
+        long startMillis = System.currentTimeMillis();
+        for (int i = 0; i < 10; ++i) {
+            for (int row = 0; row < ids.length; ++row) {
+                if (Boolean.TRUE.equals(SQLEvalVisitorUtils.evalExpr(JdbcConstants.MYSQL, EXPR, ids[row], ids[row],
+                                                                     names[row]))) {
+                    count++;
+                }
+            }
+        }
+        long millis = System.currentTimeMillis() - startMillis;
+        System.out.println("evalExpr\t" + millis);
+    }
+
+    static void perfBatch(int[] ids, Object[] names) {
+        long startMillis = System.currentTimeMillis();
+        for (int i = 0; i < 10; ++i) {
+            SQLCompiledExpr compiled = SQLEvalVisitorUtils.compile(JdbcConstants.MYSQL, EXPR);
+            count += compiled.select(new Object[] { ids, ids, names }, ids.length).cardinality();
+        }
+        long millis = System.currentTimeMillis() - startMillis;
+        System.out.println("evalBatch\t" + millis);
+    }
+}
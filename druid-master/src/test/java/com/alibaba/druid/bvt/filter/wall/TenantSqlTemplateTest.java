@@ -0,0 +1,177 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.bvt.filter.wall;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+
+import com.alibaba.druid.sql.SQLUtils;
+import com.alibaba.druid.util.JdbcConstants;
+import com.alibaba.druid.wall.WallCheckResult;
+import com.alibaba.druid.wall.WallConfig;
+import com.alibaba.druid.wall.WallConfig.TenantCallBack;
+import com.alibaba.druid.wall.WallProvider;
+import com.alibaba.druid.wall.spi.MySqlWallProvider;
+
+public class TenantSqlTemplateTest extends TestCase {
+
+    private WallConfig config = new WallConfig();
+
+    protected void setUp() throws Exception {
+        config.setTenantTablePattern("*");
+        config.setTenantColumn("tenant");
+    }
+
+    protected void tearDown() throws Exception {
+        WallProvider.setTenantValue(null);
+    }
+
+    public void test_insert() throws Exception {
+        MySqlWallProvider provider = new MySqlWallProvider(config);
+        String sql = "INSERT INTO orders (ID, NAME) VALUES (1, 'a'), (2, 'b')";
+
+        WallProvider.setTenantValue(123);
+        WallCheckResult checkResult = provider.check(sql);
+        Assert.assertEquals(0, checkResult.getViolations().size());
+        Assert.assertEquals("INSERT INTO orders (ID, NAME, tenant)" //
+                            + "\nVALUES (1, 'a', 123)," //
+                            + "\n\t(2, 'b', 123)", checkResult.getSql());
+        Assert.assertEquals(checkResult.getSql(),
+                            SQLUtils.toSQLString(checkResult.getStatementList(), JdbcConstants.MYSQL));
+        Assert.assertEquals(0, provider.getWhiteListHitCount());
+
+        WallProvider.setTenantValue("x'y");
+        checkResult = provider.check(sql);
+        Assert.assertEquals(0, checkResult.getViolations().size());
+        Assert.assertEquals("INSERT INTO orders (ID, NAME, tenant)" //
+                            + "\nVALUES (1, 'a', 'x''y')," //
+                            + "\n\t(2, 'b', 'x''y')", checkResult.getSql());
+        Assert.assertEquals(1, provider.getWhiteListHitCount());
+    }
+
+    public void test_update() throws Exception {
+        MySqlWallProvider provider = new MySqlWallProvider(config);
+        String sql = "UPDATE T_USER SET FNAME = ? WHERE FID = ?";
+
+        for (int i = 0; i < 3; ++i) {
+            WallProvider.setTenantValue(i);
+            WallCheckResult checkResult = provider.check(sql);
+            Assert.assertEquals("UPDATE T_USER" //
+                                + "\nSET FNAME = ?, tenant = " + i //
+                                + "\nWHERE FID = ?", checkResult.getSql());
+        }
+        Assert.assertEquals(2, provider.getWhiteListHitCount());
+    }
+
+    public void test_select() throws Exception {
+        MySqlWallProvider provider = new MySqlWallProvider(config);
+        String sql = "SELECT ID, NAME FROM orders WHERE ID = ?";
+
+        String first = provider.check(sql).getSql();
+        Assert.assertEquals(first, provider.check(sql).getSql());
+        Assert.assertEquals(1, provider.getWhiteListHitCount());
+    }
+
+    public void test_tenantColumnChanged() throws Exception {
+        WallConfig config = new WallConfig();
+        config.setTenantTablePattern("*");
+        config.setTenantColumn("tenant");
+
+        MySqlWallProvider provider = new MySqlWallProvider(config);
+        String sql = "UPDATE T_USER SET FNAME = ? WHERE FID = ?";
+
+        WallProvider.setTenantValue(1);
+        provider.check(sql);
+
+        config.setTenantColumn("tenant_id");
+        Assert.assertEquals("UPDATE T_USER" //
+                            + "\nSET FNAME = ?, tenant_id = 1" //
+                            + "\nWHERE FID = ?", provider.check(sql).getSql());
+    }
+
+    public void test_tenantTablePatternChanged() throws Exception {
+        WallConfig config = new WallConfig();
+        config.setTenantTablePattern("orders");
+        config.setTenantColumn("tenant");
+
+        MySqlWallProvider provider = new MySqlWallProvider(config);
+        String sql = "UPDATE T_USER SET FNAME = ? WHERE FID = ?";
+
+        WallProvider.setTenantValue(1);
+        Assert.assertEquals(sql, provider.check(sql).getSql());
+
+        config.setTenantTablePattern("*");
+        Assert.assertEquals("UPDATE T_USER" //
+                            + "\nSET FNAME = ?, tenant = 1" //
+                            + "\nWHERE FID = ?", provider.check(sql).getSql());
+    }
+
+    public void test_tenantCallBack() throws Exception {
+        final Map<String, String> columns = new HashMap<String, String>();
+        columns.put("orders", "org_id");
+        columns.put("items", "shop_id");
+
+        WallConfig config = new WallConfig();
+        config.setTenantTablePattern("orders");
+        config.setTenantCallBack(new TenantCallBack() {
+
+            public Object getTenantValue(StatementType statementType, String tableName) {
+                return 7;
+            }
+
+            public String getTenantColumn(StatementType statementType, String tableName) {
+                return columns.get(tableName);
+            }
+
+            public String getHiddenColumn(String tableName) {
+                return null;
+            }
+
+            public void filterResultsetTenantColumn(Object value) {
+            }
+        });
+
+        MySqlWallProvider provider = new MySqlWallProvider(config);
+        String sql = "UPDATE orders SET NAME = ? WHERE ID = ?";
+        for (int i = 0; i < 2; ++i) {
+            Assert.assertEquals("UPDATE orders" //
+                                + "\nSET NAME = ?, org_id = 7" //
+                                + "\nWHERE ID = ?", provider.check(sql).getSql());
+        }
+
+        columns.put("orders", "tenant_id");
+        Assert.assertEquals("UPDATE orders" //
+                            + "\nSET NAME = ?, tenant_id = 7" //
+                            + "\nWHERE ID = ?", provider.check(sql).getSql());
+
+        sql = "UPDATE items SET NAME = ? WHERE ID = ?";
+        Assert.assertEquals("UPDATE items" //
+                            + "\nSET NAME = ?, shop_id = 7" //
+                            + "\nWHERE ID = ?", provider.check(sql).getSql());
+
+        sql = "UPDATE users SET NAME = ? WHERE ID = ?";
+        Assert.assertEquals(sql, provider.check(sql).getSql());
+
+        columns.put("users", "org_id");
+        Assert.assertEquals("UPDATE users" //
+                            + "\nSET NAME = ?, org_id = 7" //
+                            + "\nWHERE ID = ?", provider.check(sql).getSql());
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.bvt.filter.wall;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+
+import com.alibaba.druid.wall.WallConfig;
+import com.alibaba.druid.wall.WallProvider;
+import com.alibaba.druid.wall.spi.MySqlWallProvider;
+import com.alibaba.druid.wall.spi.PGWallProvider;
+
+/**
+ * the constant conditions folded by the wall are the same as the eval visitor.
+ */
+public class WallConstFoldTest extends TestCase {
+
+    private static WallProvider createProvider(WallProvider provider) {
+        provider.setBlackListEnable(false);
+        provider.setWhiteListEnable(false);
+        return provider;
+    }
+
+    public void test_arithmetic() throws Exception {
+        WallProvider provider = createProvider(new MySqlWallProvider(new WallConfig()));
+
+        Assert.assertFalse(provider.checkValid("select * from t where id = 1 or 1 + 2 * 3 = 7"));
+        Assert.assertTrue(provider.checkValid("select * from t where id = 1 or 1 + 2 * 3 = 9"));
+        Assert.assertFalse(provider.checkValid("select * from t where id = 1 or 2147483647 + 1 < 0"));
+        Assert.assertFalse(provider.checkValid("select * from t where id = 1 or 10000000000 - 1 > 2147483647"));
+        Assert.assertFalse(provider.checkValid("select * from t where id = 1 or 3 & 1 = 1"));
+        Assert.assertFalse(provider.checkValid("select * from t where id = 1 or 2147483647 + 1 = -2147483648"));
+        Assert.assertTrue(provider.checkValid("select * from t where id = 1 or id + 1 = 2"));
+    }
+
+    public void test_string() throws Exception {
+        WallProvider provider = createProvider(new MySqlWallProvider(new WallConfig()));
+
+        Assert.assertFalse(provider.checkValid("select * from t where id = 1 or 'b' > 'a'"));
+        Assert.assertTrue(provider.checkValid("select * from t where id = 1 or 'a' > 'b'"));
+        Assert.assertFalse(provider.checkValid("select * from t where id = 1 or 'a' <= 'a'"));
+    }
+
+    public void test_boolean() throws Exception {
+        WallProvider provider = createProvider(new MySqlWallProvider(new WallConfig()));
+
+        Assert.assertFalse(provider.checkValid("select * from t where id = 1 or (1 = 1) = true"));
+        Assert.assertTrue(provider.checkValid("select * from t where id = 1 or (1 = 2) = true"));
+
+        // the postgresql eval visitor has no value for boolean literals
+        provider = createProvider(new PGWallProvider(new WallConfig()));
+        Assert.assertTrue(provider.checkValid("select * from t where id = 1 or 1 = true"));
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.bvt.filter.wall;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+
+import com.alibaba.druid.wall.WallCheckResult;
+import com.alibaba.druid.wall.WallConfig;
+import com.alibaba.druid.wall.spi.MySqlWallProvider;
+
+public class WallProviderFailFastTest extends TestCase {
+
+    private String sql = "select * from t where id = 1 or 1 = 1; select * from t where id = 2 or 2 = 2";
+
+    public void test_failFast() throws Exception {
+        WallConfig config = new WallConfig();
+        config.setMultiStatementAllow(true);
+
+        MySqlWallProvider provider = new MySqlWallProvider(config);
+        provider.setFailFast(true);
+
+        WallCheckResult result = provider.check(sql);
+        Assert.assertEquals(1, result.getViolations().size());
+    }
+
+    public void test_all() throws Exception {
+        WallConfig config = new WallConfig();
+        config.setMultiStatementAllow(true);
+
+        MySqlWallProvider provider = new MySqlWallProvider(config);
+
+        WallCheckResult result = provider.check(sql);
+        Assert.assertTrue(result.getViolations().size() > 1);
+    }
+
+    public void test_intConst() throws Exception {
+        WallConfig config = new WallConfig();
+        MySqlWallProvider provider = new MySqlWallProvider(config);
+
+        Assert.assertFalse(provider.checkValid("select * from t where id = 3 or 2 < 3"));
+        Assert.assertTrue(provider.checkValid("select * from t where id = 3 or 3 < 2"));
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.bvt.filter.wall;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+
+import com.alibaba.druid.wall.WallConfig;
+import com.alibaba.druid.wall.WallProvider;
+import com.alibaba.druid.wall.spi.MySqlWallProvider;
+
+/**
+ * the condition contexts and eval visitors are reused by the checks of a thread, a check must not see the state of the
+ * one before.
+ */
+public class WallThreadCacheTest extends TestCase {
+
+    private final String[] sqls = { //
+    "select * from t where id = 1 or 2 > 1", //
+            "select * from t where id = 1", //
+            "select * from t where id = 1 or 10000000000 >= 10000000000", //
+            "select * from t where id = 1 or 2 < 1", //
+            "select * from t where id = 1 or 1 != 2", //
+            "select * from t where id = 1 or 2 != 2", //
+            "select * from t where id = 1 or 2 <= 2", //
+            "select * from t where id = 1 or t.id = T.ID", //
+            "select * from t a, t b where a.id = b.id", //
+            "select * from t where id = 1 or id = id", //
+            "select * from t where id = ? or 1 + 1 = 2", //
+            "select * from t where id = 1 or rand() > 0", //
+            "select * from t where id = 3", //
+    };
+
+    // the verdicts are not cached, each check goes through the visitor
+    private static WallProvider createProvider() {
+        WallProvider provider = new MySqlWallProvider(new WallConfig());
+        provider.setBlackListEnable(false);
+        provider.setWhiteListEnable(false);
+        return provider;
+    }
+
+    public void test_same_as_fresh_thread() throws Exception {
+        final WallProvider provider = createProvider();
+
+        for (int round = 0; round < 3; ++round) {
+            for (final String sql : sqls) {
+                final boolean[] fresh = new boolean[1];
+                Thread thread = new Thread() {
+
+                    public void run() {
+                        fresh[0] = provider.checkValid(sql);
+                    }
+                };
+                thread.start();
+                thread.join();
+
+                Assert.assertEquals(sql, fresh[0], provider.checkValid(sql));
+            }
+        }
+    }
+
+    public void test_intConst() throws Exception {
+        WallProvider provider = createProvider();
+
+        Assert.assertFalse(provider.checkValid(sqls[0]));
+        Assert.assertTrue(provider.checkValid(sqls[1]));
+        Assert.assertFalse(provider.checkValid(sqls[2]));
+        Assert.assertTrue(provider.checkValid(sqls[3]));
+        Assert.assertFalse(provider.checkValid(sqls[4]));
+        Assert.assertTrue(provider.checkValid(sqls[5]));
+        Assert.assertFalse(provider.checkValid(sqls[6]));
+    }
+
+    public void test_nameEquals() throws Exception {
+        WallProvider provider = createProvider();
+
+        Assert.assertFalse(provider.checkValid(sqls[7]));
+        Assert.assertTrue(provider.checkValid(sqls[8]));
+        Assert.assertFalse(provider.checkValid(sqls[9]));
+    }
+}
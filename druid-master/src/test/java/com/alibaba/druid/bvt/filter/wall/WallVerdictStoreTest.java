@@ -0,0 +1,151 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.bvt.filter.wall;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import com.alibaba.druid.util.JdbcConstants;
+import com.alibaba.druid.wall.WallCheckResult;
+import com.alibaba.druid.wall.WallConfig;
+import com.alibaba.druid.wall.WallFilter;
+import com.alibaba.druid.wall.WallProvider;
+import com.alibaba.druid.wall.WallVerdictStore;
+import com.alibaba.druid.wall.spi.MySqlWallProvider;
+import com.alibaba.druid.wall.spi.OracleWallProvider;
+
+public class WallVerdictStoreTest extends TestCase {
+
+    protected void tearDown() throws Exception {
+        WallVerdictStore.clearInstances();
+    }
+
+    public void test_share() throws Exception {
+        WallProvider p1 = new MySqlWallProvider(new WallConfig());
+        WallProvider p2 = new MySqlWallProvider(new WallConfig());
+
+        WallVerdictStore store = WallVerdictStore.getInstance(p1);
+        Assert.assertSame(store, WallVerdictStore.getInstance(p2));
+        p1.setVerdictStore(store);
+        p2.setVerdictStore(store);
+
+        String sql = "select * from t where id = 1";
+        Assert.assertEquals(0, p1.check(sql).getViolations().size());
+        Assert.assertEquals(1, p1.getHardCheckCount());
+
+        WallCheckResult result = p2.check(sql);
+        Assert.assertEquals(0, result.getViolations().size());
+        Assert.assertEquals(sql, result.getSql());
+        Assert.assertEquals(0, p2.getHardCheckCount());
+        Assert.assertEquals(1, p2.getVerdictStoreHitCount());
+        Assert.assertEquals(1, p2.getWhiteList().size());
+
+        Assert.assertEquals(1, p1.getSqlStat(sql).getExecuteCount());
+        Assert.assertEquals(1, p2.getSqlStat(sql).getExecuteCount());
+        Assert.assertNotSame(p1.getSqlStat(sql), p2.getSqlStat(sql));
+    }
+
+    public void test_violation() throws Exception {
+        WallProvider p1 = new MySqlWallProvider(new WallConfig());
+        WallProvider p2 = new MySqlWallProvider(new WallConfig());
+        p1.setVerdictStore(WallVerdictStore.getInstance(p1));
+        p2.setVerdictStore(WallVerdictStore.getInstance(p2));
+
+        String sql = "select * from t where id = 1 or 1 = 1";
+        Assert.assertEquals(1, p1.check(sql).getViolations().size());
+
+        WallCheckResult result = p2.check(sql);
+        Assert.assertEquals(1, result.getViolations().size());
+        Assert.assertEquals(0, p2.getHardCheckCount());
+        Assert.assertEquals(1, p2.getViolationCount());
+        Assert.assertEquals(1, p2.getBlackList().size());
+    }
+
+    public void test_differentConfig() throws Exception {
+        WallConfig config = new WallConfig();
+        config.setSelectWhereAlwayTrueCheck(false);
+
+        WallProvider p1 = new MySqlWallProvider(new WallConfig());
+        WallProvider p2 = new MySqlWallProvider(config);
+        WallProvider p3 = new OracleWallProvider(new WallConfig());
+
+        Assert.assertNotSame(WallVerdictStore.getInstance(p1), WallVerdictStore.getInstance(p2));
+        Assert.assertNotSame(WallVerdictStore.getInstance(p1), WallVerdictStore.getInstance(p3));
+    }
+
+    public void test_fingerprint() throws Exception {
+        Assert.assertEquals(new WallConfig().getFingerprint(), new WallConfig().getFingerprint());
+
+        // every setting changes the fingerprint
+        for (Field field : WallConfig.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || field.getType() != boolean.class
+                || field.getName().equals("inited")) {
+                continue;
+            }
+
+            WallConfig config = new WallConfig();
+            field.setAccessible(true);
+            field.setBoolean(config, !field.getBoolean(config));
+            Assert.assertFalse(field.getName(), new WallConfig().getFingerprint().equals(config.getFingerprint()));
+        }
+
+        WallConfig config = new WallConfig();
+        config.getDenyFunctions().add("sleep");
+        Assert.assertFalse(new WallConfig().getFingerprint().equals(config.getFingerprint()));
+    }
+
+    public void test_release() throws Exception {
+        WallProvider p1 = new MySqlWallProvider(new WallConfig());
+        WallProvider p2 = new MySqlWallProvider(new WallConfig());
+
+        WallVerdictStore store = WallVerdictStore.getInstance(p1);
+        WallVerdictStore.getInstance(p2);
+        Assert.assertEquals(1, WallVerdictStore.getInstanceCount());
+
+        WallVerdictStore.release(store);
+        Assert.assertEquals(1, WallVerdictStore.getInstanceCount());
+        WallVerdictStore.release(store);
+        Assert.assertEquals(0, WallVerdictStore.getInstanceCount());
+    }
+
+    public void test_filter_destroy() throws Exception {
+        DruidDataSource dataSource = new DruidDataSource();
+        dataSource.setUrl("jdbc:mock:xxx");
+        dataSource.setDbType(JdbcConstants.MYSQL);
+
+        WallFilter filter = new WallFilter();
+        filter.setShareVerdict(true);
+        dataSource.getProxyFilters().add(filter);
+        dataSource.init();
+        Assert.assertNotNull(filter.getProvider().getVerdictStore());
+        Assert.assertEquals(1, WallVerdictStore.getInstanceCount());
+
+        filter.setShareVerdict(false);
+        Assert.assertNull(filter.getProvider().getVerdictStore());
+        Assert.assertEquals(0, WallVerdictStore.getInstanceCount());
+
+        filter.setShareVerdict(true);
+        Assert.assertEquals(1, WallVerdictStore.getInstanceCount());
+
+        dataSource.close();
+        Assert.assertEquals(0, WallVerdictStore.getInstanceCount());
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.bvt.mock;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+
+import com.alibaba.druid.mock.MockDriver;
+import com.alibaba.druid.mock.table.MockTableStore;
+import com.alibaba.druid.util.JdbcUtils;
+
+public class MockTableStoreTest extends TestCase {
+
+    private MockTableStore store;
+    private Connection     conn;
+
+    protected void setUp() throws Exception {
+        MockDriver driver = new MockDriver();
+        store = new MockTableStore();
+        driver.setTableStore(store);
+
+        conn = driver.connect("jdbc:mock:case", null);
+
+        Statement stmt = conn.createStatement();
+        stmt.executeUpdate("insert into t_user (id, name, age, dept) values (1, 'a', 20, 'x'), (2, 'b', 30, 'y')");
+        stmt.executeUpdate("insert into t_user (id, name, age, dept) values (3, 'c', 25, 'x'), (4, 'd', null, 'y')");
+        stmt.executeUpdate("insert into t_user (id, name, age, dept) values (5, 'e', 40, 'x')");
+        stmt.close();
+    }
+
+    protected void tearDown() throws Exception {
+        JdbcUtils.close(conn);
+    }
+
+    private String query(String sql, Object... parameters) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement(sql);
+        for (int i = 0; i < parameters.length; ++i) {
+            stmt.setObject(i + 1, parameters[i]);
+        }
+
+        ResultSet rs = stmt.executeQuery();
+        int columnCount = rs.getMetaData().getColumnCount();
+        StringBuilder buf = new StringBuilder();
+        while (rs.next()) {
+            if (buf.length() > 0) {
+                buf.append(';');
+            }
+            for (int i = 1; i <= columnCount; ++i) {
+                if (i != 1) {
+                    buf.append(',');
+                }
+                buf.append(rs.getObject(i));
+            }
+        }
+        rs.close();
+        stmt.close();
+        return buf.toString();
+    }
+
+    private int update(String sql, Object... parameters) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement(sql);
+        for (int i = 0; i < parameters.length; ++i) {
+            stmt.setObject(i + 1, parameters[i]);
+        }
+        int updateCount = stmt.executeUpdate();
+        stmt.close();
+        return updateCount;
+    }
+
+    public void test_select() throws Exception {
+        Assert.assertEquals(5, store.getTable("T_USER").getRowCount());
+
+        Assert.assertEquals("3,c;5,e", query("select id, name from t_user where dept = 'x' and age > ?", 20));
+        Assert.assertEquals("5,e,40,x", query("select * from t_user u where u.id = ?", 5));
+        Assert.assertEquals("4;2;1", query("select id from t_user where id < 5 and id <> 3 order by id desc"));
+        Assert.assertEquals("4;1;3;2;5", query("select id from t_user order by age, 1"));
+        Assert.assertEquals("3;4", query("select id from t_user order by id limit ?, ?", 2, 2));
+        Assert.assertEquals("x;y", query("select distinct dept from t_user order by dept"));
+        Assert.assertEquals("21,a", query("select age + 1 a, upper(name) from t_user where id = 1").toLowerCase());
+
+        ResultSet rs = conn.createStatement().executeQuery("select id, name as user_name from t_user where id = 2");
+        Assert.assertTrue(rs.next());
+        Assert.assertEquals("b", rs.getString("USER_NAME"));
+        Assert.assertEquals(2, rs.getInt("id"));
+        Assert.assertFalse(rs.next());
+        rs.close();
+    }
+
+    public void test_aggregate() throws Exception {
+        Assert.assertEquals("5,4,115,20,40", query("select count(*), count(age), sum(age), min(age), max(age) from t_user"));
+        Assert.assertEquals("x,3,85;y,2,30", query("select dept, count(*), sum(age) from t_user group by dept order by dept"));
+        Assert.assertEquals("x,28.3333", query("select dept, avg(age) from t_user group by dept having count(*) > 2"));
+        Assert.assertEquals("y,2;x,3", query("select dept, count(*) c from t_user group by dept order by c"));
+        Assert.assertEquals("2", query("select count(distinct dept) from t_user"));
+        Assert.assertEquals("0,null", query("select count(*), max(age) from t_user where id > ?", 100));
+        Assert.assertEquals("", query("select dept, count(*) from t_user where id > 100 group by dept"));
+    }
+
+    public void test_update() throws Exception {
+        Assert.assertEquals(2, update("update t_user set age = age + ?, name = 'z' where dept = ? and age > 20", 1, "x"));
+        Assert.assertEquals("20,a;26,z;41,z", query("select age, name from t_user where dept = 'x' order by id"));
+
+        Assert.assertEquals(2, update("delete from t_user where dept = ?", "y"));
+        Assert.assertEquals("3", query("select count(*) from t_user"));
+
+        Assert.assertEquals(3, update("delete from t_user"));
+        Assert.assertEquals("0", query("select count(*) from t_user"));
+    }
+
+    public void test_ddl() throws Exception {
+        Statement stmt = conn.createStatement();
+        stmt.execute("create table t_order (id bigint, amount decimal(10, 2))");
+        Assert.assertEquals(1, stmt.executeUpdate("insert into t_order values (1, 2.50)"));
+        Assert.assertEquals(1, update("insert into t_order (amount, id) values (?, ?)", new BigDecimal("1.25"), 2));
+
+        Assert.assertTrue(stmt.execute("select sum(amount) from t_order"));
+        ResultSet rs = stmt.getResultSet();
+        Assert.assertTrue(rs.next());
+        Assert.assertEquals(new BigDecimal("3.75"), rs.getBigDecimal(1));
+        rs.close();
+
+        // the columns of a created table are fixed
+        try {
+            stmt.executeUpdate("insert into t_order (id, note) values (3, 'x')");
+            fail();
+        } catch (SQLException e) {
+            Assert.assertEquals(1054, e.getErrorCode());
+        }
+
+        try {
+            stmt.execute("create table t_order (id int)");
+            fail();
+        } catch (SQLException e) {
+            Assert.assertEquals(1050, e.getErrorCode());
+        }
+
+        stmt.execute("truncate table t_order");
+        Assert.assertEquals("0", query("select count(*) from t_order"));
+
+        stmt.execute("drop table t_order");
+        try {
+            stmt.executeQuery("select * from t_order");
+            fail();
+        } catch (SQLException e) {
+            Assert.assertEquals(1146, e.getErrorCode());
+        }
+
+        // a query without a table goes to the execute handler
+        rs = stmt.executeQuery("SELECT 1");
+        Assert.assertTrue(rs.next());
+        Assert.assertEquals(1, rs.getInt(1));
+        rs.close();
+
+        stmt.close();
+    }
+
+    public void test_implicit_columns() throws Exception {
+        Assert.assertEquals(1, update("insert into t_user (id, email) values (6, 'f@x')"));
+        Assert.assertEquals("5,null;6,f@x", query("select id, email from t_user where id >= 5"));
+
+        try {
+            query("select id, phone from t_user");
+            fail();
+        } catch (SQLException e) {
+            Assert.assertEquals(1054, e.getErrorCode());
+        }
+    }
+}
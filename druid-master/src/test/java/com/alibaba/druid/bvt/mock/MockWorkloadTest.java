@@ -0,0 +1,204 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.bvt.mock;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+
+import com.alibaba.druid.mock.MockDriver;
+import com.alibaba.druid.mock.MockLatency;
+import com.alibaba.druid.mock.MockStatement;
+import com.alibaba.druid.mock.MockWorkload;
+import com.alibaba.druid.mock.MockWorkloadException;
+import com.alibaba.druid.pool.DruidDataSource;
+import com.alibaba.druid.pool.vendor.MockExceptionSorter;
+import com.alibaba.druid.util.JdbcUtils;
+
+public class MockWorkloadTest extends TestCase {
+
+    private MockDriver   driver;
+    private MockWorkload workload;
+
+    protected void setUp() throws Exception {
+        driver = new MockDriver();
+        workload = new MockWorkload();
+        driver.setWorkload(workload);
+    }
+
+    public void test_latency() throws Exception {
+        Random random = new Random(1);
+
+        Assert.assertEquals(10, MockLatency.parse("10").nextMillis(random));
+
+        MockLatency uniform = MockLatency.parse("10~30");
+        Assert.assertEquals(MockLatency.Distribution.UNIFORM, uniform.getDistribution());
+        for (int i = 0; i < 100; ++i) {
+            long millis = uniform.nextMillis(random);
+            Assert.assertTrue(millis >= 10 && millis <= 30);
+        }
+
+        Assert.assertEquals(MockLatency.Distribution.NORMAL, MockLatency.parse("normal(20, 5)").getDistribution());
+        Assert.assertEquals(MockLatency.Distribution.EXPONENTIAL, MockLatency.parse("exp(20)").getDistribution());
+        Assert.assertEquals("10~30", uniform.toString());
+
+        try {
+            MockLatency.parse("30~10");
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void test_maxConnections() throws Exception {
+        workload.setMaxConnections(2);
+
+        Connection c1 = driver.connect("jdbc:mock:case", null);
+        Connection c2 = driver.connect("jdbc:mock:case", null);
+        try {
+            driver.connect("jdbc:mock:case", null);
+            fail();
+        } catch (SQLException e) {
+            Assert.assertEquals(1040, e.getErrorCode());
+        }
+        Assert.assertEquals(1, workload.getRejectedConnectCount());
+
+        c1.close();
+        Connection c3 = driver.connect("jdbc:mock:case", null);
+
+        JdbcUtils.close(c2);
+        JdbcUtils.close(c3);
+    }
+
+    public void test_queryFailure() throws Exception {
+        Connection conn = driver.connect("jdbc:mock:case", null);
+
+        workload.setQueryFailureRate(1);
+        Statement stmt = conn.createStatement();
+        try {
+            stmt.executeQuery("SELECT 1");
+            fail();
+        } catch (SQLException e) {
+            Assert.assertEquals("08S01", e.getSQLState());
+        }
+        Assert.assertEquals(1, workload.getInjectedFailureCount());
+
+        // the connection is broken after the failure
+        workload.setQueryFailureRate(0);
+        try {
+            conn.createStatement();
+            fail();
+        } catch (SQLException e) {
+            Assert.assertEquals("08S01", e.getSQLState());
+        }
+
+        JdbcUtils.close(conn);
+    }
+
+    public void test_execute() throws Exception {
+        Connection conn = driver.connect("jdbc:mock:case", null);
+
+        // without a table store the update count is not set by execute
+        MockStatement stmt = (MockStatement) conn.createStatement();
+        stmt.setUpdateCount(5);
+        Assert.assertFalse(stmt.execute("UPDATE t SET x = 1"));
+        Assert.assertEquals(5, stmt.getUpdateCount());
+
+        workload.setQueryFailureRate(1);
+        try {
+            stmt.execute("UPDATE t SET x = 1");
+            fail();
+        } catch (SQLException e) {
+            Assert.assertEquals("08S01", e.getSQLState());
+        }
+
+        JdbcUtils.close(conn);
+    }
+
+    public void test_resultRows() throws Exception {
+        workload.setResultRowCount(3);
+        workload.setResultColumnCount(2);
+        workload.setResultValueSize(8);
+
+        Connection conn = driver.connect("jdbc:mock:case", null);
+        ResultSet rs = conn.createStatement().executeQuery("select * from t");
+        Assert.assertEquals(2, rs.getMetaData().getColumnCount());
+
+        int rowCount = 0;
+        while (rs.next()) {
+            Assert.assertEquals(rowCount, rs.getInt(1));
+            Assert.assertEquals("xxxxxxxx", rs.getString("c2"));
+            ++rowCount;
+        }
+        Assert.assertEquals(3, rowCount);
+
+        JdbcUtils.close(rs);
+        JdbcUtils.close(conn);
+    }
+
+    public void test_configFromProperties() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty("druid.mock.queryLatency", "exp(5)");
+        properties.setProperty("druid.mock.maxConcurrentQueries", "4");
+        properties.setProperty("druid.mock.queryFailureRate", "0.5");
+        properties.setProperty("druid.mock.resultRowCount", "10");
+        workload.configFromProperties(properties);
+
+        Assert.assertEquals(MockLatency.Distribution.EXPONENTIAL, workload.getQueryLatency().getDistribution());
+        Assert.assertEquals(4, workload.getMaxConcurrentQueries());
+        Assert.assertEquals(0.5D, workload.getQueryFailureRate(), 0);
+        Assert.assertEquals(10, workload.getResultRowCount());
+        Assert.assertNull(workload.getConnectLatency());
+    }
+
+    public void test_pool_discard() throws Exception {
+        DruidDataSource dataSource = new DruidDataSource();
+        dataSource.setDriver(driver);
+        dataSource.setUrl("jdbc:mock:case");
+        try {
+            workload.setQueryFailureRate(1);
+
+            Connection conn = dataSource.getConnection();
+            try {
+                conn.createStatement().executeQuery("SELECT 1");
+                fail();
+            } catch (SQLException e) {
+                Assert.assertEquals("08S01", e.getSQLState());
+            }
+            conn.close();
+
+            Assert.assertEquals(1, dataSource.getDiscardCount());
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    public void test_exceptionSorter() throws Exception {
+        MockExceptionSorter sorter = MockExceptionSorter.getInstance();
+
+        Assert.assertTrue(sorter.isExceptionFatal(new MockWorkloadException("Communications link failure", "08S01", 0)));
+        Assert.assertFalse(sorter.isExceptionFatal(new MockWorkloadException("Deadlock found", "40001", 1213)));
+        // only the failures of the workload, the other sql states of 08 are not fatal as before
+        Assert.assertFalse(sorter.isExceptionFatal(new SQLException("Communications link failure", "08S01")));
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.bvt.sql;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+
+import com.alibaba.druid.sql.SQLUtils;
+import com.alibaba.druid.sql.ast.SQLAttributeMap;
+import com.alibaba.druid.sql.ast.SQLExpr;
+import com.alibaba.druid.sql.ast.expr.SQLBinaryOpExpr;
+import com.alibaba.druid.sql.ast.expr.SQLIdentifierExpr;
+import com.alibaba.druid.sql.ast.expr.SQLIntegerExpr;
+import com.alibaba.druid.sql.parser.SQLExprParser;
+import com.alibaba.druid.sql.parser.SQLParserUtils;
+import com.alibaba.druid.util.JdbcConstants;
+
+public class CompactASTTest extends TestCase {
+
+    public void test_attributes() throws Exception {
+        SQLIdentifierExpr expr = new SQLIdentifierExpr("id");
+        Assert.assertNull(expr.getAttribute("a"));
+
+        for (int i = 0; i < 5; ++i) {
+            expr.putAttribute("k" + i, i);
+        }
+        expr.putAttribute("k2", "v2");
+        expr.putAttribute("n", null);
+
+        Map<String, Object> attributes = expr.getAttributes();
+        Assert.assertTrue(attributes instanceof SQLAttributeMap);
+        Assert.assertEquals(6, attributes.size());
+        Assert.assertEquals("v2", expr.getAttribute("k2"));
+        Assert.assertTrue(attributes.containsKey("n"));
+        Assert.assertEquals(4, attributes.remove("k4"));
+        Assert.assertFalse(attributes.containsKey("k4"));
+
+        Iterator<Map.Entry<String, Object>> iter = attributes.entrySet().iterator();
+        while (iter.hasNext()) {
+            if (iter.next().getKey().equals("k0")) {
+                iter.remove();
+            }
+        }
+        Assert.assertEquals(4, attributes.size());
+        Assert.assertEquals(1, expr.getAttribute("k1"));
+
+        expr.addBeforeComment("-- c");
+        Assert.assertTrue(expr.hasBeforeComment());
+    }
+
+    public void test_symbols() throws Exception {
+        SQLExpr expr1 = parse("user_name = 12345");
+        SQLExpr expr2 = parse("user_name = 12345");
+
+        SQLIdentifierExpr name1 = (SQLIdentifierExpr) ((SQLBinaryOpExpr) expr1).getLeft();
+        SQLIdentifierExpr name2 = (SQLIdentifierExpr) ((SQLBinaryOpExpr) expr2).getLeft();
+        Assert.assertEquals("user_name", name1.getName());
+        Assert.assertSame(name1.getName(), name2.getName());
+
+        SQLIntegerExpr value = (SQLIntegerExpr) ((SQLBinaryOpExpr) expr1).getRight();
+        Assert.assertEquals(12345, value.getNumber());
+        Assert.assertEquals(value, ((SQLBinaryOpExpr) expr2).getRight());
+        Assert.assertEquals(new SQLIntegerExpr(12345), value);
+        Assert.assertEquals("user_name = 12345", SQLUtils.toSQLString(expr1, JdbcConstants.MYSQL));
+
+        value.setNumber(7L);
+        Assert.assertEquals(7L, value.getNumber());
+    }
+
+    public void test_integers() throws Exception {
+        String[] values = { "0", "7", "999999999", "1000000000", "2147483647", "2147483648", "9223372036854775808" };
+        for (String text : values) {
+            SQLIntegerExpr value = (SQLIntegerExpr) ((SQLBinaryOpExpr) parse("id = " + text)).getRight();
+            SQLIntegerExpr expected = (SQLIntegerExpr) SQLUtils.toSQLExpr(text, JdbcConstants.MYSQL);
+            Assert.assertEquals(text, expected.getNumber(), value.getNumber());
+            Assert.assertSame(text, value.getNumber(), value.getNumber());
+        }
+    }
+
+    private static SQLExpr parse(String sql) {
+        SQLExprParser parser = SQLParserUtils.createExprParser(sql, JdbcConstants.MYSQL);
+        parser.getLexer().setCompactAST(true);
+        return parser.expr();
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.bvt.sql;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+
+import com.alibaba.druid.sql.SQLUtils;
+import com.alibaba.druid.sql.ast.SQLStatement;
+import com.alibaba.druid.sql.ast.expr.SQLCharExpr;
+import com.alibaba.druid.sql.ast.expr.SQLIntegerExpr;
+import com.alibaba.druid.sql.ast.expr.SQLMethodInvokeExpr;
+import com.alibaba.druid.sql.ast.statement.SQLInsertStatement;
+import com.alibaba.druid.sql.ast.statement.SQLInsertStatement.ValuesClause;
+import com.alibaba.druid.sql.parser.SQLParserUtils;
+import com.alibaba.druid.sql.parser.SQLStatementParser;
+import com.alibaba.druid.sql.visitor.ParameterizedOutputVisitorUtils;
+import com.alibaba.druid.util.JdbcConstants;
+
+public class InsertLazyValuesTest extends TestCase {
+
+    public void test_mysql() throws Exception {
+        String sql = "insert into t_user (id, name, memo) values (1, 'a)b', concat('x', '(')), (2, 'it\\'s', null);";
+        SQLInsertStatement stmt = parse(sql, JdbcConstants.MYSQL);
+
+        Assert.assertEquals("t_user", stmt.getTableName().getSimpleName());
+
+        List<ValuesClause> valuesList = stmt.getValuesList();
+        Assert.assertEquals(2, valuesList.size());
+        Assert.assertTrue(valuesList.get(0).isLazy());
+        Assert.assertTrue(valuesList.get(1).isLazy());
+
+        String text = SQLUtils.toSQLString(stmt, JdbcConstants.MYSQL);
+        Assert.assertTrue(text, text.indexOf("(1, 'a)b', concat('x', '('))") != -1);
+        Assert.assertTrue(text, text.indexOf("(2, 'it\\'s', null)") != -1);
+        Assert.assertTrue(valuesList.get(0).isLazy());
+
+        ValuesClause values = valuesList.get(0);
+        Assert.assertEquals(3, values.getValues().size());
+        Assert.assertFalse(values.isLazy());
+        Assert.assertEquals(1, ((SQLIntegerExpr) values.getValues().get(0)).getNumber().intValue());
+        Assert.assertEquals("a)b", ((SQLCharExpr) values.getValues().get(1)).getText());
+        Assert.assertTrue(values.getValues().get(2) instanceof SQLMethodInvokeExpr);
+        Assert.assertSame(values, values.getValues().get(0).getParent());
+
+        Assert.assertEquals("it's", ((SQLCharExpr) valuesList.get(1).getValues().get(1)).getText());
+        Assert.assertEquals(SQLUtils.toSQLString(SQLUtils.parseStatements(sql, JdbcConstants.MYSQL),
+                                                 JdbcConstants.MYSQL),
+                            SQLUtils.toSQLString(stmt, JdbcConstants.MYSQL));
+    }
+
+    public void test_mysql_parameterized() throws Exception {
+        String sql = "insert into t (id, name) values (1, 'a'), (2, 'b'), (3, 'c')";
+        SQLInsertStatement stmt = parse(sql, JdbcConstants.MYSQL);
+
+        List<SQLStatement> stmtList = new ArrayList<SQLStatement>();
+        stmtList.add(stmt);
+        Assert.assertEquals(ParameterizedOutputVisitorUtils.parameterize(sql, JdbcConstants.MYSQL),
+                            ParameterizedOutputVisitorUtils.parameterize(stmtList, JdbcConstants.MYSQL));
+        Assert.assertFalse(stmt.getValuesList().get(0).isLazy());
+        Assert.assertTrue(stmt.getValuesList().get(1).isLazy());
+    }
+
+    public void test_oracle() throws Exception {
+        String sql = "INSERT INTO t (id, name) VALUES (1, 'a''b')";
+        SQLInsertStatement stmt = parse(sql, JdbcConstants.ORACLE);
+
+        ValuesClause values = stmt.getValuesList().get(0);
+        Assert.assertTrue(values.isLazy());
+        Assert.assertEquals("a'b", ((SQLCharExpr) values.getValues().get(1)).getText());
+    }
+
+    public void test_postgresql() throws Exception {
+        String sql = "INSERT INTO t (id, name) VALUES (1, 'a'), (2, 'b') RETURNING id";
+        SQLInsertStatement stmt = parse(sql, JdbcConstants.POSTGRESQL);
+
+        Assert.assertEquals(2, stmt.getValuesList().size());
+        Assert.assertTrue(stmt.getValuesList().get(1).isLazy());
+        Assert.assertEquals(2, stmt.getValuesList().get(1).getValues().size());
+    }
+
+    public void test_postgresql_escape() throws Exception {
+        String sql = "INSERT INTO t (id, name) VALUES (1, 'a\\')b'), (2, 'b')";
+        SQLInsertStatement stmt = parse(sql, JdbcConstants.POSTGRESQL);
+
+        Assert.assertEquals(2, stmt.getValuesList().size());
+        Assert.assertEquals(2, stmt.getValuesList().get(0).getValues().size());
+    }
+
+    public void test_concurrent() throws Exception {
+        String sql = "insert into t (id, name) values (1, 'a'), (2, 'b')";
+        for (int n = 0; n < 100; ++n) {
+            final ValuesClause values = parse(sql, JdbcConstants.MYSQL).getValuesList().get(1);
+            final List<?>[] results = new List<?>[4];
+            Thread[] threads = new Thread[results.length];
+            for (int i = 0; i < threads.length; ++i) {
+                final int index = i;
+                threads[i] = new Thread() {
+
+                    public void run() {
+                        results[index] = values.getValues();
+                    }
+                };
+                threads[i].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            for (List<?> result : results) {
+                Assert.assertSame(results[0], result);
+            }
+            Assert.assertEquals(2, results[0].size());
+        }
+    }
+
+    public void test_sqlserver() throws Exception {
+        String sql = "INSERT INTO t (id, name) VALUES (1, /* ) */ 'a'), (2, 'b')";
+        SQLInsertStatement stmt = parse(sql, JdbcConstants.SQL_SERVER);
+
+        Assert.assertEquals(2, stmt.getValuesList().size());
+        Assert.assertEquals(2, stmt.getValuesList().get(0).getValues().size());
+    }
+
+    public void test_parseValuesSize() throws Exception {
+        String sql = "insert into t (id) values (1), (2), (3), (4)";
+        SQLStatementParser parser = SQLParserUtils.createSQLStatementParser(sql, JdbcConstants.MYSQL);
+        parser.setLazyValues(true);
+        parser.setParseCompleteValues(false);
+        parser.setParseValuesSize(2);
+
+        SQLInsertStatement stmt = (SQLInsertStatement) parser.parseStatementList().get(0);
+        Assert.assertEquals(2, stmt.getValuesList().size());
+        Assert.assertTrue(stmt.getValuesList().get(1).isLazy());
+    }
+
+    private static SQLInsertStatement parse(String sql, String dbType) {
+        SQLStatementParser parser = SQLParserUtils.createSQLStatementParser(sql, dbType);
+        parser.setLazyValues(true);
+        List<SQLStatement> stmtList = parser.parseStatementList();
+        Assert.assertEquals(1, stmtList.size());
+        return (SQLInsertStatement) stmtList.get(0);
+    }
+}
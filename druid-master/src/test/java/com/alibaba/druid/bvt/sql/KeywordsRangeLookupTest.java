@@ -0,0 +1,76 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.bvt.sql;
+
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+
+import com.alibaba.druid.sql.dialect.mysql.parser.MySqlLexer;
+import com.alibaba.druid.sql.dialect.odps.parser.OdpsLexer;
+import com.alibaba.druid.sql.dialect.oracle.parser.OracleLexer;
+import com.alibaba.druid.sql.dialect.postgresql.parser.PGLexer;
+import com.alibaba.druid.sql.parser.Keywords;
+import com.alibaba.druid.sql.parser.Lexer;
+import com.alibaba.druid.sql.parser.Token;
+
+public class KeywordsRangeLookupTest extends TestCase {
+
+    public void test_allKeywords() throws Exception {
+        Keywords[] keywordsArray = new Keywords[] { Keywords.DEFAULT_KEYWORDS, //
+                MySqlLexer.DEFAULT_MYSQL_KEYWORDS, //
+                OracleLexer.DEFAULT_ORACLE_KEYWORDS, //
+                PGLexer.DEFAULT_PG_KEYWORDS, //
+                OdpsLexer.DEFAULT_ODPS_KEYWORDS };
+
+        for (Keywords keywords : keywordsArray) {
+            for (Map.Entry<String, Token> entry : keywords.getKeywords().entrySet()) {
+                String key = entry.getKey();
+                String text = "x " + key.toLowerCase() + " y";
+                Assert.assertEquals(key, keywords.getKeyword(key), keywords.getKeyword(text, 2, key.length()));
+                Assert.assertEquals(key, keywords.getKeyword(key), keywords.getKeyword(key, 0, key.length()));
+            }
+
+            Assert.assertNull(keywords.getKeyword("selectx", 0, 7));
+            Assert.assertNull(keywords.getKeyword("xselect", 0, 6));
+            Assert.assertEquals(Token.SELECT, keywords.getKeyword("SeLeCt", 0, 6));
+        }
+    }
+
+    public void test_lazyStringVal() throws Exception {
+        Lexer lexer = new MySqlLexer("select fid, `name` from t_user");
+        lexer.nextToken();
+        Assert.assertEquals(Token.SELECT, lexer.token());
+        Assert.assertEquals("select", lexer.stringVal());
+
+        lexer.nextToken();
+        Assert.assertEquals(Token.IDENTIFIER, lexer.token());
+        Lexer.SavePoint mark = lexer.mark();
+
+        lexer.nextToken();
+        Assert.assertEquals(Token.COMMA, lexer.token());
+        Assert.assertEquals("fid", lexer.stringVal());
+
+        lexer.nextToken();
+        Assert.assertEquals("`name`", lexer.stringVal());
+
+        lexer.reset(mark);
+        Assert.assertEquals(Token.IDENTIFIER, lexer.token());
+        Assert.assertEquals("fid", lexer.stringVal());
+    }
+}
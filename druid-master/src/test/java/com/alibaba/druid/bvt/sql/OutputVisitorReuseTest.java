@@ -0,0 +1,80 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.bvt.sql;
+
+import java.sql.Timestamp;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+
+import com.alibaba.druid.sql.SQLUtils;
+import com.alibaba.druid.sql.ast.SQLStatement;
+import com.alibaba.druid.sql.dialect.mysql.visitor.MySqlOutputVisitor;
+import com.alibaba.druid.sql.visitor.ParameterizedOutputVisitorUtils;
+import com.alibaba.druid.util.JdbcConstants;
+
+public class OutputVisitorReuseTest extends TestCase {
+
+    public void test_reset() throws Exception {
+        List<SQLStatement> stmtList = SQLUtils.parseStatements("select * from t where id = 1; select * from t2 where id in (1, 2)",
+                                                               JdbcConstants.MYSQL);
+
+        StringBuilder out = new StringBuilder();
+        MySqlOutputVisitor visitor = new MySqlOutputVisitor(out, true);
+
+        stmtList.get(0).accept(visitor);
+        Assert.assertEquals("SELECT *\nFROM t\nWHERE id = ?;", out.toString());
+        Assert.assertEquals(1, visitor.getReplaceCount());
+
+        visitor.reset();
+        Assert.assertEquals(0, out.length());
+        Assert.assertEquals(0, visitor.getReplaceCount());
+
+        stmtList.get(1).accept(visitor);
+        Assert.assertEquals("SELECT *\nFROM t2\nWHERE id IN (?)", out.toString());
+        Assert.assertEquals(1, visitor.getReplaceCount());
+    }
+
+    public void test_date() throws Exception {
+        StringBuilder out = new StringBuilder();
+        MySqlOutputVisitor visitor = new MySqlOutputVisitor(out);
+
+        Date date = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").parse("2017-06-01 12:30:00");
+        visitor.print(date);
+        visitor.print(',');
+        visitor.print(new Timestamp(date.getTime()));
+        Assert.assertEquals("'2017-06-01','2017-06-01 12:30:00.000'", out.toString());
+    }
+
+    public void test_parameterize() throws Exception {
+        for (int i = 0; i < 3; ++i) {
+            Assert.assertEquals("SELECT *\nFROM t\nWHERE id = ?",
+                                ParameterizedOutputVisitorUtils.parameterize("select * from t where id = " + i,
+                                                                             JdbcConstants.MYSQL));
+        }
+
+        String sql = "SELECT *\nFROM t\nWHERE id = ?";
+        Assert.assertSame(sql, ParameterizedOutputVisitorUtils.parameterize(sql, JdbcConstants.MYSQL));
+
+        Assert.assertEquals("SELECT *\nFROM t\nWHERE id = ?",
+                            ParameterizedOutputVisitorUtils.parameterize("select * from t where id = 1",
+                                                                         JdbcConstants.ORACLE));
+    }
+}
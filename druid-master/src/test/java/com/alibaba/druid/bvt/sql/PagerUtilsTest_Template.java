@@ -0,0 +1,88 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.bvt.sql;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+
+import com.alibaba.druid.sql.PagerUtils;
+import com.alibaba.druid.sql.SQLUtils;
+import com.alibaba.druid.sql.ast.statement.SQLSelectStatement;
+import com.alibaba.druid.util.JdbcConstants;
+
+public class PagerUtilsTest_Template extends TestCase {
+
+    protected void setUp() throws Exception {
+        PagerUtils.clearTemplateCache();
+    }
+
+    private static String parseAndLimit(String sql, String dbType, int offset, int count) {
+        SQLSelectStatement stmt = (SQLSelectStatement) SQLUtils.parseStatements(sql, dbType).get(0);
+        return PagerUtils.limit(stmt.getSelect(), dbType, offset, count);
+    }
+
+    private void assertLimit(String sql, String dbType) {
+        int[][] pages = { { 0, 10 }, { 20, 10 }, { 0, 1 }, { 1, 1 }, { 100, 50 }, { 0, 10 }, { 30, 5 } };
+        for (int[] page : pages) {
+            Assert.assertEquals(parseAndLimit(sql, dbType, page[0], page[1]),
+                                PagerUtils.limit(sql, dbType, page[0], page[1]));
+        }
+    }
+
+    public void test_dialects() throws Exception {
+        String sql = "select id, name from t where age > 10 order by id";
+        assertLimit(sql, JdbcConstants.MYSQL);
+        assertLimit(sql, JdbcConstants.POSTGRESQL);
+        assertLimit(sql, JdbcConstants.ORACLE);
+        assertLimit(sql, JdbcConstants.SQL_SERVER);
+        assertLimit(sql, JdbcConstants.DB2);
+
+        assertLimit("select * from t limit 5, 100", JdbcConstants.MYSQL);
+        assertLimit("select * from t where rownum <= 20", JdbcConstants.ORACLE);
+        assertLimit("select * from a union select * from b", JdbcConstants.SQL_SERVER);
+        assertLimit("select * from a union select * from b", JdbcConstants.ORACLE);
+
+        // 9 sql and db type pairs, a template with and one without offset for each
+        Assert.assertEquals(18, PagerUtils.getTemplateCacheSize());
+    }
+
+    public void test_literal() throws Exception {
+        // the sql contains the values the template is probed with
+        assertLimit("select * from t where id in (123456789, 987654321, 1111111110)", JdbcConstants.MYSQL);
+        assertLimit("select * from t where id = 314159265 order by id", JdbcConstants.ORACLE);
+        assertLimit("select * from t where id > 10 and name = 'x' order by id", JdbcConstants.ORACLE);
+    }
+
+    public void test_count() throws Exception {
+        String sql = "select id, name from t where age > 10 order by id";
+        String count = PagerUtils.count(sql, JdbcConstants.MYSQL);
+        Assert.assertEquals("SELECT COUNT(*)\nFROM t\nWHERE age > 10", count);
+        Assert.assertSame(count, PagerUtils.count(sql, JdbcConstants.MYSQL));
+    }
+
+    public void test_error() throws Exception {
+        for (int i = 0; i < 2; ++i) {
+            try {
+                PagerUtils.limit("delete from t", JdbcConstants.MYSQL, 0, 10);
+                fail();
+            } catch (IllegalArgumentException e) {
+                // not a select
+            }
+        }
+        Assert.assertEquals(0, PagerUtils.getTemplateCacheSize());
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.bvt.sql;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+
+import com.alibaba.druid.sql.parser.SQLFingerprintUtils;
+import com.alibaba.druid.util.JdbcConstants;
+
+public class SQLFingerprintUtilsTest extends TestCase {
+
+    public void test_select() throws Exception {
+        String sql = "select id, count(*) from t_user /* c */ where id in (1, 2, 3) and name = 'a' and t_user.age > -1";
+        Assert.assertEquals("SELECT id, count(*) FROM t_user WHERE id IN (?) AND name = ? AND t_user.age > ?",
+                            SQLFingerprintUtils.fingerprint(sql, JdbcConstants.MYSQL));
+
+        String sql2 = "SELECT ID,COUNT(*)\n  FROM t_user WHERE id IN (4) AND name = 'b' AND t_user.age > 30";
+        Assert.assertEquals(SQLFingerprintUtils.fingerprint(sql, JdbcConstants.MYSQL),
+                            SQLFingerprintUtils.fingerprint(sql2, JdbcConstants.MYSQL));
+        Assert.assertEquals(SQLFingerprintUtils.fingerprintHash64(sql, JdbcConstants.MYSQL),
+                            SQLFingerprintUtils.fingerprintHash64(sql2, JdbcConstants.MYSQL));
+
+        Assert.assertFalse(SQLFingerprintUtils.fingerprintHash64(sql, JdbcConstants.MYSQL) == SQLFingerprintUtils.fingerprintHash64("select name from t_user",
+                                                                                                                                     JdbcConstants.MYSQL));
+    }
+
+    public void test_in_subquery() throws Exception {
+        Assert.assertEquals("SELECT * FROM t WHERE id IN (SELECT id FROM t2 WHERE type = ?)",
+                            SQLFingerprintUtils.fingerprint("select * from t where id in (select id from t2 where type = 1)",
+                                                            JdbcConstants.MYSQL));
+    }
+
+    public void test_insert() throws Exception {
+        Assert.assertEquals("INSERT INTO t(id, name) VALUES (?, ?) ON duplicate KEY UPDATE name = ?",
+                            SQLFingerprintUtils.fingerprint("insert into t (id, name) values (1, 'a'), (2, 'b'), (3, now()) on duplicate key update name = 'x'",
+                                                            JdbcConstants.MYSQL));
+    }
+
+    public void test_quoted() throws Exception {
+        Assert.assertEquals("SELECT `Name` FROM `T_User` WHERE `Name` = ? AND age > ?",
+                            SQLFingerprintUtils.fingerprint("select `Name` from `T_User` where `Name` = 'a' and AGE > 1",
+                                                            JdbcConstants.MYSQL));
+        Assert.assertFalse(SQLFingerprintUtils.fingerprintHash64("select `Name` from t", JdbcConstants.MYSQL) == SQLFingerprintUtils.fingerprintHash64("select `name` from t",
+                                                                                                                                                     JdbcConstants.MYSQL));
+        // the oracle lexer drops the quotes, the case is kept
+        Assert.assertEquals("SELECT Name FROM t",
+                            SQLFingerprintUtils.fingerprint("select \"Name\" from T", JdbcConstants.ORACLE));
+    }
+
+    public void test_oracle() throws Exception {
+        Assert.assertEquals("SELECT * FROM t WHERE id = :id AND d = ?",
+                            SQLFingerprintUtils.fingerprint("select * from t where id = :id and d = 1.5",
+                                                            JdbcConstants.ORACLE));
+    }
+}
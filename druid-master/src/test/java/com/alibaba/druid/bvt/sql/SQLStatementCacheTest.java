@@ -0,0 +1,106 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.bvt.sql;
+
+import java.util.Collections;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+
+import com.alibaba.druid.sql.SQLStatementCache;
+import com.alibaba.druid.sql.SQLUtils;
+import com.alibaba.druid.sql.visitor.ParameterizedOutputVisitorUtils;
+import com.alibaba.druid.util.JdbcConstants;
+
+public class SQLStatementCacheTest extends TestCase {
+
+    public void test_cache() throws Exception {
+        SQLStatementCache cache = new SQLStatementCache(1024);
+
+        String sql = "select id, name from t_user where id = 3";
+        String expected = "SELECT id, name\nFROM t_user\nWHERE id = ?";
+        Assert.assertEquals(expected, cache.getParameterized(sql, JdbcConstants.MYSQL));
+        Assert.assertEquals(0, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+
+        Assert.assertSame(cache.getParameterized(sql, JdbcConstants.MYSQL),
+                          cache.getParameterized(new String(sql), JdbcConstants.MYSQL));
+        Assert.assertEquals(2, cache.getHitCount());
+        Assert.assertEquals(sql.length() + expected.length(), cache.getWeight());
+
+        cache.getParameterized(sql, JdbcConstants.ORACLE);
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(2, cache.getMissCount());
+
+        cache.resetStat();
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.getWeight());
+        Assert.assertEquals(0, cache.getHitCount());
+    }
+
+    public void test_parameterized() throws Exception {
+        SQLStatementCache cache = new SQLStatementCache(1024 * 64);
+
+        String[][] sqls = { { JdbcConstants.MYSQL, "select * from t where id = ?" }, //
+                            { JdbcConstants.MYSQL, "select * from t /* x */ where id = ?" }, //
+                            { JdbcConstants.MYSQL, "select * from t where id in (1, 2, 3) -- x" }, //
+                            { JdbcConstants.MYSQL, "insert into t (id, v) values (15,col1*2), (16, 3)" }, //
+                            { JdbcConstants.MYSQL, "update t set a = a + 1 where id in (select id from t2) limit 5" }, //
+                            { JdbcConstants.ORACLE, "select * from (select rownum rn, t.* from t where t.id > :1) " //
+                                                    + "where rn between 1 and 10" }, //
+                            { JdbcConstants.POSTGRESQL, "delete from t where id in (1, 2) returning *" }, //
+                            { JdbcConstants.SQL_SERVER, "select top 10 id from t with (nolock) where id = 3" } };
+
+        for (String[] item : sqls) {
+            String dbType = item[0];
+            String sql = item[1];
+            String expected = ParameterizedOutputVisitorUtils.parameterize(sql, dbType);
+            Assert.assertEquals(expected, cache.getParameterized(sql, dbType));
+            Assert.assertEquals(expected, cache.getParameterized(sql, dbType));
+        }
+        Assert.assertEquals(sqls.length, cache.getHitCount());
+    }
+
+    public void test_refactor() throws Exception {
+        String sql = "insert into t (id, v) values (15,col1*2)";
+        SQLUtils.getStatementCache().getParameterized(sql, JdbcConstants.MYSQL);
+
+        // the statements are parsed for each call, the same as a fresh parse
+        Assert.assertEquals(SQLUtils.toSQLString(SQLUtils.parseStatements(sql, JdbcConstants.MYSQL), JdbcConstants.MYSQL),
+                            SQLUtils.refactor(sql, JdbcConstants.MYSQL, Collections.<String, String> emptyMap()));
+        Assert.assertTrue(SQLUtils.refactor(sql, JdbcConstants.MYSQL, Collections.<String, String> emptyMap())
+                                  .contains("(15, col1 * 2)"));
+    }
+
+    public void test_evict() throws Exception {
+        SQLStatementCache cache = new SQLStatementCache(100, 100);
+
+        for (int i = 0; i < 10; ++i) {
+            cache.getParameterized("select * from t where id = " + i, JdbcConstants.MYSQL);
+        }
+
+        Assert.assertTrue(cache.getWeight() <= 100);
+        Assert.assertEquals(10, cache.getMissCount());
+        Assert.assertEquals(10 - cache.size(), cache.getEvictCount());
+
+        String longSql = "select * from t where name = 'aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa'";
+        int size = cache.size();
+        Assert.assertEquals("SELECT *\nFROM t\nWHERE name = ?", cache.getParameterized(longSql, JdbcConstants.MYSQL));
+        Assert.assertEquals(size, cache.size());
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.bvt.sql;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+
+import com.alibaba.druid.sql.SQLUtils;
+import com.alibaba.druid.sql.ast.SQLStatement;
+import com.alibaba.druid.sql.ast.SQLStatementImpl;
+import com.alibaba.druid.sql.parser.SQLStatementIncrementalParser;
+import com.alibaba.druid.util.JdbcConstants;
+
+public class SQLStatementIncrementalParserTest extends TestCase {
+
+    public void test_edit() throws Exception {
+        String sql = "select 1;\nupdate t set a = 1 where id = 2;\n-- c;\ndelete from t where id = 3;\nselect 4";
+
+        SQLStatementIncrementalParser parser = new SQLStatementIncrementalParser(JdbcConstants.MYSQL);
+        List<SQLStatement> stmts = parser.parse(sql);
+        Assert.assertEquals(4, stmts.size());
+        assertRange(sql, stmts);
+
+        int pos = sql.indexOf("id = 2");
+        List<SQLStatement> stmts2 = parser.edit(pos, pos + 6, "id in (20, 21)");
+        Assert.assertEquals(4, stmts2.size());
+        Assert.assertSame(stmts.get(0), stmts2.get(0));
+        Assert.assertNotSame(stmts.get(1), stmts2.get(1));
+        Assert.assertSame(stmts.get(2), stmts2.get(2));
+        Assert.assertSame(stmts.get(3), stmts2.get(3));
+        Assert.assertEquals(1, parser.getReparsedStatements().size());
+        assertRange(parser.getSql(), stmts2);
+        assertSameAsFullParse(parser);
+
+        // remove the ';', two statements are parsed as one segment
+        pos = parser.getSql().indexOf("21);") + 3;
+        parser.edit(pos, pos + 1, "");
+        assertSameAsFullParse(parser);
+
+        parser.edit(pos, pos, ";");
+        assertSameAsFullParse(parser);
+        assertRange(parser.getSql(), parser.getStatementList());
+
+        // a segment with an error does not fail the others
+        pos = parser.getSql().indexOf("where id = 3");
+        parser.edit(pos, pos + 5, "where where");
+        Assert.assertEquals(1, parser.getErrors().size());
+        Assert.assertEquals(3, parser.getStatementList().size());
+
+        parser.edit(pos, pos + 11, "where");
+        Assert.assertEquals(0, parser.getErrors().size());
+        Assert.assertEquals(4, parser.getStatementList().size());
+
+        // append
+        parser.edit(parser.getSql().length(), parser.getSql().length(), ";\ninsert into t values (5)");
+        Assert.assertEquals(5, parser.getStatementList().size());
+        assertSameAsFullParse(parser);
+    }
+
+    public void test_delimiter() throws Exception {
+        String sql = "select 1;\nDELIMITER $$\nselect 2 $$\nselect 3 $$\nDELIMITER ;\nselect 4;";
+
+        SQLStatementIncrementalParser parser = new SQLStatementIncrementalParser(JdbcConstants.MYSQL);
+        Assert.assertEquals(4, parser.parse(sql).size());
+
+        int pos = sql.indexOf("3 $$");
+        parser.edit(pos, pos + 1, "30");
+        Assert.assertEquals(4, parser.getStatementList().size());
+        Assert.assertEquals(1, parser.getReparsedStatements().size());
+        assertSameAsFullParse(parser);
+
+        // the delimiter line is removed, the following lines are split by ';' only
+        pos = parser.getSql().indexOf("DELIMITER $$");
+        parser.edit(pos, pos + "DELIMITER $$\n".length(), "");
+        assertSameAsFullParse(parser);
+    }
+
+    public void test_procedure() throws Exception {
+        String sql = "select 1;\ncreate procedure p() begin select 2; select 3; end;\nselect 4;";
+
+        SQLStatementIncrementalParser parser = new SQLStatementIncrementalParser(JdbcConstants.MYSQL);
+        Assert.assertEquals(3, parser.parse(sql).size());
+
+        int pos = sql.indexOf("select 3");
+        parser.edit(pos, pos + 8, "select 30");
+        Assert.assertEquals(3, parser.getStatementList().size());
+        Assert.assertEquals(0, parser.getErrors().size());
+        assertSameAsFullParse(parser);
+    }
+
+    private static void assertRange(String sql, List<SQLStatement> stmts) {
+        for (SQLStatement stmt : stmts) {
+            SQLStatementImpl impl = (SQLStatementImpl) stmt;
+            String text = sql.substring(impl.getSourceStart(), impl.getSourceEnd());
+            Assert.assertEquals(SQLUtils.toSQLString(SQLUtils.parseStatements(text, JdbcConstants.MYSQL),
+                                                     JdbcConstants.MYSQL),
+                                SQLUtils.toSQLString(stmt, JdbcConstants.MYSQL));
+        }
+    }
+
+    private static void assertSameAsFullParse(SQLStatementIncrementalParser parser) {
+        SQLStatementIncrementalParser full = new SQLStatementIncrementalParser(parser.getDbType());
+        Assert.assertEquals(SQLUtils.toSQLString(full.parse(parser.getSql()), JdbcConstants.MYSQL),
+                            SQLUtils.toSQLString(parser.getStatementList(), JdbcConstants.MYSQL));
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.bvt.sql;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+
+import com.alibaba.druid.sql.SQLUtils;
+import com.alibaba.druid.sql.ast.SQLStatement;
+import com.alibaba.druid.sql.parser.ParserException;
+import com.alibaba.druid.sql.parser.SQLStatementParallelParser;
+import com.alibaba.druid.util.JdbcConstants;
+
+public class SQLStatementParallelParserTest extends TestCase {
+
+    public void test_order() throws Exception {
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < 500; ++i) {
+            buf.append("create table t_" + i + " (id bigint primary key, name varchar(20) default ';');\n");
+            buf.append("insert into t_" + i + " values (" + i + ", 'a;b');\n");
+        }
+        String sql = buf.toString();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            SQLStatementParallelParser parser = new SQLStatementParallelParser(JdbcConstants.MYSQL, executor, 4);
+            List<SQLStatement> stmtList = parser.parse(sql);
+
+            List<SQLStatement> expected = SQLUtils.parseStatements(sql, JdbcConstants.MYSQL);
+            Assert.assertEquals(1000, stmtList.size());
+            Assert.assertEquals(SQLUtils.toSQLString(expected, JdbcConstants.MYSQL),
+                                SQLUtils.toSQLString(stmtList, JdbcConstants.MYSQL));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public void test_mysql_delimiter() throws Exception {
+        String sql = "select 1;\n" //
+                     + "DELIMITER $$\n" //
+                     + "create procedure p() begin select 2; select 3; end$$\n" //
+                     + "DELIMITER ;\n" //
+                     + "select 4; # ; comment\n" //
+                     + "select 5";
+
+        List<String> segments = SQLStatementParallelParser.split(sql, JdbcConstants.MYSQL);
+        Assert.assertEquals(4, segments.size());
+        Assert.assertEquals("\ncreate procedure p() begin select 2; select 3; end", segments.get(1));
+
+        List<SQLStatement> stmtList = new SQLStatementParallelParser(JdbcConstants.MYSQL).parse(sql);
+        Assert.assertEquals(4, stmtList.size());
+    }
+
+    public void test_oracle_block() throws Exception {
+        String sql = "select 1 from dual;\n" //
+                     + "begin\n" //
+                     + "  update t set a = 1;\n" //
+                     + "  update t set b = 2;\n" //
+                     + "end;\n" //
+                     + "/\n" //
+                     + "select 2 from dual";
+
+        List<String> segments = SQLStatementParallelParser.split(sql, JdbcConstants.ORACLE);
+        Assert.assertEquals(3, segments.size());
+        Assert.assertEquals("\nbegin\n  update t set a = 1;\n  update t set b = 2;\nend;\n", segments.get(1));
+
+        SQLStatementParallelParser parser = new SQLStatementParallelParser(JdbcConstants.ORACLE);
+        parser.setBatchSize(1);
+        List<SQLStatement> stmtList = parser.parse(sql);
+        Assert.assertEquals(3, stmtList.size());
+    }
+
+    public void test_mysql_block() throws Exception {
+        String sql = "select 1;\n" //
+                     + "create procedure p() begin\n" //
+                     + "  if x > 1 then update t set a = 1; end if;\n" //
+                     + "  while x > 1 do set x = x - 1; end while;\n" //
+                     + "end;\n" //
+                     + "create procedure p2() begin select 2; select 3; end;\n" //
+                     + "select 4;";
+
+        SQLStatementParallelParser parser = new SQLStatementParallelParser(JdbcConstants.MYSQL);
+        parser.setBatchSize(1);
+        List<SQLStatement> stmtList = parser.parse(sql);
+        Assert.assertEquals(4, stmtList.size());
+        Assert.assertEquals(SQLUtils.toSQLString(SQLUtils.parseStatements(sql, JdbcConstants.MYSQL), JdbcConstants.MYSQL),
+                            SQLUtils.toSQLString(stmtList, JdbcConstants.MYSQL));
+    }
+
+    public void test_error() throws Exception {
+        try {
+            new SQLStatementParallelParser(JdbcConstants.MYSQL).parse("select 1; select from; select 2;");
+            fail();
+        } catch (ParserException e) {
+            // syntax error in the second statement
+        }
+    }
+}
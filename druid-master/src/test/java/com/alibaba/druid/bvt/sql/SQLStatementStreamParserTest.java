@@ -0,0 +1,127 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.bvt.sql;
+
+import java.io.StringReader;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+
+import com.alibaba.druid.sql.SQLUtils;
+import com.alibaba.druid.sql.ast.SQLStatement;
+import com.alibaba.druid.sql.parser.ParserException;
+import com.alibaba.druid.sql.parser.SQLStatementStreamParser;
+import com.alibaba.druid.util.JdbcConstants;
+
+public class SQLStatementStreamParserTest extends TestCase {
+
+    public void test_mysql() throws Exception {
+        String sql = "insert into t (id, name) values (1, 'a;b');\n" //
+                     + "-- comment ; here\n" //
+                     + "# mysql comment ;\n" //
+                     + "update t set name = 'it\\'s; \"x\"' where id = 1; /* block ; comment */\n" //
+                     + "delete from `t;1` where id = 2;\n" //
+                     + "select * from t";
+
+        for (int bufferSize = 1; bufferSize < 16; ++bufferSize) {
+            assertSame(sql, JdbcConstants.MYSQL, bufferSize);
+        }
+        assertSame(sql, JdbcConstants.MYSQL, 1024);
+    }
+
+    public void test_mysql_delimiter() throws Exception {
+        String sql = "select 1;\n" //
+                     + "DELIMITER $$\n" //
+                     + "create procedure p() begin select 2; select 3; end$$\n" //
+                     + "DELIMITER ;\n" //
+                     + "select 4; # ; comment\n" //
+                     + "select 5";
+
+        for (int bufferSize = 1; bufferSize < 16; ++bufferSize) {
+            SQLStatementStreamParser parser = new SQLStatementStreamParser(new StringReader(sql), JdbcConstants.MYSQL,
+                                                                           bufferSize);
+            List<SQLStatement> list = parser.readAll();
+            Assert.assertEquals(4, list.size());
+            Assert.assertTrue(SQLUtils.toSQLString(list.get(3), JdbcConstants.MYSQL).endsWith("SELECT 5"));
+        }
+    }
+
+    public void test_mysql_block() throws Exception {
+        StringBuilder buf = new StringBuilder("create procedure p() begin\n");
+        for (int i = 0; i < 100; ++i) {
+            buf.append("  if x > " + i + " then update t set a = " + i + "; end if;\n");
+        }
+        buf.append("  case x when 1 then select 1; else select 2; end case;\n");
+        buf.append("end;\n");
+        buf.append("select 2;");
+        String sql = buf.toString();
+
+        SQLStatementStreamParser parser = new SQLStatementStreamParser(new StringReader(sql), JdbcConstants.MYSQL, 64);
+        List<SQLStatement> list = parser.readAll();
+        Assert.assertEquals(2, list.size());
+        Assert.assertEquals("SELECT 2;", SQLUtils.toSQLString(list.get(1), JdbcConstants.MYSQL));
+    }
+
+    public void test_oracle_block() throws Exception {
+        String sql = "create or replace procedure p1 as begin update t set x = 1; commit; end;\n" //
+                     + "select * from dual;";
+
+        SQLStatementStreamParser parser = new SQLStatementStreamParser(new StringReader(sql), JdbcConstants.ORACLE, 7);
+        List<SQLStatement> list = parser.readAll();
+        Assert.assertEquals(SQLUtils.parseStatements(sql, JdbcConstants.ORACLE).size(), list.size());
+        Assert.assertEquals(2, parser.getStatementCount());
+    }
+
+    public void test_error() throws Exception {
+        SQLStatementStreamParser parser = new SQLStatementStreamParser(new StringReader("select 1; selec x from;"),
+                                                                       JdbcConstants.MYSQL);
+        Assert.assertTrue(parser.hasNext());
+        parser.next();
+        try {
+            parser.hasNext();
+            fail();
+        } catch (ParserException e) {
+            // expected
+        }
+    }
+
+    public void test_maxStatementSize() throws Exception {
+        SQLStatementStreamParser parser = new SQLStatementStreamParser(new StringReader("select 'aaaaaaaaaaaaaaaaaaaaaaaa"),
+                                                                       JdbcConstants.MYSQL, 4);
+        parser.setMaxStatementSize(16);
+        try {
+            parser.hasNext();
+            fail();
+        } catch (ParserException e) {
+            // expected
+        }
+    }
+
+    private static void assertSame(String sql, String dbType, int bufferSize) {
+        List<SQLStatement> expected = SQLUtils.parseStatements(sql, dbType);
+
+        SQLStatementStreamParser parser = new SQLStatementStreamParser(new StringReader(sql), dbType, bufferSize);
+        List<SQLStatement> list = parser.readAll();
+        parser.close();
+
+        Assert.assertEquals(expected.size(), list.size());
+        for (int i = 0; i < expected.size(); ++i) {
+            Assert.assertEquals(SQLUtils.toSQLString(expected.get(i), dbType), SQLUtils.toSQLString(list.get(i), dbType));
+        }
+    }
+}
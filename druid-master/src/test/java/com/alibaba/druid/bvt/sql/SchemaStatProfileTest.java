@@ -0,0 +1,94 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.bvt.sql;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+
+import com.alibaba.druid.sql.SQLUtils;
+import com.alibaba.druid.sql.ast.SQLStatement;
+import com.alibaba.druid.sql.visitor.SchemaStatVisitor;
+import com.alibaba.druid.util.JdbcConstants;
+
+public class SchemaStatProfileTest extends TestCase {
+
+    private final String sql = "select a.id, b.name, count(*) from t_user a join t_order b on a.id = b.user_id"
+                               + " where a.id in (select user_id from t_vip where level > 3) and b.status = 1"
+                               + " group by a.id, b.name order by a.id";
+
+    public void test_tables() throws Exception {
+        SchemaStatVisitor visitor = visit(SchemaStatVisitor.Profile.Tables);
+
+        Assert.assertEquals(3, visitor.getTables().size());
+        Assert.assertTrue(visitor.containsTable("t_user"));
+        Assert.assertTrue(visitor.containsTable("t_order"));
+        Assert.assertTrue(visitor.containsTable("t_vip"));
+        SchemaStatVisitor full = visit(SchemaStatVisitor.Profile.Full);
+        Assert.assertEquals(full.getTables().toString(), visitor.getTables().toString());
+        Assert.assertEquals(full.getTableStat("t_vip").getSelectCount(), visitor.getTableStat("t_vip").getSelectCount());
+
+        Assert.assertEquals(0, visitor.getColumns().size());
+        Assert.assertEquals(0, visitor.getConditions().size());
+        Assert.assertEquals(0, visitor.getRelationships().size());
+        Assert.assertEquals(0, visitor.getOrderByColumns().size());
+        Assert.assertEquals(0, visitor.getGroupByColumns().size());
+        Assert.assertEquals(0, visitor.getAggregateFunctions().size());
+    }
+
+    public void test_columns() throws Exception {
+        SchemaStatVisitor full = visit(SchemaStatVisitor.Profile.Full);
+        SchemaStatVisitor visitor = visit(SchemaStatVisitor.Profile.Columns);
+
+        Assert.assertEquals(full.getTables().toString(), visitor.getTables().toString());
+        Assert.assertEquals(full.getColumns().toString(), visitor.getColumns().toString());
+        Assert.assertTrue(visitor.containsColumn("t_order", "user_id"));
+
+        Assert.assertEquals(0, visitor.getConditions().size());
+        Assert.assertEquals(0, visitor.getRelationships().size());
+        Assert.assertEquals(0, visitor.getOrderByColumns().size());
+        Assert.assertEquals(0, visitor.getGroupByColumns().size());
+
+        Assert.assertTrue(full.getConditions().size() > 0);
+        Assert.assertEquals(1, full.getRelationships().size());
+        Assert.assertEquals(1, full.getOrderByColumns().size());
+        Assert.assertEquals(2, full.getGroupByColumns().size());
+    }
+
+    public void test_reset() throws Exception {
+        SchemaStatVisitor visitor = visit(SchemaStatVisitor.Profile.Tables);
+        visitor.reset();
+
+        for (SQLStatement stmt : SQLUtils.parseStatements("delete from t_log where id = 1", JdbcConstants.MYSQL)) {
+            stmt.accept(visitor);
+        }
+        Assert.assertEquals(1, visitor.getTables().size());
+        Assert.assertTrue(visitor.containsTable("t_log"));
+        Assert.assertEquals("{t_log=Delete}", visitor.getTables().toString());
+    }
+
+    private SchemaStatVisitor visit(SchemaStatVisitor.Profile profile) {
+        List<SQLStatement> statementList = SQLUtils.parseStatements(sql, JdbcConstants.MYSQL);
+        SchemaStatVisitor visitor = SQLUtils.createSchemaStatVisitor(JdbcConstants.MYSQL);
+        visitor.setProfile(profile);
+        for (SQLStatement stmt : statementList) {
+            stmt.accept(visitor);
+        }
+        return visitor;
+    }
+}
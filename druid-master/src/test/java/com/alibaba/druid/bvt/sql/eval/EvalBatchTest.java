@@ -0,0 +1,127 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.bvt.sql.eval;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+
+import com.alibaba.druid.DruidRuntimeException;
+import com.alibaba.druid.sql.visitor.SQLCompiledExpr;
+import com.alibaba.druid.sql.visitor.SQLEvalVisitorUtils;
+import com.alibaba.druid.util.JdbcConstants;
+
+public class EvalBatchTest extends TestCase {
+
+    public void test_same_as_eval() throws Exception {
+        int[] ids = new int[100];
+        long[] amounts = new long[100];
+        Object[] names = new Object[100];
+        for (int i = 0; i < ids.length; ++i) {
+            ids[i] = i - 10;
+            amounts[i] = i * 1000000000L;
+            names[i] = i % 9 == 0 ? null : "name" + i;
+        }
+        Object[] columns = new Object[] { ids, amounts, names };
+
+        String[] exprs = { "? + 1 > 10", "? * 3 + ?", "? - 1 <= 5000000000", "concat(?, ?, 'x')",
+                "substring(?, 2, 3)", "hex(?)", "if(? > 0, 'p', 'n')", "? in (1, 2, 3)", "? between 3 and 5",
+                "case when ? > 50 then 'h' else 'l' end", "? like 'name1%'", "? is null",
+                "? > 0 and ? < 50", "? < 0 or ? like 'name%'" };
+        for (String expr : exprs) {
+            SQLCompiledExpr compiled = SQLEvalVisitorUtils.compile(JdbcConstants.MYSQL, expr);
+            for (int shift = 0; shift < columns.length; ++shift) {
+                Object[] shifted = new Object[columns.length];
+                for (int i = 0; i < columns.length; ++i) {
+                    shifted[i] = columns[(i + shift) % columns.length];
+                }
+
+                Object[] values;
+                try {
+                    values = compiled.evalBatch(shifted, ids.length);
+                } catch (RuntimeException ex) {
+                    continue;
+                }
+                for (int row = 0; row < ids.length; ++row) {
+                    Object[] parameters = new Object[columns.length];
+                    for (int i = 0; i < columns.length; ++i) {
+                        Object column = shifted[i];
+                        if (column instanceof int[]) {
+                            parameters[i] = ((int[]) column)[row];
+                        } else if (column instanceof long[]) {
+                            parameters[i] = ((long[]) column)[row];
+                        } else {
+                            parameters[i] = ((Object[]) column)[row];
+                        }
+                    }
+                    Assert.assertEquals(expr + ", row " + row, compiled.eval(parameters), values[row]);
+                }
+            }
+        }
+    }
+
+    public void test_select() throws Exception {
+        int[] ids = new int[1000];
+        for (int i = 0; i < ids.length; ++i) {
+            ids[i] = i;
+        }
+
+        SQLCompiledExpr compiled = SQLEvalVisitorUtils.compile(JdbcConstants.MYSQL, "? >= 10 and ? < 20");
+        BitSet selection = compiled.select(new Object[] { ids, ids }, ids.length);
+        Assert.assertEquals(10, selection.cardinality());
+        Assert.assertEquals(10, selection.nextSetBit(0));
+
+        selection = SQLEvalVisitorUtils.compile(JdbcConstants.MYSQL, "? = 'a'") //
+                                       .select(new Object[] { Arrays.asList("a", null, "b", "a") }, 4);
+        Assert.assertEquals("{0, 3}", selection.toString());
+    }
+
+    public void test_functions() throws Exception {
+        Object[] values = SQLEvalVisitorUtils.evalBatch(JdbcConstants.MYSQL, "concat(substring(?, 1, 2), '-', hex(?))",
+                                                        new Object[] { new Object[] { "abc", "xyz" },
+                                                                new int[] { 255, 16 } }, 2);
+        Assert.assertEquals("ab-FF", values[0]);
+        Assert.assertEquals("xy-10", values[1]);
+    }
+
+    public void test_if_branch() throws Exception {
+        // the division by zero is not evaluated
+        Object[] values = SQLEvalVisitorUtils.evalBatch(JdbcConstants.MYSQL, "if(? = 0, -1, 100 / ?)",
+                                                        new Object[] { new int[] { 0, 5, 0, 20 },
+                                                                new int[] { 0, 5, 0, 20 } }, 4);
+        Assert.assertEquals(Arrays.<Object> asList(-1, 20, -1, 5), Arrays.asList(values));
+    }
+
+    public void test_no_value() throws Exception {
+        SQLCompiledExpr compiled = SQLEvalVisitorUtils.compile(JdbcConstants.MYSQL, "? + 1");
+        try {
+            compiled.evalBatch(new Object[0], 2);
+            fail();
+        } catch (DruidRuntimeException ex) {
+            // no parameter
+        }
+
+        try {
+            compiled.evalBatch(new Object[] { new int[1] }, 2);
+            fail();
+        } catch (IllegalArgumentException ex) {
+            // column too short
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.bvt.sql.eval;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+
+import com.alibaba.druid.sql.visitor.SQLCompiledExpr;
+import com.alibaba.druid.sql.visitor.SQLEvalVisitorUtils;
+import com.alibaba.druid.util.JdbcConstants;
+
+public class EvalCompileTest extends TestCase {
+
+    public void test_same_as_eval() throws Exception {
+        String[] exprs = { "? + ?", "? - ? * 2", "? / ?", "? > ?", "? >= ?", "? < ?", "? <= ?", "? = ?", "? <> ?",
+                "? between 1 and ?", "? in (1, 2, ?)", "? not in (3, ?)", "case when ? > 1 then 'a' else 'b' end",
+                "case ? when 1 then 'x' when 2 then 'y' end", "concat(?, '-', ?)", "substring(?, 2)", "-?",
+                "not (? > ?)", "? like 'a%'", "? > 1 and ? < 10", "? > 1 or ? < 10", "mod(?, 3)", "abs(?)",
+                "if(? > ?, 'a', 'b')", "? is null", "b'101' + ?", "? / 2", "? & 3", "? | 4", "? & ?", "? | ?",
+                "? >> ?" };
+
+        Object[][] parameters = { { 1, 2 }, { 7L, 3 }, { 5, 5L }, { "abc", "abd" }, { new BigDecimal("1.5"), 2 },
+                { 2.5d, 1 }, { Integer.MAX_VALUE, 1 }, { null, 2 }, { 3, null }, { null, null } };
+
+        for (String expr : exprs) {
+            SQLCompiledExpr compiled = SQLEvalVisitorUtils.compile(JdbcConstants.MYSQL, expr);
+            for (Object[] params : parameters) {
+                Object expected;
+                try {
+                    expected = SQLEvalVisitorUtils.evalExpr(JdbcConstants.MYSQL, expr, params);
+                } catch (RuntimeException ex) {
+                    continue;
+                }
+                Assert.assertEquals(expr + " " + params[0] + ", " + params[1], expected, compiled.eval(params));
+            }
+        }
+    }
+
+    public void test_fold() throws Exception {
+        Assert.assertTrue(SQLEvalVisitorUtils.compile(JdbcConstants.MYSQL, "concat('a', upper('b'), 1 + 2)").isConstant());
+        Assert.assertEquals("aB3", SQLEvalVisitorUtils.compile(JdbcConstants.MYSQL, "concat('a', upper('b'), 1 + 2)").eval());
+        Assert.assertFalse(SQLEvalVisitorUtils.compile(JdbcConstants.MYSQL, "1 + ?").isConstant());
+        Assert.assertFalse(SQLEvalVisitorUtils.compile(JdbcConstants.MYSQL, "now()").isConstant());
+    }
+
+    public void test_no_value() throws Exception {
+        SQLCompiledExpr compiled = SQLEvalVisitorUtils.compile(JdbcConstants.MYSQL, "id = ?");
+        try {
+            compiled.eval(1);
+            fail();
+        } catch (RuntimeException ex) {
+            // id has no value
+        }
+
+        Assert.assertEquals(true, SQLEvalVisitorUtils.compile(JdbcConstants.MYSQL, "id = id").eval());
+        Assert.assertNull(SQLEvalVisitorUtils.compile(JdbcConstants.MYSQL, "? + 1").eval((Object) null));
+    }
+
+    public void test_short_circuit() throws Exception {
+        // id has no value, it is not evaluated when the left side decides
+        SQLCompiledExpr or = SQLEvalVisitorUtils.compile(JdbcConstants.MYSQL, "? = 1 or id = ?");
+        Assert.assertEquals(true, or.eval(1, 2));
+
+        SQLCompiledExpr and = SQLEvalVisitorUtils.compile(JdbcConstants.MYSQL, "? = 1 and id = ?");
+        Assert.assertEquals(false, and.eval(0, 2));
+
+        try {
+            and.eval(1, 2);
+            fail();
+        } catch (RuntimeException ex) {
+            // id has no value
+        }
+
+        Object[] values = or.evalBatch(new Object[] { new int[] { 1, 1 }, new int[] { 2, 3 } }, 2);
+        Assert.assertEquals(true, values[0]);
+        Assert.assertEquals(true, values[1]);
+    }
+
+    public void test_threads() throws Exception {
+        final SQLCompiledExpr compiled = SQLEvalVisitorUtils.compile(JdbcConstants.MYSQL,
+                                                                     "? > 100 and concat(?, 'c') = 'abc' and b'1' = 1");
+        final AtomicInteger errors = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; ++t) {
+            final int base = t;
+            threads[t] = new Thread() {
+
+                public void run() {
+                    for (int i = 0; i < 10000; ++i) {
+                        int id = base + i * 4;
+                        try {
+                            Object result = compiled.eval(id, id % 2 == 0 ? "ab" : "xy");
+                            boolean expected = id > 100 && id % 2 == 0;
+                            if (!Boolean.valueOf(expected).equals(result)) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (RuntimeException ex) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(0, errors.get());
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.bvt.sql.mysql.executor;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+
+import com.alibaba.druid.DruidRuntimeException;
+import com.alibaba.druid.sql.dialect.mysql.executor.MySqlProcedureExecutor;
+import com.alibaba.druid.sql.dialect.mysql.executor.MySqlProcedureStatementHandler;
+
+public class MySqlProcedureExecutorTest extends TestCase {
+
+    private final RecordHandler handler = new RecordHandler();
+
+    private MySqlProcedureExecutor compile(String sql) {
+        MySqlProcedureExecutor executor = MySqlProcedureExecutor.compile(sql);
+        executor.setStatementHandler(handler);
+        return executor;
+    }
+
+    public void test_control() throws Exception {
+        MySqlProcedureExecutor executor = compile("create procedure p(in n int, out total int) " //
+                                                  + "begin " //
+                                                  + "  declare i, s int default 0; " //
+                                                  + "  w1: while i < n do " //
+                                                  + "    set i = i + 1; " //
+                                                  + "    if i = 3 then " //
+                                                  + "      iterate w1; " //
+                                                  + "    elseif i > 5 then " //
+                                                  + "      set s = s + 2; " //
+                                                  + "    else " //
+                                                  + "      set s = s + i; " //
+                                                  + "    end if; " //
+                                                  + "  end while w1; " //
+                                                  + "  l1: loop " //
+                                                  + "    set s = s - 1; " //
+                                                  + "    if s < 10 then leave l1; end if; " //
+                                                  + "  end loop l1; " //
+                                                  + "  repeat set s = s + 1; until s > 20 end repeat; " //
+                                                  + "  case s when 21 then set total = s * 2; else set total = 0; end case; " //
+                                                  + "end");
+
+        Assert.assertEquals("p", executor.getName());
+        Assert.assertEquals(2, executor.getParameterCount());
+
+        // 1 + 2 + 4 + 5 + 2 * 2 = 16, down to 9, up to 21
+        Object[] result = executor.execute(7, null);
+        Assert.assertEquals(7L, result[0]);
+        Assert.assertEquals(42L, result[1]);
+        Assert.assertTrue(handler.statements.isEmpty());
+
+        // the executor can be called again, each call has its own variables
+        Assert.assertEquals(42L, executor.execute(7, null)[1]);
+    }
+
+    public void test_searched_case() throws Exception {
+        MySqlProcedureExecutor executor = compile("create procedure q(a int, out x varchar(10), out d decimal(10,2)) " //
+                                                  + "begin " //
+                                                  + "  case when a > 10 then set x = 'big'; " //
+                                                  + "       when a > 0 then set x = 'small'; " //
+                                                  + "  end case; " //
+                                                  + "  set d = a * 0.3333; " //
+                                                  + "end");
+
+        Object[] result = executor.execute(20, null, null);
+        Assert.assertEquals("big", result[1]);
+        Assert.assertEquals(new BigDecimal("6.67"), result[2]);
+        Assert.assertEquals("small", executor.execute(5, null, null)[1]);
+
+        try {
+            executor.execute(-1, null, null);
+            fail();
+        } catch (SQLException e) {
+            Assert.assertEquals(1339, e.getErrorCode());
+        }
+    }
+
+    public void test_cursor() throws Exception {
+        MySqlProcedureExecutor executor = compile("create procedure p(in n int, out total int) " //
+                                                  + "begin " //
+                                                  + "  declare done int default 0; " //
+                                                  + "  declare v int; " //
+                                                  + "  declare cur cursor for select id from t_user where age > n; " //
+                                                  + "  declare continue handler for not found set done = 1; " //
+                                                  + "  set total = 0; " //
+                                                  + "  open cur; " //
+                                                  + "  read_loop: loop " //
+                                                  + "    fetch cur into v; " //
+                                                  + "    if done = 1 then leave read_loop; end if; " //
+                                                  + "    insert into t_log (id) values (v); " //
+                                                  + "    set total = total + v; " //
+                                                  + "  end loop; " //
+                                                  + "  close cur; " //
+                                                  + "end");
+
+        handler.rows.put("SELECT id FROM t_user WHERE age > ?", Arrays.asList(new Object[] { 1 }, new Object[] { 2 }));
+
+        Object[] result = executor.execute(18, null);
+        Assert.assertEquals(3L, result[1]);
+
+        Assert.assertEquals("SELECT id FROM t_user WHERE age > ? [18]\n" //
+                            + "INSERT INTO t_log (id) VALUES (?) [1]\n" //
+                            + "INSERT INTO t_log (id) VALUES (?) [2]", //
+                            handler.toString());
+    }
+
+    public void test_select_into() throws Exception {
+        MySqlProcedureExecutor executor = compile("create procedure p(in uid int, out cnt int, out uname varchar(20)) " //
+                                                  + "begin " //
+                                                  + "  declare x, y int; " //
+                                                  + "  select count(*) into cnt from t_user; " //
+                                                  + "  select 1, 2 into x, y from dual; " //
+                                                  + "  select name into uname from t_user where id = uid; " //
+                                                  + "  update t_user set age = age + x + y where id = uid; " //
+                                                  + "  set @last = uid; " //
+                                                  + "end");
+
+        handler.rows.put("SELECT COUNT(*) FROM t_user", Collections.singletonList(new Object[] { 5 }));
+        handler.rows.put("SELECT 1, 2 FROM dual", Collections.singletonList(new Object[] { 1, 2 }));
+        handler.rows.put("SELECT name FROM t_user WHERE id = ?", Collections.singletonList(new Object[] { "jobs" }));
+
+        Map<String, Object> userVariables = new HashMap<String, Object>();
+        Object[] result = executor.execute(new Object[] { 3, null, null }, userVariables);
+        Assert.assertEquals(5L, result[1]);
+        Assert.assertEquals("jobs", result[2]);
+        Assert.assertEquals(3L, userVariables.get("last"));
+
+        Assert.assertEquals("SELECT COUNT(*) FROM t_user []\n" //
+                            + "SELECT 1, 2 FROM dual []\n" //
+                            + "SELECT name FROM t_user WHERE id = ? [3]\n" //
+                            + "UPDATE t_user SET age = age + ? + ? WHERE id = ? [1, 2, 3]", //
+                            handler.toString());
+    }
+
+    public void test_exit_handler() throws Exception {
+        MySqlProcedureExecutor executor = compile("create procedure p(out status int) " //
+                                                  + "begin " //
+                                                  + "  declare duplicate condition for 1062; " //
+                                                  + "  set status = 0; " //
+                                                  + "  begin " //
+                                                  + "    declare exit handler for sqlexception set status = -1; " //
+                                                  + "    declare exit handler for duplicate set status = 1; " //
+                                                  + "    insert into t (id) values (1); " //
+                                                  + "    set status = 2; " //
+                                                  + "  end; " //
+                                                  + "  set status = status * 10; " //
+                                                  + "end");
+
+        Assert.assertEquals(20L, executor.execute((Object) null)[0]);
+
+        handler.error = new SQLException("Duplicate entry '1' for key 'PRIMARY'", "23000", 1062);
+        Assert.assertEquals(10L, executor.execute((Object) null)[0]);
+
+        handler.error = new SQLException("Table 't' doesn't exist", "42S02", 1146);
+        Assert.assertEquals(-10L, executor.execute((Object) null)[0]);
+    }
+
+    public void test_unhandled() throws Exception {
+        MySqlProcedureExecutor executor = compile("create procedure p() " //
+                                                  + "begin " //
+                                                  + "  declare continue handler for not found begin end; " //
+                                                  + "  delete from t; " //
+                                                  + "end");
+
+        handler.error = new SQLException("Table 't' doesn't exist", "42S02", 1146);
+        try {
+            executor.execute();
+            fail();
+        } catch (SQLException e) {
+            Assert.assertSame(handler.error, e);
+        }
+
+        try {
+            executor.execute(1);
+            fail();
+        } catch (SQLException e) {
+            Assert.assertEquals(1318, e.getErrorCode());
+        }
+    }
+
+    public void test_not() throws Exception {
+        MySqlProcedureExecutor executor = compile("create procedure p(in n int, out total int) " //
+                                                  + "begin " //
+                                                  + "  declare done boolean default false; " //
+                                                  + "  declare found int default 0; " //
+                                                  + "  set total = 0; " //
+                                                  + "  while not done do " //
+                                                  + "    set total = total + 1; " //
+                                                  + "    set done = total >= n; " //
+                                                  + "  end while; " //
+                                                  + "  if not found then set total = total * 10; end if; " //
+                                                  + "end");
+
+        Assert.assertEquals(30L, executor.execute(3, null)[1]);
+        Assert.assertEquals(50L, executor.execute(5, null)[1]);
+    }
+
+    public void test_cast() throws Exception {
+        MySqlProcedureExecutor executor = compile("create procedure p(in s varchar(10), out n int, out x varchar(10), " //
+                                                  + "out d decimal(10,2)) " //
+                                                  + "begin " //
+                                                  + "  set n = cast(s as signed) + 1; " //
+                                                  + "  set x = concat(cast(n as char), 'x'); " //
+                                                  + "  set d = cast(s as decimal(10,1)); " //
+                                                  + "end");
+
+        Object[] result = executor.execute("41", null, null, null);
+        Assert.assertEquals(42L, result[1]);
+        Assert.assertEquals("42x", result[2]);
+        Assert.assertEquals(new BigDecimal("41.00"), result[3]);
+    }
+
+    public void test_division_by_zero() throws Exception {
+        MySqlProcedureExecutor executor = compile("create procedure p(in v int, out r int, out d decimal(10,2), " //
+                                                  + "out f double) " //
+                                                  + "begin " //
+                                                  + "  set r = 1 / 0; " //
+                                                  + "  set d = 1.5 / v; " //
+                                                  + "  set f = v / 0; " //
+                                                  + "end");
+
+        Object[] result = executor.execute(0, 1, 1, 1);
+        Assert.assertNull(result[1]);
+        Assert.assertNull(result[2]);
+        Assert.assertNull(result[3]);
+
+        result = executor.execute(3, null, null, null);
+        Assert.assertEquals(new BigDecimal("0.50"), result[2]);
+    }
+
+    public void test_error() throws Exception {
+        try {
+            MySqlProcedureExecutor.compile("create procedure p() begin l1: loop leave l2; end loop; end");
+            fail();
+        } catch (DruidRuntimeException e) {
+            // no label l2
+        }
+
+        try {
+            MySqlProcedureExecutor.compile("create procedure p() begin declare i int; fetch c into i; end");
+            fail();
+        } catch (DruidRuntimeException e) {
+            // no cursor c
+        }
+
+        try {
+            MySqlProcedureExecutor.compile("create procedure p(in v int, out s int) begin set s = max(v); end");
+            fail();
+        } catch (DruidRuntimeException e) {
+            // v can not be bound in an aggregate
+        }
+    }
+
+    private static class RecordHandler implements MySqlProcedureStatementHandler {
+
+        final List<String>                statements = new ArrayList<String>();
+        final Map<String, List<Object[]>> rows       = new HashMap<String, List<Object[]>>();
+        SQLException                      error;
+
+        public int executeUpdate(String sql, List<Object> parameters) throws SQLException {
+            if (error != null) {
+                throw error;
+            }
+            statements.add(sql + " " + parameters);
+            return 1;
+        }
+
+        public List<Object[]> executeQuery(String sql, List<Object> parameters) throws SQLException {
+            statements.add(sql + " " + parameters);
+            return rows.get(sql);
+        }
+
+        public String toString() {
+            StringBuilder buf = new StringBuilder();
+            for (String stmt : statements) {
+                if (buf.length() > 0) {
+                    buf.append('\n');
+                }
+                buf.append(stmt);
+            }
+            return buf.toString();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.bvt.sql.repository;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+
+import com.alibaba.druid.sql.SQLUtils;
+import com.alibaba.druid.sql.ast.SQLExpr;
+import com.alibaba.druid.sql.ast.SQLStatement;
+import com.alibaba.druid.sql.ast.expr.SQLBinaryOpExpr;
+import com.alibaba.druid.sql.ast.expr.SQLInSubQueryExpr;
+import com.alibaba.druid.sql.ast.statement.SQLExprTableSource;
+import com.alibaba.druid.sql.ast.statement.SQLInsertStatement;
+import com.alibaba.druid.sql.ast.statement.SQLJoinTableSource;
+import com.alibaba.druid.sql.ast.statement.SQLSelectQueryBlock;
+import com.alibaba.druid.sql.ast.statement.SQLSelectStatement;
+import com.alibaba.druid.sql.ast.statement.SQLUpdateStatement;
+import com.alibaba.druid.sql.repository.SchemaBinding;
+import com.alibaba.druid.sql.repository.SchemaObject;
+import com.alibaba.druid.sql.repository.SchemaRepository;
+import com.alibaba.druid.util.JdbcConstants;
+
+public class SchemaBindingTest extends TestCase {
+
+    private SchemaRepository repository;
+
+    protected void setUp() throws Exception {
+        repository = new SchemaRepository();
+        repository.acceptDDL("create table t_user (id number, name varchar2(20));\n"
+                             + "create table t_order (id number, user_id number, amount number);",
+                             JdbcConstants.ORACLE);
+    }
+
+    private SQLStatement parse(String sql) {
+        List<SQLStatement> stmtList = SQLUtils.parseStatements(sql, JdbcConstants.ORACLE);
+        return stmtList.get(0);
+    }
+
+    public void test_join() throws Exception {
+        SQLStatement stmt = parse("select u.name, amount from t_user u join t_order o on u.id = o.user_id");
+        SchemaBinding binding = repository.resolve(stmt);
+        Assert.assertSame(binding, SchemaBinding.get(stmt));
+
+        SQLSelectQueryBlock query = (SQLSelectQueryBlock) ((SQLSelectStatement) stmt).getSelect().getQuery();
+        SQLJoinTableSource join = (SQLJoinTableSource) query.getFrom();
+        SQLExprTableSource user = (SQLExprTableSource) join.getLeft();
+        SQLExprTableSource order = (SQLExprTableSource) join.getRight();
+
+        SchemaObject userTable = repository.findTable("t_user");
+        SchemaObject orderTable = repository.findTable("t_order");
+        Assert.assertSame(userTable, binding.getTable(user));
+        Assert.assertSame(userTable, user.getSchemaObject());
+        Assert.assertSame(orderTable, order.getSchemaObject());
+
+        SQLExpr name = query.getSelectList().get(0).getExpr();
+        Assert.assertSame(userTable, binding.getTable(name));
+        Assert.assertSame(userTable.findColumn("name"), binding.getColumn(name));
+        Assert.assertSame(user, binding.getTableSource(name));
+
+        SQLExpr amount = query.getSelectList().get(1).getExpr();
+        Assert.assertSame(orderTable.findColumn("amount"), binding.getColumn(amount));
+        Assert.assertSame(order, binding.getTableSource(amount));
+
+        SQLBinaryOpExpr condition = (SQLBinaryOpExpr) join.getCondition();
+        Assert.assertSame(userTable.findColumn("id"), binding.getColumn(condition.getLeft()));
+        Assert.assertSame(orderTable.findColumn("user_id"), binding.getColumn(condition.getRight()));
+
+        // 2 table sources and 4 column references
+        Assert.assertEquals(6, binding.size());
+    }
+
+    public void test_subquery() throws Exception {
+        SQLStatement stmt = parse("select id from t_user where id in (select user_id from t_order where amount > 10)");
+        SchemaBinding binding = repository.resolve(stmt);
+
+        SQLSelectQueryBlock query = (SQLSelectQueryBlock) ((SQLSelectStatement) stmt).getSelect().getQuery();
+        SQLInSubQueryExpr in = (SQLInSubQueryExpr) query.getWhere();
+        Assert.assertSame(repository.findTable("t_user").findColumn("id"), binding.getColumn(in.getExpr()));
+
+        SQLSelectQueryBlock subQuery = (SQLSelectQueryBlock) in.getSubQuery().getQuery();
+        SQLExpr userId = subQuery.getSelectList().get(0).getExpr();
+        Assert.assertSame(repository.findTable("t_order").findColumn("user_id"), binding.getColumn(userId));
+        Assert.assertSame(subQuery.getFrom(), binding.getTableSource(userId));
+    }
+
+    public void test_dml() throws Exception {
+        SQLStatement stmt = parse("update t_order set amount = amount + 1 where user_id = 3");
+        SchemaBinding binding = repository.resolve(stmt);
+
+        SQLUpdateStatement update = (SQLUpdateStatement) stmt;
+        SQLExpr amount = update.getItems().get(0).getColumn();
+        Assert.assertSame(repository.findTable("t_order").findColumn("amount"), binding.getColumn(amount));
+        SQLBinaryOpExpr where = (SQLBinaryOpExpr) update.getWhere();
+        Assert.assertSame(repository.findTable("t_order").findColumn("user_id"), binding.getColumn(where.getLeft()));
+
+        stmt = parse("insert into t_user (id, name) values (1, 'a')");
+        binding = repository.resolve(stmt);
+        SQLInsertStatement insert = (SQLInsertStatement) stmt;
+        Assert.assertSame(repository.findTable("t_user").findColumn("name"),
+                          binding.getColumn(insert.getColumns().get(1)));
+    }
+
+    public void test_unknown() throws Exception {
+        SQLStatement stmt = parse("select x, u.y, count(*) from t_none n, t_user u");
+        SchemaBinding binding = repository.resolve(stmt);
+
+        SQLSelectQueryBlock query = (SQLSelectQueryBlock) ((SQLSelectStatement) stmt).getSelect().getQuery();
+        Assert.assertNull(binding.getColumn(query.getSelectList().get(0).getExpr()));
+        Assert.assertNull(binding.getColumn(query.getSelectList().get(1).getExpr()));
+        Assert.assertNull(binding.getTable(query.getSelectList().get(2).getExpr()));
+
+        // only t_user is bound
+        Assert.assertEquals(1, binding.size());
+    }
+
+    public void test_resize() throws Exception {
+        StringBuilder buf = new StringBuilder("select ");
+        for (int i = 0; i < 100; ++i) {
+            if (i != 0) {
+                buf.append(", ");
+            }
+            buf.append(i % 2 == 0 ? "id" : "name");
+        }
+        buf.append(" from t_user");
+
+        SQLStatement stmt = parse(buf.toString());
+        SchemaBinding binding = repository.resolve(stmt);
+        Assert.assertEquals(101, binding.size());
+
+        SQLSelectQueryBlock query = (SQLSelectQueryBlock) ((SQLSelectStatement) stmt).getSelect().getQuery();
+        for (int i = 0; i < 100; ++i) {
+            String expected = i % 2 == 0 ? "id" : "name";
+            Assert.assertEquals(expected, binding.getColumn(query.getSelectList().get(i).getExpr()).getName().toString());
+        }
+    }
+}
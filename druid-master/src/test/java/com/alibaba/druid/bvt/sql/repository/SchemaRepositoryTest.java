@@ -0,0 +1,106 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.bvt.sql.repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+
+import com.alibaba.druid.sql.SQLUtils;
+import com.alibaba.druid.sql.ast.statement.SQLColumnDefinition;
+import com.alibaba.druid.sql.repository.SchemaObject;
+import com.alibaba.druid.sql.repository.SchemaObjectType;
+import com.alibaba.druid.sql.repository.SchemaRepository;
+import com.alibaba.druid.util.JdbcConstants;
+
+public class SchemaRepositoryTest extends TestCase {
+
+    private final String ddl = "create table T_User (ID number, Name varchar2(20), age number,"
+                               + " constraint pk_user primary key (id), constraint uk_name unique (name));\n"
+                               + "create table t_order (id number, user_id number, amount number(10, 2));\n"
+                               + "create sequence SEQ_ORDER;";
+
+    public void test_lookup() throws Exception {
+        SchemaRepository repository = new SchemaRepository();
+        repository.acceptDDL(ddl, JdbcConstants.ORACLE);
+
+        Assert.assertEquals(2, repository.getTableCount());
+        SchemaObject table = repository.findTable("t_user");
+        Assert.assertNotNull(table);
+        Assert.assertSame(table, repository.findTable("T_USER"));
+
+        SQLColumnDefinition column = table.findColumn("NAME");
+        Assert.assertNotNull(column);
+        Assert.assertEquals("varchar2", column.getDataType().getName());
+        Assert.assertNull(table.findColumn("none"));
+
+        Assert.assertTrue(table.matchIndex("name"));
+        Assert.assertTrue(table.matchKey("NAME"));
+        Assert.assertTrue(table.matchKey("id"));
+        Assert.assertFalse(table.matchIndex("age"));
+
+        Assert.assertTrue(repository.isSequence("seq_order"));
+    }
+
+    public void test_parallel() throws Exception {
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < 1000; ++i) {
+            buf.append("create table t_").append(i).append(" (id bigint, c").append(i).append(" number);\n");
+        }
+        buf.append("drop sequence seq_none;");
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            SchemaRepository repository = new SchemaRepository();
+            repository.acceptDDL(buf.toString(), JdbcConstants.ORACLE, executor, 4);
+
+            Assert.assertEquals(1000, repository.getTableCount());
+            Assert.assertNotNull(repository.findTable("t_999").findColumn("c999"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public void test_snapshot() throws Exception {
+        SchemaRepository repository = new SchemaRepository();
+        repository.acceptDDL(ddl, JdbcConstants.ORACLE);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        repository.writeSnapshot(out);
+
+        SchemaRepository restored = new SchemaRepository();
+        restored.readSnapshot(new ByteArrayInputStream(out.toByteArray()));
+
+        Assert.assertEquals(2, restored.getTableCount());
+        Assert.assertTrue(restored.isSequence("seq_order"));
+
+        SchemaObject table = restored.findTable("T_User");
+        Assert.assertEquals(SchemaObjectType.Table, table.getType());
+        Assert.assertEquals("T_User", table.getName());
+        Assert.assertNull(table.getStatement());
+        Assert.assertEquals("varchar2(20)", SQLUtils.toSQLString(table.findColumn("name").getDataType()));
+        Assert.assertTrue(table.matchKey("name"));
+        Assert.assertTrue(table.matchKey("id"));
+        Assert.assertFalse(table.matchIndex("age"));
+
+        Assert.assertEquals("number(10, 2)", SQLUtils.toSQLString(restored.findTable("t_order").findColumn("amount").getDataType()));
+    }
+}
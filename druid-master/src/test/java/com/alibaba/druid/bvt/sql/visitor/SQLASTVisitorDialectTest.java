@@ -0,0 +1,59 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.bvt.sql.visitor;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+
+import com.alibaba.druid.sql.SQLUtils;
+import com.alibaba.druid.sql.ast.SQLStatement;
+import com.alibaba.druid.sql.dialect.mysql.visitor.MySqlOutputVisitor;
+import com.alibaba.druid.sql.dialect.mysql.visitor.MySqlSchemaStatVisitor;
+import com.alibaba.druid.sql.dialect.oracle.visitor.OracleSchemaStatVisitor;
+import com.alibaba.druid.sql.visitor.SQLASTVisitorDialect;
+import com.alibaba.druid.sql.visitor.SchemaStatVisitor;
+import com.alibaba.druid.util.JdbcConstants;
+import com.alibaba.druid.wall.spi.MySqlWallVisitor;
+import com.alibaba.druid.wall.spi.MySqlWallProvider;
+
+public class SQLASTVisitorDialectTest extends TestCase {
+
+    public void test_dialects() throws Exception {
+        Assert.assertEquals(SQLASTVisitorDialect.MYSQL,
+                            SQLASTVisitorDialect.dialectsOf(new MySqlOutputVisitor(new StringBuilder())));
+        Assert.assertEquals(0, SQLASTVisitorDialect.dialectsOf(new SchemaStatVisitor()));
+
+        Assert.assertTrue(SQLASTVisitorDialect.isDialect(new MySqlSchemaStatVisitor(), SQLASTVisitorDialect.MYSQL));
+        Assert.assertTrue(SQLASTVisitorDialect.isDialect(new MySqlWallVisitor(new MySqlWallProvider()),
+                                                         SQLASTVisitorDialect.MYSQL));
+        Assert.assertFalse(SQLASTVisitorDialect.isDialect(new OracleSchemaStatVisitor(), SQLASTVisitorDialect.MYSQL));
+    }
+
+    public void test_visit() throws Exception {
+        SQLStatement stmt = SQLUtils.parseStatements("select id from t_user where id = 1 limit 10",
+                                                     JdbcConstants.MYSQL).get(0);
+
+        MySqlSchemaStatVisitor mysqlVisitor = new MySqlSchemaStatVisitor();
+        stmt.accept(mysqlVisitor);
+        Assert.assertEquals(1, mysqlVisitor.getTables().size());
+
+        // a mysql node with a visitor of no dialect falls back to the common visit
+        SchemaStatVisitor visitor = new SchemaStatVisitor();
+        stmt.accept(visitor);
+        Assert.assertEquals(1, visitor.getTables().size());
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.bvt.stat;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import com.alibaba.druid.stat.DruidStatService;
+import com.alibaba.druid.util.JdbcUtils;
+
+public class DruidStatPrometheusWriterTest extends TestCase {
+
+    private DruidDataSource dataSource;
+
+    protected void setUp() throws Exception {
+        DruidStatService.getInstance().service("/reset-all.json");
+
+        dataSource = new DruidDataSource();
+        dataSource.setName("ds\"1");
+        dataSource.setUrl("jdbc:mock:xxx");
+        dataSource.setDbType("mysql");
+        dataSource.setFilters("stat,wall");
+        dataSource.setTestOnBorrow(false);
+        dataSource.init();
+
+        Connection conn = dataSource.getConnection();
+        String[] sqls = { "select * from a", "select * from b", "select * from b where name = 'x\"y'" };
+        for (String sql : sqls) {
+            Statement stmt = conn.createStatement();
+            stmt.execute(sql);
+            stmt.close();
+        }
+        conn.close();
+    }
+
+    protected void tearDown() throws Exception {
+        JdbcUtils.close(dataSource);
+        DruidStatService.getInstance().service("/reset-all.json");
+    }
+
+    private static int count(String text, String part) {
+        int count = 0;
+        for (int i = text.indexOf(part); i != -1; i = text.indexOf(part, i + 1)) {
+            ++count;
+        }
+        return count;
+    }
+
+    public void test_metrics() throws Exception {
+        String text = DruidStatService.getInstance().service("/metrics");
+
+        Assert.assertTrue(text.contains("# TYPE druid_pool_active_connections gauge\n"));
+        Assert.assertTrue(text.contains("druid_pool_active_connections{datasource=\"ds\\\"1\"} 0\n"));
+        Assert.assertTrue(text.contains("druid_pool_connects_total{datasource=\"ds\\\"1\"} 1\n"));
+        Assert.assertTrue(text.contains("druid_wall_checks_total{datasource=\"ds\\\"1\"} 3\n"));
+
+        Assert.assertTrue(text.contains("# TYPE druid_sql_execute_seconds histogram\n"));
+        Assert.assertEquals(3, count(text, "druid_sql_executions_total{"));
+        Assert.assertEquals(3, count(text, ",le=\"+Inf\"} 1\n"));
+        Assert.assertFalse(text.contains("sql=\""));
+
+        text = DruidStatService.getInstance().service("/metrics?sqlLabel=true");
+        Assert.assertTrue(text.contains("sql=\"select * from b where name = 'x\\\"y'\""));
+
+        // each family is written once
+        Assert.assertEquals(1, count(text, "# TYPE druid_sql_executions_total "));
+    }
+
+    public void test_top() throws Exception {
+        String text = DruidStatService.getInstance().service("/metrics?top=1");
+        Assert.assertEquals(1, count(text, "druid_sql_executions_total{"));
+        Assert.assertEquals(8, count(text, "druid_sql_execute_seconds_bucket{"));
+
+        text = DruidStatService.getInstance().service("/metrics?top=0");
+        Assert.assertEquals(0, count(text, "druid_sql_executions_total{"));
+        Assert.assertTrue(text.contains("druid_pool_idle_connections{datasource=\"ds\\\"1\"} 1\n"));
+
+        text = DruidStatService.getInstance().service("/metrics?top=-1");
+        Assert.assertEquals(0, count(text, "druid_sql_executions_total{"));
+
+        text = DruidStatService.getInstance().service("/metrics?top=x");
+        Assert.assertEquals(3, count(text, "druid_sql_executions_total{"));
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.bvt.stat;
+
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import com.alibaba.druid.stat.DruidStatManagerFacade;
+import com.alibaba.druid.stat.DruidStatService;
+import com.alibaba.druid.support.json.JSONUtils;
+import com.alibaba.druid.util.JdbcUtils;
+
+public class DruidStatServiceTest_stream extends TestCase {
+
+    private DruidDataSource dataSource;
+
+    protected void setUp() throws Exception {
+        DruidStatService.getInstance().service("/reset-all.json");
+
+        dataSource = new DruidDataSource();
+        dataSource.setUrl("jdbc:mock:xxx");
+        dataSource.setFilters("stat");
+        dataSource.setTestOnBorrow(false);
+        dataSource.init();
+
+        Connection conn = dataSource.getConnection();
+        // executed 1 to 5 times
+        String[] tables = { "a", "b", "c", "d", "e" };
+        for (int i = 0; i < tables.length; ++i) {
+            for (int j = 0; j <= i; ++j) {
+                Statement stmt = conn.createStatement();
+                stmt.execute("select * from " + tables[i]);
+                stmt.close();
+            }
+        }
+        conn.close();
+    }
+
+    protected void tearDown() throws Exception {
+        JdbcUtils.close(dataSource);
+        DruidStatService.getInstance().service("/reset-all.json");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> sqlList(String text) {
+        Map<String, Object> result = (Map<String, Object>) JSONUtils.parse(text);
+        Assert.assertEquals(DruidStatService.RESULT_CODE_SUCCESS, result.get("ResultCode"));
+        return (List<Map<String, Object>>) result.get("Content");
+    }
+
+    public void test_same_as_data() throws Exception {
+        List<Map<String, Object>> sqlList = sqlList(DruidStatService.getInstance().service("/sql.json"));
+        Assert.assertEquals(5, sqlList.size());
+        Assert.assertEquals("select * from a", sqlList.get(0).get("SQL"));
+
+        // the same entries as the data maps of the sql stats
+        List<Map<String, Object>> dataList = DruidStatManagerFacade.getInstance().getSqlStatDataList((Integer) null);
+        Map<String, Object> data = dataList.get(0);
+        Map<String, Object> row = null;
+        for (Map<String, Object> item : sqlList) {
+            if (((Number) item.get("ID")).longValue() == ((Number) data.get("ID")).longValue()) {
+                row = item;
+            }
+        }
+        Assert.assertNotNull(row);
+        Assert.assertEquals(data.keySet(), row.keySet());
+        Assert.assertEquals(((Number) data.get("ExecuteCount")).longValue(),
+                            ((Number) row.get("ExecuteCount")).longValue());
+        Assert.assertEquals(((long[]) data.get("Histogram")).length, ((List<?>) row.get("Histogram")).size());
+    }
+
+    public void test_top_n() throws Exception {
+        String url = "/sql.json?orderBy=ExecuteCount&orderType=desc&page=1&perPageCount=2";
+        List<Map<String, Object>> sqlList = sqlList(DruidStatService.getInstance().service(url));
+        Assert.assertEquals(2, sqlList.size());
+        Assert.assertEquals("select * from e", sqlList.get(0).get("SQL"));
+        Assert.assertEquals("select * from d", sqlList.get(1).get("SQL"));
+
+        url = "/sql.json?orderBy=ExecuteCount&orderType=asc&page=2&perPageCount=2";
+        StringWriter out = new StringWriter();
+        DruidStatService.getInstance().service(url, out);
+        sqlList = sqlList(out.toString());
+        Assert.assertEquals(2, sqlList.size());
+        Assert.assertEquals("select * from c", sqlList.get(0).get("SQL"));
+        Assert.assertEquals("select * from d", sqlList.get(1).get("SQL"));
+
+        url = "/sql.json?orderBy=Histogram[0]&orderType=desc&page=3&perPageCount=2";
+        sqlList = sqlList(DruidStatService.getInstance().service(url));
+        Assert.assertEquals(1, sqlList.size());
+
+        url = "/sql.json?page=9&perPageCount=2";
+        sqlList = sqlList(DruidStatService.getInstance().service(url));
+        Assert.assertEquals(0, sqlList.size());
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 1999-2017 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.druid.bvt.support.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletConfig;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import com.alibaba.druid.stat.DruidStatService;
+import com.alibaba.druid.support.http.StatViewServlet;
+import com.alibaba.druid.support.json.JSONUtils;
+import com.alibaba.druid.util.JdbcUtils;
+import com.alibaba.druid.util.Utils;
+
+public class StatViewServletTest_gzip extends TestCase {
+
+    private DruidDataSource dataSource;
+
+    protected void setUp() throws Exception {
+        DruidStatService.getInstance().service("/reset-all.json");
+
+        dataSource = new DruidDataSource();
+        dataSource.setUrl("jdbc:mock:xxx");
+        dataSource.setFilters("stat");
+        dataSource.setTestOnBorrow(false);
+        dataSource.init();
+
+        Connection conn = dataSource.getConnection();
+        String[] sqls = { "select * from a", "select * from b", "select * from b" };
+        for (String sql : sqls) {
+            Statement stmt = conn.createStatement();
+            stmt.execute(sql);
+            stmt.close();
+        }
+        conn.close();
+    }
+
+    protected void tearDown() throws Exception {
+        JdbcUtils.close(dataSource);
+        DruidStatService.getInstance().service("/reset-all.json");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> sqlList(String text) {
+        Map<String, Object> result = (Map<String, Object>) JSONUtils.parse(text);
+        return (List<Map<String, Object>>) result.get("Content");
+    }
+
+    public void test_gzip() throws Exception {
+        StatViewServlet servlet = new StatViewServlet();
+        servlet.init(new MockServletConfig());
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/druid/sql.json");
+        request.setContextPath("");
+        request.setServletPath("/druid");
+        request.setQueryString("orderBy=ExecuteCount&orderType=desc&perPageCount=1");
+        request.addHeader("Accept-Encoding", "gzip, deflate");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        servlet.service(request, response);
+
+        Assert.assertEquals("gzip", response.getHeader("Content-Encoding"));
+        GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()));
+        List<Map<String, Object>> sqlList = sqlList(Utils.read(new InputStreamReader(in, "UTF-8")));
+        Assert.assertEquals(1, sqlList.size());
+        Assert.assertEquals("select * from b", sqlList.get(0).get("SQL"));
+
+        request = new MockHttpServletRequest("GET", "/druid/sql.json");
+        request.setContextPath("");
+        request.setServletPath("/druid");
+        response = new MockHttpServletResponse();
+        servlet.service(request, response);
+
+        Assert.assertNull(response.getHeader("Content-Encoding"));
+        Assert.assertEquals(2, sqlList(response.getContentAsString()).size());
+    }
+}
@@ -0,0 +1,59 @@
+package com.alibaba.druid.bvt.support.odps.udf;
+
+import org.junit.Assert;
+
+import com.alibaba.druid.support.opds.udf.ExportColumns;
+import com.alibaba.druid.support.opds.udf.ExportConditionColumns;
+import com.alibaba.druid.support.opds.udf.ExportConditions;
+import com.alibaba.druid.support.opds.udf.ExportSchemaStat;
+import com.alibaba.druid.support.opds.udf.ExportSelectListColumns;
+import com.alibaba.druid.support.opds.udf.ExportTables;
+
+import junit.framework.TestCase;
+
+public class ExportSchemaStatTest extends TestCase {
+
+    private final String sql = "select a.id, b.name from t_order a join t_user b on a.user_id = b.id"
+                               + " where a.ds = '20170601' and b.status in (1, 2)";
+
+    public void test_export() throws Exception {
+        ExportSchemaStat udtf = new ExportSchemaStat();
+        String[] row = udtf.evaluate(sql, "odps");
+
+        Assert.assertEquals(5, row.length);
+        Assert.assertEquals(new ExportTables().evaluate(sql, "odps"), row[0]);
+        Assert.assertEquals(new ExportColumns().evaluate(sql, "odps"), row[1]);
+        Assert.assertEquals(new ExportSelectListColumns().evaluate(sql, "odps"), row[2]);
+        Assert.assertEquals(new ExportConditionColumns().evaluate(sql, "odps"), row[3]);
+        Assert.assertEquals(new ExportConditions().evaluate(sql, "odps"), row[4]);
+
+        Assert.assertEquals("t_order,t_user", row[0]);
+        Assert.assertEquals("t_order.id,t_user.name", row[2]);
+
+        Assert.assertSame(row, udtf.evaluate(sql, "odps"));
+    }
+
+    public void test_cache() throws Exception {
+        ExportTables udf = new ExportTables();
+        String result = udf.evaluate(sql, "odps");
+        Assert.assertSame(result, udf.evaluate(sql, "odps"));
+        Assert.assertSame(result, udf.evaluate(new String(sql), "odps"));
+        Assert.assertEquals(result, udf.evaluate(sql, "mysql"));
+
+        ExportConditions conditions = new ExportConditions();
+        Assert.assertEquals("[[\"t\",\"id\",\"=\",3]]", conditions.evaluate("select * from t where id = 3", null, false));
+        Assert.assertEquals("[[\"t\",\"id\",\"=\",[3]]]", conditions.evaluate("select * from t where id = 3", null, true));
+    }
+
+    public void test_error() throws Exception {
+        ExportTables udf = new ExportTables();
+        Assert.assertNull(udf.evaluate("select * from", "odps"));
+        Assert.assertNull(udf.evaluate("select * from", "odps"));
+        Assert.assertEquals("t", udf.evaluate("select * from t", "odps"));
+
+        String[] row = new ExportSchemaStat().evaluate("select * from", "odps");
+        Assert.assertEquals(5, row.length);
+        Assert.assertNull(row[0]);
+        Assert.assertNull(row[4]);
+    }
+}